@@ -102,6 +102,8 @@ public interface OBinaryRequestExecutor {
 
   OBinaryResponse executeQuery(OQueryRequest request);
 
+  OBinaryResponse executeQueryPrepared(OQueryPreparedRequest request);
+
   OBinaryResponse executeServerQuery(OServerQueryRequest request);
 
   OBinaryResponse closeQuery(OCloseQueryRequest request);
@@ -140,6 +142,8 @@ public interface OBinaryRequestExecutor {
 
   OBinaryResponse executeSubscribeSequences(OSubscribeSequencesRequest request);
 
+  OBinaryResponse executeSubscribeRecords(OSubscribeRecordsRequest request);
+
   OBinaryResponse executeExperimental(OExperimentalRequest request);
 
   OBinaryResponse executeLockRecord(OLockRecordRequest request);
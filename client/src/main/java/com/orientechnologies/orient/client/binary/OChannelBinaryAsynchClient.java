@@ -28,11 +28,14 @@ import com.orientechnologies.orient.client.remote.OStorageRemoteNodeSession;
 import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
 import com.orientechnologies.orient.client.remote.message.OError37Response;
 import com.orientechnologies.orient.core.OConstants;
+import com.orientechnologies.orient.core.compression.OCompression;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.enterprise.channel.OSocketFactory;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinary;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
 import com.orientechnologies.orient.enterprise.channel.binary.ONetworkProtocolException;
 import com.orientechnologies.orient.enterprise.channel.binary.OResponseProcessingException;
 import java.io.BufferedInputStream;
@@ -98,7 +101,10 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
         writeString(OConstants.getVersion());
         writeByte(OChannelBinaryProtocol.ENCODING_DEFAULT);
         writeByte(OChannelBinaryProtocol.ERROR_MESSAGE_JAVA);
-        flush();
+        if (iProtocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_39
+            && srvProtocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_39) {
+          negotiateCompression(iConfig);
+        } else flush();
       } catch (IOException e) {
         throw new ONetworkProtocolException(
             "Cannot read protocol version from remote server "
@@ -124,6 +130,25 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     }
   }
 
+  private void negotiateCompression(final OContextConfiguration iConfig) throws IOException {
+    final String requested =
+        iConfig.getValueAsString(OGlobalConfiguration.CLIENT_CHANNEL_COMPRESSION);
+    if (requested == null || requested.isEmpty()) {
+      writeString(null);
+      flush();
+      return;
+    }
+
+    final OCompression compression = OCompressionFactory.INSTANCE.getCompression(requested, null);
+    writeString(compression.name());
+    flush();
+    // THE SERVER ANSWERS WITH THE ACCEPTED COMPRESSION, NULL IF IT DOES NOT SUPPORT IT
+    if (readString() != null)
+      enableCompression(
+          compression,
+          iConfig.getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_COMPRESSION_THRESHOLD));
+  }
+
   @SuppressWarnings("unchecked")
   private static RuntimeException createException(
       final String iClassName, final String iMessage, final Exception iPrevious) {
@@ -289,13 +314,26 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   public int handleStatus(
       final byte iResult, final int iClientTxId, ExceptionHandler exceptionHandler)
       throws IOException {
+    return handleStatus(this, iResult, iClientTxId, exceptionHandler);
+  }
+
+  /**
+   * Handles the status of a response, the error, if any, is read from the given input which can be
+   * the channel itself or the frame of a multiplexed response.
+   */
+  public int handleStatus(
+      final OChannelDataInput input,
+      final byte iResult,
+      final int iClientTxId,
+      ExceptionHandler exceptionHandler)
+      throws IOException {
     if (iResult == OChannelBinaryProtocol.RESPONSE_STATUS_OK
         || iResult == OChannelBinaryProtocol.PUSH_DATA) {
       return iClientTxId;
     } else if (iResult == OChannelBinaryProtocol.RESPONSE_STATUS_ERROR) {
 
       OError37Response response = new OError37Response();
-      response.read(this, null);
+      response.read(input, null);
       byte[] serializedException = response.getVerbose();
       Exception previous = null;
       if (serializedException != null && serializedException.length > 0) {
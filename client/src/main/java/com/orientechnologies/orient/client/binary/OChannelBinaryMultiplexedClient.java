@@ -0,0 +1,178 @@
+package com.orientechnologies.orient.client.binary;
+
+import com.orientechnologies.common.concur.lock.OInterruptedException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.io.OIOException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.client.ONotSendRequestException;
+import com.orientechnologies.orient.client.remote.OBinaryRequest;
+import com.orientechnologies.orient.client.remote.OBinaryResponse;
+import com.orientechnologies.orient.client.remote.OStorageRemoteNodeSession;
+import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryFrame;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.enterprise.channel.binary.ONetworkProtocolException;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binary channel shared by concurrent requests. Every request is sent in a frame tagged with a
+ * stream id without waiting for the responses of the requests sent before, the server executes the
+ * requests concurrently and sends back every response in a frame tagged with the stream id of its
+ * request as soon as it is ready. A reader thread dispatches the received frames to the waiting
+ * requesters, so a single socket serves all the sessions of the client to a server.
+ */
+public class OChannelBinaryMultiplexedClient {
+  private final OChannelBinaryAsynchClient channel;
+  private final ConcurrentMap<Integer, CompletableFuture<byte[]>> pending =
+      new ConcurrentHashMap<>();
+  private final AtomicInteger streamSerial = new AtomicInteger();
+  private final long responseTimeout;
+  private volatile boolean closed;
+
+  public OChannelBinaryMultiplexedClient(
+      final String serverURL, final OContextConfiguration clientConfiguration) throws IOException {
+    final int sepPos = serverURL.indexOf(":");
+    final String remoteHost = serverURL.substring(0, sepPos);
+    final int remotePort = Integer.parseInt(serverURL.substring(sepPos + 1));
+
+    channel =
+        new OChannelBinaryAsynchClient(
+            remoteHost,
+            remotePort,
+            clientConfiguration,
+            OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION);
+    responseTimeout =
+        clientConfiguration.getValueAsLong(OGlobalConfiguration.NETWORK_REQUEST_TIMEOUT);
+    // THE READER WAITS FOR RESPONSES TILL THE CHANNEL IS CLOSED, REQUESTERS HAVE THEIR OWN TIMEOUT
+    channel.socket.setSoTimeout(0);
+
+    final Thread reader =
+        new Thread(this::readResponses, "OrientDB Multiplexed Channel " + serverURL);
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  /**
+   * Sends the request and waits for its response.
+   *
+   * @throws ONotSendRequestException if the request was not sent, so it can be safely sent again
+   */
+  public <T extends OBinaryResponse> T execute(
+      final OBinaryRequest<T> request, final OStorageRemoteSession session) throws IOException {
+    final OStorageRemoteNodeSession nodeSession = session.getServerSession(getServerURL());
+    if (nodeSession == null)
+      throw new ONotSendRequestException("Invalid session for URL '" + getServerURL() + "'");
+
+    final OChannelBinaryFrame requestFrame = new OChannelBinaryFrame();
+    requestFrame.writeByte(request.getCommand());
+    requestFrame.writeInt(nodeSession.getSessionId());
+    requestFrame.writeBytes(nodeSession.getToken());
+    request.write(requestFrame, session);
+
+    final int streamId = streamSerial.incrementAndGet();
+    final CompletableFuture<byte[]> future = new CompletableFuture<>();
+    pending.put(streamId, future);
+    try {
+      if (closed) throw new IOException("Channel is closed");
+
+      channel.acquireWriteLock();
+      try {
+        channel.writeByte(OChannelBinaryProtocol.REQUEST_MULTIPLEXED);
+        channel.writeInt(streamId);
+        channel.writeBytes(requestFrame.toByteArray());
+        channel.flush();
+      } finally {
+        channel.releaseWriteLock();
+      }
+    } catch (IOException e) {
+      pending.remove(streamId);
+      close();
+      throw new ONotSendRequestException("Cannot send request on this channel");
+    }
+
+    final OChannelBinaryFrame responseFrame = new OChannelBinaryFrame(waitFor(streamId, future));
+    final byte status = responseFrame.readByte();
+    final int sessionId = responseFrame.readInt();
+    final byte[] renewedToken = responseFrame.readBytes();
+    if (renewedToken != null && renewedToken.length > 0) {
+      nodeSession.setSession(nodeSession.getSessionId(), renewedToken);
+    }
+    // TYPE OF THE REQUEST
+    responseFrame.readByte();
+    channel.handleStatus(responseFrame, status, sessionId, channel::handleException);
+
+    final T response = request.createResponse();
+    response.read(responseFrame, session);
+    return response;
+  }
+
+  private byte[] waitFor(final int streamId, final CompletableFuture<byte[]> future)
+      throws IOException {
+    try {
+      if (responseTimeout > 0) return future.get(responseTimeout, TimeUnit.MILLISECONDS);
+      return future.get();
+    } catch (TimeoutException e) {
+      // A LATE RESPONSE IS DISCARDED BY THE READER
+      pending.remove(streamId);
+      throw new IOException("Timeout on waiting the response from " + getServerURL(), e);
+    } catch (InterruptedException e) {
+      pending.remove(streamId);
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(
+          new OInterruptedException("Interrupted while waiting the response"), e);
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  private void readResponses() {
+    try {
+      while (!closed) {
+        final byte status = channel.readByte();
+        if (status != OChannelBinaryProtocol.RESPONSE_MULTIPLEXED)
+          throw new ONetworkProtocolException(
+              "Unexpected response on multiplexed channel, status: " + status);
+
+        final int streamId = channel.readInt();
+        final byte[] frame = channel.readBytes();
+        final CompletableFuture<byte[]> future = pending.remove(streamId);
+        if (future != null) future.complete(frame);
+      }
+    } catch (IOException | RuntimeException e) {
+      if (!closed)
+        OLogManager.instance()
+            .debug(this, "Error on reading from multiplexed channel %s", e, getServerURL());
+    } finally {
+      close();
+    }
+  }
+
+  public boolean isConnected() {
+    return !closed && channel.isConnected();
+  }
+
+  public String getServerURL() {
+    return channel.getServerURL();
+  }
+
+  /** Closes the channel, the requests which are waiting for a response fail. */
+  public void close() {
+    closed = true;
+    channel.close();
+
+    final OIOException error = new OIOException("Channel to " + getServerURL() + " is closed");
+    for (Integer streamId : pending.keySet()) {
+      final CompletableFuture<byte[]> future = pending.remove(streamId);
+      if (future != null) future.completeExceptionally(error);
+    }
+  }
+}
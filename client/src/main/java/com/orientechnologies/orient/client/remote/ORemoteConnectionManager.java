@@ -23,10 +23,14 @@ import static com.orientechnologies.orient.core.config.OGlobalConfiguration.CLIE
 import static com.orientechnologies.orient.core.config.OGlobalConfiguration.CLIENT_CHANNEL_IDLE_TIMEOUT;
 import static com.orientechnologies.orient.core.config.OGlobalConfiguration.NETWORK_LOCK_TIMEOUT;
 
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
+import com.orientechnologies.orient.client.binary.OChannelBinaryMultiplexedClient;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +52,8 @@ public class ORemoteConnectionManager {
   public static final String PARAM_MAX_POOL = "maxpool";
 
   protected final ConcurrentMap<String, ORemoteConnectionPool> connections;
+  protected final ConcurrentMap<String, OChannelBinaryMultiplexedClient> multiplexed =
+      new ConcurrentHashMap<>();
   protected final long timeout;
   protected final long idleTimeout;
   private final TimerTask idleTask;
@@ -78,6 +84,10 @@ public class ORemoteConnectionManager {
     }
 
     connections.clear();
+    for (OChannelBinaryMultiplexedClient channel : multiplexed.values()) {
+      channel.close();
+    }
+    multiplexed.clear();
     if (idleTask != null) {
       idleTask.cancel();
     }
@@ -128,6 +138,25 @@ public class ORemoteConnectionManager {
     return null;
   }
 
+  /**
+   * Returns the channel shared by all the requests multiplexed to the server, the channel is
+   * created at the first request and replaced if it gets closed.
+   */
+  public OChannelBinaryMultiplexedClient acquireMultiplexed(
+      final String iServerURL, final OContextConfiguration clientConfiguration) {
+    return multiplexed.compute(
+        iServerURL,
+        (url, channel) -> {
+          if (channel != null && channel.isConnected()) return channel;
+
+          try {
+            return new OChannelBinaryMultiplexedClient(url, clientConfiguration);
+          } catch (IOException e) {
+            throw OException.wrapException(new OIOException("Error on connecting to " + url), e);
+          }
+        });
+  }
+
   public void release(final OChannelBinaryAsynchClient conn) {
     if (conn == null) return;
 
@@ -202,6 +231,9 @@ public class ORemoteConnectionManager {
   }
 
   public void closePool(final String url) {
+    final OChannelBinaryMultiplexedClient channel = multiplexed.remove(url);
+    if (channel != null) channel.close();
+
     final ORemoteConnectionPool pool = connections.remove(url);
     if (pool == null) return;
 
@@ -0,0 +1,133 @@
+package com.orientechnologies.orient.client.remote;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.Weighers;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Documents read from the server by all the sessions of a remote storage, kept to serve the
+ * following reads without a network round trip. The cache is bounded, the least recently used
+ * documents are evicted first.
+ *
+ * <p>What a user reads depends on its permissions, for example on record level security and on
+ * security policies, so the content read by a user is served only to the same user. The size of the
+ * cache counts the content of every user.
+ *
+ * <p>The cached content is valid only while the server pushes the identities of the changed
+ * documents, so the cache is used only while the push subscription is active and is cleared as soon
+ * as the subscription is lost, because the changes happened in the meanwhile are unknown. A read
+ * which overlaps an invalidation is not cached, because its content may be older than the
+ * invalidation.
+ */
+public class ORemoteNearCache {
+  /** Content of the records by the name of the user which read it, the maps are never changed. */
+  private final ConcurrentLinkedHashMap<ORID, Map<String, ORawBuffer>> records;
+
+  private final AtomicLong invalidations = new AtomicLong();
+  private volatile boolean active;
+
+  public ORemoteNearCache(final int size) {
+    records =
+        new ConcurrentLinkedHashMap.Builder<ORID, Map<String, ORawBuffer>>()
+            .maximumWeightedCapacity(size)
+            .weigher(Weighers.<String, ORawBuffer>map())
+            .build();
+  }
+
+  /** Returns the content of the record cached for the user or null if not cached. */
+  public ORawBuffer get(final ORID rid, final String user) {
+    if (!active || user == null) return null;
+    final Map<String, ORawBuffer> content = records.get(rid);
+    if (content == null) return null;
+    final ORawBuffer cached = content.get(user);
+    if (cached == null) return null;
+    // THE CALLER MAY CHANGE THE RETURNED BUFFER, THE CONTENT IS NEVER CHANGED
+    return new ORawBuffer(cached.buffer, cached.version, cached.recordType);
+  }
+
+  /**
+   * Returns the stamp to pass to {@link #put(ORID, String, ORawBuffer, long)} before reading a
+   * record.
+   */
+  public long stamp() {
+    return invalidations.get();
+  }
+
+  /**
+   * Caches the content of a document just read from the server by the user, the content is not
+   * cached if any record was invalidated after the stamp was taken or if older than the one already
+   * in cache.
+   */
+  public void put(final ORID rid, final String user, final ORawBuffer content, final long stamp) {
+    if (!active || user == null || content == null) return;
+    if (content.recordType != ODocument.RECORD_TYPE) return;
+    if (!rid.isPersistent() || rid.getClusterId() == 0) return;
+    if (invalidations.get() != stamp) return;
+    final ORawBuffer copy = new ORawBuffer(content.buffer, content.version, content.recordType);
+    final Map<String, ORawBuffer> read = Collections.singletonMap(user, copy);
+    final ORID key = rid.copy();
+    final Map<String, ORawBuffer> merged = records.merge(key, read, ORemoteNearCache::merge);
+    // AN INVALIDATION CONCURRENT TO THE PUT MAY HAVE MISSED THE NEW ENTRY
+    if (invalidations.get() != stamp) records.remove(key, merged);
+  }
+
+  /** Keeps the newest content of every user, content older than the read one is dropped. */
+  private static Map<String, ORawBuffer> merge(
+      final Map<String, ORawBuffer> current, final Map<String, ORawBuffer> read) {
+    final Map.Entry<String, ORawBuffer> readEntry = read.entrySet().iterator().next();
+    final int version = readEntry.getValue().version;
+    final Map<String, ORawBuffer> merged = new HashMap<>();
+    for (Map.Entry<String, ORawBuffer> entry : current.entrySet()) {
+      if (entry.getValue().version >= version) merged.put(entry.getKey(), entry.getValue());
+    }
+    final ORawBuffer cached = merged.get(readEntry.getKey());
+    if (cached == null || cached.version < version) {
+      merged.put(readEntry.getKey(), readEntry.getValue());
+    }
+    return merged;
+  }
+
+  public void invalidate(final ORID rid) {
+    invalidations.incrementAndGet();
+    records.remove(rid);
+  }
+
+  public void invalidate(final Collection<? extends ORID> rids) {
+    invalidations.incrementAndGet();
+    for (ORID rid : rids) {
+      records.remove(rid);
+    }
+  }
+
+  public void clear() {
+    invalidations.incrementAndGet();
+    records.clear();
+  }
+
+  /** Starts to use the cache after the subscription to the changes of the documents. */
+  public void activate() {
+    clear();
+    active = true;
+  }
+
+  /** Stops to use the cache, because the changes of the documents are not notified anymore. */
+  public void deactivate() {
+    active = false;
+    clear();
+  }
+
+  public boolean isActive() {
+    return active;
+  }
+
+  public int size() {
+    return records.size();
+  }
+}
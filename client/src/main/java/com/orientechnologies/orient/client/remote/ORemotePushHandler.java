@@ -6,6 +6,7 @@ import com.orientechnologies.orient.client.remote.message.OLiveQueryPushRequest;
 import com.orientechnologies.orient.client.remote.message.OPushDistributedConfigurationRequest;
 import com.orientechnologies.orient.client.remote.message.OPushFunctionsRequest;
 import com.orientechnologies.orient.client.remote.message.OPushIndexManagerRequest;
+import com.orientechnologies.orient.client.remote.message.OPushRecordsRequest;
 import com.orientechnologies.orient.client.remote.message.OPushSchemaRequest;
 import com.orientechnologies.orient.client.remote.message.OPushSequencesRequest;
 import com.orientechnologies.orient.client.remote.message.OPushStorageConfigurationRequest;
@@ -37,4 +38,6 @@ public interface ORemotePushHandler {
   OBinaryPushResponse executeUpdateFunction(OPushFunctionsRequest request);
 
   OBinaryPushResponse executeUpdateSequences(OPushSequencesRequest request);
+
+  OBinaryPushResponse executeUpdateRecords(OPushRecordsRequest request);
 }
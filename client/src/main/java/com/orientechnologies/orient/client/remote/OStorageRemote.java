@@ -32,6 +32,7 @@ import com.orientechnologies.common.util.OCallable;
 import com.orientechnologies.common.util.OCommonConst;
 import com.orientechnologies.orient.client.ONotSendRequestException;
 import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
+import com.orientechnologies.orient.client.binary.OChannelBinaryMultiplexedClient;
 import com.orientechnologies.orient.client.remote.message.OAddClusterRequest;
 import com.orientechnologies.orient.client.remote.message.OAddClusterResponse;
 import com.orientechnologies.orient.client.remote.message.OBeginTransaction38Request;
@@ -85,10 +86,13 @@ import com.orientechnologies.orient.client.remote.message.OOpen37Response;
 import com.orientechnologies.orient.client.remote.message.OPushDistributedConfigurationRequest;
 import com.orientechnologies.orient.client.remote.message.OPushFunctionsRequest;
 import com.orientechnologies.orient.client.remote.message.OPushIndexManagerRequest;
+import com.orientechnologies.orient.client.remote.message.OPushRecordsRequest;
 import com.orientechnologies.orient.client.remote.message.OPushSchemaRequest;
 import com.orientechnologies.orient.client.remote.message.OPushSequencesRequest;
 import com.orientechnologies.orient.client.remote.message.OPushStorageConfigurationRequest;
 import com.orientechnologies.orient.client.remote.message.OQueryNextPageRequest;
+import com.orientechnologies.orient.client.remote.message.OQueryPreparedRequest;
+import com.orientechnologies.orient.client.remote.message.OQueryPreparedResponse;
 import com.orientechnologies.orient.client.remote.message.OQueryRequest;
 import com.orientechnologies.orient.client.remote.message.OQueryResponse;
 import com.orientechnologies.orient.client.remote.message.OReadRecordIfVersionIsNotLatestRequest;
@@ -110,6 +114,7 @@ import com.orientechnologies.orient.client.remote.message.OSubscribeFunctionsReq
 import com.orientechnologies.orient.client.remote.message.OSubscribeIndexManagerRequest;
 import com.orientechnologies.orient.client.remote.message.OSubscribeLiveQueryRequest;
 import com.orientechnologies.orient.client.remote.message.OSubscribeLiveQueryResponse;
+import com.orientechnologies.orient.client.remote.message.OSubscribeRecordsRequest;
 import com.orientechnologies.orient.client.remote.message.OSubscribeSchemaRequest;
 import com.orientechnologies.orient.client.remote.message.OSubscribeSequencesRequest;
 import com.orientechnologies.orient.client.remote.message.OSubscribeStorageConfigurationRequest;
@@ -190,7 +195,10 @@ import java.util.TimeZone;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /** This object is bound to each remote ODatabase instances. */
@@ -214,6 +222,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
   private final ORemoteURLs serverURLs;
   private final Map<String, OCluster> clusterMap = new ConcurrentHashMap<String, OCluster>();
   private final ExecutorService asynchExecutor;
+  private final Semaphore prefetchPermits;
   private final ODocument clusterConfiguration = new ODocument();
   private final AtomicInteger users = new AtomicInteger(0);
   private OContextConfiguration clientConfiguration;
@@ -228,6 +237,9 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
   private final Map<Integer, OLiveQueryClientListener> liveQueryListener =
       new ConcurrentHashMap<>();
   private volatile OStorageRemotePushThread pushThread;
+  private final ORemoteNearCache nearCache;
+  private final int preparedStatements;
+  private volatile boolean preparedStatementsUnsupported = false;
   protected final OrientDBRemote context;
   protected OSharedContext sharedContext = null;
 
@@ -275,8 +287,19 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     connectionRetryDelay =
         clientConfiguration.getValueAsInteger(OGlobalConfiguration.NETWORK_SOCKET_RETRY_DELAY);
     serverURLs = hosts;
+    final int nearCacheSize =
+        clientConfiguration.getValueAsInteger(OGlobalConfiguration.CLIENT_NEAR_CACHE_SIZE);
+    nearCache = nearCacheSize > 0 ? new ORemoteNearCache(nearCacheSize) : null;
+    preparedStatements =
+        clientConfiguration.getValueAsInteger(OGlobalConfiguration.CLIENT_PREPARED_STATEMENTS);
 
     asynchExecutor = new OScheduledThreadPoolExecutorWithLogging(1);
+    prefetchPermits =
+        new Semaphore(
+            Math.max(
+                0,
+                clientConfiguration.getValueAsInteger(
+                    OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH_MAX)));
 
     this.connectionManager = connectionManager;
     this.context = context;
@@ -367,6 +390,12 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
 
   public <T extends OBinaryResponse> T networkOperationRetryTimeout(
       final OBinaryRequest<T> request, final String errorMessage, int retry, int timeout) {
+    if (timeout == 0
+        && clientConfiguration.getValueAsBoolean(OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEXING)
+        && request.getCommand() != OChannelBinaryProtocol.SUBSCRIBE_PUSH) {
+      final T response = multiplexedNetworkOperation(request, errorMessage);
+      if (response != null) return response;
+    }
     return baseNetworkOperation(
         (network, session) -> {
           try {
@@ -400,6 +429,68 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         retry);
   }
 
+  /**
+   * Sends the request on the channel which multiplexes the requests of all the sessions to the
+   * server of the current session, the channel is not held while waiting for the response, so
+   * concurrent requests do not need a channel each.
+   *
+   * @return the response or <code>null</code> if the request has to be sent on a dedicated channel,
+   *     because the session is not yet open on the server or the multiplexed channel failed before
+   *     sending the request. Failures after the request is sent are thrown, because the server may
+   *     have executed the request already
+   */
+  private <T extends OBinaryResponse> T multiplexedNetworkOperation(
+      final OBinaryRequest<T> request, final String errorMessage) {
+    final OStorageRemoteSession session = getCurrentSession();
+    if (session.commandExecuting)
+      throw new ODatabaseException(
+          "Cannot execute the request because an asynchronous operation is in progress. Please use a different connection");
+
+    final String serverUrl = getNextAvailableServerURL(false, session);
+    final OStorageRemoteNodeSession nodeSession = session.getServerSession(serverUrl);
+    if (nodeSession == null || !nodeSession.isValid()) {
+      // THE SESSION IS OPEN ON A DEDICATED CHANNEL
+      return null;
+    }
+
+    final OChannelBinaryMultiplexedClient channel;
+    try {
+      channel = connectionManager.acquireMultiplexed(serverUrl, clientConfiguration);
+    } catch (OIOException e) {
+      OLogManager.instance()
+          .debug(
+              this,
+              "Cannot connect multiplexed channel to %s, using a dedicated one",
+              e,
+              serverUrl);
+      return null;
+    }
+
+    try {
+      session.commandExecuting = true;
+      return channel.execute(request, session);
+    } catch (ONotSendRequestException e) {
+      // THE SERVER DID NOT RECEIVE THE REQUEST, IT CAN BE SENT AGAIN
+      OLogManager.instance()
+          .debug(this, "Error on multiplexed channel to %s, using a dedicated one", e, serverUrl);
+      return null;
+    } catch (OTokenException | OTokenSecurityException e) {
+      session.removeServerSession(serverUrl);
+      if (session.isStickToSession()) {
+        throw OException.wrapException(new OStorageException(errorMessage), e);
+      }
+      return null;
+    } catch (OException e) {
+      throw e;
+    } catch (IOException e) {
+      throw OException.wrapException(new OIOException(e.getMessage()), e);
+    } catch (Exception e) {
+      throw OException.wrapException(new OStorageException(errorMessage), e);
+    } finally {
+      session.commandExecuting = false;
+    }
+  }
+
   public <T extends OBinaryResponse> T networkOperationNoRetry(
       final OBinaryRequest<T> request, final String errorMessage) {
     return networkOperationRetryTimeout(request, errorMessage, 0, 0);
@@ -662,6 +753,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     } finally {
       stateLock.releaseWriteLock();
     }
+    if (nearCache != null) nearCache.deactivate();
     if (pushThread != null) {
       pushThread.shutdown();
       try {
@@ -823,12 +915,38 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
       // PENDING NETWORK OPERATION, CAN'T EXECUTE IT NOW
       return new OStorageOperationResult<ORawBuffer>(null);
 
+    final boolean nearCached = isNearCached(iFetchPlan, iIgnoreCache);
+    final String nearCacheUser = nearCached ? getCurrentSession().connectionUserName : null;
+    long nearCacheStamp = 0;
+    if (nearCached) {
+      final ORawBuffer cached = nearCache.get(iRid, nearCacheUser);
+      if (cached != null) return new OStorageOperationResult<ORawBuffer>(cached);
+      nearCacheStamp = nearCache.stamp();
+    }
+
     OReadRecordRequest request = new OReadRecordRequest(iIgnoreCache, iRid, iFetchPlan, false);
     OReadRecordResponse response = networkOperation(request, "Error on read record " + iRid);
 
+    if (nearCached) nearCache.put(iRid, nearCacheUser, response.getResult(), nearCacheStamp);
     return new OStorageOperationResult<ORawBuffer>(response.getResult());
   }
 
+  /**
+   * The near cache serves only the plain reads outside of a transaction, the records loaded with a
+   * fetch plan are sent along with the related records, and the records read in a transaction may
+   * be changed by the transaction on the server.
+   */
+  private boolean isNearCached(final String fetchPlan, final boolean ignoreCache) {
+    if (nearCache == null || !nearCache.isActive() || ignoreCache) return false;
+    if (fetchPlan != null && !fetchPlan.isEmpty()) return false;
+    final ODatabaseDocumentInternal database = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    return database == null || !database.getTransaction().isActive();
+  }
+
+  public ORemoteNearCache getNearCache() {
+    return nearCache;
+  }
+
   @Override
   public String incrementalBackup(final String backupDirectory, OCallable<Void, Void> started) {
     OIncrementalBackupRequest request = new OIncrementalBackupRequest(backupDirectory);
@@ -884,6 +1002,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
           };
     }
 
+    if (nearCache != null) nearCache.invalidate(iRid);
     OUpdateRecordRequest request =
         new OUpdateRecordRequest(iRid, iContent, iVersion, updateContent, iRecordType);
     OUpdateRecordResponse response =
@@ -908,6 +1027,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     if (iCallback != null)
       realCallback = (iRID, response) -> iCallback.call(iRID, response.getResult());
 
+    if (nearCache != null) nearCache.invalidate(iRid);
     final ODeleteRecordRequest request = new ODeleteRecordRequest(iRid, iVersion);
     final ODeleteRecordResponse response =
         asyncNetworkOperationNoRetry(
@@ -928,6 +1048,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     if (callback != null)
       realCallback = (iRID, response) -> callback.call(iRID, response.getResult());
 
+    if (nearCache != null) nearCache.invalidate(recordId);
     final OCleanOutRecordRequest request = new OCleanOutRecordRequest(recordVersion, recordId);
     final OCleanOutRecordResponse response =
         asyncNetworkOperationNoRetry(
@@ -1092,7 +1213,8 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     OQueryRequest request =
         new OQueryRequest(
             "sql", query, args, OQueryRequest.QUERY, db.getSerializer(), recordsPerPage);
-    OQueryResponse response = networkOperation(request, "Error on executing command: " + query);
+    OQueryResponse response =
+        statementOperation(request, true, "Error on executing command: " + query);
     ORemoteResultSet rs =
         new ORemoteResultSet(
             db,
@@ -1103,6 +1225,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
             response.isHasNextPage());
     if (response.isHasNextPage()) {
       stickToSession();
+      prefetchNextPage(db, rs);
     } else {
       db.queryClosed(response.getQueryId());
     }
@@ -1117,7 +1240,8 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     OQueryRequest request =
         new OQueryRequest(
             "sql", query, args, OQueryRequest.QUERY, db.getSerializer(), recordsPerPage);
-    OQueryResponse response = networkOperation(request, "Error on executing command: " + query);
+    OQueryResponse response =
+        statementOperation(request, true, "Error on executing command: " + query);
 
     ORemoteResultSet rs =
         new ORemoteResultSet(
@@ -1129,6 +1253,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
             response.isHasNextPage());
     if (response.isHasNextPage()) {
       stickToSession();
+      prefetchNextPage(db, rs);
     } else {
       db.queryClosed(response.getQueryId());
     }
@@ -1144,7 +1269,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         new OQueryRequest(
             "sql", query, args, OQueryRequest.COMMAND, db.getSerializer(), recordsPerPage);
     OQueryResponse response =
-        networkOperationNoRetry(request, "Error on executing command: " + query);
+        statementOperation(request, false, "Error on executing command: " + query);
     ORemoteResultSet rs =
         new ORemoteResultSet(
             db,
@@ -1155,6 +1280,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
             response.isHasNextPage());
     if (response.isHasNextPage()) {
       stickToSession();
+      prefetchNextPage(db, rs);
     } else {
       db.queryClosed(response.getQueryId());
     }
@@ -1170,7 +1296,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         new OQueryRequest(
             "sql", query, args, OQueryRequest.COMMAND, db.getSerializer(), recordsPerPage);
     OQueryResponse response =
-        networkOperationNoRetry(request, "Error on executing command: " + query);
+        statementOperation(request, false, "Error on executing command: " + query);
     ORemoteResultSet rs =
         new ORemoteResultSet(
             db,
@@ -1181,12 +1307,55 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
             response.isHasNextPage());
     if (response.isHasNextPage()) {
       stickToSession();
+      prefetchNextPage(db, rs);
     } else {
       db.queryClosed(response.getQueryId());
     }
     return new ORemoteQueryResult(rs, response.isTxChanges(), response.isReloadMetadata());
   }
 
+  /**
+   * Sends a SQL query or command, using the handle of the statement prepared on the server when
+   * available, otherwise sending the statement text and preparing it for the next executions.
+   */
+  private OQueryResponse statementOperation(
+      final OQueryRequest request, final boolean retry, final String errorMessage) {
+    if (preparedStatements <= 0 || preparedStatementsUnsupported) {
+      return retry
+          ? networkOperation(request, errorMessage)
+          : networkOperationNoRetry(request, errorMessage);
+    }
+    final OStorageRemoteSession session = getCurrentSession();
+    final String statement = request.getStatement();
+    final Integer handle = session.getStatementHandle(statement);
+    OQueryPreparedResponse response =
+        preparedOperation(
+            new OQueryPreparedRequest(
+                request, handle != null ? handle : OQueryPreparedRequest.NO_HANDLE),
+            retry,
+            errorMessage);
+    if (response.isUnknownHandle()) {
+      // THE SERVER DROPPED THE STATEMENT OR THE SESSION CHANGED, NOTHING HAS BEEN EXECUTED
+      session.removeStatementHandle(statement);
+      response =
+          preparedOperation(
+              new OQueryPreparedRequest(request, OQueryPreparedRequest.NO_HANDLE),
+              retry,
+              errorMessage);
+    }
+    if (response.getStatementHandle() != OQueryPreparedRequest.NO_HANDLE) {
+      session.setStatementHandle(statement, response.getStatementHandle(), preparedStatements);
+    }
+    return response.getQuery();
+  }
+
+  private OQueryPreparedResponse preparedOperation(
+      final OQueryPreparedRequest request, final boolean retry, final String errorMessage) {
+    return retry
+        ? networkOperation(request, errorMessage)
+        : networkOperationNoRetry(request, errorMessage);
+  }
+
   public ORemoteQueryResult serverCommand(String query, Object[] args) {
     int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
     if (recordsPerPage <= 0) {
@@ -1312,13 +1481,16 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
   }
 
   public void fetchNextPage(ODatabaseDocumentRemote database, ORemoteResultSet rs) {
-    int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
-    if (recordsPerPage <= 0) {
-      recordsPerPage = 100;
+    final FutureTask<OQueryResponse> prefetchedPage = rs.takePrefetchedPage();
+    final OQueryResponse response;
+    if (prefetchedPage != null) {
+      response = waitForPage(prefetchedPage, rs.getQueryId());
+    } else {
+      OQueryNextPageRequest request =
+          new OQueryNextPageRequest(rs.getQueryId(), getRecordsPerPage());
+      response =
+          networkOperation(request, "Error on fetching next page for statment: " + rs.getQueryId());
     }
-    OQueryNextPageRequest request = new OQueryNextPageRequest(rs.getQueryId(), recordsPerPage);
-    OQueryResponse response =
-        networkOperation(request, "Error on fetching next page for statment: " + rs.getQueryId());
 
     rs.fetched(
         response.getResult(),
@@ -1328,7 +1500,107 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     if (!response.isHasNextPage()) {
       unstickToSession();
       database.queryClosed(response.getQueryId());
+    } else {
+      prefetchNextPage(database, rs);
+    }
+  }
+
+  /**
+   * Sends the request of the next page of the result set without waiting for the response, so the
+   * server executes the query while the application consumes the current page. The response is read
+   * from the channel used to send the request by the thread which consumes the result set, once it
+   * needs the page, so prefetching does not occupy threads shared with the other sessions. Only one
+   * page is requested in advance, the server does not produce more results till the prefetched page
+   * is consumed.
+   *
+   * <p>The channel is kept till the response is read, so not more than {@link
+   * OGlobalConfiguration#QUERY_REMOTE_RESULTSET_PREFETCH_MAX} pages of the storage are prefetched
+   * at the same time, the other result sets fetch their pages on demand. Nested or leaked result
+   * sets can not take all the channels of the pool this way.
+   */
+  private void prefetchNextPage(ODatabaseDocumentRemote database, ORemoteResultSet rs) {
+    if (!OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH.getValueAsBoolean()
+        || database.getTransaction().isActive()
+        || !prefetchPermits.tryAcquire()) {
+      return;
+    }
+    final OQueryNextPageRequest request =
+        new OQueryNextPageRequest(rs.getQueryId(), getRecordsPerPage());
+    final FutureTask<OQueryResponse> page;
+    try {
+      page =
+          baseNetworkOperation(
+              (network, session) -> {
+                try {
+                  try {
+                    network.beginRequest(request.getCommand(), session);
+                    request.write(network, session);
+                  } finally {
+                    network.endRequest();
+                  }
+                } catch (IOException e) {
+                  throw new ONotSendRequestException("Cannot send request on this channel");
+                }
+
+                final OQueryResponse response = request.createResponse();
+                return new FutureTask<>(
+                    () -> {
+                      try {
+                        try {
+                          beginResponse(network, session);
+                          response.read(network, session);
+                        } finally {
+                          endResponse(network);
+                        }
+                      } catch (OException e) {
+                        connectionManager.release(network);
+                        throw e;
+                      } catch (Exception | Error e) {
+                        connectionManager.remove(network);
+                        throw e;
+                      } finally {
+                        prefetchPermits.release();
+                      }
+                      connectionManager.release(network);
+                      return response;
+                    });
+              },
+              "Error on fetching next page for statment: " + rs.getQueryId(),
+              connectionRetry);
+    } catch (RuntimeException e) {
+      prefetchPermits.release();
+      throw e;
+    }
+    rs.setPrefetchedPage(page);
+  }
+
+  private static OQueryResponse waitForPage(final FutureTask<OQueryResponse> page, String queryId) {
+    // READS THE RESPONSE ON THE CURRENT THREAD, IT IS READ ONLY ONCE
+    page.run();
+    try {
+      return page.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof OException) {
+        throw (OException) e.getCause();
+      }
+      throw OException.wrapException(
+          new OStorageException("Error on fetching next page for statment: " + queryId),
+          e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(
+          new OInterruptedException(
+              "Interrupted while fetching next page for statment: " + queryId),
+          e);
+    }
+  }
+
+  private static int getRecordsPerPage() {
+    int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
+    if (recordsPerPage <= 0) {
+      recordsPerPage = 100;
     }
+    return recordsPerPage;
   }
 
   public List<ORecordOperation> commit(final OTransactionInternal iTx) {
@@ -1342,6 +1614,14 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
             iTx.getIndexOperations());
 
     final OCommit37Response response = networkOperationNoRetry(request, "Error on commit");
+    if (nearCache != null) {
+      for (OCommit37Response.OUpdatedRecordResponse updated : response.getUpdated()) {
+        nearCache.invalidate(updated.getRid());
+      }
+      for (ORecordOperation txEntry : iTx.getRecordOperations()) {
+        if (txEntry.type == ORecordOperation.DELETED) nearCache.invalidate(txEntry.getRID());
+      }
+    }
     for (OCommit37Response.OCreatedRecordResponse created : response.getCreated()) {
       iTx.updateIdentityAfterCommit(created.getCurrentRid(), created.getCreatedRid());
       ORecordOperation rop = iTx.getRecordEntry(created.getCurrentRid());
@@ -1788,6 +2068,9 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     }
 
     nodeSession.setSession(sessionId, token);
+    if (network.getSrvProtocolVersion() < OChannelBinaryProtocol.PROTOCOL_VERSION_40) {
+      preparedStatementsUnsupported = true;
+    }
 
     OLogManager.instance()
         .debug(
@@ -1826,6 +2109,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
           subscribeIndexManager(session);
           subscribeFunctions(session);
           subscribeSequences(session);
+          subscribeRecords(session);
         }
       } finally {
         stateLock.releaseWriteLock();
@@ -1857,6 +2141,23 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     pushThread.subscribe(new OSubscribeIndexManagerRequest(), nodeSession);
   }
 
+  private void subscribeRecords(OStorageRemoteSession nodeSession) {
+    if (nearCache == null) return;
+    try {
+      if (pushThread.subscribe(new OSubscribeRecordsRequest(), nodeSession) != null) {
+        nearCache.activate();
+        return;
+      }
+    } catch (RuntimeException e) {
+      OLogManager.instance().debug(this, "Error on subscribing to the changes of the records", e);
+    }
+    OLogManager.instance()
+        .warn(
+            this,
+            "Cannot subscribe to the changes of the records of database '%s', the near cache is disabled",
+            getName());
+  }
+
   protected void openRemoteDatabase(String currentURL) {
     do {
       do {
@@ -2210,6 +2511,8 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         return new OPushFunctionsRequest();
       case OChannelBinaryProtocol.REQUEST_PUSH_SEQUENCES:
         return new OPushSequencesRequest();
+      case OChannelBinaryProtocol.REQUEST_PUSH_RECORDS:
+        return new OPushRecordsRequest();
     }
     return null;
   }
@@ -2233,6 +2536,15 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     return null;
   }
 
+  @Override
+  public OBinaryPushResponse executeUpdateRecords(OPushRecordsRequest request) {
+    if (nearCache != null) {
+      if (request.isAll()) nearCache.clear();
+      else nearCache.invalidate(request.getRecords());
+    }
+    return null;
+  }
+
   @Override
   public OBinaryPushResponse executeUpdateStorageConfig(OPushStorageConfigurationRequest payload) {
     final OStorageConfiguration storageConfiguration =
@@ -2250,6 +2562,8 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     ODocument schema = request.getSchema();
     ORecordInternal.setIdentity(schema, new ORecordId(getConfiguration().getSchemaRecordId()));
     ODatabaseDocumentRemote.updateSchema(this, schema);
+    // DROPPED CLASSES AND CLUSTERS ARE NOT NOTIFIED RECORD BY RECORD
+    if (nearCache != null) nearCache.clear();
     return null;
   }
 
@@ -2338,6 +2652,11 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     if (aValidSession != null) {
       subscribeDistributedConfiguration(aValidSession);
       subscribeStorageConfiguration(aValidSession);
+      if (nearCache != null) {
+        // THE RESPONSE OF THE SUBSCRIPTION IS READ BY THE PUSH THREAD WHICH IS RECONNECTING
+        final OStorageRemoteSession session = aValidSession;
+        asynchExecutor.execute(() -> subscribeRecords(session));
+      }
     } else {
       OLogManager.instance()
           .warn(
@@ -2362,6 +2681,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         != null) {
       this.connectionManager.remove((OChannelBinaryAsynchClient) network);
     }
+    if (nearCache != null) nearCache.deactivate();
     if (e instanceof InterruptedException) {
       for (OLiveQueryClientListener liveListener : liveQueryListener.values()) {
         liveListener.onEnd();
@@ -30,6 +30,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
@@ -57,11 +58,36 @@ public class OStorageRemoteSession {
   private int stickToSession = 0;
 
   protected String currentUrl;
+  private Map<String, Integer> statementHandles;
 
   public OStorageRemoteSession(final int sessionId) {
     this.uniqueClientSessionId = sessionId;
   }
 
+  /** Returns the handle of the statement prepared on the server or null if not prepared. */
+  public synchronized Integer getStatementHandle(final String statement) {
+    return statementHandles != null ? statementHandles.get(statement) : null;
+  }
+
+  /** Keeps the handle of a prepared statement, dropping the least recently used over the limit. */
+  public synchronized void setStatementHandle(
+      final String statement, final int handle, final int maxHandles) {
+    if (statementHandles == null) {
+      statementHandles =
+          new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Integer> eldest) {
+              return size() > maxHandles;
+            }
+          };
+    }
+    statementHandles.put(statement, handle);
+  }
+
+  public synchronized void removeStatementHandle(final String statement) {
+    if (statementHandles != null) statementHandles.remove(statement);
+  }
+
   public boolean hasConnection(final OChannelBinary connection) {
     return connections.contains(connection);
   }
@@ -0,0 +1,75 @@
+package com.orientechnologies.orient.client.remote.message;
+
+import com.orientechnologies.orient.client.remote.ORemotePushHandler;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Notifies the identities of the documents updated or deleted on the server since the last push.
+ * When too many documents are changed between two pushes the identities are dropped and the push
+ * notifies that any document may be changed.
+ */
+public class OPushRecordsRequest implements OBinaryPushRequest<OBinaryPushResponse> {
+  public static final int MAX_RECORDS = 10000;
+
+  private boolean all;
+  private Set<ORID> records = new HashSet<>();
+
+  public OPushRecordsRequest() {}
+
+  public void addRecord(ORID rid) {
+    if (all) return;
+    records.add(rid);
+    if (records.size() > MAX_RECORDS) {
+      all = true;
+      records = new HashSet<>();
+    }
+  }
+
+  @Override
+  public void write(OChannelDataOutput channel) throws IOException {
+    channel.writeBoolean(all);
+    channel.writeInt(records.size());
+    for (ORID rid : records) {
+      channel.writeRID(rid);
+    }
+  }
+
+  @Override
+  public void read(OChannelDataInput network) throws IOException {
+    all = network.readBoolean();
+    int size = network.readInt();
+    records = new HashSet<>(size);
+    for (int i = 0; i < size; i++) {
+      records.add(network.readRID());
+    }
+  }
+
+  @Override
+  public OBinaryPushResponse execute(ORemotePushHandler pushHandler) {
+    return pushHandler.executeUpdateRecords(this);
+  }
+
+  @Override
+  public OBinaryPushResponse createResponse() {
+    return null;
+  }
+
+  @Override
+  public byte getPushCommand() {
+    return OChannelBinaryProtocol.REQUEST_PUSH_RECORDS;
+  }
+
+  public boolean isAll() {
+    return all;
+  }
+
+  public Set<ORID> getRecords() {
+    return records;
+  }
+}
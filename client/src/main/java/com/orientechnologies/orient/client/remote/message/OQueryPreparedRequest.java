@@ -0,0 +1,81 @@
+package com.orientechnologies.orient.client.remote.message;
+
+import com.orientechnologies.orient.client.binary.OBinaryRequestExecutor;
+import com.orientechnologies.orient.client.remote.OBinaryRequest;
+import com.orientechnologies.orient.client.remote.OBinaryResponse;
+import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
+import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
+import java.io.IOException;
+
+/**
+ * Executes a SQL query or command identified by the handle of a statement prepared on the server,
+ * or sends the statement text and asks the server to prepare it. The hash of the statement text is
+ * sent along with the handle, so a handle of another session or server is never mistaken for the
+ * right one.
+ */
+public final class OQueryPreparedRequest implements OBinaryRequest<OQueryPreparedResponse> {
+  public static final int NO_HANDLE = -1;
+
+  private int statementHandle = NO_HANDLE;
+  private int statementHash;
+  private OQueryRequest query;
+
+  public OQueryPreparedRequest(OQueryRequest query, int statementHandle) {
+    this.query = query;
+    this.statementHandle = statementHandle;
+    this.statementHash = query.getStatement().hashCode();
+  }
+
+  public OQueryPreparedRequest() {}
+
+  @Override
+  public void write(OChannelDataOutput network, OStorageRemoteSession session) throws IOException {
+    network.writeInt(statementHandle);
+    network.writeInt(statementHash);
+    query.write(network, statementHandle == NO_HANDLE);
+  }
+
+  @Override
+  public void read(OChannelDataInput channel, int protocolVersion, ORecordSerializer serializer)
+      throws IOException {
+    statementHandle = channel.readInt();
+    statementHash = channel.readInt();
+    query = new OQueryRequest();
+    query.read(channel, protocolVersion, serializer);
+  }
+
+  @Override
+  public byte getCommand() {
+    return OChannelBinaryProtocol.REQUEST_QUERY_PREPARED;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Execute remote prepared query";
+  }
+
+  @Override
+  public OQueryPreparedResponse createResponse() {
+    return new OQueryPreparedResponse();
+  }
+
+  @Override
+  public OBinaryResponse execute(OBinaryRequestExecutor executor) {
+    return executor.executeQueryPrepared(this);
+  }
+
+  public int getStatementHandle() {
+    return statementHandle;
+  }
+
+  public int getStatementHash() {
+    return statementHash;
+  }
+
+  public OQueryRequest getQuery() {
+    return query;
+  }
+}
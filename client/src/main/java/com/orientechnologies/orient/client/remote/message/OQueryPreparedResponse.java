@@ -0,0 +1,55 @@
+package com.orientechnologies.orient.client.remote.message;
+
+import com.orientechnologies.orient.client.remote.OBinaryResponse;
+import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
+import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
+import java.io.IOException;
+
+/**
+ * Result of a prepared query: the handle of the prepared statement and the first page of results,
+ * or no result if the handle sent by the client is unknown and the statement text has to be sent
+ * again.
+ */
+public class OQueryPreparedResponse implements OBinaryResponse {
+  private int statementHandle = OQueryPreparedRequest.NO_HANDLE;
+  private OQueryResponse query;
+
+  public OQueryPreparedResponse(int statementHandle, OQueryResponse query) {
+    this.statementHandle = statementHandle;
+    this.query = query;
+  }
+
+  /** Response for an unknown statement handle. */
+  public OQueryPreparedResponse() {}
+
+  @Override
+  public void write(OChannelDataOutput channel, int protocolVersion, ORecordSerializer serializer)
+      throws IOException {
+    channel.writeInt(statementHandle);
+    channel.writeBoolean(query != null);
+    if (query != null) query.write(channel, protocolVersion, serializer);
+  }
+
+  @Override
+  public void read(OChannelDataInput network, OStorageRemoteSession session) throws IOException {
+    statementHandle = network.readInt();
+    if (network.readBoolean()) {
+      query = new OQueryResponse();
+      query.read(network, session);
+    }
+  }
+
+  public int getStatementHandle() {
+    return statementHandle;
+  }
+
+  public boolean isUnknownHandle() {
+    return query == null;
+  }
+
+  public OQueryResponse getQuery() {
+    return query;
+  }
+}
@@ -97,8 +97,13 @@ public final class OQueryRequest implements OBinaryRequest<OQueryResponse> {
 
   @Override
   public void write(OChannelDataOutput network, OStorageRemoteSession session) throws IOException {
+    write(network, true);
+  }
+
+  /** Writes the request without the statement text when it is identified by a prepared handle. */
+  void write(OChannelDataOutput network, boolean withStatement) throws IOException {
     network.writeString(language);
-    network.writeString(statement);
+    network.writeString(withStatement ? statement : null);
     network.writeByte(operationType);
     network.writeInt(recordsPerPage);
     // THIS IS FOR POSSIBLE FUTURE FETCH PLAN
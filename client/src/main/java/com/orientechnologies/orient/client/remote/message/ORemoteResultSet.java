@@ -9,6 +9,8 @@ import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /** Created by luigidellaquila on 05/12/16. */
 public class ORemoteResultSet implements OResultSet {
@@ -19,6 +21,7 @@ public class ORemoteResultSet implements OResultSet {
   private Optional<OExecutionPlan> executionPlan;
   private Map<String, Long> queryStats;
   private boolean hasNextPage;
+  private FutureTask<OQueryResponse> prefetchedPage;
 
   public ORemoteResultSet(
       ODatabaseDocumentRemote db,
@@ -83,6 +86,18 @@ public class ORemoteResultSet implements OResultSet {
 
   @Override
   public void close() {
+    if (prefetchedPage != null) {
+      // THE CHANNEL USED BY THE PREFETCHED PAGE IS RELEASED ONLY ONCE ITS RESPONSE IS READ
+      prefetchedPage.run();
+      try {
+        prefetchedPage.get();
+      } catch (ExecutionException e) {
+        // IGNORE IT, THE QUERY IS CLOSED ANYWAY
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      prefetchedPage = null;
+    }
     if (hasNextPage && db != null) {
       // CLOSES THE QUERY SERVER SIDE ONLY IF THERE IS ANOTHER PAGE. THE SERVER ALREADY
       // AUTOMATICALLY CLOSES THE QUERY AFTER SENDING THE LAST PAGE
@@ -112,6 +127,17 @@ public class ORemoteResultSet implements OResultSet {
     return queryId;
   }
 
+  public void setPrefetchedPage(FutureTask<OQueryResponse> prefetchedPage) {
+    this.prefetchedPage = prefetchedPage;
+  }
+
+  /** @return the page requested in advance or <code>null</code>, the page is requested only once */
+  public FutureTask<OQueryResponse> takePrefetchedPage() {
+    FutureTask<OQueryResponse> page = prefetchedPage;
+    prefetchedPage = null;
+    return page;
+  }
+
   public void fetched(
       List<OResultInternal> result,
       boolean hasNextPage,
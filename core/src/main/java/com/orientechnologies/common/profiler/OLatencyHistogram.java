@@ -0,0 +1,80 @@
+package com.orientechnologies.common.profiler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of latencies with logarithmic buckets. Every power of two range of values is
+ * split on 8 linear sub-buckets, so relative error of reported percentiles does not exceed 12.5%.
+ * Values are not bound to any time unit, histogram keeps values as they are passed.
+ */
+public final class OLatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  public void record(final long value) {
+    counts.incrementAndGet(bucketIndex(Math.max(value, 0)));
+  }
+
+  public long count() {
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+
+    return count;
+  }
+
+  /**
+   * @param quantile Quantile in range [0, 1], for example 0.99 for 99th percentile.
+   * @return Upper bound of the bucket which contains requested quantile or 0 if histogram is empty.
+   */
+  public long percentile(final double quantile) {
+    final long[] snapshot = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+
+    if (count == 0) {
+      return 0;
+    }
+
+    final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return bucketUpperBound(i);
+      }
+    }
+
+    return bucketUpperBound(BUCKETS - 1);
+  }
+
+  static int bucketIndex(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final int shift = exponent - SUB_BUCKET_BITS;
+    final int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long bucketUpperBound(final int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    final int shift = index / SUB_BUCKETS - 1;
+    final int subBucket = index % SUB_BUCKETS;
+
+    return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+}
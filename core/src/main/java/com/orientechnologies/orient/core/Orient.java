@@ -63,8 +63,10 @@ import java.util.TimerTask;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -82,6 +84,9 @@ public class Orient extends OListenerManger<OOrientListener> {
 
   private static volatile boolean registerDatabaseByPath = false;
 
+  /** Set on the threads of the worker pool, see {@link #isWorkerThread()}. */
+  private static final ThreadLocal<Boolean> workerThread = new ThreadLocal<>();
+
   private final ConcurrentMap<String, OEngine> engines = new ConcurrentHashMap<String, OEngine>();
 
   private final Map<ODatabaseLifecycleListener, ODatabaseLifecycleListener.PRIORITY>
@@ -266,6 +271,7 @@ public class Orient extends OListenerManger<OOrientListener> {
       }
 
       final int cores = Runtime.getRuntime().availableProcessors();
+      final ThreadFactory threadFactory = Executors.defaultThreadFactory();
 
       workers =
           new OThreadPoolExecutorWithLogging(
@@ -285,7 +291,13 @@ public class Orient extends OListenerManger<OOrientListener> {
                   }
                   return false;
                 }
-              });
+              },
+              runnable ->
+                  threadFactory.newThread(
+                      () -> {
+                        workerThread.set(Boolean.TRUE);
+                        runnable.run();
+                      }));
 
       registerEngines();
 
@@ -513,6 +525,15 @@ public class Orient extends OListenerManger<OOrientListener> {
     return workers;
   }
 
+  /**
+   * @return true if the current thread belongs to the worker pool, tasks submitted by it to the
+   *     worker pool and awaited by it may never run if all the workers wait for tasks in the same
+   *     way
+   */
+  public boolean isWorkerThread() {
+    return workerThread.get() != null;
+  }
+
   public Future<?> submit(final Runnable runnable) {
     engineLock.readLock().lock();
     try {
@@ -44,6 +44,20 @@ public interface OCompression {
 
   byte[] uncompress(byte[] content, final int offset, final int length);
 
+  /**
+   * Uncompresses content received from an untrusted source, fails if the uncompressed content is
+   * longer than the given limit. Implementations which store the uncompressed length should check
+   * it before allocating the result.
+   */
+  default byte[] uncompress(
+      final byte[] content, final int offset, final int length, final int maxLength) {
+    final byte[] result = uncompress(content, offset, length);
+    if (result.length > maxLength)
+      throw new IllegalStateException(
+          "Uncompressed length " + result.length + " exceeds the limit " + maxLength);
+    return result;
+  }
+
   String name();
 
   OCompression configure(String iOptions);
@@ -0,0 +1,108 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.compression.impl;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * Compression implementation that use the LZ4 algorithm, it trades compression ratio for speed so
+ * it fits the compression of data sent over the network. The compressed content starts with the
+ * length of the uncompressed content, which is checked before the content is uncompressed because
+ * it is read from the network.
+ */
+public class OLZ4Compression extends OAbstractCompression {
+  public static final String NAME = "lz4";
+
+  public static final OLZ4Compression INSTANCE = new OLZ4Compression();
+
+  private static final LZ4Compressor COMPRESSOR;
+  private static final LZ4SafeDecompressor DECOMPRESSOR;
+
+  static {
+    final LZ4Factory factory = LZ4Factory.fastestInstance();
+    COMPRESSOR = factory.fastCompressor();
+    DECOMPRESSOR = factory.safeDecompressor();
+  }
+
+  @Override
+  public byte[] compress(final byte[] content, final int offset, final int length) {
+    final byte[] result =
+        new byte[OIntegerSerializer.INT_SIZE + COMPRESSOR.maxCompressedLength(length)];
+    OIntegerSerializer.INSTANCE.serializeLiteral(length, result, 0);
+    final int compressedLength =
+        COMPRESSOR.compress(
+            content,
+            offset,
+            length,
+            result,
+            OIntegerSerializer.INT_SIZE,
+            result.length - OIntegerSerializer.INT_SIZE);
+
+    final byte[] compressed = new byte[OIntegerSerializer.INT_SIZE + compressedLength];
+    System.arraycopy(result, 0, compressed, 0, compressed.length);
+    return compressed;
+  }
+
+  @Override
+  public byte[] uncompress(final byte[] content, final int offset, final int length) {
+    return uncompress(content, offset, length, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public byte[] uncompress(
+      final byte[] content, final int offset, final int length, final int maxLength) {
+    if (length < OIntegerSerializer.INT_SIZE)
+      throw new IllegalStateException("Invalid LZ4 content of " + length + " bytes");
+
+    final int uncompressedLength = OIntegerSerializer.INSTANCE.deserializeLiteral(content, offset);
+    if (uncompressedLength < 0 || uncompressedLength > maxLength)
+      throw new IllegalStateException(
+          "Invalid uncompressed length " + uncompressedLength + ", limit is " + maxLength);
+
+    final byte[] result = new byte[uncompressedLength];
+    final int uncompressed;
+    try {
+      uncompressed =
+          DECOMPRESSOR.decompress(
+              content,
+              offset + OIntegerSerializer.INT_SIZE,
+              length - OIntegerSerializer.INT_SIZE,
+              result,
+              0,
+              uncompressedLength);
+    } catch (LZ4Exception e) {
+      throw new IllegalStateException("Exception during data uncompression", e);
+    }
+    if (uncompressed != uncompressedLength)
+      throw new IllegalStateException(
+          "Uncompressed " + uncompressed + " bytes instead of the declared " + uncompressedLength);
+    return result;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+}
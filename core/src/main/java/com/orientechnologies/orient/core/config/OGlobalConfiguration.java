@@ -32,6 +32,7 @@ import com.orientechnologies.orient.core.metadata.OMetadataDefault;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
 import com.orientechnologies.orient.core.storage.OChecksumMode;
 import com.orientechnologies.orient.core.storage.cluster.OPaginatedCluster;
+import com.orientechnologies.orient.core.storage.fs.OFileIOMode;
 import java.io.PrintStream;
 import java.util.Locale;
 import java.util.Map;
@@ -206,6 +207,22 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       4 * 1024,
       new OCacheSizeChangeCallback()),
 
+  DISK_CACHE_PARTITIONS(
+      "storage.diskCache.partitions",
+      "Amount of independent partitions of read cache, each partition has its own eviction policy"
+          + " and lock. Value is rounded up to the closest power of two. Usage of several partitions"
+          + " decreases contention on eviction lock on servers with big amount of cores",
+      Integer.class,
+      1),
+
+  DISK_CACHE_SCAN_RESISTANT(
+      "storage.diskCache.scanResistant",
+      "Pages loaded by full scans of clusters are not counted by eviction policy of read cache and"
+          + " are evicted first, so full scans of big clusters do not evict the working set of read"
+          + " cache",
+      Boolean.class,
+      false),
+
   DISK_WRITE_CACHE_PART(
       "storage.diskCache.writeCachePart",
       "Percentage of disk cache, which is used as write cache",
@@ -302,6 +319,26 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       OChecksumMode.StoreAndSwitchReadOnlyMode,
       false),
 
+  STORAGE_FILE_IO_MODE(
+      "storage.diskCache.fileIOMode",
+      "Implementation of file I/O used by disk cache of storage. Possible modes: 'Async' (default) –"
+          + " every flushed page is written by separate asynchronous write request; 'Vectored' –"
+          + " flushed pages are sorted by position in file, adjacent pages are merged and written by"
+          + " single vectored write, which converts flush of contiguous dirty pages into big"
+          + " sequential writes. Value may be set for each storage separately",
+      OFileIOMode.class,
+      OFileIOMode.Async,
+      false),
+
+  STORAGE_MMAP_READ_ONLY(
+      "storage.diskCache.mmapReadOnly",
+      "Opens storage in read only mode in which pages of clusters and multi-value indexes are read"
+          + " directly from files mapped into memory instead of copying into disk cache, so OS page"
+          + " cache is used as cache of these pages. Any modification of data is prohibited once"
+          + " storage is opened. Value may be set for each storage separately",
+      Boolean.class,
+      false),
+
   STORAGE_CHECK_LATEST_OPERATION_ID(
       "storage.checkLatestOperationId",
       "Indicates wether storage should be checked for latest operation id, "
@@ -566,6 +603,20 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       1000),
 
+  WAL_GROUP_COMMIT(
+      "storage.wal.groupCommit",
+      "Commit of atomic operation waits till its records are written and synced to the disk by WAL."
+          + " Concurrent commits are grouped and served by single fsync",
+      Boolean.class,
+      false),
+
+  WAL_GROUP_COMMIT_MAX_DELAY(
+      "storage.wal.groupCommitMaxDelay",
+      "Maximum interval during which WAL waits for new commits before fsync in group commit mode (in"
+          + " microseconds). Real interval adapts to the latency of fsync and to the rate of commits",
+      Integer.class,
+      2000),
+
   WAL_SHUTDOWN_TIMEOUT(
       "storage.wal.shutdownTimeout",
       "Maximum wait interval between events, when the background flush thread"
@@ -936,6 +987,12 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       4),
 
+  RID_BAG_EMBEDDED_PACKED(
+      "ridBag.embeddedPacked",
+      "Store content of embedded LINKBAGs as sorted runs of delta encoded cluster positions, such LINKBAGs are loaded without creation of an object per link. Records written in this format can not be read by older versions",
+      Boolean.class,
+      false),
+
   RID_BAG_EMBEDDED_TO_SBTREEBONSAI_THRESHOLD(
       "ridBag.embeddedToSbtreeBonsaiThreshold",
       "Amount of values after which a LINKBAG implementation will use sbtree as values container. Set to -1 to always use an sbtree",
@@ -1090,6 +1147,56 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       false,
       true),
 
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  NETWORK_BINARY_MULTIPLEXING_WORKERS(
+      "network.binary.multiplexing.workers",
+      "Maximum number of threads which execute the requests multiplexed on binary channels, requests of all the channels share the same threads",
+      Integer.class,
+      Runtime.getRuntime().availableProcessors() << 2,
+      false),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  NETWORK_BINARY_MULTIPLEXING_MAX_PENDING(
+      "network.binary.multiplexing.maxPending",
+      "Maximum number of requests of a multiplexed binary channel which are queued or executed at the same time, the channel is not read till one of them is completed",
+      Integer.class,
+      64,
+      false),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  NETWORK_BINARY_COMPRESSION_THRESHOLD(
+      "network.binary.compression.threshold",
+      "Minimum size in bytes of the data sent at once on a binary channel with negotiated compression to compress it, smaller data is sent as it is",
+      Integer.class,
+      1024),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  NETWORK_BINARY_PREPARED_STATEMENTS(
+      "network.binary.preparedStatements",
+      "Maximum number of parsed statements kept by the server for each client session which prepared them, the least recently used are dropped first. 0 disables the prepared statements",
+      Integer.class,
+      100),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  NETWORK_BINARY_SELECTOR(
+      "network.binary.selector",
+      "Serves the connections of binary listeners with a NIO selector instead of a thread per connection, idle connections do not hold a thread. Can be set for a single listener as parameter in the server configuration",
+      Boolean.class,
+      false),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  NETWORK_BINARY_SELECTOR_WORKERS(
+      "network.binary.selector.workers",
+      "Maximum number of threads which execute the requests of the connections served by the selector of a binary listener, connections which receive requests while all the threads are busy wait in a queue. Can be set for a single listener as parameter in the server configuration",
+      Integer.class,
+      Runtime.getRuntime().availableProcessors() << 3),
+
   // HTTP
 
   /** Since v2.2.8 */
@@ -1312,6 +1419,22 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       1000),
 
+  QUERY_REMOTE_RESULTSET_PREFETCH(
+      "query.remoteResultSet.prefetch",
+      "Request the next page of a remote ResultSet while the current page is consumed, so the "
+          + "iteration of large results does not wait a network round trip for every page. "
+          + "Pages are not prefetched inside a transaction. This has to be set on the client.",
+      Boolean.class,
+      false),
+
+  QUERY_REMOTE_RESULTSET_PREFETCH_MAX(
+      "query.remoteResultSet.prefetchMax",
+      "Maximum number of pages prefetched at the same time by the remote ResultSets of a storage. "
+          + "Every prefetched page keeps a network channel till the page is consumed, so the "
+          + "limit has to be lower than client.channel.maxPool. This has to be set on the client.",
+      Integer.class,
+      8),
+
   QUERY_REMOTE_SEND_EXECUTION_PLAN(
       "query.remoteResultSet.sendExecutionPlan",
       "Send the execution plan details or not. False by default",
@@ -1336,6 +1459,54 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       20000),
 
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  QUERY_SHORTEST_PATH_PARALLEL_THRESHOLD(
+      "query.shortestPath.parallelThreshold",
+      "Minimum number of vertices of a level of the shortestPath() search to expand the level in parallel, every task expands at least this number of vertices with its own session. Levels are not expanded in parallel inside a transaction. 0 disables the parallel expansion",
+      Integer.class,
+      0),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  QUERY_SHORTEST_PATH_MAX_VISITED(
+      "query.shortestPath.maxVisitedVertices",
+      "Maximum number of vertices visited by a single shortestPath() search, the search fails once it is exceeded. It bounds the memory used by the search. 0 means unlimited",
+      Long.class,
+      0),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  QUERY_TRAVERSE_PARALLEL_THRESHOLD(
+      "query.traverse.parallelThreshold",
+      "Minimum number of records per thread for a level of a breadth-first TRAVERSE to be expanded in parallel by the worker threads, every thread with its own session. 0 disables the parallel expansion",
+      Integer.class,
+      0),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  QUERY_GRAPH_STATISTICS(
+      "query.graphStatistics",
+      "Uses statistics about the degree of the vertices and the selectivity of the indexes to plan the queries. The degrees of the vertices of a class are sampled when first needed and stored in the database",
+      Boolean.class,
+      false),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  QUERY_GRAPH_STATISTICS_SAMPLE_SIZE(
+      "query.graphStatistics.sampleSize",
+      "Number of vertices of a class read to compute the statistics about their degree",
+      Integer.class,
+      1000),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  QUERY_MATCH_BATCH_SIZE(
+      "query.match.batchSize",
+      "Number of partial matches processed at once by the MATCH steps which close a cycle of the pattern. The neighbors of every vertex of a batch are read once and intersected with the vertices already matched. 0 disables the batched processing",
+      Integer.class,
+      1000),
+
   QUERY_SCAN_PREFETCH_PAGES(
       "query.scanPrefetchPages",
       "Pages to prefetch during scan. Setting this value higher makes scans faster, because it reduces the number of I/O operations, though it consumes more memory. (Use 0 to disable)",
@@ -1369,6 +1540,38 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Long.class,
       500_000),
 
+  QUERY_ORDER_BY_SPILL_THRESHOLD(
+      "query.orderBy.spillThreshold",
+      "Maximum number of records sorted in heap by ORDER BY. Once exceeded, sorted runs of records are written "
+          + "to temporary files and merged when results are fetched. ORDER BY with a LIMIT keeps only the top records "
+          + "in heap, unless the LIMIT exceeds this value. Negative number disables spilling to disk",
+      Integer.class,
+      -1),
+
+  QUERY_SPILL_DIRECTORY(
+      "query.spillDirectory",
+      "Directory of temporary files which keep records spilled to disk by ORDER BY, GROUP BY and DISTINCT. "
+          + "By default the temporary directory of JVM is used. Records of encrypted databases are never spilled",
+      String.class,
+      null),
+
+  QUERY_DISTINCT_MEMORY_LIMIT(
+      "query.distinct.memoryLimit",
+      "Maximum amount of direct memory (in megabytes) used by DISTINCT to keep projections which were already returned. "
+          + "Once exceeded, projections which were not returned yet are written to temporary partition files and "
+          + "deduplicated partition by partition, so they are returned out of order. DISTINCT over ordered results "
+          + "never spills. Negative number disables spilling to disk",
+      Integer.class,
+      -1),
+
+  QUERY_GROUP_BY_SPILL_THRESHOLD(
+      "query.groupBy.spillThreshold",
+      "Maximum number of groups aggregated in heap by GROUP BY. Once exceeded, records of the other groups are "
+          + "written to temporary partition files, which are aggregated one by one when results are fetched. "
+          + "Negative number disables spilling to disk",
+      Integer.class,
+      -1),
+
   QUERY_LIVE_SUPPORT(
       "query.live.support",
       "Enable/Disable the support of live query. (Use false to disable)",
@@ -1402,6 +1605,38 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       100),
 
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  CLIENT_CHANNEL_MULTIPLEXING(
+      "client.channel.multiplexing",
+      "Send the requests of all the sessions to a server on a single network channel, without waiting for the responses of the previous requests. Requires a server which supports multiplexing",
+      Boolean.class,
+      false),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  CLIENT_CHANNEL_COMPRESSION(
+      "client.channel.compression",
+      "Compression to negotiate with the server on opening a network channel, for example 'lz4'. The data sent on the channel is not compressed if empty or if the server does not support the compression",
+      String.class,
+      ""),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  CLIENT_NEAR_CACHE_SIZE(
+      "client.nearCache.size",
+      "Maximum number of documents kept by the near cache of a remote database, shared by all its sessions. The cached documents are invalidated by the changes pushed by the server, so the server must support live queries. 0 disables the near cache",
+      Integer.class,
+      0),
+
+  /** @Since 3.1 */
+  @OApi(maturity = OApi.MATURITY.NEW)
+  CLIENT_PREPARED_STATEMENTS(
+      "client.preparedStatements",
+      "Maximum number of SQL statements prepared on the server by each session of a remote database, the following executions of a prepared statement send only its handle and the parameters. 0 disables the prepared statements",
+      Integer.class,
+      0),
+
   /**
    * Maximum time, where the client should wait for a connection from the pool, when all connections
    * busy.
@@ -1744,6 +1979,12 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       String.class,
       ORecordSerializerBinary.NAME),
 
+  DB_DOCUMENT_SERIALIZER_STRICT_LAYOUT(
+      "db.document.serializer.strictLayout",
+      "Store records of classes in strict mode with all properties typed using a fixed slot layout derived from the schema, fields of such records are accessed without parsing of the record header. Records written in this format can not be read by older versions",
+      Boolean.class,
+      false),
+
   /** @Since 2.2 */
   @OApi(maturity = OApi.MATURITY.NEW)
   CLIENT_KRB5_CONFIG(
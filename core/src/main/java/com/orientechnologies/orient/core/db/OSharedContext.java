@@ -14,6 +14,7 @@ import com.orientechnologies.orient.core.metadata.sequence.OSequenceLibraryImpl;
 import com.orientechnologies.orient.core.query.live.OLiveQueryHook;
 import com.orientechnologies.orient.core.query.live.OLiveQueryHookV2;
 import com.orientechnologies.orient.core.schedule.OSchedulerImpl;
+import com.orientechnologies.orient.core.sql.executor.OGraphStatistics;
 import com.orientechnologies.orient.core.sql.executor.OQueryStats;
 import com.orientechnologies.orient.core.sql.parser.OExecutionPlanCache;
 import com.orientechnologies.orient.core.sql.parser.OStatementCache;
@@ -39,6 +40,7 @@ public abstract class OSharedContext extends OListenerManger<OMetadataUpdateList
   protected OStatementCache statementCache;
   protected OExecutionPlanCache executionPlanCache;
   protected OQueryStats queryStats;
+  protected OGraphStatistics graphStatistics;
   protected volatile boolean loaded = false;
   protected Map<String, Object> resources;
 
@@ -90,6 +92,10 @@ public abstract class OSharedContext extends OListenerManger<OMetadataUpdateList
     return queryStats;
   }
 
+  public OGraphStatistics getGraphStatistics() {
+    return graphStatistics;
+  }
+
   public abstract void load(ODatabaseDocumentInternal oDatabaseDocumentInternal);
 
   public abstract void reload(ODatabaseDocumentInternal database);
@@ -18,6 +18,7 @@ import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.ORecordInternal;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.schedule.OSchedulerImpl;
+import com.orientechnologies.orient.core.sql.executor.OGraphStatistics;
 import com.orientechnologies.orient.core.sql.executor.OQueryStats;
 import com.orientechnologies.orient.core.sql.parser.OExecutionPlanCache;
 import com.orientechnologies.orient.core.sql.parser.OStatementCache;
@@ -59,6 +60,7 @@ public class OSharedContextEmbedded extends OSharedContext {
     this.registerListener(executionPlanCache);
 
     queryStats = new OQueryStats();
+    graphStatistics = new OGraphStatistics();
     activeDistributedQueries = new HashMap<>();
     ((OAbstractPaginatedStorage) storage)
         .setStorageConfigurationUpdateListener(
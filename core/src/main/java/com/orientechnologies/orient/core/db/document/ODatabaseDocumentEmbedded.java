@@ -572,6 +572,16 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
   public OResultSet query(String query, Object[] args) {
     checkOpenness();
     checkIfActive();
+    return queryStatement(OSQLEngine.parse(query, this), args);
+  }
+
+  /**
+   * Executes an already parsed idempotent statement, the statement can be executed many times and
+   * concurrently, like the statements shared by the statement cache.
+   */
+  public OResultSet queryStatement(OStatement statement, Object[] args) {
+    checkOpenness();
+    checkIfActive();
 
     InterruptTimerTask commandInterruptTimer = null;
     if (getConfiguration().getValueAsLong(OGlobalConfiguration.COMMAND_TIMEOUT) > 0) {
@@ -583,11 +593,10 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
               getConfiguration().getValueAsLong(OGlobalConfiguration.COMMAND_TIMEOUT));
     }
     try {
-
-      OStatement statement = OSQLEngine.parse(query, this);
       if (!statement.isIdempotent()) {
         throw new OCommandExecutionException(
-            "Cannot execute query on non idempotent statement: " + query);
+            "Cannot execute query on non idempotent statement: "
+                + statement.getOriginalStatement());
       }
       OResultSet original = statement.execute(this, args, true);
       OLocalResultSetLifecycleDecorator result = new OLocalResultSetLifecycleDecorator(original);
@@ -605,6 +614,12 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
   public OResultSet query(String query, Map args) {
     checkOpenness();
     checkIfActive();
+    return queryStatement(OSQLEngine.parse(query, this), args);
+  }
+
+  public OResultSet queryStatement(OStatement statement, Map args) {
+    checkOpenness();
+    checkIfActive();
 
     InterruptTimerTask commandInterruptTimer = null;
     if (getConfiguration().getValueAsLong(OGlobalConfiguration.COMMAND_TIMEOUT) > 0) {
@@ -616,11 +631,10 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
               getConfiguration().getValueAsLong(OGlobalConfiguration.COMMAND_TIMEOUT));
     }
     try {
-
-      OStatement statement = OSQLEngine.parse(query, this);
       if (!statement.isIdempotent()) {
         throw new OCommandExecutionException(
-            "Cannot execute query on non idempotent statement: " + query);
+            "Cannot execute query on non idempotent statement: "
+                + statement.getOriginalStatement());
       }
       OResultSet original = statement.execute(this, args, true);
       OLocalResultSetLifecycleDecorator result = new OLocalResultSetLifecycleDecorator(original);
@@ -638,6 +652,16 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
   public OResultSet command(String query, Object[] args) {
     checkOpenness();
     checkIfActive();
+    return commandStatement(OSQLEngine.parse(query, this), args);
+  }
+
+  /**
+   * Executes an already parsed statement, the statement can be executed many times and
+   * concurrently, like the statements shared by the statement cache.
+   */
+  public OResultSet commandStatement(OStatement statement, Object[] args) {
+    checkOpenness();
+    checkIfActive();
 
     InterruptTimerTask commandInterruptTimer = null;
     if (getConfiguration().getValueAsLong(OGlobalConfiguration.COMMAND_TIMEOUT) > 0) {
@@ -649,8 +673,6 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
               getConfiguration().getValueAsLong(OGlobalConfiguration.COMMAND_TIMEOUT));
     }
     try {
-
-      OStatement statement = OSQLEngine.parse(query, this);
       OResultSet original = statement.execute(this, args, true);
       OLocalResultSetLifecycleDecorator result;
       if (!statement.isIdempotent()) {
@@ -677,6 +699,12 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
   public OResultSet command(String query, Map args) {
     checkOpenness();
     checkIfActive();
+    return commandStatement(OSQLEngine.parse(query, this), args);
+  }
+
+  public OResultSet commandStatement(OStatement statement, Map args) {
+    checkOpenness();
+    checkIfActive();
 
     InterruptTimerTask commandInterruptTimer = null;
     if (getConfiguration().getValueAsLong(OGlobalConfiguration.COMMAND_TIMEOUT) > 0) {
@@ -688,8 +716,6 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
               getConfiguration().getValueAsLong(OGlobalConfiguration.COMMAND_TIMEOUT));
     }
     try {
-
-      OStatement statement = OSQLEngine.parse(query, this);
       OResultSet original = statement.execute(this, args, true);
       OLocalResultSetLifecycleDecorator result;
       if (!statement.isIdempotent()) {
@@ -34,6 +34,7 @@ import com.orientechnologies.orient.core.db.record.ORecordElement;
 import com.orientechnologies.orient.core.db.record.ridbag.ORidBagDelegate;
 import com.orientechnologies.orient.core.exception.OSerializationException;
 import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.ORecordInternal;
 import com.orientechnologies.orient.core.record.impl.OSimpleMultiValueTracker;
@@ -53,6 +54,12 @@ public class OEmbeddedRidBag implements ORidBagDelegate {
   private Object[] entries = OCommonConst.EMPTY_OBJECT_ARRAY;
   private int entriesLength = 0;
 
+  /**
+   * Content loaded in the packed form, it is used till the first modification of the bag and then
+   * converted to {@link #entries}.
+   */
+  private OPackedRids packed;
+
   private boolean convertToRecord = true;
   private int size = 0;
 
@@ -74,9 +81,108 @@ public class OEmbeddedRidBag implements ORidBagDelegate {
   }
 
   public Object[] getEntries() {
+    unpack();
     return entries;
   }
 
+  /**
+   * @return content of the bag if it is still kept in the packed form, <code>null</code> otherwise
+   */
+  public OPackedRids getPacked() {
+    return packed;
+  }
+
+  /** Replaces content of the bag by the packed RIDs, used during deserialization. */
+  public void setPacked(final OPackedRids packed) {
+    this.packed = packed;
+    this.entries = OCommonConst.EMPTY_OBJECT_ARRAY;
+    this.entriesLength = 0;
+    this.size = packed.size();
+  }
+
+  private void unpack() {
+    if (packed == null) {
+      return;
+    }
+
+    final OPackedRids.Cursor cursor = packed.cursor();
+    packed = null;
+    while (cursor.next()) {
+      addEntry(new ORecordId(cursor.getClusterId(), cursor.getClusterPosition()));
+    }
+  }
+
+  private final class PackedIterator implements Iterator<OIdentifiable>, OResettable, OSizeable {
+    private final boolean convertToRecord;
+    private final OPackedRids rids;
+    private OPackedRids.Cursor cursor;
+    private boolean hasNext;
+    private int currentIndex = -1;
+
+    /** Used once the bag is modified during iteration and its content is unpacked. */
+    private EntriesIterator entriesIterator;
+
+    private PackedIterator(OPackedRids rids, boolean convertToRecord) {
+      this.rids = rids;
+      this.convertToRecord = convertToRecord;
+      reset();
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (packed != rids) {
+        return unpackedIterator().hasNext();
+      }
+      return hasNext;
+    }
+
+    @Override
+    public OIdentifiable next() {
+      if (packed != rids) {
+        return unpackedIterator().next();
+      }
+      if (!hasNext) {
+        throw new NoSuchElementException();
+      }
+
+      currentIndex = cursor.getIndex();
+      final ORecordId rid = new ORecordId(cursor.getClusterId(), cursor.getClusterPosition());
+      hasNext = cursor.next();
+
+      if (convertToRecord) {
+        return rid.getRecord();
+      }
+      return rid;
+    }
+
+    @Override
+    public void remove() {
+      unpackedIterator().remove();
+    }
+
+    private EntriesIterator unpackedIterator() {
+      if (entriesIterator == null) {
+        unpack();
+        // order of the entries is the same as the order of the packed RIDs
+        entriesIterator = new EntriesIterator(convertToRecord, currentIndex);
+      }
+      return entriesIterator;
+    }
+
+    @Override
+    public void reset() {
+      cursor = rids.cursor();
+      hasNext = cursor.next();
+      currentIndex = -1;
+      entriesIterator = null;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
   private final class EntriesIterator implements Iterator<OIdentifiable>, OResettable, OSizeable {
     private final boolean convertToRecord;
     private int currentIndex = -1;
@@ -88,6 +194,13 @@ public class OEmbeddedRidBag implements ORidBagDelegate {
       this.convertToRecord = convertToRecord;
     }
 
+    /** Creates iterator which continues iteration after the entry with the given index. */
+    private EntriesIterator(boolean convertToRecord, int currentIndex) {
+      this.convertToRecord = convertToRecord;
+      this.currentIndex = currentIndex;
+      this.nextIndex = nextIndex();
+    }
+
     @Override
     public boolean hasNext() {
       // we may remove items in ridbag during iteration so we need to be sure that pointed item is
@@ -200,6 +313,11 @@ public class OEmbeddedRidBag implements ORidBagDelegate {
   public boolean contains(OIdentifiable identifiable) {
     if (identifiable == null) return false;
 
+    if (packed != null) {
+      final ORID rid = identifiable.getIdentity();
+      return packed.contains(rid.getClusterId(), rid.getClusterPosition());
+    }
+
     for (int i = 0; i < entriesLength; i++) {
       if (identifiable.equals(entries[i])) return true;
     }
@@ -256,6 +374,7 @@ public class OEmbeddedRidBag implements ORidBagDelegate {
   public OEmbeddedRidBag copy() {
     final OEmbeddedRidBag copy = new OEmbeddedRidBag();
     copy.contentWasChanged = contentWasChanged;
+    copy.packed = packed;
     copy.entries = entries;
     copy.entriesLength = entriesLength;
     copy.convertToRecord = convertToRecord;
@@ -267,7 +386,7 @@ public class OEmbeddedRidBag implements ORidBagDelegate {
 
   @Override
   public void remove(OIdentifiable identifiable) {
-
+    unpack();
     if (removeEntry(identifiable)) {
       size--;
       contentWasChanged = true;
@@ -284,6 +403,7 @@ public class OEmbeddedRidBag implements ORidBagDelegate {
    * @return
    */
   public boolean swap(int index, OIdentifiable newValue) {
+    unpack();
     EntriesIterator iter = (EntriesIterator) rawIterator();
     int currIndex = 0;
     while (iter.hasNext()) {
@@ -304,16 +424,23 @@ public class OEmbeddedRidBag implements ORidBagDelegate {
 
   @Override
   public Iterator<OIdentifiable> iterator() {
+    if (packed != null) {
+      return new PackedIterator(packed, convertToRecord);
+    }
     return new EntriesIterator(convertToRecord);
   }
 
   @Override
   public Iterator<OIdentifiable> rawIterator() {
+    if (packed != null) {
+      return new PackedIterator(packed, false);
+    }
     return new EntriesIterator(false);
   }
 
   @Override
   public void convertLinks2Records() {
+    unpack();
     for (int i = 0; i < entriesLength; i++) {
       final Object entry = entries[i];
 
@@ -438,6 +565,16 @@ public class OEmbeddedRidBag implements ORidBagDelegate {
   public int serialize(byte[] stream, int offset, UUID ownerUuid) {
     OIntegerSerializer.INSTANCE.serializeLiteral(size, stream, offset);
     offset += OIntegerSerializer.INT_SIZE;
+    if (packed != null) {
+      final OPackedRids.Cursor cursor = packed.cursor();
+      while (cursor.next()) {
+        OLinkSerializer.INSTANCE.serialize(
+            new ORecordId(cursor.getClusterId(), cursor.getClusterPosition()), stream, offset);
+        offset += OLinkSerializer.RID_SIZE;
+      }
+      return offset;
+    }
+
     ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().getIfDefined();
     final int totEntries = entries.length;
     for (int i = 0; i < totEntries; ++i) {
@@ -502,6 +639,7 @@ public class OEmbeddedRidBag implements ORidBagDelegate {
   }
 
   public void addEntry(final OIdentifiable identifiable) {
+    unpack();
     if (entries.length == entriesLength) {
       if (entriesLength == 0) {
         final int cfgValue =
@@ -0,0 +1,261 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.db.record.ridbag.embedded;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import java.util.Arrays;
+
+/**
+ * Immutable sorted sequence of persistent RIDs packed into a byte array, used by {@link
+ * OEmbeddedRidBag} to keep loaded content without creation of an object per link.
+ *
+ * <p>RIDs are grouped in runs of the same cluster id, every run is stored as cluster id, amount of
+ * RIDs and cluster positions encoded as deltas from the previous position of the run. All numbers
+ * are unsigned var ints. Sequence may contain the same RID several times.
+ *
+ * <p>Every {@link #BLOCK_SIZE}-th RID is indexed on the first call of {@link #contains(int, long)},
+ * so lookup is a binary search over the index followed by a scan of a single block.
+ */
+public final class OPackedRids {
+  private static final int BLOCK_SIZE = 32;
+
+  private final byte[] data;
+  private final int size;
+
+  private int[] blockClusterIds;
+  private long[] blockPositions;
+  private int[] blockOffsets;
+  private int[] blockRunRemaining;
+
+  /**
+   * @param data packed runs, as returned by {@link #getData()}
+   * @param size amount of RIDs in the runs
+   */
+  public OPackedRids(final byte[] data, final int size) {
+    this.data = data;
+    this.size = size;
+  }
+
+  /**
+   * Packs the first <code>size</code> RIDs of the array, array is sorted in place.
+   *
+   * @param rids persistent RIDs
+   */
+  public static OPackedRids pack(final ORID[] rids, final int size) {
+    Arrays.sort(rids, 0, size);
+
+    final BytesContainer bytes = new BytesContainer();
+    int runStart = 0;
+    while (runStart < size) {
+      final int clusterId = rids[runStart].getClusterId();
+      int runEnd = runStart + 1;
+      while (runEnd < size && rids[runEnd].getClusterId() == clusterId) {
+        runEnd++;
+      }
+
+      writeVarLong(bytes, clusterId);
+      writeVarLong(bytes, runEnd - runStart);
+      long previous = 0;
+      for (int i = runStart; i < runEnd; i++) {
+        final long position = rids[i].getClusterPosition();
+        writeVarLong(bytes, position - previous);
+        previous = position;
+      }
+      runStart = runEnd;
+    }
+
+    return new OPackedRids(bytes.fitBytes(), size);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** @return packed runs, content of the array should not be modified. */
+  public byte[] getData() {
+    return data;
+  }
+
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /** @return <code>true</code> if the sequence contains the RID at least once. */
+  public boolean contains(final int clusterId, final long clusterPosition) {
+    if (size == 0) {
+      return false;
+    }
+    if (blockOffsets == null) {
+      buildIndex();
+    }
+
+    int low = 0;
+    int high = blockOffsets.length - 1;
+    int block = -1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int cmp =
+          compare(blockClusterIds[mid], blockPositions[mid], clusterId, clusterPosition);
+      if (cmp == 0) {
+        return true;
+      } else if (cmp < 0) {
+        block = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    if (block < 0 || blockClusterIds[block] != clusterId) {
+      return false;
+    }
+
+    // scan the rest of the block, it always belongs to the single run
+    final Cursor cursor = new Cursor();
+    cursor.offset = blockOffsets[block];
+    cursor.position = blockPositions[block];
+    final int limit = Math.min(blockRunRemaining[block], BLOCK_SIZE - 1);
+    for (int i = 0; i < limit; i++) {
+      cursor.position += cursor.readVarLong();
+      if (cursor.position >= clusterPosition) {
+        return cursor.position == clusterPosition;
+      }
+    }
+    return false;
+  }
+
+  private void buildIndex() {
+    final int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    // runs may split blocks, so the amount of blocks is grown on demand
+    int[] clusterIds = new int[blocks];
+    long[] positions = new long[blocks];
+    int[] offsets = new int[blocks];
+    int[] runRemaining = new int[blocks];
+
+    int count = 0;
+    int inBlock = BLOCK_SIZE;
+    final Cursor cursor = new Cursor();
+    while (cursor.next()) {
+      if (cursor.index == cursor.runStartIndex + 1) {
+        // new run always starts a new block
+        inBlock = BLOCK_SIZE;
+      }
+      if (inBlock == BLOCK_SIZE) {
+        if (count == offsets.length) {
+          final int newLength = offsets.length << 1;
+          clusterIds = Arrays.copyOf(clusterIds, newLength);
+          positions = Arrays.copyOf(positions, newLength);
+          offsets = Arrays.copyOf(offsets, newLength);
+          runRemaining = Arrays.copyOf(runRemaining, newLength);
+        }
+        clusterIds[count] = cursor.clusterId;
+        positions[count] = cursor.position;
+        offsets[count] = cursor.offset;
+        runRemaining[count] = cursor.runRemaining;
+        count++;
+        inBlock = 0;
+      }
+      inBlock++;
+    }
+
+    blockClusterIds = Arrays.copyOf(clusterIds, count);
+    blockPositions = Arrays.copyOf(positions, count);
+    blockRunRemaining = Arrays.copyOf(runRemaining, count);
+    blockOffsets = Arrays.copyOf(offsets, count);
+  }
+
+  private static int compare(
+      final int clusterId,
+      final long position,
+      final int otherClusterId,
+      final long otherPosition) {
+    if (clusterId != otherClusterId) {
+      return Integer.compare(clusterId, otherClusterId);
+    }
+    return Long.compare(position, otherPosition);
+  }
+
+  private static void writeVarLong(final BytesContainer bytes, long value) {
+    while ((value & ~0x7FL) != 0) {
+      final int pos = bytes.alloc(1);
+      bytes.bytes[pos] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    final int pos = bytes.alloc(1);
+    bytes.bytes[pos] = (byte) value;
+  }
+
+  /**
+   * Reads RIDs of the sequence one by one in the sorted order without creation of intermediate
+   * objects.
+   */
+  public final class Cursor {
+    private int offset;
+    private int index;
+    private int runStartIndex;
+    private int runRemaining;
+    private int clusterId = -1;
+    private long position;
+
+    private Cursor() {}
+
+    /** Moves cursor to the next RID, returns <code>false</code> if all RIDs are read. */
+    public boolean next() {
+      if (index >= size) {
+        return false;
+      }
+      if (runRemaining == 0) {
+        clusterId = (int) readVarLong();
+        runRemaining = (int) readVarLong();
+        runStartIndex = index;
+        position = 0;
+      }
+      position += readVarLong();
+      runRemaining--;
+      index++;
+      return true;
+    }
+
+    public int getClusterId() {
+      return clusterId;
+    }
+
+    public long getClusterPosition() {
+      return position;
+    }
+
+    /** @return index of the current RID in the sequence. */
+    public int getIndex() {
+      return index - 1;
+    }
+
+    private long readVarLong() {
+      long value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = data[offset++];
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return value;
+    }
+  }
+}
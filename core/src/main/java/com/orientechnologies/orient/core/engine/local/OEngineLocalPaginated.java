@@ -36,6 +36,7 @@ import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.chm.AsyncReadCache;
+import com.orientechnologies.orient.core.storage.cache.chm.PartitionedReadCache;
 import com.orientechnologies.orient.core.storage.disk.OLocalPaginatedStorage;
 import com.orientechnologies.orient.core.storage.fs.OFile;
 import java.util.ArrayList;
@@ -113,7 +114,18 @@ public class OEngineLocalPaginated extends OEngineAbstract {
       pages.clear();
     }
 
-    readCache = new AsyncReadCache(OByteBufferPool.instance(null), diskCacheSize, pageSize, false);
+    final int partitions = OGlobalConfiguration.DISK_CACHE_PARTITIONS.getValueAsInteger();
+    if (partitions > 1) {
+      final PartitionedReadCache partitionedReadCache =
+          new PartitionedReadCache(
+              OByteBufferPool.instance(null), diskCacheSize, pageSize, partitions);
+      partitionedReadCache.registerMBean();
+
+      readCache = partitionedReadCache;
+    } else {
+      readCache =
+          new AsyncReadCache(OByteBufferPool.instance(null), diskCacheSize, pageSize, false);
+    }
   }
 
   private static long calculateReadCacheMaxMemory(final long cacheSize) {
@@ -180,6 +192,10 @@ public class OEngineLocalPaginated extends OEngineAbstract {
     try {
       readCache.clear();
       files.clear();
+
+      if (readCache instanceof PartitionedReadCache) {
+        ((PartitionedReadCache) readCache).unregisterMBean();
+      }
     } finally {
       super.shutdown();
     }
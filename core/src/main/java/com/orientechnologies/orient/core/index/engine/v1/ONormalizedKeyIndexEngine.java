@@ -0,0 +1,300 @@
+package com.orientechnologies.orient.core.index.engine.v1;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.encryption.OEncryption;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.OIndexDefinition;
+import com.orientechnologies.orient.core.index.OIndexException;
+import com.orientechnologies.orient.core.index.engine.OSingleValueIndexEngine;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
+import com.orientechnologies.orient.core.storage.index.nkbtree.NormalizedKeyBTree;
+import com.orientechnologies.orient.core.storage.index.nkbtree.NormalizedKeyBTreeValue;
+import com.orientechnologies.orient.core.storage.index.nkbtree.normalizers.KeyNormalizer;
+import com.orientechnologies.orient.core.storage.index.versionmap.OVersionPositionMap;
+import com.orientechnologies.orient.core.storage.index.versionmap.OVersionPositionMapV0;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Single value index engine which keeps keys in normalized form, see {@link NormalizedKeyBTree}.
+ * Normalized keys keep the order of original keys, so both point lookups and range queries are
+ * supported.
+ */
+public final class ONormalizedKeyIndexEngine implements OSingleValueIndexEngine {
+  public static final int VERSION = 1;
+
+  public static final String DATA_FILE_EXTENSION = ".nkt";
+  public static final String NULL_BUCKET_FILE_EXTENSION = ".nkn";
+
+  private final NormalizedKeyBTree<Object> tree;
+  private final OVersionPositionMap versionPositionMap;
+  private final String name;
+  private final int id;
+
+  public ONormalizedKeyIndexEngine(
+      int id, String name, OAbstractPaginatedStorage storage, int version) {
+    this.name = name;
+    this.id = id;
+
+    if (version != VERSION) {
+      throw new IllegalStateException("Invalid tree version " + version);
+    }
+
+    this.tree =
+        new NormalizedKeyBTreeValue<>(
+            name, DATA_FILE_EXTENSION, NULL_BUCKET_FILE_EXTENSION, storage);
+    versionPositionMap =
+        new OVersionPositionMapV0(
+            storage, name, name + DATA_FILE_EXTENSION, OVersionPositionMap.DEF_EXTENSION);
+  }
+
+  @Override
+  public int getId() {
+    return id;
+  }
+
+  @Override
+  public void init(
+      String indexName,
+      String indexType,
+      OIndexDefinition indexDefinition,
+      boolean isAutomatic,
+      ODocument metadata) {}
+
+  @Override
+  public void flush() {}
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public void create(
+      OAtomicOperation atomicOperation,
+      OBinarySerializer valueSerializer,
+      boolean isAutomatic,
+      OType[] keyTypes,
+      boolean nullPointerSupport,
+      OBinarySerializer keySerializer,
+      int keySize,
+      Map<String, String> engineProperties,
+      OEncryption encryption) {
+    if (keyTypes == null || keyTypes.length == 0) {
+      throw new OIndexException(
+          "Types of keys have to be provided to create index " + name + " with normalized keys");
+    }
+
+    final KeyNormalizer keyNormalizer = new KeyNormalizer();
+    for (final OType keyType : keyTypes) {
+      if (!keyNormalizer.isSupported(keyType)) {
+        throw new OIndexException(
+            "Keys of type "
+                + keyType
+                + " can not be normalized, index "
+                + name
+                + " with key types "
+                + Arrays.toString(keyTypes)
+                + " can not be created");
+      }
+    }
+
+    try {
+      //noinspection unchecked
+      tree.create(atomicOperation, keySerializer, keyTypes, keySize, encryption);
+      versionPositionMap.create(atomicOperation);
+    } catch (IOException e) {
+      throw OException.wrapException(new OIndexException("Error of creation of index " + name), e);
+    }
+  }
+
+  @Override
+  public void delete(final OAtomicOperation atomicOperation) {
+    try {
+      doClearTree(atomicOperation);
+      tree.delete(atomicOperation);
+      versionPositionMap.delete(atomicOperation);
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OIndexException("Error during deletion of index " + name), e);
+    }
+  }
+
+  private void doClearTree(OAtomicOperation atomicOperation) throws IOException {
+    try (Stream<Object> stream = tree.keyStream()) {
+      stream.forEach(
+          (key) -> {
+            try {
+              tree.remove(atomicOperation, key);
+            } catch (IOException e) {
+              throw OException.wrapException(new OIndexException("Can not clear index"), e);
+            }
+          });
+    }
+    tree.remove(atomicOperation, null);
+  }
+
+  @Override
+  public void load(
+      String indexName,
+      final int keySize,
+      final OType[] keyTypes,
+      final OBinarySerializer keySerializer,
+      final OEncryption encryption) {
+    //noinspection unchecked
+    tree.load(indexName, keySize, keyTypes, keySerializer, encryption);
+    try {
+      versionPositionMap.open();
+    } catch (final IOException e) {
+      throw OException.wrapException(
+          new OIndexException("Error during VPM load of index " + indexName), e);
+    }
+  }
+
+  @Override
+  public boolean remove(OAtomicOperation atomicOperation, Object key) {
+    try {
+      return tree.remove(atomicOperation, key) != null;
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OIndexException("Error during removal of key " + key + " from index " + name), e);
+    }
+  }
+
+  @Override
+  public void clear(OAtomicOperation atomicOperation) {
+    try {
+      doClearTree(atomicOperation);
+    } catch (IOException e) {
+      throw OException.wrapException(new OIndexException("Error during clear of index " + name), e);
+    }
+  }
+
+  @Override
+  public void close() {
+    tree.close();
+  }
+
+  @Override
+  public Stream<ORID> get(Object key) {
+    final ORID rid = tree.get(key);
+    if (rid == null) {
+      return Stream.empty();
+    }
+    return Stream.of(rid);
+  }
+
+  @Override
+  public Stream<ORawPair<Object, ORID>> stream(ValuesTransformer valuesTransformer) {
+    return transform(tree.allEntries(), valuesTransformer);
+  }
+
+  @Override
+  public Stream<ORawPair<Object, ORID>> descStream(ValuesTransformer valuesTransformer) {
+    return transform(tree.allEntriesDesc(), valuesTransformer);
+  }
+
+  private static Stream<ORawPair<Object, ORID>> transform(
+      final Stream<ORawPair<Object, ORID>> entries, final ValuesTransformer valuesTransformer) {
+    if (valuesTransformer == null) {
+      return entries;
+    }
+    return entries.flatMap(
+        (entry) ->
+            valuesTransformer.transformFromValue(entry.second).stream()
+                .map((rid) -> new ORawPair<>(entry.first, rid)));
+  }
+
+  @Override
+  public Stream<Object> keyStream() {
+    return tree.keyStream();
+  }
+
+  @Override
+  public void put(OAtomicOperation atomicOperation, Object key, ORID value) {
+    try {
+      tree.put(atomicOperation, key, value);
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OIndexException("Error during insertion of key " + key + " into index " + name), e);
+    }
+  }
+
+  @Override
+  public boolean validatedPut(
+      OAtomicOperation atomicOperation, Object key, ORID value, Validator<Object, ORID> validator) {
+    try {
+      return tree.validatedPut(atomicOperation, key, value, validator);
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OIndexException("Error during insertion of key " + key + " into index " + name), e);
+    }
+  }
+
+  @Override
+  public Stream<ORawPair<Object, ORID>> iterateEntriesBetween(
+      Object rangeFrom,
+      boolean fromInclusive,
+      Object rangeTo,
+      boolean toInclusive,
+      boolean ascSortOrder,
+      ValuesTransformer transformer) {
+    return transform(
+        tree.iterateEntriesBetween(rangeFrom, fromInclusive, rangeTo, toInclusive, ascSortOrder),
+        transformer);
+  }
+
+  @Override
+  public Stream<ORawPair<Object, ORID>> iterateEntriesMajor(
+      Object fromKey, boolean isInclusive, boolean ascSortOrder, ValuesTransformer transformer) {
+    return transform(
+        tree.iterateEntriesBetween(fromKey, isInclusive, null, false, ascSortOrder), transformer);
+  }
+
+  @Override
+  public Stream<ORawPair<Object, ORID>> iterateEntriesMinor(
+      Object toKey, boolean isInclusive, boolean ascSortOrder, ValuesTransformer transformer) {
+    return transform(
+        tree.iterateEntriesBetween(null, false, toKey, isInclusive, ascSortOrder), transformer);
+  }
+
+  @Override
+  public long size(final ValuesTransformer transformer) {
+    return tree.size();
+  }
+
+  @Override
+  public boolean hasRangeQuerySupport() {
+    return true;
+  }
+
+  @Override
+  public boolean acquireAtomicExclusiveLock(Object key) {
+    tree.acquireAtomicExclusiveLock();
+    return true;
+  }
+
+  @Override
+  public String getIndexNameByKey(Object key) {
+    return name;
+  }
+
+  @Override
+  public void updateUniqueIndexVersion(final Object key) {
+    final int keyHash = versionPositionMap.getKeyHash(key);
+    versionPositionMap.updateVersion(keyHash);
+  }
+
+  @Override
+  public int getUniqueIndexVersion(final Object key) {
+    final int keyHash = versionPositionMap.getKeyHash(key);
+    return versionPositionMap.getVersion(keyHash);
+  }
+}
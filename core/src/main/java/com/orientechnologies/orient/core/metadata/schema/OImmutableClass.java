@@ -33,6 +33,7 @@ import com.orientechnologies.orient.core.metadata.security.OUser;
 import com.orientechnologies.orient.core.metadata.sequence.OSequence;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.schedule.OScheduledEvent;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OStrictRecordLayout;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -90,6 +91,7 @@ public class OImmutableClass implements OClass {
   private boolean orole;
   private OIndex autoShardingIndex;
   private HashSet<OIndex> indexes;
+  private OStrictRecordLayout strictRecordLayout;
 
   public OImmutableClass(final OClass oClass, final OImmutableSchema schema) {
     isAbstract = oClass.isAbstract();
@@ -154,6 +156,7 @@ public class OImmutableClass implements OClass {
       this.orole = isSubClassOf(ORole.CLASS_NAME);
       this.indexes = new HashSet<>();
       getRawIndexes(indexes);
+      this.strictRecordLayout = OStrictRecordLayout.forClass(this);
 
       final ODatabaseDocumentInternal db = getDatabase();
       if (db != null
@@ -851,4 +854,12 @@ public class OImmutableClass implements OClass {
   public boolean isSequence() {
     return sequence;
   }
+
+  /**
+   * @return layout of the records of the class in strict mode, or <code>null</code> if records of
+   *     the class can not be stored with a fixed layout
+   */
+  public OStrictRecordLayout getStrictRecordLayout() {
+    return strictRecordLayout;
+  }
 }
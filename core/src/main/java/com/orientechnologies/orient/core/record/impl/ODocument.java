@@ -84,6 +84,9 @@ import com.orientechnologies.orient.core.record.OVertex;
 import com.orientechnologies.orient.core.serialization.serializer.OStringSerializerHelper;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializerFactory;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryDocumentView;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryField;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetwork;
 import com.orientechnologies.orient.core.sql.OSQLHelper;
 import com.orientechnologies.orient.core.sql.executor.OResult;
@@ -147,6 +150,9 @@ public class ODocument extends ORecordAbstract
   protected OPropertyAccess propertyAccess;
   protected OPropertyEncryption propertyEncryption;
 
+  /** Parsed header of the serialized content, used by partial deserialization of the fields. */
+  protected OBinaryDocumentView binaryView;
+
   /** Internal constructor used on unmarshalling. */
   public ODocument() {
     setup(ODatabaseRecordThreadLocal.instance().getIfDefined());
@@ -2437,13 +2443,37 @@ public class ODocument extends ORecordAbstract
 
       // NO FIELDS FOUND
       return false;
-    } else if (source != null)
+    } else if (source != null) {
       // FULL UNMARSHALLING
       source = null;
+      binaryView = null;
+    }
 
     return true;
   }
 
+  /**
+   * Internal.
+   *
+   * @return serialized value of the field, which can be compared without deserialization, or <code>
+   *     null</code> if the field is already deserialized or its value has to be deserialized to be
+   *     read
+   */
+  protected OBinaryField getBinaryField(final String name) {
+    if (status != ORecordElement.STATUS.LOADED
+        || source == null
+        || (propertyEncryption != null && propertyEncryption.isEncrypted(name))
+        || (fields != null && fields.containsKey(name))
+        || (propertyAccess != null && !propertyAccess.isReadable(name))) {
+      return null;
+    }
+    if (recordFormat == null) setup(ODatabaseRecordThreadLocal.instance().getIfDefined());
+    if (!(recordFormat instanceof ORecordSerializerBinary)) {
+      return null;
+    }
+    return ((ORecordSerializerBinary) recordFormat).getBinaryField(source, this, name);
+  }
+
   @Override
   public void writeExternal(ObjectOutput stream) throws IOException {
     ORecordSerializer serializer =
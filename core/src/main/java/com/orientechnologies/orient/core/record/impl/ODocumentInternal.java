@@ -28,6 +28,8 @@ import com.orientechnologies.orient.core.metadata.schema.OImmutableSchema;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.metadata.security.OPropertyAccess;
 import com.orientechnologies.orient.core.metadata.security.OPropertyEncryption;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryDocumentView;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryField;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -135,6 +137,18 @@ public class ODocumentInternal {
     return doc.propertyEncryption;
   }
 
+  public static OBinaryField getBinaryField(ODocument doc, String name) {
+    return doc.getBinaryField(name);
+  }
+
+  public static OBinaryDocumentView getBinaryView(ODocument doc) {
+    return doc.binaryView;
+  }
+
+  public static void setBinaryView(ODocument doc, OBinaryDocumentView binaryView) {
+    doc.binaryView = binaryView;
+  }
+
   public static void clearTransactionTrackData(ODocument doc) {
     doc.clearTransactionTrackData();
   }
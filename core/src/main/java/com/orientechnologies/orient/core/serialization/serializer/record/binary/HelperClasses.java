@@ -20,6 +20,7 @@ import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OByteSerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
@@ -30,6 +31,7 @@ import com.orientechnologies.orient.core.db.record.OTrackedMultiValue;
 import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
 import com.orientechnologies.orient.core.db.record.ridbag.ORidBagDelegate;
 import com.orientechnologies.orient.core.db.record.ridbag.embedded.OEmbeddedRidBag;
+import com.orientechnologies.orient.core.db.record.ridbag.embedded.OPackedRids;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
 import com.orientechnologies.orient.core.exception.OSerializationException;
@@ -53,6 +55,7 @@ import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollection
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeRidBag;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.HashMap;
@@ -344,19 +347,71 @@ public class HelperClasses {
 
     if (uuid != null) configByte |= 2;
 
+    OPackedRids packed = null;
+    if (ridbag.isEmbedded()) {
+      packed = packEmbeddedRidbag(ridbag);
+      if (packed != null) configByte |= 4;
+    }
+
     // alloc will move offset and do skip
     int posForWrite = bytes.alloc(OByteSerializer.BYTE_SIZE);
     OByteSerializer.INSTANCE.serialize(configByte, bytes.bytes, posForWrite);
 
     // removed serializing UUID
 
-    if (ridbag.isEmbedded()) {
+    if (packed != null) {
+      writePackedRidbag(bytes, packed);
+    } else if (ridbag.isEmbedded()) {
       writeEmbeddedRidbag(bytes, ridbag);
     } else {
       writeSBTreeRidbag(bytes, ridbag, ownerUuid);
     }
   }
 
+  /**
+   * @return content of the embedded ridbag in the packed form or <code>null</code> if packed form
+   *     is disabled or the ridbag contains links to records which are not persistent yet
+   */
+  private static OPackedRids packEmbeddedRidbag(ORidBag ridbag) {
+    final OEmbeddedRidBag delegate = (OEmbeddedRidBag) ridbag.getDelegate();
+    if (delegate.getPacked() != null) {
+      return delegate.getPacked();
+    }
+    if (!OGlobalConfiguration.RID_BAG_EMBEDDED_PACKED.getValueAsBoolean()) {
+      return null;
+    }
+
+    final Object[] entries = delegate.getEntries();
+    final ORID[] rids = new ORID[ridbag.size()];
+    int size = 0;
+    ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    for (Object entry : entries) {
+      if (entry instanceof OIdentifiable) {
+        OIdentifiable itemValue = (OIdentifiable) entry;
+        if (db != null
+            && !db.isClosed()
+            && db.getTransaction().isActive()
+            && !itemValue.getIdentity().isPersistent()) {
+          itemValue = db.getTransaction().getRecord(itemValue.getIdentity());
+        }
+        if (itemValue == null || !itemValue.getIdentity().isPersistent() || size == rids.length) {
+          // legacy format reports such entries
+          return null;
+        }
+        rids[size++] = itemValue.getIdentity();
+      }
+    }
+    return OPackedRids.pack(rids, size);
+  }
+
+  private static void writePackedRidbag(BytesContainer bytes, OPackedRids packed) {
+    final byte[] data = packed.getData();
+    OVarIntSerializer.write(bytes, packed.size());
+    OVarIntSerializer.write(bytes, data.length);
+    final int pos = bytes.alloc(data.length);
+    System.arraycopy(data, 0, bytes.bytes, pos, data.length);
+  }
+
   protected static void writeEmbeddedRidbag(BytesContainer bytes, ORidBag ridbag) {
     OVarIntSerializer.write(bytes, ridbag.size());
     Object[] entries = ((OEmbeddedRidBag) ridbag.getDelegate()).getEntries();
@@ -461,7 +516,14 @@ public class HelperClasses {
     // removed deserializing UUID
 
     ORidBag ridbag = null;
-    if (isEmbedded) {
+    if (isEmbedded && (configByte & 4) != 0) {
+      ridbag = new ORidBag();
+      int size = OVarIntSerializer.readAsInteger(bytes);
+      int length = OVarIntSerializer.readAsInteger(bytes);
+      byte[] data = Arrays.copyOfRange(bytes.bytes, bytes.offset, bytes.offset + length);
+      bytes.skip(length);
+      ((OEmbeddedRidBag) ridbag.getDelegate()).setPacked(new OPackedRids(data, size));
+    } else if (isEmbedded) {
       ridbag = new ORidBag();
       int size = OVarIntSerializer.readAsInteger(bytes);
       ridbag.getDelegate().setSize(size);
@@ -0,0 +1,187 @@
+package com.orientechnologies.orient.core.serialization.serializer.record.binary;
+
+import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.bytesFromString;
+import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.getGlobalProperty;
+import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.readOType;
+import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.stringFromBytes;
+
+import com.orientechnologies.orient.core.metadata.schema.OGlobalProperty;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.Arrays;
+
+/**
+ * Read only view of the fields of a document serialized by {@link ORecordSerializerBinaryV1}. View
+ * keeps reference to the serialized bytes without copying them, header of the record is parsed only
+ * once and only positions of the names, types and positions of the values of the fields are
+ * extracted from it. Names stored in the record are compared as UTF-8 bytes in place and decoded
+ * only when requested, values are deserialized on demand one by one.
+ *
+ * <p>View is kept by the document till its serialized content is replaced, so partial
+ * deserialization of the fields of a wide document, which is performed by queries which read only
+ * few fields, does not parse the header again for every accessed field.
+ */
+public final class OBinaryDocumentView {
+  private final byte[] source;
+  private final int offset;
+
+  /** Names of the fields, decoded lazily for the fields which store their names in the record. */
+  private final String[] names;
+
+  /** Positions of the names stored in the record, or <code>-1</code> for global properties. */
+  private final int[] namePositions;
+
+  private final int[] nameLengths;
+  private final OType[] types;
+  private final int[] valuePositions;
+
+  /**
+   * @param bytes serialized document, offset of the container points to the header of the record
+   * @param document document which is used to resolve global properties of the schema
+   */
+  OBinaryDocumentView(final BytesContainer bytes, final ODocument document) {
+    this.source = bytes.bytes;
+    this.offset = bytes.offset;
+
+    final BytesContainer header = bytes.copy();
+    final int headerLength = OVarIntSerializer.readAsInteger(header);
+    final int valuesStart = header.offset + headerLength;
+
+    int capacity = 8;
+    String[] names = new String[capacity];
+    int[] namePositions = new int[capacity];
+    int[] nameLengths = new int[capacity];
+    OType[] types = new OType[capacity];
+    int[] valuePositions = new int[capacity];
+
+    int count = 0;
+    int currentValuePos = valuesStart;
+    while (header.offset < valuesStart) {
+      final int len = OVarIntSerializer.readAsInteger(header);
+      final String name;
+      final int namePosition;
+      final int fieldLength;
+      final OType type;
+      if (len > 0) {
+        name = null;
+        namePosition = header.offset;
+        header.skip(len);
+        fieldLength = OVarIntSerializer.readAsInteger(header);
+        type = readOType(header, false);
+      } else {
+        final OGlobalProperty prop = getGlobalProperty(document, len);
+        name = prop.getName();
+        namePosition = -1;
+        fieldLength = OVarIntSerializer.readAsInteger(header);
+        type = prop.getType() != OType.ANY ? prop.getType() : readOType(header, false);
+      }
+
+      if (count == capacity) {
+        capacity <<= 1;
+        names = Arrays.copyOf(names, capacity);
+        namePositions = Arrays.copyOf(namePositions, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        types = Arrays.copyOf(types, capacity);
+        valuePositions = Arrays.copyOf(valuePositions, capacity);
+      }
+      names[count] = name;
+      namePositions[count] = namePosition;
+      nameLengths[count] = len;
+      types[count] = type;
+      // values of zero length are nulls
+      valuePositions[count] = fieldLength != 0 ? currentValuePos : -1;
+      count++;
+
+      currentValuePos += fieldLength;
+    }
+
+    this.names = Arrays.copyOf(names, count);
+    this.namePositions = Arrays.copyOf(namePositions, count);
+    this.nameLengths = Arrays.copyOf(nameLengths, count);
+    this.types = Arrays.copyOf(types, count);
+    this.valuePositions = Arrays.copyOf(valuePositions, count);
+  }
+
+  /**
+   * @return <code>true</code> if the view is built for the document serialized at given position
+   */
+  boolean isViewOf(final BytesContainer bytes) {
+    return source == bytes.bytes && offset == bytes.offset;
+  }
+
+  public int fieldCount() {
+    return names.length;
+  }
+
+  /** @return index of the field or <code>-1</code> if document does not contain such field */
+  public int indexOf(final String fieldName) {
+    byte[] fieldBytes = null;
+    for (int i = 0; i < names.length; i++) {
+      final int namePosition = namePositions[i];
+      if (namePosition < 0) {
+        final String name = names[i];
+        if (name == fieldName || name.equals(fieldName)) {
+          return i;
+        }
+      } else {
+        if (fieldBytes == null) {
+          fieldBytes = bytesFromString(fieldName);
+        }
+        if (nameEquals(namePosition, nameLengths[i], fieldBytes)) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private boolean nameEquals(final int position, final int length, final byte[] fieldBytes) {
+    if (length != fieldBytes.length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (source[position + i] != fieldBytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public String getName(final int index) {
+    String name = names[index];
+    if (name == null) {
+      name = stringFromBytes(source, namePositions[index], nameLengths[index]);
+      names[index] = name;
+    }
+    return name;
+  }
+
+  /** @return type of the field or <code>null</code> if value of the field is null */
+  public OType getType(final int index) {
+    return valuePositions[index] < 0 ? null : types[index];
+  }
+
+  /**
+   * @return serialized value of the field without copy, or <code>null</code> if the value is null
+   *     or its type can not be compared by the comparator
+   */
+  public OBinaryField getBinaryField(final int index, final OBinaryComparator comparator) {
+    final int position = valuePositions[index];
+    if (position < 0 || !comparator.isBinaryComparable(types[index])) {
+      return null;
+    }
+    return new OBinaryField(
+        getName(index), types[index], new BytesContainer(source, position), null);
+  }
+
+  /** Deserializes value of the field. */
+  public Object getValue(
+      final ODocumentSerializer serializer, final int index, final ODocument document) {
+    final int position = valuePositions[index];
+    if (position < 0) {
+      return null;
+    }
+    return serializer.deserializeValue(
+        new BytesContainer(source, position), types[index], document);
+  }
+}
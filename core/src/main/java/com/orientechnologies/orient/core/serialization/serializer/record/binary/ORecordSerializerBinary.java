@@ -21,6 +21,7 @@
 package com.orientechnologies.orient.core.serialization.serializer.record.binary;
 
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseSession;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.record.ORecord;
@@ -36,14 +37,16 @@ public class ORecordSerializerBinary implements ORecordSerializer {
   public static final String NAME = "ORecordSerializerBinary";
   public static final ORecordSerializerBinary INSTANCE = new ORecordSerializerBinary();
   private static final byte CURRENT_RECORD_VERSION = 1;
+  private static final byte STRICT_LAYOUT_RECORD_VERSION = 2;
 
   private ODocumentSerializer[] serializerByVersion;
   private final byte currentSerializerVersion;
 
   private void init() {
-    serializerByVersion = new ODocumentSerializer[2];
+    serializerByVersion = new ODocumentSerializer[3];
     serializerByVersion[0] = new ORecordSerializerBinaryV0();
     serializerByVersion[1] = new ORecordSerializerBinaryV1();
+    serializerByVersion[2] = new ORecordSerializerBinaryV2();
   }
 
   public ORecordSerializerBinary(byte serializerVersion) {
@@ -56,8 +59,12 @@ public class ORecordSerializerBinary implements ORecordSerializer {
     init();
   }
 
+  /**
+   * @return amount of versions which can be used as the current version, records of the strict
+   *     layout version are written only for the documents which match the layout of their class
+   */
   public int getNumberOfSupportedVersions() {
-    return serializerByVersion.length;
+    return STRICT_LAYOUT_RECORD_VERSION;
   }
 
   @Override
@@ -78,6 +85,25 @@ public class ORecordSerializerBinary implements ORecordSerializer {
     return serializerByVersion[currentSerializerVersion];
   }
 
+  /**
+   * @param source serialized content of the document
+   * @return serialized value of the field, which is compared by the comparator of the serializer of
+   *     the record without deserialization, or <code>null</code> if the value can not be compared
+   *     this way or the format of the record does not keep the view of its fields
+   */
+  public OBinaryField getBinaryField(
+      final byte[] source, final ODocument document, final String fieldName) {
+    if (source == null || source.length == 0) {
+      return null;
+    }
+    final ODocumentSerializer serializer = serializerByVersion[source[0]];
+    if (!(serializer instanceof ORecordSerializerBinaryV1)) {
+      return null;
+    }
+    return ((ORecordSerializerBinaryV1) serializer)
+        .getBinaryField(document, new BytesContainer(source).skip(1), fieldName);
+  }
+
   @Override
   public String toString() {
     return NAME;
@@ -125,11 +151,20 @@ public class ORecordSerializerBinary implements ORecordSerializer {
 
       final BytesContainer container = new BytesContainer();
 
+      byte version = currentSerializerVersion;
+      if (version == CURRENT_RECORD_VERSION
+          && !documentToSerialize.isEmbedded()
+          && OGlobalConfiguration.DB_DOCUMENT_SERIALIZER_STRICT_LAYOUT.getValueAsBoolean()
+          && ((ORecordSerializerBinaryV2) serializerByVersion[STRICT_LAYOUT_RECORD_VERSION])
+              .isStrictLayoutApplicable(documentToSerialize)) {
+        version = STRICT_LAYOUT_RECORD_VERSION;
+      }
+
       // WRITE SERIALIZER VERSION
       int pos = container.alloc(1);
-      container.bytes[pos] = currentSerializerVersion;
+      container.bytes[pos] = version;
       // SERIALIZE RECORD
-      serializerByVersion[currentSerializerVersion].serialize(documentToSerialize, container);
+      serializerByVersion[version].serialize(documentToSerialize, container);
 
       return container.fitBytes();
     }
@@ -1,7 +1,6 @@
 package com.orientechnologies.orient.core.serialization.serializer.record.binary;
 
 import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.MILLISEC_PER_DAY;
-import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.bytesFromString;
 import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.convertDayToTimezone;
 import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.getGlobalProperty;
 import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.getLinkedType;
@@ -73,101 +72,44 @@ import java.util.TreeMap;
 public class ORecordSerializerBinaryV1 implements ODocumentSerializer {
   private final OBinaryComparatorV0 comparator = new OBinaryComparatorV0();
 
-  private int findMatchingFieldName(final BytesContainer bytes, int len, byte[][] fields) {
-    for (int i = 0; i < fields.length; ++i) {
-      if (fields[i] != null && fields[i].length == len) {
-        boolean matchField = true;
-        for (int j = 0; j < len; ++j) {
-          if (bytes.bytes[bytes.offset + j] != fields[i][j]) {
-            matchField = false;
-            break;
-          }
-        }
-        if (matchField) {
-          return i;
-        }
-      }
-    }
-
-    return -1;
-  }
-
-  private boolean checkIfPropertyNameMatchSome(OGlobalProperty prop, final String[] fields) {
-    String fieldName = prop.getName();
-
-    for (int i = 0; i < fields.length; i++) {
-      if (fieldName.equals(fields[i])) {
-        return true;
-      }
+  /**
+   * @return view of the fields of the document, header is parsed once and the view is reused by the
+   *     next partial deserializations of the same content
+   */
+  private static OBinaryDocumentView getView(ODocument document, BytesContainer bytes) {
+    OBinaryDocumentView view = ODocumentInternal.getBinaryView(document);
+    if (view == null || !view.isViewOf(bytes)) {
+      view = new OBinaryDocumentView(bytes, document);
+      ODocumentInternal.setBinaryView(document, view);
     }
-
-    return false;
+    return view;
   }
 
   public void deserializePartial(ODocument document, BytesContainer bytes, String[] iFields) {
-    // TRANSFORMS FIELDS FOM STRINGS TO BYTE[]
-    final byte[][] fields = new byte[iFields.length][];
-    for (int i = 0; i < iFields.length; ++i) {
-      fields[i] = bytesFromString(iFields[i]);
-    }
-
-    String fieldName;
-    OType type;
-    int unmarshalledFields = 0;
-
-    int headerLength = OVarIntSerializer.readAsInteger(bytes);
-    int headerStart = bytes.offset;
-    int valuesStart = headerStart + headerLength;
-    int currentValuePos = valuesStart;
-
-    while (bytes.offset < valuesStart) {
-
-      final int len = OVarIntSerializer.readAsInteger(bytes);
-      boolean found;
-      int fieldLength;
-      if (len > 0) {
-        int fieldPos = findMatchingFieldName(bytes, len, fields);
-        bytes.skip(len);
-        Tuple<Integer, OType> pointerAndType = getFieldSizeAndTypeFromCurrentPosition(bytes);
-        fieldLength = pointerAndType.getFirstVal();
-        type = pointerAndType.getSecondVal();
-
-        if (fieldPos >= 0) {
-          fieldName = iFields[fieldPos];
-          found = true;
-        } else {
-          fieldName = null;
-          found = false;
-        }
-      } else {
-        // LOAD GLOBAL PROPERTY BY ID
-        final OGlobalProperty prop = getGlobalProperty(document, len);
-        found = checkIfPropertyNameMatchSome(prop, iFields);
-
-        fieldLength = OVarIntSerializer.readAsInteger(bytes);
-        type = getPropertyTypeFromStream(prop, bytes);
-
-        fieldName = prop.getName();
+    final OBinaryDocumentView view = getView(document, bytes);
+    for (String field : iFields) {
+      if (field == null) {
+        continue;
       }
-      if (found) {
-        if (fieldLength != 0) {
-          int headerCursor = bytes.offset;
-          bytes.offset = currentValuePos;
-          final Object value = deserializeValue(bytes, type, document);
-          bytes.offset = headerCursor;
-          ODocumentInternal.rawField(document, fieldName, value, type);
-        } else {
-          // If pos us 0 the value is null just set it.
-          ODocumentInternal.rawField(document, fieldName, null, null);
-        }
-        if (++unmarshalledFields == iFields.length)
-          // ALL REQUESTED FIELDS UNMARSHALLED: EXIT
-          break;
+      final int index = view.indexOf(field);
+      if (index >= 0) {
+        ODocumentInternal.rawField(
+            document, field, view.getValue(this, index, document), view.getType(index));
       }
-      currentValuePos += fieldLength;
     }
   }
 
+  /**
+   * @return serialized value of the field, which is compared by {@link #getComparator()} without
+   *     deserialization, or <code>null</code> if the document does not contain the field, the value
+   *     is null or it is not binary comparable
+   */
+  public OBinaryField getBinaryField(ODocument document, BytesContainer bytes, String fieldName) {
+    final OBinaryDocumentView view = getView(document, bytes);
+    final int index = view.indexOf(fieldName);
+    return index >= 0 ? view.getBinaryField(index, comparator) : null;
+  }
+
   private boolean checkMatchForLargerThenZero(
       final BytesContainer bytes, final byte[] field, int len) {
     if (field.length != len) {
@@ -0,0 +1,590 @@
+package com.orientechnologies.orient.core.serialization.serializer.record.binary;
+
+import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.MILLISEC_PER_DAY;
+import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.convertDayToTimezone;
+import static com.orientechnologies.orient.core.serialization.serializer.record.binary.HelperClasses.getLinkedType;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.common.serialization.types.OShortSerializer;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.ORecordElement;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableSchema;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.metadata.security.OPropertyEncryption;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentEntry;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+import com.orientechnologies.orient.core.util.ODateHelper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Serializes documents of classes in strict mode using the {@link OStrictRecordLayout} of the
+ * class, so every field is accessed at the position known from the layout without parsing of the
+ * record header. Documents which can not be stored with the layout of their class are prefixed with
+ * zero and stored in the {@link ORecordSerializerBinaryV1} format, values of variable length and
+ * embedded documents are always stored in that format.
+ */
+public class ORecordSerializerBinaryV2 implements ODocumentSerializer {
+  private static final int ABSENT = 0;
+  private static final int NULL = 1;
+  private static final int VALUE = 2;
+
+  private final ORecordSerializerBinaryV1 delegate = new ORecordSerializerBinaryV1();
+
+  /**
+   * @return <code>true</code> if the document belongs to the class with the strict layout and all
+   *     its fields match properties of the class
+   */
+  public boolean isStrictLayoutApplicable(final ODocument document) {
+    final OStrictRecordLayout layout = getLayout(document);
+    return layout != null && canSerialize(layout, document);
+  }
+
+  @Override
+  public void serialize(final ODocument document, final BytesContainer bytes) {
+    final OStrictRecordLayout layout = getLayout(document);
+    if (layout == null || !canSerialize(layout, document)) {
+      OVarIntSerializer.write(bytes, 0);
+      delegate.serialize(document, bytes);
+      return;
+    }
+
+    final OImmutableSchema schema = ODocumentInternal.getImmutableSchema(document);
+    final OPropertyEncryption encryption = ODocumentInternal.getPropertyEncryption(document);
+    final OClass clazz = ODocumentInternal.getImmutableSchemaClass(document);
+
+    final byte[] descriptor = layout.getDescriptor();
+    final int descriptorPos = bytes.alloc(descriptor.length);
+    System.arraycopy(descriptor, 0, bytes.bytes, descriptorPos, descriptor.length);
+
+    final int statusPos = bytes.alloc(layout.getStatusSize());
+    final int fixedPos = bytes.alloc(layout.getFixedSize());
+    Arrays.fill(bytes.bytes, statusPos, fixedPos + layout.getFixedSize(), (byte) 0);
+
+    final Object[] variableValues = new Object[layout.getVariableCount()];
+    for (Entry<String, ODocumentEntry> field : ODocumentInternal.rawEntries(document)) {
+      final ODocumentEntry entry = field.getValue();
+      if (!entry.exists()) {
+        continue;
+      }
+      final int slot = layout.indexOf(field.getKey());
+      final Object value = entry.value;
+      final int statusIndex = statusPos + (slot >>> 2);
+      bytes.bytes[statusIndex] |= (value != null ? VALUE : NULL) << ((slot & 3) << 1);
+
+      if (value != null) {
+        final int fixedOffset = layout.getFixedOffset(slot);
+        if (fixedOffset >= 0) {
+          writeFixed(bytes.bytes, fixedPos + fixedOffset, layout.getType(slot), value);
+        } else {
+          variableValues[layout.getVariableIndex(slot)] = value;
+        }
+      }
+    }
+
+    if (variableValues.length == 0) {
+      return;
+    }
+
+    final BytesContainer values = new BytesContainer();
+    final int[] ends = new int[variableValues.length];
+    int variableIndex = 0;
+    for (int slot = 0; slot < layout.getSlotCount(); slot++) {
+      if (layout.getVariableIndex(slot) < 0) {
+        continue;
+      }
+      final Object value = variableValues[variableIndex];
+      if (value != null) {
+        final OType type = layout.getType(slot);
+        delegate.serializeValue(
+            values,
+            value,
+            type,
+            getLinkedType(clazz, type, layout.getName(slot)),
+            schema,
+            encryption);
+      }
+      ends[variableIndex++] = values.offset;
+    }
+
+    final int width = values.offset <= 0xFF ? 1 : values.offset <= 0xFFFF ? 2 : 4;
+    final int widthPos = bytes.alloc(1);
+    bytes.bytes[widthPos] = (byte) width;
+    final int endsPos = bytes.alloc(width * ends.length);
+    for (int i = 0; i < ends.length; i++) {
+      writeOffset(bytes.bytes, endsPos + i * width, width, ends[i]);
+    }
+    final int valuesPos = bytes.alloc(values.offset);
+    System.arraycopy(values.bytes, 0, bytes.bytes, valuesPos, values.offset);
+  }
+
+  @Override
+  public void deserialize(final ODocument document, final BytesContainer bytes) {
+    final StrictRecord record = readRecord(document, bytes);
+    if (record == null) {
+      delegate.deserialize(document, bytes);
+      return;
+    }
+
+    final OStrictRecordLayout layout = record.layout;
+    for (int slot = 0; slot < layout.getSlotCount(); slot++) {
+      final int status = record.status(slot);
+      final String fieldName = layout.getName(slot);
+      if (status == ABSENT || ODocumentInternal.rawContainsField(document, fieldName)) {
+        continue;
+      }
+      if (status == VALUE) {
+        final OType type = layout.getType(slot);
+        ODocumentInternal.rawField(document, fieldName, readValue(record, slot, document), type);
+      } else {
+        ODocumentInternal.rawField(document, fieldName, null, null);
+      }
+    }
+
+    ORecordInternal.clearSource(document);
+    bytes.offset = record.end();
+  }
+
+  @Override
+  public void deserializePartial(
+      final ODocument document, final BytesContainer bytes, final String[] iFields) {
+    final StrictRecord record = readRecord(document, bytes);
+    if (record == null) {
+      delegate.deserializePartial(document, bytes, iFields);
+      return;
+    }
+
+    final OStrictRecordLayout layout = record.layout;
+    for (String field : iFields) {
+      if (field == null) {
+        continue;
+      }
+      final int slot = layout.indexOf(field);
+      if (slot < 0) {
+        continue;
+      }
+      final int status = record.status(slot);
+      if (status == VALUE) {
+        ODocumentInternal.rawField(
+            document, field, readValue(record, slot, document), layout.getType(slot));
+      } else if (status == NULL) {
+        ODocumentInternal.rawField(document, field, null, null);
+      }
+    }
+  }
+
+  @Override
+  public OBinaryField deserializeField(
+      final BytesContainer bytes,
+      final OClass iClass,
+      final String iFieldName,
+      final boolean embedded,
+      final OImmutableSchema schema,
+      final OPropertyEncryption encryption) {
+    final StrictRecord record = embedded ? null : readRecord(iClass, schema, bytes);
+    if (record == null) {
+      return delegate.deserializeField(bytes, iClass, iFieldName, embedded, schema, encryption);
+    }
+
+    final int slot = record.layout.indexOf(iFieldName);
+    final OType type = slot >= 0 ? record.layout.getType(slot) : null;
+    if (slot < 0
+        || record.status(slot) != VALUE
+        || !delegate.getComparator().isBinaryComparable(type)) {
+      return null;
+    }
+
+    final BytesContainer value;
+    final int fixedOffset = record.layout.getFixedOffset(slot);
+    if (fixedOffset >= 0) {
+      // binary comparator works with values in the variable length format
+      value = new BytesContainer();
+      delegate.serializeValue(
+          value,
+          readFixed(record.bytes, record.fixedPos + fixedOffset, type),
+          type,
+          null,
+          schema,
+          encryption);
+      value.offset = 0;
+    } else {
+      value = new BytesContainer(record.bytes, record.variableStart(slot));
+    }
+    final OProperty classProp = iClass != null ? iClass.getProperty(iFieldName) : null;
+    return new OBinaryField(
+        iFieldName, type, value, classProp != null ? classProp.getCollate() : null);
+  }
+
+  @Override
+  public <RET> RET deserializeFieldTyped(
+      final BytesContainer bytes,
+      final String iFieldName,
+      final boolean isEmbedded,
+      final OImmutableSchema schema,
+      final OPropertyEncryption encryption) {
+    final StrictRecord record = isEmbedded ? null : readRecord(null, schema, bytes);
+    if (record == null) {
+      return delegate.deserializeFieldTyped(bytes, iFieldName, isEmbedded, schema, encryption);
+    }
+
+    final int slot = record.layout.indexOf(iFieldName);
+    if (slot < 0 || record.status(slot) != VALUE) {
+      return null;
+    }
+    final OType type = record.layout.getType(slot);
+    final int fixedOffset = record.layout.getFixedOffset(slot);
+    final Object value;
+    if (fixedOffset >= 0) {
+      value = readFixed(record.bytes, record.fixedPos + fixedOffset, type);
+    } else {
+      value =
+          delegate.deserializeValue(
+              new BytesContainer(record.bytes, record.variableStart(slot)),
+              type,
+              null,
+              false,
+              record.variableLength(slot),
+              false,
+              schema);
+    }
+    //noinspection unchecked
+    return (RET) value;
+  }
+
+  @Override
+  public String[] getFieldNames(
+      final ODocument reference, final BytesContainer bytes, final boolean embedded) {
+    final StrictRecord record = embedded ? null : readRecord(reference, bytes);
+    if (record == null) {
+      return delegate.getFieldNames(reference, bytes, embedded);
+    }
+
+    final List<String> result = new ArrayList<>(record.layout.getSlotCount());
+    for (int slot = 0; slot < record.layout.getSlotCount(); slot++) {
+      if (record.status(slot) != ABSENT) {
+        result.add(record.layout.getName(slot));
+      }
+    }
+    return result.toArray(new String[0]);
+  }
+
+  @Override
+  public void deserializeDebug(
+      final BytesContainer bytes,
+      final ODatabaseDocumentInternal db,
+      final ORecordSerializationDebug debugInfo,
+      final OImmutableSchema schema) {
+    final StrictRecord record;
+    try {
+      record = readRecord(null, schema, bytes);
+    } catch (RuntimeException ex) {
+      debugInfo.properties = new ArrayList<>();
+      debugInfo.readingFailure = true;
+      debugInfo.readingException = ex;
+      debugInfo.failPosition = bytes.offset;
+      return;
+    }
+    if (record == null) {
+      delegate.deserializeDebug(bytes, db, debugInfo, schema);
+      return;
+    }
+
+    debugInfo.properties = new ArrayList<>();
+    final OStrictRecordLayout layout = record.layout;
+    for (int slot = 0; slot < layout.getSlotCount(); slot++) {
+      final int status = record.status(slot);
+      if (status == ABSENT) {
+        continue;
+      }
+      final ORecordSerializationDebugProperty debugProperty =
+          new ORecordSerializationDebugProperty();
+      debugInfo.properties.add(debugProperty);
+      debugProperty.name = layout.getName(slot);
+      debugProperty.type = layout.getType(slot);
+      if (status == VALUE) {
+        debugProperty.valuePos =
+            layout.getFixedOffset(slot) >= 0
+                ? record.fixedPos + layout.getFixedOffset(slot)
+                : record.variableStart(slot);
+        try {
+          debugProperty.value = readValue(record, slot, new ODocument());
+        } catch (RuntimeException ex) {
+          debugProperty.faildToRead = true;
+          debugProperty.readingException = ex;
+          debugProperty.failPosition = debugProperty.valuePos;
+        }
+      }
+    }
+  }
+
+  @Override
+  public int serializeValue(
+      final BytesContainer bytes,
+      final Object value,
+      final OType type,
+      final OType linkedType,
+      final OImmutableSchema schema,
+      final OPropertyEncryption encryption) {
+    return delegate.serializeValue(bytes, value, type, linkedType, schema, encryption);
+  }
+
+  @Override
+  public Object deserializeValue(
+      final BytesContainer bytes, final OType type, final ORecordElement owner) {
+    return delegate.deserializeValue(bytes, type, owner);
+  }
+
+  @Override
+  public OBinaryComparator getComparator() {
+    return delegate.getComparator();
+  }
+
+  @Override
+  public boolean isSerializingClassNameByDefault() {
+    return false;
+  }
+
+  private static OStrictRecordLayout getLayout(final ODocument document) {
+    final OImmutableClass clazz = ODocumentInternal.getImmutableSchemaClass(document);
+    return clazz != null ? clazz.getStrictRecordLayout() : null;
+  }
+
+  private boolean canSerialize(final OStrictRecordLayout layout, final ODocument document) {
+    final Set<Entry<String, ODocumentEntry>> fields = ODocumentInternal.rawEntries(document);
+    for (Entry<String, ODocumentEntry> field : fields) {
+      final ODocumentEntry entry = field.getValue();
+      if (!entry.exists()) {
+        continue;
+      }
+      final int slot = layout.indexOf(field.getKey());
+      if (slot < 0) {
+        return false;
+      }
+      final Object value = entry.value;
+      if (value == null) {
+        continue;
+      }
+      final OType type = layout.getType(slot);
+      if (delegate.getFieldType(entry) != type) {
+        return false;
+      }
+      if (layout.getFixedOffset(slot) >= 0 && !isFixedValue(type, value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isFixedValue(final OType type, final Object value) {
+    switch (type) {
+      case BOOLEAN:
+        return value instanceof Boolean;
+      case DATE:
+      case DATETIME:
+        return value instanceof Date || value instanceof Number;
+      default:
+        return value instanceof Number;
+    }
+  }
+
+  /**
+   * Reads the layout of the record, offset of the container points to the beginning of the record.
+   *
+   * @return record or <code>null</code> if the record is stored in the format of the previous
+   *     version, in such case offset of the container points to the beginning of that format
+   */
+  private StrictRecord readRecord(final ODocument document, final BytesContainer bytes) {
+    if (bytes.bytes[bytes.offset] == 0) {
+      bytes.skip(1);
+      return null;
+    }
+
+    final OStrictRecordLayout layout = getLayout(document);
+    if (layout != null && layout.isLayoutOf(bytes.bytes, bytes.offset)) {
+      bytes.skip(layout.getDescriptor().length);
+      return new StrictRecord(layout, bytes.bytes, bytes.offset);
+    }
+    final OStrictRecordLayout recordLayout =
+        OStrictRecordLayout.read(
+            bytes, id -> ODocumentInternal.getGlobalPropertyById(document, id));
+    return new StrictRecord(recordLayout, bytes.bytes, bytes.offset);
+  }
+
+  private StrictRecord readRecord(
+      final OClass clazz, final OImmutableSchema schema, final BytesContainer bytes) {
+    if (bytes.bytes[bytes.offset] == 0) {
+      bytes.skip(1);
+      return null;
+    }
+
+    final OStrictRecordLayout layout =
+        clazz instanceof OImmutableClass ? ((OImmutableClass) clazz).getStrictRecordLayout() : null;
+    if (layout != null && layout.isLayoutOf(bytes.bytes, bytes.offset)) {
+      bytes.skip(layout.getDescriptor().length);
+      return new StrictRecord(layout, bytes.bytes, bytes.offset);
+    }
+    final OStrictRecordLayout recordLayout =
+        OStrictRecordLayout.read(bytes, schema::getGlobalPropertyById);
+    return new StrictRecord(recordLayout, bytes.bytes, bytes.offset);
+  }
+
+  private Object readValue(final StrictRecord record, final int slot, final ORecordElement owner) {
+    final OType type = record.layout.getType(slot);
+    final int fixedOffset = record.layout.getFixedOffset(slot);
+    if (fixedOffset >= 0) {
+      return readFixed(record.bytes, record.fixedPos + fixedOffset, type);
+    }
+    return deserializeValue(
+        new BytesContainer(record.bytes, record.variableStart(slot)), type, owner);
+  }
+
+  private static void writeFixed(
+      final byte[] bytes, final int position, final OType type, final Object value) {
+    switch (type) {
+      case BOOLEAN:
+        bytes[position] = ((Boolean) value) ? (byte) 1 : (byte) 0;
+        break;
+      case BYTE:
+        bytes[position] = ((Number) value).byteValue();
+        break;
+      case SHORT:
+        OShortSerializer.INSTANCE.serializeLiteral(((Number) value).shortValue(), bytes, position);
+        break;
+      case INTEGER:
+        OIntegerSerializer.INSTANCE.serializeLiteral(((Number) value).intValue(), bytes, position);
+        break;
+      case LONG:
+        OLongSerializer.INSTANCE.serializeLiteral(((Number) value).longValue(), bytes, position);
+        break;
+      case FLOAT:
+        OIntegerSerializer.INSTANCE.serializeLiteral(
+            Float.floatToIntBits(((Number) value).floatValue()), bytes, position);
+        break;
+      case DOUBLE:
+        OLongSerializer.INSTANCE.serializeLiteral(
+            Double.doubleToLongBits(((Number) value).doubleValue()), bytes, position);
+        break;
+      case DATETIME:
+        OLongSerializer.INSTANCE.serializeLiteral(toTime(value), bytes, position);
+        break;
+      case DATE:
+        final long dateValue =
+            convertDayToTimezone(
+                ODateHelper.getDatabaseTimeZone(), TimeZone.getTimeZone("GMT"), toTime(value));
+        OIntegerSerializer.INSTANCE.serializeLiteral(
+            (int) (dateValue / MILLISEC_PER_DAY), bytes, position);
+        break;
+      default:
+        throw new IllegalArgumentException("Type " + type + " is not stored in fixed slots");
+    }
+  }
+
+  private static Object readFixed(final byte[] bytes, final int position, final OType type) {
+    switch (type) {
+      case BOOLEAN:
+        return bytes[position] == 1;
+      case BYTE:
+        return bytes[position];
+      case SHORT:
+        return OShortSerializer.INSTANCE.deserializeLiteral(bytes, position);
+      case INTEGER:
+        return OIntegerSerializer.INSTANCE.deserializeLiteral(bytes, position);
+      case LONG:
+        return OLongSerializer.INSTANCE.deserializeLiteral(bytes, position);
+      case FLOAT:
+        return Float.intBitsToFloat(
+            OIntegerSerializer.INSTANCE.deserializeLiteral(bytes, position));
+      case DOUBLE:
+        return Double.longBitsToDouble(
+            OLongSerializer.INSTANCE.deserializeLiteral(bytes, position));
+      case DATETIME:
+        return new Date(OLongSerializer.INSTANCE.deserializeLiteral(bytes, position));
+      case DATE:
+        final long savedTime =
+            OIntegerSerializer.INSTANCE.deserializeLiteral(bytes, position) * MILLISEC_PER_DAY;
+        return new Date(
+            convertDayToTimezone(
+                TimeZone.getTimeZone("GMT"), ODateHelper.getDatabaseTimeZone(), savedTime));
+      default:
+        throw new IllegalArgumentException("Type " + type + " is not stored in fixed slots");
+    }
+  }
+
+  private static long toTime(final Object value) {
+    return value instanceof Number ? ((Number) value).longValue() : ((Date) value).getTime();
+  }
+
+  private static void writeOffset(
+      final byte[] bytes, final int position, final int width, final int value) {
+    for (int i = 0; i < width; i++) {
+      bytes[position + i] = (byte) (value >>> ((width - i - 1) << 3));
+    }
+  }
+
+  /** Positions of the parts of the single record written with the strict layout. */
+  private static final class StrictRecord {
+    private final OStrictRecordLayout layout;
+    private final byte[] bytes;
+    private final int statusPos;
+    private final int fixedPos;
+    private final int endsPos;
+    private final int width;
+    private final int valuesPos;
+
+    private StrictRecord(final OStrictRecordLayout layout, final byte[] bytes, final int offset) {
+      this.layout = layout;
+      this.bytes = bytes;
+      this.statusPos = offset;
+      this.fixedPos = statusPos + layout.getStatusSize();
+      final int widthPos = fixedPos + layout.getFixedSize();
+      if (layout.getVariableCount() > 0) {
+        this.width = bytes[widthPos];
+        this.endsPos = widthPos + 1;
+      } else {
+        this.width = 0;
+        this.endsPos = widthPos;
+      }
+      this.valuesPos = endsPos + width * layout.getVariableCount();
+    }
+
+    private int status(final int slot) {
+      return (bytes[statusPos + (slot >>> 2)] >>> ((slot & 3) << 1)) & 3;
+    }
+
+    private int valueEnd(final int variableIndex) {
+      if (variableIndex < 0) {
+        return 0;
+      }
+      final int position = endsPos + variableIndex * width;
+      int value = 0;
+      for (int i = 0; i < width; i++) {
+        value = (value << 8) | (bytes[position + i] & 0xFF);
+      }
+      return value;
+    }
+
+    private int variableStart(final int slot) {
+      return valuesPos + valueEnd(layout.getVariableIndex(slot) - 1);
+    }
+
+    private int variableLength(final int slot) {
+      final int variableIndex = layout.getVariableIndex(slot);
+      return valueEnd(variableIndex) - valueEnd(variableIndex - 1);
+    }
+
+    private int end() {
+      return valuesPos + valueEnd(layout.getVariableCount() - 1);
+    }
+  }
+}
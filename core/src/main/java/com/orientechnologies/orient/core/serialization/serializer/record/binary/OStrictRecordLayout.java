@@ -0,0 +1,250 @@
+package com.orientechnologies.orient.core.serialization.serializer.record.binary;
+
+import com.orientechnologies.orient.core.exception.OSerializationException;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OGlobalProperty;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Fixed slot layout of the records of a class in strict mode, used by {@link
+ * ORecordSerializerBinaryV2}. There is a slot for every property of the class, slots are ordered by
+ * the id of the global property.
+ *
+ * <p>Layout is identified by the descriptor which is written at the beginning of every record, so
+ * records written before a change of the schema are still read with the layout they were written
+ * with. Descriptor is a list of runs of consecutive global property ids: var int amount of runs
+ * plus one, then for every run var int distance from the end of the previous run and var int length
+ * of the run. Properties created together have consecutive ids, so the descriptor usually takes few
+ * bytes.
+ *
+ * <p>Record consists of the descriptor, two bits of status per slot (absent, null or value), values
+ * of fixed width types at the offsets known from the layout, width of the offsets of variable
+ * length values (1, 2 or 4 bytes), end offsets of variable length values and values of variable
+ * length types serialized the same way as {@link ORecordSerializerBinaryV1} does.
+ */
+public final class OStrictRecordLayout {
+  private final byte[] descriptor;
+  private final String[] names;
+  private final OType[] types;
+  private final int[] fixedOffsets;
+  private final int[] variableIndexes;
+  private final int fixedSize;
+  private final int variableCount;
+  private final Map<String, Integer> slotByName;
+
+  private OStrictRecordLayout(final byte[] descriptor, final String[] names, final OType[] types) {
+    this.descriptor = descriptor;
+    this.names = names;
+    this.types = types;
+    final int slots = names.length;
+    fixedOffsets = new int[slots];
+    variableIndexes = new int[slots];
+    slotByName = new HashMap<>(slots * 2);
+
+    int fixed = 0;
+    int variable = 0;
+    for (int i = 0; i < slots; i++) {
+      slotByName.put(names[i], i);
+
+      final int width = fixedWidth(types[i]);
+      if (width > 0) {
+        fixedOffsets[i] = fixed;
+        variableIndexes[i] = -1;
+        fixed += width;
+      } else {
+        fixedOffsets[i] = -1;
+        variableIndexes[i] = variable++;
+      }
+    }
+    fixedSize = fixed;
+    variableCount = variable;
+  }
+
+  /**
+   * Builds the layout of the records of the class.
+   *
+   * @return layout or <code>null</code> if the class is not in strict mode or some of its
+   *     properties has no concrete type
+   */
+  public static OStrictRecordLayout forClass(final OClass clazz) {
+    if (!clazz.isStrictMode() || clazz.isAbstract()) {
+      return null;
+    }
+
+    final List<OProperty> properties = new ArrayList<>(clazz.properties());
+    if (properties.isEmpty()) {
+      return null;
+    }
+    for (OProperty property : properties) {
+      final OType type = property.getType();
+      if (property.getId() == null
+          || type == null
+          || type == OType.ANY
+          || type == OType.TRANSIENT
+          || type == OType.CUSTOM) {
+        return null;
+      }
+    }
+    properties.sort((first, second) -> Integer.compare(first.getId(), second.getId()));
+
+    final int[] ids = new int[properties.size()];
+    final String[] names = new String[ids.length];
+    final OType[] types = new OType[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      final OProperty property = properties.get(i);
+      ids[i] = property.getId();
+      names[i] = property.getName();
+      types[i] = property.getType();
+    }
+    return new OStrictRecordLayout(writeDescriptor(ids), names, types);
+  }
+
+  /**
+   * Reads descriptor of the layout, offset of the container points to the beginning of the
+   * descriptor and is moved after it.
+   *
+   * @param globalProperties resolves global properties by id
+   */
+  public static OStrictRecordLayout read(
+      final BytesContainer bytes, final IntFunction<OGlobalProperty> globalProperties) {
+    final int start = bytes.offset;
+    final int runs = OVarIntSerializer.readAsInteger(bytes) - 1;
+
+    int[] ids = new int[8];
+    int count = 0;
+    int end = 0;
+    for (int i = 0; i < runs; i++) {
+      final int runStart = end + OVarIntSerializer.readAsInteger(bytes);
+      final int length = OVarIntSerializer.readAsInteger(bytes);
+      if (count + length > ids.length) {
+        ids = Arrays.copyOf(ids, Math.max(ids.length << 1, count + length));
+      }
+      for (int j = 0; j < length; j++) {
+        ids[count++] = runStart + j;
+      }
+      end = runStart + length;
+    }
+
+    final String[] names = new String[count];
+    final OType[] types = new OType[count];
+    for (int i = 0; i < count; i++) {
+      final OGlobalProperty property = globalProperties.apply(ids[i]);
+      if (property == null) {
+        throw new OSerializationException(
+            "Missing property definition for property id '" + ids[i] + "'");
+      }
+      names[i] = property.getName();
+      types[i] = property.getType();
+    }
+    return new OStrictRecordLayout(
+        Arrays.copyOfRange(bytes.bytes, start, bytes.offset), names, types);
+  }
+
+  private static byte[] writeDescriptor(final int[] ids) {
+    int runs = 0;
+    for (int i = 0; i < ids.length; i++) {
+      if (i == 0 || ids[i] != ids[i - 1] + 1) {
+        runs++;
+      }
+    }
+
+    final BytesContainer bytes = new BytesContainer();
+    OVarIntSerializer.write(bytes, runs + 1);
+    int end = 0;
+    int runStart = 0;
+    for (int i = 1; i <= ids.length; i++) {
+      if (i == ids.length || ids[i] != ids[i - 1] + 1) {
+        OVarIntSerializer.write(bytes, ids[runStart] - end);
+        OVarIntSerializer.write(bytes, i - runStart);
+        end = ids[i - 1] + 1;
+        runStart = i;
+      }
+    }
+    return bytes.fitBytes();
+  }
+
+  /** @return width of the values of the type stored in fixed slots, or 0 for other types */
+  static int fixedWidth(final OType type) {
+    switch (type) {
+      case BOOLEAN:
+      case BYTE:
+        return 1;
+      case SHORT:
+        return 2;
+      case INTEGER:
+      case FLOAT:
+      case DATE:
+        return 4;
+      case LONG:
+      case DOUBLE:
+      case DATETIME:
+        return 8;
+      default:
+        return 0;
+    }
+  }
+
+  /** @return <code>true</code> if the record at given position is written with this layout */
+  boolean isLayoutOf(final byte[] bytes, final int offset) {
+    if (bytes.length - offset < descriptor.length) {
+      return false;
+    }
+    for (int i = 0; i < descriptor.length; i++) {
+      if (bytes[offset + i] != descriptor[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  byte[] getDescriptor() {
+    return descriptor;
+  }
+
+  public int getSlotCount() {
+    return names.length;
+  }
+
+  /** @return slot of the property or <code>-1</code> if layout does not contain such property */
+  public int indexOf(final String name) {
+    final Integer slot = slotByName.get(name);
+    return slot != null ? slot : -1;
+  }
+
+  public String getName(final int slot) {
+    return names[slot];
+  }
+
+  public OType getType(final int slot) {
+    return types[slot];
+  }
+
+  /** @return offset of the slot in the fixed part of the record or -1 for variable length slots */
+  int getFixedOffset(final int slot) {
+    return fixedOffsets[slot];
+  }
+
+  /** @return index of the variable length value or -1 for fixed slots */
+  int getVariableIndex(final int slot) {
+    return variableIndexes[slot];
+  }
+
+  int getStatusSize() {
+    return (names.length * 2 + 7) >>> 3;
+  }
+
+  int getFixedSize() {
+    return fixedSize;
+  }
+
+  int getVariableCount() {
+    return variableCount;
+  }
+}
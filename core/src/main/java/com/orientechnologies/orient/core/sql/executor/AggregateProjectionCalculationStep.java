@@ -1,13 +1,22 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.sql.parser.OExpression;
 import com.orientechnologies.orient.core.sql.parser.OGroupBy;
 import com.orientechnologies.orient.core.sql.parser.OProjection;
 import com.orientechnologies.orient.core.sql.parser.OProjectionItem;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,9 +29,18 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
   private final long timeoutMillis;
   private final long limit;
 
-  // the key is the GROUP BY key, the value is the (partially) aggregated value
-  private Map<List, OResultInternal> aggregateResults = new LinkedHashMap<>();
+  /** Number of partitions which groups are spilled to once the limit of groups is exceeded. */
+  private static final int SPILL_PARTITIONS = 16;
+
+  /** Partitions which are too big are partitioned again, but at most this number of times. */
+  private static final int MAX_SPILL_DEPTH = 4;
+
+  private static final Object NO_GROUP_KEY = new Object();
+
   private List<OResultInternal> finalResults = null;
+  private final Deque<SpilledPartition> spilledPartitions = new ArrayDeque<>();
+  private int spillThreshold = -1;
+  private Path spillDirectory;
 
   private int nextItem = 0;
   private long cost = 0;
@@ -51,7 +69,7 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
 
       @Override
       public boolean hasNext() {
-        if (localNext > nRecords || nextItem >= finalResults.size()) {
+        if (localNext > nRecords || !fetchSpilledResults(ctx)) {
           return false;
         }
         return true;
@@ -59,7 +77,7 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
 
       @Override
       public OResult next() {
-        if (localNext > nRecords || nextItem >= finalResults.size()) {
+        if (localNext > nRecords || !fetchSpilledResults(ctx)) {
           throw new IllegalStateException();
         }
         OResult result = finalResults.get(nextItem);
@@ -83,83 +101,334 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
     };
   }
 
+  @Override
+  public List<OResult> syncPullBatch(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    if (finalResults == null) {
+      executeAggregation(ctx, nRecords);
+    }
+    if (!fetchSpilledResults(ctx)) {
+      return new ArrayList<>();
+    }
+
+    int end = Math.min(finalResults.size(), nextItem + nRecords);
+    List<OResult> batch = new ArrayList<>(finalResults.subList(nextItem, end));
+    nextItem = end;
+    return batch;
+  }
+
   private void executeAggregation(OCommandContext ctx, int nRecords) {
     long timeoutBegin = System.currentTimeMillis();
     if (!prev.isPresent()) {
       throw new OCommandExecutionException(
           "Cannot execute an aggregation or a GROUP BY without a previous result");
     }
-    OExecutionStepInternal prevStep = prev.get();
-    OResultSet lastRs = prevStep.syncPull(ctx, nRecords);
-    while (lastRs.hasNext()) {
-      if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
-        sendTimeout();
-      }
-      aggregate(lastRs.next(), ctx);
-      if (!lastRs.hasNext()) {
-        lastRs = prevStep.syncPull(ctx, nRecords);
-      }
+    // records of the transaction can not be restored from disk, so they are always kept in heap
+    if (!ctx.getDatabase().getTransaction().isActive()
+        && ResultSpillFile.isAllowed(ctx.getDatabase())) {
+      spillThreshold =
+          ctx.getDatabase()
+              .getConfiguration()
+              .getValueAsInteger(OGlobalConfiguration.QUERY_GROUP_BY_SPILL_THRESHOLD);
+      spillDirectory = ResultSpillFile.getDirectory(ctx.getDatabase());
     }
-    finalResults = new ArrayList<>();
-    finalResults.addAll(aggregateResults.values());
-    aggregateResults.clear();
-    for (OResultInternal item : finalResults) {
-      if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
-        sendTimeout();
+
+    GroupTable table = new GroupTable(0);
+    try {
+      OExecutionStepInternal prevStep = prev.get();
+      List<OResult> batch = prevStep.syncPullBatch(ctx, nRecords);
+      while (!batch.isEmpty()) {
+        if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
+          sendTimeout();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+          OResult item = batch.get(i);
+          ctx.setVariable("$current", item);
+          table.aggregate(item, ctx);
+        }
+        batch = prevStep.syncPullBatch(ctx, nRecords);
       }
-      for (String name : item.getTemporaryProperties()) {
-        Object prevVal = item.getTemporaryProperty(name);
-        if (prevVal instanceof AggregationContext) {
-          item.setTemporaryProperty(name, ((AggregationContext) prevVal).getFinalValue());
+      finalResults = table.finish(timeoutBegin);
+    } catch (RuntimeException e) {
+      table.closePartitions();
+      closeSpilledPartitions();
+      throw e;
+    }
+  }
+
+  /**
+   * Aggregates spilled partitions one by one once all the results of the previous partition are
+   * returned.
+   *
+   * @return <code>true</code> if there are results which are not returned yet.
+   */
+  private boolean fetchSpilledResults(OCommandContext ctx) {
+    while (nextItem >= finalResults.size() && !spilledPartitions.isEmpty()) {
+      long timeoutBegin = System.currentTimeMillis();
+      SpilledPartition partition = spilledPartitions.poll();
+      GroupTable table = new GroupTable(partition.depth);
+      try {
+        ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+        Iterator<PinnedRecord> pinned = partition.pinned.iterator();
+        PinnedRecord nextPinned = pinned.hasNext() ? pinned.next() : null;
+        long spilled = 0;
+        int read = 0;
+        while (true) {
+          OResult item;
+          // records kept in heap are returned between the spilled ones, in the order of the input
+          if (nextPinned != null && nextPinned.spilledBefore == spilled) {
+            item = nextPinned.record;
+            nextPinned = pinned.hasNext() ? pinned.next() : null;
+          } else {
+            item = partition.file == null ? null : partition.file.next(db);
+            if (item == null) {
+              break;
+            }
+            spilled++;
+          }
+          if (++read % 100 == 0
+              && timeoutMillis > 0
+              && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
+            sendTimeout();
+          }
+          ctx.setVariable("$current", item);
+          table.aggregate(item, ctx);
         }
+        finalResults = table.finish(timeoutBegin);
+        nextItem = 0;
+      } catch (IOException e) {
+        table.closePartitions();
+        closeSpilledPartitions();
+        throw OException.wrapException(
+            new OCommandExecutionException("Error during reading of spilled GROUP BY records"), e);
+      } catch (RuntimeException e) {
+        table.closePartitions();
+        closeSpilledPartitions();
+        throw e;
+      } finally {
+        partition.close();
       }
     }
+    return nextItem < finalResults.size();
+  }
+
+  private Object groupKey(OResult next, OCommandContext ctx) {
+    if (groupBy == null || groupBy.getItems().isEmpty()) {
+      return NO_GROUP_KEY;
+    }
+    List<OExpression> items = groupBy.getItems();
+    if (items.size() == 1) {
+      // single expression does not need a composite key
+      return items.get(0).execute(next, ctx);
+    }
+    List<Object> key = new ArrayList<>(items.size());
+    for (OExpression item : items) {
+      key.add(item.execute(next, ctx));
+    }
+    return key;
+  }
+
+  private static int partition(Object key, int depth) {
+    // every level of partitioning uses own hash function, so groups of a partition are split
+    int hash = (key == null ? 0 : key.hashCode()) + depth * 0x9E3779B9;
+    hash ^= hash >>> 16;
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    hash *= 0xC2B2AE35;
+    hash ^= hash >>> 16;
+    return hash & (SPILL_PARTITIONS - 1);
   }
 
-  private void aggregate(OResult next, OCommandContext ctx) {
-    long begin = profilingEnabled ? System.nanoTime() : 0;
+  private void closeSpilledPartitions() {
+    for (SpilledPartition partition : spilledPartitions) {
+      partition.close();
+    }
+    spilledPartitions.clear();
+  }
+
+  private void closeSpillFile(ResultSpillFile file) {
     try {
-      List<Object> key = new ArrayList<>();
-      if (groupBy != null) {
-        for (OExpression item : groupBy.getItems()) {
-          Object val = item.execute(next, ctx);
-          key.add(val);
+      file.close();
+    } catch (IOException e) {
+      OLogManager.instance().warn(this, "Error during deletion of GROUP BY spill file", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    closeSpilledPartitions();
+    super.close();
+  }
+
+  /**
+   * Groups which are aggregated in heap. Once the number of groups exceeds the spill threshold,
+   * records of the groups which are not in heap yet are written to the partition files, so every
+   * group is aggregated either in heap or in a single partition and sees its records in the order
+   * of the input. Records which can not be written to the disk stay in heap with their partition.
+   *
+   * <p>Groups kept in heap are returned first, then groups of the partitions one partition after
+   * another, so once spilling is started groups are not returned in the order of their first
+   * record.
+   */
+  private final class GroupTable {
+    // the key is the GROUP BY key, the value is the (partially) aggregated value
+    private final Map<Object, OResultInternal> aggregateResults = new LinkedHashMap<>();
+    private final int depth;
+    private SpilledPartition[] partitions;
+
+    private GroupTable(int depth) {
+      this.depth = depth;
+    }
+
+    private void aggregate(OResult next, OCommandContext ctx) {
+      long begin = profilingEnabled ? System.nanoTime() : 0;
+      try {
+        Object key = groupKey(next, ctx);
+        OResultInternal preAggr = aggregateResults.get(key);
+        if (preAggr == null) {
+          if (limit > 0 && aggregateResults.size() > limit) {
+            return;
+          }
+          if (partitions != null || isSpillRequired(next)) {
+            spill(key, next);
+            return;
+          }
+          preAggr = new OResultInternal();
+
+          for (OProjectionItem proj : projection.getItems()) {
+            String alias = proj.getProjectionAlias().getStringValue();
+            if (!proj.isAggregate()) {
+              preAggr.setProperty(alias, proj.execute(next, ctx));
+            }
+          }
+          aggregateResults.put(key, preAggr);
+        }
+
+        for (OProjectionItem proj : projection.getItems()) {
+          String alias = proj.getProjectionAlias().getStringValue();
+          if (proj.isAggregate()) {
+            AggregationContext aggrCtx = (AggregationContext) preAggr.getTemporaryProperty(alias);
+            if (aggrCtx == null) {
+              aggrCtx = proj.getAggregationContext(ctx);
+              preAggr.setTemporaryProperty(alias, aggrCtx);
+            }
+            aggrCtx.apply(next, ctx);
+          }
+        }
+      } finally {
+        if (profilingEnabled) {
+          cost += (System.nanoTime() - begin);
+        }
+      }
+    }
+
+    private boolean isSpillRequired(OResult next) {
+      return spillThreshold >= 0
+          && depth < MAX_SPILL_DEPTH
+          && aggregateResults.size() >= spillThreshold
+          && ResultSpillFile.isSpillable(next);
+    }
+
+    private void spill(Object key, OResult next) {
+      if (partitions == null) {
+        partitions = new SpilledPartition[SPILL_PARTITIONS];
+      }
+      int index = partition(key, depth);
+      if (partitions[index] == null) {
+        partitions[index] = new SpilledPartition(depth + 1);
+      }
+      SpilledPartition partition = partitions[index];
+      if (!ResultSpillFile.isSpillable(next)) {
+        partition.pinned.add(new PinnedRecord(next, partition.spilled));
+        return;
+      }
+      try {
+        if (partition.file == null) {
+          partition.file = ResultSpillFile.create(spillDirectory);
         }
+        partition.file.append(next);
+        partition.spilled++;
+      } catch (IOException e) {
+        throw OException.wrapException(
+            new OCommandExecutionException("Error during spill of GROUP BY records to disk"), e);
       }
-      OResultInternal preAggr = aggregateResults.get(key);
-      if (preAggr == null) {
-        if (limit > 0 && aggregateResults.size() > limit) {
-          return;
+    }
+
+    /**
+     * Calculates final values of the groups kept in heap, spilled partitions are queued to be
+     * aggregated later.
+     */
+    private List<OResultInternal> finish(long timeoutBegin) {
+      if (partitions != null) {
+        for (SpilledPartition partition : partitions) {
+          if (partition != null) {
+            spilledPartitions.add(partition);
+          }
         }
-        preAggr = new OResultInternal();
+        partitions = null;
+      }
 
-        for (OProjectionItem proj : this.projection.getItems()) {
-          String alias = proj.getProjectionAlias().getStringValue();
-          if (!proj.isAggregate()) {
-            preAggr.setProperty(alias, proj.execute(next, ctx));
+      List<OResultInternal> results = new ArrayList<>(aggregateResults.values());
+      aggregateResults.clear();
+      for (OResultInternal item : results) {
+        if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
+          sendTimeout();
+        }
+        for (String name : item.getTemporaryProperties()) {
+          Object prevVal = item.getTemporaryProperty(name);
+          if (prevVal instanceof AggregationContext) {
+            item.setTemporaryProperty(name, ((AggregationContext) prevVal).getFinalValue());
           }
         }
-        aggregateResults.put(key, preAggr);
       }
+      return results;
+    }
 
-      for (OProjectionItem proj : this.projection.getItems()) {
-        String alias = proj.getProjectionAlias().getStringValue();
-        if (proj.isAggregate()) {
-          AggregationContext aggrCtx = (AggregationContext) preAggr.getTemporaryProperty(alias);
-          if (aggrCtx == null) {
-            aggrCtx = proj.getAggregationContext(ctx);
-            preAggr.setTemporaryProperty(alias, aggrCtx);
+    private void closePartitions() {
+      if (partitions != null) {
+        for (SpilledPartition partition : partitions) {
+          if (partition != null) {
+            partition.close();
           }
-          aggrCtx.apply(next, ctx);
         }
+        partitions = null;
       }
-    } finally {
-      if (profilingEnabled) {
-        cost += (System.nanoTime() - begin);
+    }
+  }
+
+  /**
+   * Records of the groups of a partition, written to the spill file which is created with the first
+   * spillable record, or kept in heap if they can not be spilled.
+   */
+  private final class SpilledPartition {
+    private final int depth;
+    private ResultSpillFile file;
+    private long spilled;
+    private final List<PinnedRecord> pinned = new ArrayList<>();
+
+    private SpilledPartition(int depth) {
+      this.depth = depth;
+    }
+
+    private void close() {
+      pinned.clear();
+      if (file != null) {
+        closeSpillFile(file);
+        file = null;
       }
     }
   }
 
+  private static final class PinnedRecord {
+    private final OResult record;
+    // number of records of the partition which were spilled before this one
+    private final long spilledBefore;
+
+    private PinnedRecord(OResult record, long spilledBefore) {
+      this.record = record;
+      this.spilledBefore = spilledBefore;
+    }
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     String spaces = OExecutionStepInternal.getIndent(depth, indent);
@@ -1,6 +1,9 @@
 package com.orientechnologies.orient.core.sql.executor;
 
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.sql.parser.OInteger;
@@ -82,16 +85,174 @@ public class BreadthFirstTraverseStep extends AbstractTraverseStep {
   @Override
   protected void fetchNextResults(OCommandContext ctx, int nRecords) {
     if (!this.entryPoints.isEmpty()) {
+      int threshold =
+          ctx.getDatabase()
+              .getConfiguration()
+              .getValueAsInteger(OGlobalConfiguration.QUERY_TRAVERSE_PARALLEL_THRESHOLD);
+      if (threshold > 0 && fetchNextLevelInParallel(ctx, threshold)) {
+        return;
+      }
       OTraverseResult item = (OTraverseResult) this.entryPoints.remove(0);
       this.results.add(item);
-      for (OTraverseProjectionItem proj : projections) {
-        Object nextStep = proj.execute(item, ctx);
-        if (this.maxDepth == null || this.maxDepth.getValue().intValue() > item.depth) {
-          addNextEntryPoints(
-              nextStep, item.depth + 1, (List<OIdentifiable>) item.getMetadata("$path"), ctx);
+      expand(item, ctx);
+    }
+  }
+
+  private void expand(OTraverseResult item, OCommandContext ctx) {
+    for (OTraverseProjectionItem proj : projections) {
+      Object nextStep = proj.execute(item, ctx);
+      if (this.maxDepth == null || this.maxDepth.getValue().intValue() > item.depth) {
+        addNextEntryPoints(
+            nextStep, item.depth + 1, (List<OIdentifiable>) item.getMetadata("$path"), ctx);
+      }
+    }
+  }
+
+  /**
+   * Expands at once the entry points with the depth of the first one, splitting them in contiguous
+   * ranges which are expanded in parallel, see {@link OParallelTasks}. The tasks only read the
+   * records traversed so far, the records they find are added by the current thread in the order of
+   * the entry points, so the result is the same of the sequential expansion.
+   *
+   * @return false if the entry points are too few to be expanded in parallel
+   */
+  private boolean fetchNextLevelInParallel(OCommandContext ctx, int threshold) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    if (db.getTransaction().isActive()) {
+      return false;
+    }
+    int depth = ((OTraverseResult) entryPoints.get(0)).depth;
+    int size = 0;
+    while (size < entryPoints.size() && ((OTraverseResult) entryPoints.get(size)).depth == depth) {
+      size++;
+    }
+    int tasks = OParallelTasks.tasksFor(size, threshold);
+    if (tasks < 2) {
+      return false;
+    }
+
+    List<OTraverseResult> level = new ArrayList<>(size);
+    for (OResult item : entryPoints.subList(0, size)) {
+      level.add((OTraverseResult) item);
+    }
+    entryPoints.subList(0, size).clear();
+    results.addAll(level);
+    if (this.maxDepth != null && this.maxDepth.getValue().intValue() <= depth) {
+      return true;
+    }
+
+    List<List<ORID>> found = expandInParallel(db, ctx, level, tasks);
+    if (found == null) {
+      // SOME RECORDS CANNOT BE PASSED BETWEEN SESSIONS, EG. EMBEDDED DOCUMENTS
+      for (OTraverseResult item : level) {
+        expand(item, ctx);
+      }
+      return true;
+    }
+    for (int i = 0; i < level.size(); i++) {
+      for (ORID rid : found.get(i)) {
+        if (traversed.contains(rid)) {
+          continue;
+        }
+        OTraverseResult res = new OTraverseResult();
+        res.setElement(rid);
+        if (!res.isElement()) {
+          continue;
+        }
+        res.depth = depth + 1;
+        res.setMetadata("$depth", depth + 1);
+        res.setParent(level.get(i));
+        tryAddEntryPoint(res, ctx);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return for every record of the level the records reached by the projections, null if some of
+   *     them are not persistent
+   */
+  private List<List<ORID>> expandInParallel(
+      ODatabaseDocumentInternal db, OCommandContext ctx, List<OTraverseResult> level, int tasks) {
+    List<ORID> identities = new ArrayList<>(level.size());
+    for (OTraverseResult item : level) {
+      identities.add(item.getIdentity().get());
+    }
+    int depth = level.get(0).depth;
+    List<List<List<ORID>>> ranges =
+        OParallelTasks.executeRanges(
+            db,
+            identities.size(),
+            tasks,
+            (session, from, to) -> expandRange(session, ctx, identities.subList(from, to), depth),
+            "traversal");
+
+    List<List<ORID>> result = new ArrayList<>(level.size());
+    for (List<List<ORID>> range : ranges) {
+      if (range == null) {
+        return null;
+      }
+      result.addAll(range);
+    }
+    return result;
+  }
+
+  private List<List<ORID>> expandRange(
+      ODatabaseDocumentInternal session, OCommandContext ctx, List<ORID> range, int depth) {
+    OBasicCommandContext taskContext = new OBasicCommandContext();
+    taskContext.setParentWithoutOverridingChild(ctx);
+    taskContext.setDatabase(session);
+    // THE EXPRESSIONS ARE NOT SHARED BETWEEN THREADS
+    List<OTraverseProjectionItem> taskProjections = new ArrayList<>(projections.size());
+    for (OTraverseProjectionItem proj : projections) {
+      taskProjections.add(proj.copy());
+    }
+
+    List<List<ORID>> result = new ArrayList<>(range.size());
+    for (ORID rid : range) {
+      OTraverseResult item = new OTraverseResult();
+      item.setElement(rid);
+      item.depth = depth;
+      item.setMetadata("$depth", depth);
+      List<ORID> reached = new ArrayList<>();
+      for (OTraverseProjectionItem proj : taskProjections) {
+        if (!collect(proj.execute(item, taskContext), reached)) {
+          return null;
         }
       }
+      result.add(reached);
+    }
+    return result;
+  }
+
+  /** @return false if a record is not persistent */
+  private boolean collect(Object nextStep, List<ORID> reached) {
+    if (nextStep instanceof OIdentifiable) {
+      ORID rid = ((OIdentifiable) nextStep).getIdentity();
+      if (!rid.isPersistent()) {
+        return false;
+      }
+      // THE RECORDS TRAVERSED BEFORE THIS LEVEL ARE NOT CHANGED BY THE CURRENT THREAD
+      if (!traversed.contains(rid)) {
+        reached.add(rid);
+      }
+    } else if (nextStep instanceof Iterable) {
+      return collect(((Iterable) nextStep).iterator(), reached);
+    } else if (nextStep instanceof Map) {
+      return collect(((Map) nextStep).values().iterator(), reached);
+    } else if (nextStep instanceof OResult && ((OResult) nextStep).isElement()) {
+      return collect(((OResult) nextStep).getElement().get(), reached);
+    }
+    return true;
+  }
+
+  private boolean collect(Iterator nextStep, List<ORID> reached) {
+    while (nextStep.hasNext()) {
+      if (!collect(nextStep.next(), reached)) {
+        return false;
+      }
     }
+    return true;
   }
 
   private void addNextEntryPoints(
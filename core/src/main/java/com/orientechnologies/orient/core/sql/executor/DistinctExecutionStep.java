@@ -1,21 +1,64 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OSerializationException;
 import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.result.binary.OResultSerializerNetwork;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 
-/** Created by luigidellaquila on 08/07/16. */
+/**
+ * Returns only the first occurrence of every result.
+ *
+ * <p>Records are tracked by their RIDs. Projections whose values have a well defined binary form
+ * are encoded by the binary result serializer, with properties sorted by name, and kept in the set
+ * allocated in direct memory, other projections are kept in heap. If spilling is allowed and the
+ * set in direct memory exceeds {@link OGlobalConfiguration#QUERY_DISTINCT_MEMORY_LIMIT},
+ * projections which were not returned yet are written to partition files and deduplicated partition
+ * by partition once the upstream is exhausted.
+ *
+ * <p>Created by luigidellaquila on 08/07/16.
+ */
 public class DistinctExecutionStep extends AbstractExecutionStep {
+  private static final int SPILL_PARTITIONS = 16;
+  private static final int MAX_SPILL_DEPTH = 4;
 
   private Set<OResult> pastItems = new HashSet<>();
   private ORidSet pastRids = new ORidSet();
+  private Map<String, ORidSet> pastProjectedRids = new HashMap<>();
+  private OffHeapRowSet pastRows;
+
+  private final OResultSerializerNetwork serializer = new OResultSerializerNetwork();
+  private long memoryLimit = -1;
+  private Path spillDirectory;
+
+  private SpilledPartition[] partitions;
+  private final Deque<SpilledPartition> spilledPartitions = new ArrayDeque<>();
+  private SpilledPartition currentPartition;
+  private boolean upstreamExhausted = false;
 
   private OResultSet lastResult = null;
   private OResult nextValue;
@@ -25,6 +68,15 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
   private long cost = 0;
 
   public DistinctExecutionStep(OCommandContext ctx, boolean profilingEnabled) {
+    this(ctx, false, profilingEnabled);
+  }
+
+  /**
+   * @param spillAllowed if <code>true</code> results may be returned in an order different from the
+   *     order of the upstream
+   */
+  public DistinctExecutionStep(
+      OCommandContext ctx, boolean spillAllowed, boolean profilingEnabled) {
     super(ctx, profilingEnabled);
     ODatabase db = ctx == null ? null : ctx.getDatabase();
 
@@ -33,6 +85,15 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
             ? OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getValueAsLong()
             : db.getConfiguration()
                 .getValueAsLong(OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP);
+    if (spillAllowed && ResultSpillFile.isAllowed(db)) {
+      int limit =
+          db == null
+              ? OGlobalConfiguration.QUERY_DISTINCT_MEMORY_LIMIT.getValueAsInteger()
+              : db.getConfiguration()
+                  .getValueAsInteger(OGlobalConfiguration.QUERY_DISTINCT_MEMORY_LIMIT);
+      memoryLimit = limit < 0 ? -1 : limit * 1024L * 1024L;
+      spillDirectory = ResultSpillFile.getDirectory(db);
+    }
   }
 
   @Override
@@ -93,19 +154,14 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
       if (nextValue != null) {
         return;
       }
-      if (lastResult == null || !lastResult.hasNext()) {
-        lastResult = getPrev().get().syncPull(ctx, nRecords);
-      }
-      if (lastResult == null || !lastResult.hasNext()) {
+      OResult item = nextInput(nRecords);
+      if (item == null) {
         return;
       }
       long begin = profilingEnabled ? System.nanoTime() : 0;
       try {
-        nextValue = lastResult.next();
-        if (alreadyVisited(nextValue)) {
-          nextValue = null;
-        } else {
-          markAsVisited(nextValue);
+        if (visit(item)) {
+          nextValue = item;
         }
       } finally {
         if (profilingEnabled) {
@@ -115,17 +171,79 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
     }
   }
 
-  private void markAsVisited(OResult nextValue) {
-    if (nextValue.isElement()) {
-      ORID identity = nextValue.getElement().get().getIdentity();
-      int cluster = identity.getClusterId();
-      long pos = identity.getClusterPosition();
-      if (cluster >= 0 && pos >= 0) {
-        pastRids.add(identity);
-        return;
+  /** @return next result of the upstream or of the spilled partitions. */
+  private OResult nextInput(int nRecords) {
+    if (!upstreamExhausted) {
+      if (lastResult == null || !lastResult.hasNext()) {
+        lastResult = getPrev().get().syncPull(ctx, nRecords);
       }
+      if (lastResult != null && lastResult.hasNext()) {
+        return lastResult.next();
+      }
+      upstreamExhausted = true;
+      finishPhase();
+    }
+
+    try {
+      while (currentPartition != null) {
+        OResult item = currentPartition.next((ODatabaseDocumentInternal) ctx.getDatabase());
+        if (item != null) {
+          return item;
+        }
+        currentPartition.close();
+        finishPhase();
+      }
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during reading of spilled DISTINCT records"), e);
+    }
+    return null;
+  }
+
+  /**
+   * Called once all the results of the upstream or of the current partition are read, releases the
+   * rows of the current phase and starts reading of the next spilled partition.
+   */
+  private void finishPhase() {
+    if (partitions != null) {
+      for (SpilledPartition partition : partitions) {
+        if (partition != null) {
+          spilledPartitions.push(partition);
+        }
+      }
+      partitions = null;
+    }
+    if (pastRows != null) {
+      pastRows.close();
+      pastRows = null;
     }
-    pastItems.add(nextValue);
+    currentPartition = spilledPartitions.poll();
+  }
+
+  /** @return <code>true</code> if the result is met for the first time. */
+  private boolean visit(OResult item) {
+    if (item.isElement()) {
+      ORID identity = item.getElement().get().getIdentity();
+      if (identity.getClusterId() >= 0 && identity.getClusterPosition() >= 0) {
+        return pastRids.add(identity);
+      }
+    }
+
+    ORID projectedRid = singleProjectedRid(item);
+    if (projectedRid != null) {
+      String name = item.getPropertyNames().iterator().next();
+      return pastProjectedRids.computeIfAbsent(name, k -> new ORidSet()).add(projectedRid);
+    }
+
+    byte[] row = encode(item);
+    if (row != null) {
+      return visitRow(item, row);
+    }
+
+    if (pastItems.contains(item)) {
+      return false;
+    }
+    pastItems.add(item);
     if (maxElementsAllowed > 0 && maxElementsAllowed < pastItems.size()) {
       this.pastItems.clear();
       throw new OCommandExecutionException(
@@ -135,18 +253,174 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
               + OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getKey()
               + " to increase this limit");
     }
+    return true;
+  }
+
+  private boolean visitRow(OResult item, byte[] row) {
+    final int depth = currentPartition == null ? 0 : currentPartition.depth;
+    if (pastRows == null) {
+      pastRows = new OffHeapRowSet(depth);
+    }
+    if (pastRows.contains(row)) {
+      return false;
+    }
+    if (partitions == null
+        && memoryLimit >= 0
+        && depth < MAX_SPILL_DEPTH
+        && pastRows.memoryUsage() >= memoryLimit) {
+      partitions = new SpilledPartition[SPILL_PARTITIONS];
+    }
+    if (partitions != null) {
+      // partitions use own hash function, so rows of the partition are spread among the
+      // partitions of the next level
+      int index = OffHeapRowSet.hash(row, -depth - 1) & (SPILL_PARTITIONS - 1);
+      if (partitions[index] == null) {
+        partitions[index] = new SpilledPartition(depth + 1);
+      }
+      SpilledPartition partition = partitions[index];
+      if (!ResultSpillFile.isSpillable(item)) {
+        // records would be restored as bare RIDs, so such projections stay in heap
+        partition.pinned.add(item);
+        return false;
+      }
+      try {
+        if (partition.file == null) {
+          partition.file = ResultSpillFile.create(spillDirectory);
+        }
+        partition.file.append(item);
+      } catch (IOException e) {
+        throw OException.wrapException(
+            new OCommandExecutionException("Error during spill of DISTINCT records to disk"), e);
+      }
+      return false;
+    }
+    return pastRows.add(row);
+  }
+
+  private static ORID singleProjectedRid(OResult item) {
+    if (item.getClass() != OResultInternal.class || item.isElement()) {
+      return null;
+    }
+    OResultInternal result = (OResultInternal) item;
+    if (result.content.size() != 1 || !result.getMetadataKeys().isEmpty()) {
+      return null;
+    }
+    Object value = result.content.values().iterator().next();
+    if (!(value instanceof OIdentifiable)) {
+      return null;
+    }
+    ORID identity = ((OIdentifiable) value).getIdentity();
+    if (identity.getClusterId() < 0 || identity.getClusterPosition() < 0) {
+      return null;
+    }
+    return identity;
+  }
+
+  /**
+   * @return binary form of the projection, or <code>null</code> if equal projections may have
+   *     different binary forms or the other way around.
+   */
+  private byte[] encode(OResult item) {
+    if (item.getClass() != OResultInternal.class || item.isElement()) {
+      return null;
+    }
+    OResultInternal result = (OResultInternal) item;
+    if (!result.getMetadataKeys().isEmpty()) {
+      return null;
+    }
+    for (Object value : result.content.values()) {
+      if (!hasStableEncoding(value)) {
+        return null;
+      }
+    }
+    try {
+      BytesContainer bytes = new BytesContainer();
+      serializer.serialize(canonical(result), bytes);
+      return bytes.fitBytes();
+    } catch (OSerializationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return copy of the projection with properties in the order of their names, also in nested
+   *     projections, so the binary form does not depend on the order of the properties.
+   */
+  private static OResultInternal canonical(OResultInternal result) {
+    OResultInternal canonical = new OResultInternal();
+    for (String name : new TreeSet<>(result.content.keySet())) {
+      canonical.content.put(name, canonicalValue(result.content.get(name)));
+    }
+    return canonical;
   }
 
-  private boolean alreadyVisited(OResult nextValue) {
-    if (nextValue.isElement()) {
-      ORID identity = nextValue.getElement().get().getIdentity();
-      int cluster = identity.getClusterId();
-      long pos = identity.getClusterPosition();
-      if (cluster >= 0 && pos >= 0) {
-        return pastRids.contains(identity);
+  private static Object canonicalValue(Object value) {
+    if (value instanceof OResultInternal && !((OResult) value).isElement()) {
+      return canonical((OResultInternal) value);
+    }
+    if (value instanceof List) {
+      List<Object> canonical = new ArrayList<>(((List<?>) value).size());
+      for (Object element : (List<?>) value) {
+        canonical.add(canonicalValue(element));
       }
+      return canonical;
+    }
+    return value;
+  }
+
+  private static boolean hasStableEncoding(Object value) {
+    if (value == null
+        || value instanceof String
+        || value instanceof Boolean
+        || value instanceof Date
+        || value instanceof BigDecimal) {
+      return true;
+    }
+    if (value instanceof Number) {
+      return value instanceof Integer
+          || value instanceof Long
+          || value instanceof Short
+          || value instanceof Byte
+          || value instanceof Float
+          || value instanceof Double;
+    }
+    if (value instanceof OIdentifiable) {
+      // links are compared by identity, embedded documents by content which has no stable form
+      return !(value instanceof ODocument) || ((ODocument) value).getIdentity().isPersistent();
+    }
+    if (value instanceof List) {
+      for (Object element : (Collection<?>) value) {
+        if (!hasStableEncoding(element)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (value instanceof OResult) {
+      OResult nested = (OResult) value;
+      if (nested.isElement()) {
+        return nested.getElement().get().getIdentity().isPersistent();
+      }
+      if (nested.getClass() != OResultInternal.class || !nested.getMetadataKeys().isEmpty()) {
+        return false;
+      }
+      for (Object nestedValue : ((OResultInternal) nested).content.values()) {
+        if (!hasStableEncoding(nestedValue)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    // sets and maps do not have stable order of items
+    return false;
+  }
+
+  private void closeSpillFile(ResultSpillFile file) {
+    try {
+      file.close();
+    } catch (IOException e) {
+      OLogManager.instance().warn(this, "Error during deletion of DISTINCT spill file", e);
     }
-    return pastItems.contains(nextValue);
   }
 
   @Override
@@ -154,6 +428,26 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
 
   @Override
   public void close() {
+    if (pastRows != null) {
+      pastRows.close();
+      pastRows = null;
+    }
+    if (partitions != null) {
+      for (SpilledPartition partition : partitions) {
+        if (partition != null) {
+          partition.close();
+        }
+      }
+      partitions = null;
+    }
+    if (currentPartition != null) {
+      currentPartition.close();
+      currentPartition = null;
+    }
+    for (SpilledPartition partition : spilledPartitions) {
+      partition.close();
+    }
+    spilledPartitions.clear();
     prev.ifPresent(x -> x.close());
   }
 
@@ -170,4 +464,38 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
   public long getCost() {
     return cost;
   }
+
+  /**
+   * Projections of a partition, written to the spill file which is created with the first spillable
+   * projection, or kept in heap if they can not be spilled. Projections kept in heap are returned
+   * after the spilled ones.
+   */
+  private final class SpilledPartition {
+    private final int depth;
+    private ResultSpillFile file;
+    private final List<OResult> pinned = new ArrayList<>();
+    private int nextPinned;
+
+    private SpilledPartition(int depth) {
+      this.depth = depth;
+    }
+
+    private OResult next(ODatabaseDocumentInternal db) throws IOException {
+      if (file != null) {
+        OResult item = file.next(db);
+        if (item != null) {
+          return item;
+        }
+      }
+      return nextPinned < pinned.size() ? pinned.get(nextPinned++) : null;
+    }
+
+    private void close() {
+      pinned.clear();
+      if (file != null) {
+        closeSpillFile(file);
+        file = null;
+      }
+    }
+  }
 }
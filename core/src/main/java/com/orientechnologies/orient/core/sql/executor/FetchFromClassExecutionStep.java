@@ -200,6 +200,31 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
     };
   }
 
+  @Override
+  public List<OResult> syncPullBatch(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    List<OResult> batch = new ArrayList<>();
+    // records left by a previous row-at-a-time pull have to be returned first
+    while (currentResultSet != null && currentResultSet.hasNext() && batch.size() < nRecords) {
+      batch.add(currentResultSet.next());
+    }
+    if (batch.size() < nRecords) {
+      currentResultSet = null;
+    }
+
+    while (batch.isEmpty() && currentStep < getSubSteps().size()) {
+      batch =
+          ((OExecutionStepInternal) getSubSteps().get(currentStep)).syncPullBatch(ctx, nRecords);
+      if (batch.isEmpty()) {
+        currentStep++;
+      }
+    }
+    if (!batch.isEmpty()) {
+      ctx.setVariable("$current", batch.get(batch.size() - 1));
+    }
+    return batch;
+  }
+
   @Override
   public void sendTimeout() {
     for (OExecutionStep step : getSubSteps()) {
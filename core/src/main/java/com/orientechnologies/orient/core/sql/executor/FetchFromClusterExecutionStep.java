@@ -19,6 +19,8 @@ import com.orientechnologies.orient.core.sql.parser.OGtOperator;
 import com.orientechnologies.orient.core.sql.parser.OLeOperator;
 import com.orientechnologies.orient.core.sql.parser.OLtOperator;
 import com.orientechnologies.orient.core.sql.parser.ORid;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -27,6 +29,10 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
 
   public static final Object ORDER_ASC = "ASC";
   public static final Object ORDER_DESC = "DESC";
+
+  /** Batches are pre-sized up to this capacity, huge batch sizes are not allocated upfront. */
+  private static final int MAX_INITIAL_BATCH_CAPACITY = 1_024;
+
   private final QueryPlanningInfo queryPlanning;
 
   private int clusterId;
@@ -55,19 +61,7 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
     getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
     long begin = profilingEnabled ? System.nanoTime() : 0;
     try {
-      if (iterator == null) {
-        long minClusterPosition = calculateMinClusterPosition();
-        long maxClusterPosition = calculateMaxClusterPosition();
-        iterator =
-            new ORecordIteratorCluster(
-                (ODatabaseDocumentInternal) ctx.getDatabase(),
-                clusterId,
-                minClusterPosition,
-                maxClusterPosition);
-        if (ORDER_DESC.equals(order)) {
-          iterator.last();
-        }
-      }
+      initIterator(ctx);
       OResultSet rs =
           new OResultSet() {
 
@@ -154,6 +148,66 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
     }
   }
 
+  @Override
+  public List<OResult> syncPullBatch(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    long begin = profilingEnabled ? System.nanoTime() : 0;
+    try {
+      initIterator(ctx);
+      final boolean descending = ORDER_DESC.equals(order);
+      final List<OResult> batch = new ArrayList<>(Math.min(nRecords, MAX_INITIAL_BATCH_CAPACITY));
+      while (batch.size() < nRecords) {
+        if (timedOut) {
+          throw new OTimeoutException("Command execution timeout");
+        }
+        if (batch.size() % 100 == 0 && OExecutionThreadLocal.isInterruptCurrentOperation()) {
+          throw new OCommandInterruptedException("The command has been interrupted");
+        }
+
+        final ORecord record;
+        if (descending) {
+          if (!iterator.hasPrevious()) {
+            break;
+          }
+          record = iterator.previous();
+        } else {
+          if (!iterator.hasNext()) {
+            break;
+          }
+          record = iterator.next();
+        }
+
+        OResultInternal result = new OResultInternal();
+        result.element = record;
+        batch.add(result);
+      }
+      if (!batch.isEmpty()) {
+        ctx.setVariable("$current", batch.get(batch.size() - 1));
+      }
+      return batch;
+    } finally {
+      if (profilingEnabled) {
+        cost += (System.nanoTime() - begin);
+      }
+    }
+  }
+
+  private void initIterator(OCommandContext ctx) {
+    if (iterator == null) {
+      long minClusterPosition = calculateMinClusterPosition();
+      long maxClusterPosition = calculateMaxClusterPosition();
+      iterator =
+          new ORecordIteratorCluster(
+              (ODatabaseDocumentInternal) ctx.getDatabase(),
+              clusterId,
+              minClusterPosition,
+              maxClusterPosition);
+      if (ORDER_DESC.equals(order)) {
+        iterator.last();
+      }
+    }
+  }
+
   private long calculateMinClusterPosition() {
     if (queryPlanning == null
         || queryPlanning.ridRangeConditions == null
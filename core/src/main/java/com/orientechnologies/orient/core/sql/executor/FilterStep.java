@@ -5,6 +5,8 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -128,6 +130,55 @@ public class FilterStep extends AbstractExecutionStep {
     };
   }
 
+  @Override
+  public List<OResult> syncPullBatch(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    if (!prev.isPresent()) {
+      throw new IllegalStateException("filter step requires a previous step");
+    }
+    OExecutionStepInternal prevStep = prev.get();
+    long timeoutBegin = System.currentTimeMillis();
+
+    List<OResult> batch;
+    if (prevResult != null && prevResult.hasNext()) {
+      // records left by a previous row-at-a-time pull have to be returned first
+      batch = new ArrayList<>();
+      while (prevResult.hasNext() && batch.size() < nRecords) {
+        batch.add(prevResult.next());
+      }
+    } else {
+      prevResult = null;
+      batch = prevStep.syncPullBatch(ctx, nRecords);
+    }
+
+    while (!batch.isEmpty()) {
+      long begin = profilingEnabled ? System.nanoTime() : 0;
+      try {
+        // matching records are compacted to the head of the batch
+        int matched = 0;
+        for (int i = 0; i < batch.size(); i++) {
+          OResult item = batch.get(i);
+          ctx.setVariable("$current", item);
+          if (whereClause.matchesFilters(item, ctx)) {
+            batch.set(matched++, item);
+          }
+        }
+        if (matched > 0) {
+          batch.subList(matched, batch.size()).clear();
+          return batch;
+        }
+      } finally {
+        if (profilingEnabled) {
+          cost += (System.nanoTime() - begin);
+        }
+      }
+      if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
+        sendTimeout();
+      }
+      batch = prevStep.syncPullBatch(ctx, nRecords);
+    }
+    return batch;
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     StringBuilder result = new StringBuilder();
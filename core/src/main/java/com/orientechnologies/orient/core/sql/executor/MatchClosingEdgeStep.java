@@ -0,0 +1,335 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableSchema;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.sql.functions.graph.OGraphNeighbors;
+import com.orientechnologies.orient.core.sql.parser.OExpression;
+import com.orientechnologies.orient.core.sql.parser.OMatchFilter;
+import com.orientechnologies.orient.core.sql.parser.OMatchPathItem;
+import com.orientechnologies.orient.core.sql.parser.OMethodCall;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+/**
+ * Matches an edge of the pattern whose endpoints are both already matched, eg. the edge that closes
+ * a cycle. Instead of traversing the edge from every upstream row and discarding the neighbors that
+ * differ from the matched endpoint, the upstream rows are processed in batches: the neighbors of
+ * every distinct starting vertex of the batch are read once, without loading them, and the sorted
+ * neighbors are intersected with the sorted endpoints matched to that vertex.
+ *
+ * <p>Rows whose starting point is not a vertex are traversed as in {@link MatchStep}.
+ */
+public class MatchClosingEdgeStep extends MatchStep {
+  private final int batchSize;
+  private final ODirection direction;
+  private final String startingPointAlias;
+  private final String endPointAlias;
+
+  private OGraphNeighbors neighbors;
+  private boolean batched = true;
+  private OResultSet upstream;
+  private OResult lastUpstreamRecord;
+  private final Deque<OResult> results = new ArrayDeque<>();
+
+  public MatchClosingEdgeStep(
+      OCommandContext context, EdgeTraversal edge, int batchSize, boolean profilingEnabled) {
+    super(context, edge, profilingEnabled);
+    this.batchSize = batchSize;
+    this.direction = getDirection(edge, context);
+    if (direction == null) {
+      throw new IllegalArgumentException("Edge cannot be matched in batches: " + edge);
+    }
+    this.startingPointAlias = edge.out ? edge.edge.out.alias : edge.edge.in.alias;
+    this.endPointAlias = edge.out ? edge.edge.in.alias : edge.edge.out.alias;
+  }
+
+  /**
+   * @return the direction of the edges followed by the traversal, null if the traversal is not a
+   *     plain <code>out()</code>, <code>in()</code> or <code>both()</code> between two vertices
+   */
+  public static ODirection getDirection(EdgeTraversal edge, OCommandContext ctx) {
+    OMatchPathItem item = edge.edge.item;
+    if (item == null || item.getClass() != OMatchPathItem.class) {
+      return null;
+    }
+    OMatchFilter filter = item.getFilter();
+    if (filter != null
+        && (filter.getWhileCondition() != null
+            || filter.getMaxDepth() != null
+            || filter.getDepthAlias() != null
+            || filter.getPathAlias() != null)) {
+      return null;
+    }
+    OMethodCall method = item.getMethod();
+    if (method == null || method.getMethodName() == null) {
+      return null;
+    }
+    for (OExpression param : method.getParams()) {
+      if (!param.isEarlyCalculated(ctx)) {
+        return null;
+      }
+    }
+
+    String methodName = method.getMethodName().getStringValue().toLowerCase(Locale.ENGLISH);
+    switch (methodName) {
+      case "out":
+        return edge.out ? ODirection.OUT : ODirection.IN;
+      case "in":
+        return edge.out ? ODirection.IN : ODirection.OUT;
+      case "both":
+        return ODirection.BOTH;
+      default:
+        return null;
+    }
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    this.upstream = null;
+    this.lastUpstreamRecord = null;
+    this.results.clear();
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    return new OResultSet() {
+      private int localCount = 0;
+
+      @Override
+      public boolean hasNext() {
+        if (localCount >= nRecords) {
+          return false;
+        }
+        if (results.isEmpty()) {
+          fetchNextBatch(ctx, nRecords);
+        }
+        return !results.isEmpty();
+      }
+
+      @Override
+      public OResult next() {
+        if (!hasNext()) {
+          throw new IllegalStateException();
+        }
+        OResult result = results.poll();
+        localCount++;
+        ctx.setVariable("$matched", result);
+        return result;
+      }
+
+      @Override
+      public void close() {}
+
+      @Override
+      public Optional<OExecutionPlan> getExecutionPlan() {
+        return Optional.empty();
+      }
+
+      @Override
+      public Map<String, Long> getQueryStats() {
+        return null;
+      }
+    };
+  }
+
+  private void fetchNextBatch(OCommandContext ctx, int nRecords) {
+    while (results.isEmpty()) {
+      if (lastUpstreamRecord != null) {
+        // THE UPSTREAM TRAVERSERS UPDATE $matched, IT HAS TO BE THE ROW THEY RETURNED LAST
+        ctx.setVariable("$matched", lastUpstreamRecord);
+      }
+      List<OResult> batch = new ArrayList<>();
+      while (batch.size() < batchSize) {
+        if (upstream == null || !upstream.hasNext()) {
+          upstream = getPrev().get().syncPull(ctx, nRecords);
+          if (!upstream.hasNext()) {
+            break;
+          }
+        }
+        lastUpstreamRecord = upstream.next();
+        // THE UPSTREAM STEPS CAN STILL CHANGE THE ROW THROUGH $matched
+        batch.add(copy(lastUpstreamRecord));
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+      matchBatch(ctx, batch);
+    }
+  }
+
+  private void matchBatch(OCommandContext ctx, List<OResult> batch) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    if (neighbors == null && batched) {
+      String[] labels = evaluateLabels(ctx);
+      if (labels == null) {
+        batched = false;
+      } else {
+        neighbors = new OGraphNeighbors(db, direction, labels);
+      }
+    }
+    OImmutableSchema schema = db.getMetadata().getImmutableSchemaSnapshot();
+
+    int size = batch.size();
+    long[] starts = new long[size];
+    long[] ends = new long[size];
+    OIdentifiable[] endElements = new OIdentifiable[size];
+    LongObjectHashMap<LongArrayList> endsByStart = new LongObjectHashMap<>();
+    for (int i = 0; i < size; i++) {
+      OResult row = batch.get(i);
+      OIdentifiable start = toIdentifiable(row.getProperty(startingPointAlias));
+      endElements[i] = toIdentifiable(row.getProperty(endPointAlias));
+      if (!batched || start == null || endElements[i] == null || !isVertex(schema, start)) {
+        starts[i] = OGraphNeighbors.NONE;
+        continue;
+      }
+      starts[i] = OGraphNeighbors.encode(start.getIdentity());
+      ends[i] = OGraphNeighbors.encode(endElements[i].getIdentity());
+      endsByStart.getIfAbsentPut(starts[i], LongArrayList::new).add(ends[i]);
+    }
+
+    LongObjectHashMap<LongIntHashMap> connections = new LongObjectHashMap<>();
+    endsByStart.forEachKeyValue(
+        (start, startEnds) -> connections.put(start, intersect(db, start, startEnds)));
+
+    for (int i = 0; i < size; i++) {
+      OResult row = batch.get(i);
+      ctx.setVariable("$matched", row);
+      if (starts[i] == OGraphNeighbors.NONE) {
+        traverse(ctx, row);
+        continue;
+      }
+      int count = connections.get(starts[i]).get(ends[i]);
+      if (count == 0 || !createTraverser(row).matchesTarget(ctx, endElements[i])) {
+        continue;
+      }
+      // ONE MATCH FOR EVERY EDGE BETWEEN THE TWO VERTICES
+      results.add(row);
+      for (int j = 1; j < count; j++) {
+        results.add(copy(row));
+      }
+    }
+  }
+
+  /** @return the number of connections from the vertex to each of the endpoints */
+  private LongIntHashMap intersect(ODatabaseDocumentInternal db, long start, LongArrayList ends) {
+    LongArrayList adjacent = new LongArrayList();
+    neighbors.forEach(
+        db,
+        start,
+        (neighbor, edge) -> {
+          adjacent.add(neighbor);
+          return true;
+        });
+    long[] sortedNeighbors = adjacent.toArray();
+    long[] sortedEnds = ends.toArray();
+    Arrays.sort(sortedNeighbors);
+    Arrays.sort(sortedEnds);
+
+    LongIntHashMap result = new LongIntHashMap();
+    int i = 0;
+    int j = 0;
+    while (i < sortedNeighbors.length && j < sortedEnds.length) {
+      if (sortedNeighbors[i] < sortedEnds[j]) {
+        i++;
+      } else if (sortedNeighbors[i] > sortedEnds[j]) {
+        j++;
+      } else {
+        long match = sortedEnds[j];
+        while (i < sortedNeighbors.length && sortedNeighbors[i] == match) {
+          result.addToValue(match, 1);
+          i++;
+        }
+        while (j < sortedEnds.length && sortedEnds[j] == match) {
+          j++;
+        }
+      }
+    }
+    return result;
+  }
+
+  private void traverse(OCommandContext ctx, OResult row) {
+    MatchEdgeTraverser traverser = createTraverser(row);
+    while (traverser.hasNext(ctx)) {
+      OResult result = traverser.next(ctx);
+      if (result != null) {
+        results.add(result);
+      }
+    }
+  }
+
+  /** @return the edge classes passed to the method, null if they are not class names */
+  private String[] evaluateLabels(OCommandContext ctx) {
+    List<OExpression> params = edge.edge.item.getMethod().getParams();
+    String[] labels = new String[params.size()];
+    for (int i = 0; i < labels.length; i++) {
+      Object value = params.get(i).execute((OResult) null, ctx);
+      if (value != null && !(value instanceof String)) {
+        return null;
+      }
+      labels[i] = (String) value;
+    }
+    return labels;
+  }
+
+  private static OResultInternal copy(OResult row) {
+    OResultInternal result = new OResultInternal();
+    for (String prop : row.getPropertyNames()) {
+      result.setProperty(prop, row.getProperty(prop));
+    }
+    return result;
+  }
+
+  private static OIdentifiable toIdentifiable(Object value) {
+    if (value instanceof OResult) {
+      return ((OResult) value).getElement().orElse(null);
+    }
+    if (value instanceof OIdentifiable) {
+      return (OIdentifiable) value;
+    }
+    return null;
+  }
+
+  private static boolean isVertex(OImmutableSchema schema, OIdentifiable element) {
+    ORID rid = element.getIdentity();
+    if (rid == null || rid.getClusterId() < 0) {
+      return false;
+    }
+    OClass clazz = schema.getClassByClusterId(rid.getClusterId());
+    return clazz != null && clazz.isVertexType();
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String spaces = OExecutionStepInternal.getIndent(depth, indent);
+    StringBuilder result = new StringBuilder();
+    result.append(spaces);
+    result.append("+ MATCH CLOSING EDGE (batch size: " + batchSize + ") ");
+    if (edge.out) {
+      result.append("     ---->\n");
+    } else {
+      result.append("     <----\n");
+    }
+    result.append(spaces);
+    result.append("  ");
+    result.append("{" + edge.edge.out.alias + "}");
+    result.append(edge.edge.item.getMethod());
+    result.append("{" + edge.edge.in.alias + "}");
+    return result.toString();
+  }
+}
@@ -224,13 +224,16 @@ public class MatchEdgeTraverser {
           //          }
           // TODO consider break strategies (eg. re-traverse nodes)
 
-          List<OIdentifiable> newPath = new ArrayList<>();
-          if (pathToHere != null) {
-            newPath.addAll(pathToHere);
-          }
-
           OElement elem = origin.toElement();
-          newPath.add(elem.getIdentity());
+          List<OIdentifiable> newPath = null;
+          if (item.getFilter() != null && item.getFilter().getPathAlias() != null) {
+            // THE PATH IS KEPT ONLY IF IT'S RETURNED
+            newPath = new ArrayList<>();
+            if (pathToHere != null) {
+              newPath.addAll(pathToHere);
+            }
+            newPath.add(elem.getIdentity());
+          }
 
           Iterable<OResultInternal> subResult =
               executeTraversal(iCommandContext, item, elem, depth + 1, newPath);
@@ -248,6 +251,30 @@ public class MatchEdgeTraverser {
     return result;
   }
 
+  /**
+   * Checks the conditions on the endpoint of the edge against an element, the same way they are
+   * checked against the elements reached by the traversal.
+   */
+  protected boolean matchesTarget(OCommandContext iCommandContext, OIdentifiable element) {
+    if (item.getFilter() == null) {
+      return true;
+    }
+    String clusterName = targetClusterName(item, iCommandContext);
+    Integer clusterId =
+        clusterName == null ? null : iCommandContext.getDatabase().getClusterIdByName(clusterName);
+
+    Object previousMatch = iCommandContext.getVariable("$currentMatch");
+    iCommandContext.setVariable("$currentMatch", element);
+    try {
+      return matchesFilters(iCommandContext, getTargetFilter(item), element)
+          && matchesClass(iCommandContext, targetClassName(item, iCommandContext), element)
+          && matchesCluster(iCommandContext, clusterId, element)
+          && matchesRid(iCommandContext, targetRid(item, iCommandContext), element);
+    } finally {
+      iCommandContext.setVariable("$currentMatch", previousMatch);
+    }
+  }
+
   protected OWhereClause getTargetFilter(OMatchPathItem item) {
     return item.getFilter().getFilter();
   }
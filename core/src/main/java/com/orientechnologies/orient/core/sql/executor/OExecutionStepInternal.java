@@ -31,6 +31,26 @@ public interface OExecutionStepInternal extends OExecutionStep {
 
   OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException;
 
+  /**
+   * Batch oriented version of {@link #syncPull(OCommandContext, int)}. Returns at most nRecords
+   * records, unlike <code>syncPull()</code> the returned batch can contain less than nRecords
+   * records even if upstream is not exhausted yet (eg. a filtering step returns only the records of
+   * the upstream batch which match the conditions), an empty batch means that the step cannot
+   * produce any more records.
+   *
+   * <p>Steps which process records in a tight loop override this method to avoid per-record
+   * overhead of the result set iteration, other steps fall back to the row-at-a-time iteration of
+   * <code>syncPull()</code>. The returned list is owned by the caller and can be modified in place.
+   */
+  default List<OResult> syncPullBatch(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    final OResultSet resultSet = syncPull(ctx, nRecords);
+    final List<OResult> batch = new ArrayList<>();
+    while (resultSet.hasNext()) {
+      batch.add(resultSet.next());
+    }
+    return batch;
+  }
+
   void sendTimeout();
 
   void setPrevious(OExecutionStepInternal step);
@@ -0,0 +1,563 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.OPhysicalPosition;
+import com.orientechnologies.orient.core.storage.OStorage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+/**
+ * Statistics about the structure of the graph used by the query planners: the distribution of the
+ * degree of the vertices of every class for every edge class and direction, and the number of
+ * entries and distinct keys of the indexes.
+ *
+ * <p>Degrees are computed on a random sample of the vertices of a class (see {@link
+ * OGlobalConfiguration#QUERY_GRAPH_STATISTICS_SAMPLE_SIZE}) the first time the planner needs them
+ * and again once the number of vertices of the class changed by more than a fifth. Only one thread
+ * at a time samples a class, the other threads keep planning with the previous statistics. Index
+ * statistics need a scan of the index, so they are computed only by {@link
+ * #refreshIndex(ODatabaseDocumentInternal, String)}. All the statistics are kept in a property of
+ * the storage, so they survive restarts.
+ *
+ * <p>Statistics can be refreshed explicitly from SQL with the <code>refreshGraphStatistics()</code>
+ * function, see {@link
+ * com.orientechnologies.orient.core.sql.functions.misc.OSQLFunctionRefreshGraphStatistics}.
+ */
+public class OGraphStatistics {
+  /** Name of the storage property which holds the statistics. */
+  public static final String PROPERTY = "graphStatistics";
+
+  private static final double STALE_RATIO = 0.2;
+  private static final String EDGE_OUT_PREFIX = "out_";
+  private static final String EDGE_IN_PREFIX = "in_";
+
+  /** Distribution of the degree of the vertices of a class for an edge class and direction. */
+  public static final class ODegree {
+    public final double average;
+    public final long median;
+    public final long p90;
+    public final long p99;
+    public final long max;
+
+    public ODegree(double average, long median, long p90, long p99, long max) {
+      this.average = average;
+      this.median = median;
+      this.p90 = p90;
+      this.p99 = p99;
+      this.max = max;
+    }
+
+    private ODocument toDocument() {
+      final ODocument document = new ODocument();
+      document.field("average", average);
+      document.field("median", median);
+      document.field("p90", p90);
+      document.field("p99", p99);
+      document.field("max", max);
+      return document;
+    }
+
+    private static ODegree fromDocument(final ODocument document) {
+      return new ODegree(
+          ((Number) document.field("average")).doubleValue(),
+          ((Number) document.field("median")).longValue(),
+          ((Number) document.field("p90")).longValue(),
+          ((Number) document.field("p99")).longValue(),
+          ((Number) document.field("max")).longValue());
+    }
+  }
+
+  /** Degrees of the vertices of a class, by edge class. */
+  public static final class OVertexClassStatistics {
+    /** Number of vertices of the class when the sample was taken. */
+    public final long count;
+
+    public final int sampled;
+    private final Map<String, ODegree> out;
+    private final Map<String, ODegree> in;
+
+    public OVertexClassStatistics(
+        long count, int sampled, Map<String, ODegree> out, Map<String, ODegree> in) {
+      this.count = count;
+      this.sampled = sampled;
+      this.out = out;
+      this.in = in;
+    }
+
+    /** @return the degree for the edge class, not including subclasses, or null if never seen */
+    public ODegree getDegree(final ODirection direction, final String edgeClass) {
+      if (direction == ODirection.OUT) {
+        return out.get(edgeClass);
+      } else if (direction == ODirection.IN) {
+        return in.get(edgeClass);
+      }
+      throw new IllegalArgumentException("Degrees are kept only for OUT and IN directions");
+    }
+
+    public Map<String, ODegree> getDegrees(final ODirection direction) {
+      return direction == ODirection.OUT ? out : in;
+    }
+
+    private boolean isStale(final long currentCount) {
+      return Math.abs(currentCount - count) > Math.max(1, count * STALE_RATIO);
+    }
+
+    private ODocument toDocument() {
+      final ODocument document = new ODocument();
+      document.field("count", count);
+      document.field("sampled", sampled);
+      document.field("out", toDocument(out));
+      document.field("in", toDocument(in));
+      return document;
+    }
+
+    private static List<ODocument> toDocument(final Map<String, ODegree> degrees) {
+      final List<ODocument> result = new ArrayList<>(degrees.size());
+      for (Map.Entry<String, ODegree> entry : degrees.entrySet()) {
+        result.add(entry.getValue().toDocument().field("name", entry.getKey()));
+      }
+      return result;
+    }
+
+    private static OVertexClassStatistics fromDocument(final ODocument document) {
+      return new OVertexClassStatistics(
+          ((Number) document.field("count")).longValue(),
+          ((Number) document.field("sampled")).intValue(),
+          degreesFromDocument(document.field("out")),
+          degreesFromDocument(document.field("in")));
+    }
+
+    private static Map<String, ODegree> degreesFromDocument(final List<ODocument> documents) {
+      final Map<String, ODegree> result = new HashMap<>();
+      for (ODocument document : documents) {
+        result.put(document.field("name"), ODegree.fromDocument(document));
+      }
+      return result;
+    }
+  }
+
+  /** Number of entries and of distinct keys of an index. */
+  public static final class OIndexStatistics {
+    public final long entries;
+    public final long distinctKeys;
+
+    public OIndexStatistics(long entries, long distinctKeys) {
+      this.entries = entries;
+      this.distinctKeys = distinctKeys;
+    }
+
+    /** @return the average number of entries with the same key */
+    public long getAverageEntriesPerKey() {
+      if (distinctKeys <= 0) {
+        return 0;
+      }
+      return Math.max(1, Math.round((double) entries / distinctKeys));
+    }
+
+    private ODocument toDocument() {
+      final ODocument document = new ODocument();
+      document.field("entries", entries);
+      document.field("distinctKeys", distinctKeys);
+      return document;
+    }
+
+    private static OIndexStatistics fromDocument(final ODocument document) {
+      return new OIndexStatistics(
+          ((Number) document.field("entries")).longValue(),
+          ((Number) document.field("distinctKeys")).longValue());
+    }
+  }
+
+  private final Map<String, OVertexClassStatistics> vertexClasses = new ConcurrentHashMap<>();
+  private final Map<String, OIndexStatistics> indexes = new ConcurrentHashMap<>();
+  /** Vertex classes which are being sampled because their statistics are missing or stale. */
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+  private volatile boolean loaded = false;
+
+  public static OGraphStatistics get(ODatabaseDocumentInternal db) {
+    return db.getSharedContext().getGraphStatistics();
+  }
+
+  /** @return true if the statistics are enabled and kept for the database */
+  public static boolean isEnabled(ODatabaseDocumentInternal db) {
+    return db.getSharedContext().getGraphStatistics() != null
+        && db.getConfiguration().getValueAsBoolean(OGlobalConfiguration.QUERY_GRAPH_STATISTICS);
+  }
+
+  /**
+   * Returns the degrees of the vertices of the class, the vertices are sampled again if the
+   * statistics are missing or stale. While another thread samples the class the current statistics
+   * are returned, even if stale.
+   *
+   * @return the statistics or null if the class does not exist or if its statistics are not
+   *     available yet because they are being computed by another thread
+   */
+  public OVertexClassStatistics getVertexClassStatistics(
+      final ODatabaseDocumentInternal db, final String className) {
+    load(db);
+    final OClass clazz = db.getMetadata().getImmutableSchemaSnapshot().getClass(className);
+    if (clazz == null) {
+      return null;
+    }
+
+    final OVertexClassStatistics current = vertexClasses.get(clazz.getName());
+    if (current != null && !current.isStale(clazz.count())) {
+      return current;
+    }
+    if (!refreshing.add(clazz.getName())) {
+      return current;
+    }
+    try {
+      return refreshVertexClass(db, clazz.getName());
+    } finally {
+      refreshing.remove(clazz.getName());
+    }
+  }
+
+  /**
+   * Returns the average degree of the vertices of the class through the edge classes (with their
+   * subclasses) in the direction.
+   *
+   * @param edgeClasses edge classes to follow, null or empty for all the edge classes
+   * @return the average degree or -1 if unknown
+   */
+  public double getAverageDegree(
+      final ODatabaseDocumentInternal db,
+      final String vertexClass,
+      final ODirection direction,
+      final Collection<String> edgeClasses) {
+    final OVertexClassStatistics statistics = getVertexClassStatistics(db, vertexClass);
+    if (statistics == null) {
+      return -1;
+    }
+    if (direction == ODirection.BOTH) {
+      return statistics.sampled == 0
+          ? -1
+          : averageDegree(db, statistics, ODirection.OUT, edgeClasses)
+              + averageDegree(db, statistics, ODirection.IN, edgeClasses);
+    }
+    return statistics.sampled == 0 ? -1 : averageDegree(db, statistics, direction, edgeClasses);
+  }
+
+  private static double averageDegree(
+      final ODatabaseDocumentInternal db,
+      final OVertexClassStatistics statistics,
+      final ODirection direction,
+      final Collection<String> edgeClasses) {
+    final OSchema schema = db.getMetadata().getImmutableSchemaSnapshot();
+    double result = 0;
+    for (Map.Entry<String, ODegree> entry : statistics.getDegrees(direction).entrySet()) {
+      if (edgeClasses == null || edgeClasses.isEmpty()) {
+        result += entry.getValue().average;
+        continue;
+      }
+      final OClass edgeClass = schema.getClass(entry.getKey());
+      for (String requested : edgeClasses) {
+        if (entry.getKey().equalsIgnoreCase(requested)
+            || (edgeClass != null && edgeClass.isSubClassOf(requested))) {
+          result += entry.getValue().average;
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
+  /** @return the statistics of the index or null if they were never computed */
+  public OIndexStatistics getIndexStatistics(
+      final ODatabaseDocumentInternal db, final String indexName) {
+    load(db);
+    return indexes.get(indexName);
+  }
+
+  /** Samples the vertices of the class and stores their degrees. */
+  public OVertexClassStatistics refreshVertexClass(
+      final ODatabaseDocumentInternal db, final String className) {
+    load(db);
+    final OClass clazz = db.getMetadata().getImmutableSchemaSnapshot().getClass(className);
+    if (clazz == null) {
+      throw new IllegalArgumentException("Class '" + className + "' not found");
+    }
+    final OVertexClassStatistics statistics =
+        sample(
+            db,
+            clazz,
+            db.getConfiguration()
+                .getValueAsInteger(OGlobalConfiguration.QUERY_GRAPH_STATISTICS_SAMPLE_SIZE));
+    vertexClasses.put(clazz.getName(), statistics);
+    save(db);
+    return statistics;
+  }
+
+  /**
+   * Scans the keys of the index and stores the number of entries and distinct keys.
+   *
+   * @return the statistics or null for non unique indexes which do not keep the keys sorted
+   */
+  public OIndexStatistics refreshIndex(final ODatabaseDocumentInternal db, final String indexName) {
+    load(db);
+    final OIndex index = db.getMetadata().getIndexManagerInternal().getIndex(db, indexName);
+    if (index == null) {
+      throw new IllegalArgumentException("Index '" + indexName + "' not found");
+    }
+
+    final long entries = index.getInternal().size();
+    final long distinctKeys;
+    if (index.isUnique()) {
+      distinctKeys = entries;
+    } else {
+      if (!index.supportsOrderedIterations()) {
+        // DISTINCT KEYS OF HASH INDEXES CAN BE COUNTED ONLY IN MEMORY
+        return null;
+      }
+      // KEYS ARE SORTED, EQUAL KEYS ARE ADJACENT
+      long count = 0;
+      Object previous = null;
+      try (Stream<Object> keys = index.getInternal().keyStream()) {
+        for (Object key : (Iterable<Object>) keys::iterator) {
+          if (count == 0 || !Objects.equals(previous, key)) {
+            count++;
+          }
+          previous = key;
+        }
+      }
+      distinctKeys = count;
+    }
+
+    final OIndexStatistics statistics = new OIndexStatistics(entries, distinctKeys);
+    indexes.put(index.getName(), statistics);
+    save(db);
+    return statistics;
+  }
+
+  /** Refreshes the statistics of all the vertex classes and of all the indexes. */
+  public void refresh(final ODatabaseDocumentInternal db) {
+    final OSchema schema = db.getMetadata().getImmutableSchemaSnapshot();
+    final OClass vertexClass = schema.getClass("V");
+    if (vertexClass != null) {
+      refreshVertexClass(db, vertexClass.getName());
+      for (OClass clazz : vertexClass.getAllSubclasses()) {
+        refreshVertexClass(db, clazz.getName());
+      }
+    }
+    for (OIndex index : db.getMetadata().getIndexManagerInternal().getIndexes(db)) {
+      refreshIndex(db, index.getName());
+    }
+  }
+
+  private static OVertexClassStatistics sample(
+      final ODatabaseDocumentInternal db, final OClass clazz, final int sampleSize) {
+    final long count = clazz.count();
+    final int[] clusterIds = clazz.getPolymorphicClusterIds();
+
+    final Map<String, IntArrayList> out = new HashMap<>();
+    final Map<String, IntArrayList> in = new HashMap<>();
+    int sampled = 0;
+    for (int clusterId : clusterIds) {
+      final long clusterCount = db.countClusterElements(clusterId);
+      if (clusterCount == 0) {
+        continue;
+      }
+      final int quota =
+          count <= sampleSize
+              ? (int) clusterCount
+              : (int) Math.max(1, Math.round((double) sampleSize * clusterCount / count));
+      for (ORecord record : sampleCluster(db, clusterId, clusterCount, quota)) {
+        if (record instanceof ODocument) {
+          collectDegrees((ODocument) record, out, in);
+          sampled++;
+        }
+      }
+    }
+
+    return new OVertexClassStatistics(count, sampled, degrees(out, sampled), degrees(in, sampled));
+  }
+
+  /**
+   * Returns all the records of the cluster if they are not more than the quota, otherwise the
+   * records which follow random positions between the first and the last one.
+   */
+  private static List<ORecord> sampleCluster(
+      final ODatabaseDocumentInternal db,
+      final int clusterId,
+      final long clusterCount,
+      final int quota) {
+    final OStorage storage = db.getStorage();
+    final List<ORecord> result = new ArrayList<>(quota);
+    if (clusterCount <= quota) {
+      for (ORecord record : db.browseCluster(db.getClusterNameById(clusterId))) {
+        result.add(record);
+      }
+      return result;
+    }
+
+    final OPhysicalPosition[] first =
+        storage.ceilingPhysicalPositions(clusterId, new OPhysicalPosition(0));
+    final OPhysicalPosition[] last =
+        storage.floorPhysicalPositions(clusterId, new OPhysicalPosition(Long.MAX_VALUE));
+    if (first.length == 0 || last.length == 0) {
+      return result;
+    }
+    final long from = first[0].clusterPosition;
+    final long to = last[last.length - 1].clusterPosition;
+
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < quota; i++) {
+      final long position = from + (to > from ? random.nextLong(to - from + 1) : 0);
+      final OPhysicalPosition[] found =
+          storage.ceilingPhysicalPositions(clusterId, new OPhysicalPosition(position));
+      if (found.length == 0) {
+        continue;
+      }
+      final ORecord record = db.load(new ORecordId(clusterId, found[0].clusterPosition));
+      if (record != null) {
+        result.add(record);
+      }
+    }
+    return result;
+  }
+
+  private static void collectDegrees(
+      final ODocument vertex,
+      final Map<String, IntArrayList> out,
+      final Map<String, IntArrayList> in) {
+    for (String field : vertex.fieldNames()) {
+      final Map<String, IntArrayList> target;
+      final String edgeClass;
+      if (field.startsWith(EDGE_OUT_PREFIX)) {
+        target = out;
+        edgeClass = field.substring(EDGE_OUT_PREFIX.length());
+      } else if (field.startsWith(EDGE_IN_PREFIX)) {
+        target = in;
+        edgeClass = field.substring(EDGE_IN_PREFIX.length());
+      } else {
+        continue;
+      }
+
+      final Object value = vertex.rawField(field);
+      final int degree;
+      if (value instanceof ORidBag) {
+        degree = ((ORidBag) value).size();
+      } else if (value instanceof Collection) {
+        degree = ((Collection<?>) value).size();
+      } else if (value instanceof OIdentifiable) {
+        degree = 1;
+      } else {
+        continue;
+      }
+      target
+          .computeIfAbsent(edgeClass.isEmpty() ? "E" : edgeClass, k -> new IntArrayList())
+          .add(degree);
+    }
+  }
+
+  /** Vertices without edges of a class are not in the lists, they have degree 0. */
+  private static Map<String, ODegree> degrees(
+      final Map<String, IntArrayList> samples, final int sampled) {
+    final Map<String, ODegree> result = new HashMap<>();
+    for (Map.Entry<String, IntArrayList> entry : samples.entrySet()) {
+      final int[] degrees = entry.getValue().toArray();
+      Arrays.sort(degrees);
+      final int zeros = sampled - degrees.length;
+
+      long sum = 0;
+      for (int degree : degrees) {
+        sum += degree;
+      }
+      result.put(
+          entry.getKey(),
+          new ODegree(
+              (double) sum / sampled,
+              percentile(degrees, zeros, 0.5),
+              percentile(degrees, zeros, 0.9),
+              percentile(degrees, zeros, 0.99),
+              degrees.length == 0 ? 0 : degrees[degrees.length - 1]));
+    }
+    return result;
+  }
+
+  private static long percentile(final int[] sorted, final int zeros, final double percentile) {
+    final int index = (int) Math.ceil(percentile * (sorted.length + zeros)) - 1 - zeros;
+    return index < 0 ? 0 : sorted[Math.min(index, sorted.length - 1)];
+  }
+
+  private void load(final ODatabaseDocumentInternal db) {
+    if (loaded) {
+      return;
+    }
+    synchronized (this) {
+      if (loaded) {
+        return;
+      }
+      final String content = db.getStorage().getConfiguration().getProperty(PROPERTY);
+      if (content != null) {
+        try {
+          final ODocument document = new ODocument().fromJSON(content);
+          final List<ODocument> classes = document.field("vertexClasses");
+          for (ODocument vertexClass : classes) {
+            vertexClasses.put(
+                vertexClass.field("name"), OVertexClassStatistics.fromDocument(vertexClass));
+          }
+          final List<ODocument> indexDocuments = document.field("indexes");
+          for (ODocument index : indexDocuments) {
+            indexes.put(index.field("name"), OIndexStatistics.fromDocument(index));
+          }
+        } catch (RuntimeException e) {
+          OLogManager.instance()
+              .warn(
+                  this,
+                  "Invalid graph statistics in database %s, they are computed again",
+                  e,
+                  db.getName());
+          vertexClasses.clear();
+          indexes.clear();
+        }
+      }
+      loaded = true;
+    }
+  }
+
+  private synchronized void save(final ODatabaseDocumentInternal db) {
+    final List<ODocument> classes = new ArrayList<>(vertexClasses.size());
+    for (Map.Entry<String, OVertexClassStatistics> entry : vertexClasses.entrySet()) {
+      classes.add(entry.getValue().toDocument().field("name", entry.getKey()));
+    }
+    final List<ODocument> indexDocuments = new ArrayList<>(indexes.size());
+    for (Map.Entry<String, OIndexStatistics> entry : indexes.entrySet()) {
+      indexDocuments.add(entry.getValue().toDocument().field("name", entry.getKey()));
+    }
+    final ODocument document = new ODocument();
+    document.field("vertexClasses", classes);
+    document.field("indexes", indexDocuments);
+
+    try {
+      db.getStorage().setProperty(PROPERTY, document.toJSON());
+    } catch (RuntimeException e) {
+      // STATISTICS ARE STILL USED, THEY ARE SAMPLED AGAIN AFTER A RESTART
+      OLogManager.instance()
+          .warn(this, "Cannot store graph statistics of database %s", e, db.getName());
+    }
+  }
+}
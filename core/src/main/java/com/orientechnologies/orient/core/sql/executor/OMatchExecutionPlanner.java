@@ -3,10 +3,13 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.record.ODirection;
 import com.orientechnologies.orient.core.sql.parser.OAndBlock;
 import com.orientechnologies.orient.core.sql.parser.OCluster;
 import com.orientechnologies.orient.core.sql.parser.OExpression;
@@ -19,6 +22,7 @@ import com.orientechnologies.orient.core.sql.parser.OMatchExpression;
 import com.orientechnologies.orient.core.sql.parser.OMatchFilter;
 import com.orientechnologies.orient.core.sql.parser.OMatchPathItem;
 import com.orientechnologies.orient.core.sql.parser.OMatchStatement;
+import com.orientechnologies.orient.core.sql.parser.OMethodCall;
 import com.orientechnologies.orient.core.sql.parser.OMultiMatchPathItem;
 import com.orientechnologies.orient.core.sql.parser.ONestedProjection;
 import com.orientechnologies.orient.core.sql.parser.OOrderBy;
@@ -37,6 +41,7 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -294,11 +299,21 @@ public class OMatchExecutionPlanner {
       Set<String> prefetchedAliases,
       boolean profilingEnabled) {
     OSelectExecutionPlan plan = new OSelectExecutionPlan(context);
-    List<EdgeTraversal> sortedEdges = getTopologicalSortedSchedule(estimatedRootEntries, pattern);
+    Map<String, Long> rootWeights = estimatedRootEntries;
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) context.getDatabase();
+    if (pattern.getNumOfEdges() > 0 && OGraphStatistics.isEnabled(db)) {
+      rootWeights = estimateRootCosts(pattern, estimatedRootEntries, context);
+    }
+    List<EdgeTraversal> sortedEdges = getTopologicalSortedSchedule(rootWeights, pattern);
 
     boolean first = true;
     if (sortedEdges.size() > 0) {
+      Set<String> matchedAliases = new HashSet<>();
       for (EdgeTraversal edge : sortedEdges) {
+        if (first) {
+          matchedAliases.add(edge.out ? edge.edge.out.alias : edge.edge.in.alias);
+        }
+        boolean closing = !matchedAliases.add(edge.out ? edge.edge.in.alias : edge.edge.out.alias);
         if (edge.edge.out.alias != null) {
           edge.setLeftClass(aliasClasses.get(edge.edge.out.alias));
           edge.setLeftCluster(aliasClusters.get(edge.edge.out.alias));
@@ -306,7 +321,7 @@ public class OMatchExecutionPlanner {
           edge.setLeftClass(aliasClasses.get(edge.edge.out.alias));
           edge.setLeftFilter(aliasFilters.get(edge.edge.out.alias));
         }
-        addStepsFor(plan, edge, context, first, profilingEnabled);
+        addStepsFor(plan, edge, context, first, closing, profilingEnabled);
         first = false;
       }
     } else {
@@ -407,6 +422,121 @@ public class OMatchExecutionPlanner {
     return resultingSchedule;
   }
 
+  /**
+   * Estimates the cost of the match for every alias which can be the root of the pattern, as the
+   * sum of the estimated number of partial matches after every edge traversal of the schedule which
+   * starts from that root. The number of partial matches is multiplied by the average degree of the
+   * traversed vertices (see {@link OGraphStatistics}) and by the selectivity of the target alias at
+   * every step, so a small root followed by a large fan-out is not preferred to a larger root with
+   * selective traversals.
+   *
+   * @return the costs of the aliases of the pattern, other entries are returned as they are
+   */
+  private Map<String, Long> estimateRootCosts(
+      Pattern pattern, Map<String, Long> estimatedRootEntries, OCommandContext ctx) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    OGraphStatistics statistics = OGraphStatistics.get(db);
+    Map<String, Double> selectivities = new HashMap<>();
+    for (Map.Entry<String, Long> entry : estimatedRootEntries.entrySet()) {
+      String className = aliasClasses.get(entry.getKey());
+      if (className == null) {
+        continue;
+      }
+      OClass clazz = db.getMetadata().getImmutableSchemaSnapshot().getClass(className);
+      long count = clazz == null ? 0 : clazz.count();
+      if (count > 0) {
+        selectivities.put(entry.getKey(), Math.min(1.0, (double) entry.getValue() / count));
+      }
+    }
+
+    Map<String, Long> result = new LinkedHashMap<>();
+    for (Map.Entry<String, Long> entry : estimatedRootEntries.entrySet()) {
+      String root = entry.getKey();
+      if (!pattern.getAliasToNode().containsKey(root)) {
+        result.put(root, entry.getValue());
+        continue;
+      }
+
+      List<EdgeTraversal> schedule;
+      try {
+        schedule = getTopologicalSortedSchedule(Collections.singletonMap(root, 0L), pattern);
+      } catch (OCommandExecutionException e) {
+        // THE ALIAS CANNOT BE THE ROOT, EG. IT DEPENDS ON OTHER ALIASES
+        result.put(root, Long.MAX_VALUE);
+        continue;
+      }
+
+      double matches = entry.getValue();
+      double cost = matches;
+      for (EdgeTraversal traversal : schedule) {
+        PatternNode from = traversal.out ? traversal.edge.out : traversal.edge.in;
+        PatternNode to = traversal.out ? traversal.edge.in : traversal.edge.out;
+        matches *= estimateFanOut(db, statistics, from.alias, traversal, ctx);
+        matches *= selectivities.getOrDefault(to.alias, 1.0);
+        cost += matches;
+      }
+      result.put(root, cost >= Long.MAX_VALUE ? Long.MAX_VALUE - 1 : (long) Math.ceil(cost));
+    }
+    return result;
+  }
+
+  /**
+   * @return the average number of vertices or edges reached from a vertex of the alias by the
+   *     traversal, 1 if unknown
+   */
+  private double estimateFanOut(
+      ODatabaseDocumentInternal db,
+      OGraphStatistics statistics,
+      String fromAlias,
+      EdgeTraversal traversal,
+      OCommandContext ctx) {
+    OMethodCall method = traversal.edge.item.getMethod();
+    if (method == null || method.getMethodName() == null) {
+      return 1;
+    }
+    String methodName = method.getMethodName().getStringValue().toLowerCase(Locale.ENGLISH);
+    boolean toEdges = methodName.endsWith("e");
+    if (methodName.endsWith("v")) {
+      // FROM AN EDGE TO ITS VERTICES
+      return traversal.out ? (methodName.startsWith("both") ? 2 : 1) : 1;
+    }
+    if (toEdges) {
+      methodName = methodName.substring(0, methodName.length() - 1);
+      if (!traversal.out) {
+        // FROM AN EDGE BACK TO ITS VERTEX
+        return 1;
+      }
+    }
+
+    ODirection direction;
+    if ("out".equals(methodName)) {
+      direction = traversal.out ? ODirection.OUT : ODirection.IN;
+    } else if ("in".equals(methodName)) {
+      direction = traversal.out ? ODirection.IN : ODirection.OUT;
+    } else if ("both".equals(methodName)) {
+      direction = ODirection.BOTH;
+    } else {
+      return 1;
+    }
+
+    List<String> edgeClasses = new ArrayList<>();
+    for (OExpression param : method.getParams()) {
+      if (!param.isEarlyCalculated(ctx)) {
+        return 1;
+      }
+      Object value = param.execute((OResult) null, ctx);
+      if (value != null) {
+        edgeClasses.add(value.toString());
+      }
+    }
+
+    String className = aliasClasses.get(fromAlias);
+    double degree =
+        statistics.getAverageDegree(
+            db, className == null ? "V" : className, direction, edgeClasses);
+    return degree < 0 ? 1 : degree;
+  }
+
   /**
    * Start a depth-first traversal from the starting node, adding all viable unscheduled edges and
    * vertices.
@@ -597,6 +727,7 @@ public class OMatchExecutionPlanner {
       EdgeTraversal edge,
       OCommandContext context,
       boolean first,
+      boolean closing,
       boolean profilingEnabled) {
     if (first) {
       PatternNode patternNode = edge.out ? edge.edge.out : edge.edge.in;
@@ -627,6 +758,17 @@ public class OMatchExecutionPlanner {
     if (edge.edge.in.isOptionalNode()) {
       foundOptional = true;
       plan.chain(new OptionalMatchStep(context, edge, profilingEnabled));
+    } else if (closing && MatchClosingEdgeStep.getDirection(edge, context) != null) {
+      int batchSize =
+          context
+              .getDatabase()
+              .getConfiguration()
+              .getValueAsInteger(OGlobalConfiguration.QUERY_MATCH_BATCH_SIZE);
+      if (batchSize > 0) {
+        plan.chain(new MatchClosingEdgeStep(context, edge, batchSize, profilingEnabled));
+      } else {
+        plan.chain(new MatchStep(context, edge, profilingEnabled));
+      }
     } else {
       plan.chain(new MatchStep(context, edge, profilingEnabled));
     }
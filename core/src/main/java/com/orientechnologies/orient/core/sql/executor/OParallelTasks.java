@@ -0,0 +1,197 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Tasks of a query executed by the OrientDB worker pool. A session can be used only by one thread
+ * at a time, so every task gets its own copy of the session of the query, which is active on the
+ * worker thread while the task runs and is closed once the task is completed or cancelled.
+ *
+ * <p>The worker pool grows past its core size only when its queue is full, and its queue blocks the
+ * submitter instead of rejecting tasks, so not more than {@link #maxTasks()} tasks run at the same
+ * time, the other ones wait in the queue. A worker which waits for tasks submitted to the same pool
+ * may wait forever once all the workers do the same, so on a worker thread the tasks run one after
+ * the other on the current thread.
+ *
+ * @param <T> type of the results of the tasks
+ */
+public final class OParallelTasks<T> {
+  /** Task which uses its own copy of the session of the query. */
+  public interface OTask<T> {
+    T execute(ODatabaseDocumentInternal session) throws Exception;
+  }
+
+  /** Task which processes the items of the range [from, to) of a list. */
+  public interface ORangeTask<T> {
+    T execute(ODatabaseDocumentInternal session, int from, int to) throws Exception;
+  }
+
+  private final ODatabaseDocumentInternal db;
+  private final List<ODatabaseDocumentInternal> sessions;
+  private final List<FutureTask<T>> futures;
+  private final boolean inline;
+
+  /**
+   * Copies the session for every task, the session of the query is active on the current thread
+   * again once the copies are done.
+   */
+  public OParallelTasks(final ODatabaseDocumentInternal db, final int tasks) {
+    this.db = db;
+    this.sessions = new ArrayList<>(tasks);
+    this.futures = new ArrayList<>(tasks);
+    this.inline = Orient.instance().isWorkerThread();
+    try {
+      for (int i = 0; i < tasks; i++) {
+        sessions.add(db.copy());
+      }
+    } catch (RuntimeException e) {
+      for (ODatabaseDocumentInternal session : sessions) {
+        session.activateOnCurrentThread();
+        session.close();
+      }
+      sessions.clear();
+      throw e;
+    } finally {
+      db.activateOnCurrentThread();
+    }
+  }
+
+  /** @return the maximum number of tasks which run at the same time */
+  public static int maxTasks() {
+    return Orient.instance().getWorkers().getCorePoolSize();
+  }
+
+  /**
+   * @param size number of items to process
+   * @param threshold minimum number of items processed by a task, zero or less to disable parallel
+   *     processing
+   * @return number of tasks which process the items, less than 2 if they are processed
+   *     sequentially, as they are on the threads of the worker pool
+   */
+  public static int tasksFor(final int size, final int threshold) {
+    if (threshold <= 0 || Orient.instance().isWorkerThread()) {
+      return 1;
+    }
+    return Math.min(maxTasks(), size / threshold);
+  }
+
+  /**
+   * Splits the items in contiguous ranges of equal size processed by the tasks, and waits for them.
+   *
+   * @param operation description of the operation used by the error messages
+   * @return the results of the ranges, in the order of the ranges
+   */
+  public static <T> List<T> executeRanges(
+      final ODatabaseDocumentInternal db,
+      final int size,
+      final int tasks,
+      final ORangeTask<T> task,
+      final String operation) {
+    final OParallelTasks<T> parallel = new OParallelTasks<>(db, tasks);
+    final int rangeSize = (size + tasks - 1) / tasks;
+    for (int i = 0; i < tasks; i++) {
+      final int from = Math.min(size, i * rangeSize);
+      final int to = Math.min(size, from + rangeSize);
+      parallel.submit(session -> task.execute(session, from, to));
+    }
+    return parallel.await(operation);
+  }
+
+  /** Submits the next task, there are as many tasks as copies of the session. */
+  public void submit(final OTask<T> task) {
+    submit(task, null);
+  }
+
+  /**
+   * Submits the next task, there are as many tasks as copies of the session.
+   *
+   * @param onCompleted if not null, run by the worker once the session of the task is closed, also
+   *     if the task fails, but not if the task is cancelled before it starts
+   */
+  public void submit(final OTask<T> task, final Runnable onCompleted) {
+    final ODatabaseDocumentInternal session = sessions.get(futures.size());
+    final FutureTask<T> future =
+        new FutureTask<>(
+            () -> {
+              session.activateOnCurrentThread();
+              try {
+                return task.execute(session);
+              } finally {
+                try {
+                  session.close();
+                } finally {
+                  ODatabaseRecordThreadLocal.instance().remove();
+                  if (onCompleted != null) {
+                    onCompleted.run();
+                  }
+                }
+              }
+            });
+    futures.add(future);
+    if (inline) {
+      future.run();
+      db.activateOnCurrentThread();
+    } else {
+      Orient.instance().submit(future);
+    }
+  }
+
+  /**
+   * Waits for all the tasks, if a task fails or the current thread is interrupted the tasks which
+   * did not start yet are cancelled.
+   *
+   * @param operation description of the operation used by the error messages
+   * @return the results of the tasks in the order of submission
+   */
+  public List<T> await(final String operation) {
+    final List<T> results = new ArrayList<>(futures.size());
+    try {
+      for (FutureTask<T> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      cancelNotStarted();
+      throw OException.wrapException(
+          new OCommandExecutionException("Parallel " + operation + " has been interrupted"), e);
+    } catch (ExecutionException e) {
+      cancelNotStarted();
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw OException.wrapException(
+          new OCommandExecutionException("Error on parallel " + operation), e.getCause());
+    }
+    return results;
+  }
+
+  /**
+   * Cancels the tasks which are still waiting for a worker, they never run, so their sessions are
+   * closed here.
+   *
+   * @return number of cancelled tasks
+   */
+  public int cancelNotStarted() {
+    int cancelled = 0;
+    for (int i = 0; i < futures.size(); i++) {
+      if (futures.get(i).cancel(false)) {
+        final ODatabaseDocumentInternal session = sessions.get(i);
+        session.activateOnCurrentThread();
+        session.close();
+        cancelled++;
+      }
+    }
+    if (cancelled > 0 && !db.isClosed()) {
+      db.activateOnCurrentThread();
+    }
+    return cancelled;
+  }
+}
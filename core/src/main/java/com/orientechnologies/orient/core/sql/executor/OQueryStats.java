@@ -40,6 +40,17 @@ public class OQueryStats {
       if (idx.isUnique() && (idx.getDefinition().getFields().size() == params) && !range) {
         return 1;
       }
+      if (!range
+          && !additionalRange
+          && idx.getDefinition().getFields().size() == params
+          && OGraphStatistics.isEnabled(db)) {
+        // NO FEEDBACK FROM EXECUTIONS YET, USE THE STORED STATISTICS OF THE INDEX
+        OGraphStatistics.OIndexStatistics indexStats =
+            OGraphStatistics.get(db).getIndexStatistics(db, indexName);
+        if (indexStats != null) {
+          return indexStats.getAverageEntriesPerKey();
+        }
+      }
     }
     return -1;
   }
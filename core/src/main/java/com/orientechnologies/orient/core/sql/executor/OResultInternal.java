@@ -13,8 +13,10 @@ import com.orientechnologies.orient.core.record.ORecordInternal;
 import com.orientechnologies.orient.core.record.OVertex;
 import com.orientechnologies.orient.core.record.impl.OBlob;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
 import com.orientechnologies.orient.core.record.impl.ORecordBytes;
 import com.orientechnologies.orient.core.serialization.OSerializableStream;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryField;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
@@ -117,6 +119,21 @@ public class OResultInternal implements OResult {
     return result;
   }
 
+  /**
+   * @return serialized value of the property of the element, which can be compared without
+   *     deserialization, or <code>null</code> if the property has to be read by {@link
+   *     #getProperty(String)}
+   */
+  public OBinaryField getBinaryProperty(String name) {
+    if (element == null || content.containsKey(name)) {
+      return null;
+    }
+    final ORecord record = element.getRecord();
+    return record instanceof ODocument
+        ? ODocumentInternal.getBinaryField((ODocument) record, name)
+        : null;
+  }
+
   @Override
   public OElement getElementProperty(String name) {
     Object result = null;
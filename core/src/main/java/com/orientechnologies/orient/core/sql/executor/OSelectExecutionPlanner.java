@@ -1,6 +1,7 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.util.OPair;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
@@ -25,6 +26,7 @@ import com.orientechnologies.orient.core.metadata.security.OSecurityInternal;
 import com.orientechnologies.orient.core.sql.OCommandExecutorSQLAbstract;
 import com.orientechnologies.orient.core.sql.parser.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -45,10 +47,17 @@ public class OSelectExecutionPlanner {
   private QueryPlanningInfo info;
   private OSelectStatement statement;
 
+  /** true if result records are only read, so they can be loaded by other database sessions */
+  private boolean parallelScanAllowed = false;
+
   public OSelectExecutionPlanner(OSelectStatement oSelectStatement) {
     this.statement = oSelectStatement;
   }
 
+  public void setParallelScanAllowed(boolean parallelScanAllowed) {
+    this.parallelScanAllowed = parallelScanAllowed;
+  }
+
   private void init(OCommandContext ctx) {
     // copying the content, so that it can be manipulated and optimized
     info = new QueryPlanningInfo();
@@ -771,7 +780,8 @@ public class OSelectExecutionPlanner {
       OCommandContext ctx,
       boolean profilingEnabled) {
     if (info.distinct) {
-      result.chain(new DistinctExecutionStep(ctx, profilingEnabled));
+      // results which are already sorted have to keep their order
+      result.chain(new DistinctExecutionStep(ctx, info.orderBy == null, profilingEnabled));
     }
   }
 
@@ -1786,7 +1796,7 @@ public class OSelectExecutionPlanner {
       QueryPlanningInfo info,
       OCommandContext ctx,
       boolean profilingEnabled) {
-    if (info.whereClause != null) {
+    if (info.whereClause != null && !info.whereClauseApplied) {
       if (info.distributedPlanCreated) {
         plan.chain(
             new FilterStep(
@@ -1894,8 +1904,26 @@ public class OSelectExecutionPlanner {
     String className = identifier.getStringValue();
     OSchema schema = getSchemaFromContext(ctx);
 
+    int[] parallelScanClusters = null;
+    if (schema.getClass(className) != null && orderByRidAsc == null) {
+      parallelScanClusters = getClustersForParallelScan(className, filterClusters, info, ctx);
+    }
+
     AbstractExecutionStep fetcher;
-    if (schema.getClass(className) != null) {
+    if (parallelScanClusters != null) {
+      fetcher =
+          new ParallelFetchFromClassExecutionStep(
+              className,
+              parallelScanClusters,
+              info,
+              info.whereClause == null ? null : info.whereClause.copy(),
+              ctx.getDatabase()
+                  .getConfiguration()
+                  .getValueAsInteger(OGlobalConfiguration.QUERY_PARALLEL_RESULT_QUEUE_SIZE),
+              ctx,
+              profilingEnabled);
+      info.whereClauseApplied = true;
+    } else if (schema.getClass(className) != null) {
       fetcher =
           new FetchFromClassExecutionStep(
               className, filterClusters, info, ctx, orderByRidAsc, profilingEnabled);
@@ -1913,6 +1941,50 @@ public class OSelectExecutionPlanner {
     plan.chain(fetcher);
   }
 
+  /**
+   * Checks whether a full scan of the class may be split between several threads: parallel scan has
+   * to be enabled by {@link OGlobalConfiguration#QUERY_PARALLEL_AUTO}, there should be no active
+   * transaction, the where clause should not depend on LET variables, and class has to have at
+   * least two clusters with at least {@link OGlobalConfiguration#QUERY_PARALLEL_MINIMUM_RECORDS}
+   * records in total.
+   *
+   * @return ids of clusters to scan or null if the class should be scanned sequentially
+   */
+  private int[] getClustersForParallelScan(
+      String className, Set<String> filterClusters, QueryPlanningInfo info, OCommandContext ctx) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    if (!parallelScanAllowed
+        || !db.getConfiguration().getValueAsBoolean(OGlobalConfiguration.QUERY_PARALLEL_AUTO)
+        || db.getTransaction().isActive()
+        || info.distributedFetchExecutionPlans.size() != 1
+        || info.perRecordLetClause != null
+        || info.lockRecord != null
+        // A WORKER WAITING FOR THE TASKS OF THE SCAN WOULD HOLD ONE OF THE WORKERS THEY NEED
+        || Orient.instance().isWorkerThread()) {
+      return null;
+    }
+
+    OClass clazz = getSchemaFromContext(ctx).getClass(className);
+    int[] clusterIds =
+        Arrays.stream(clazz.getPolymorphicClusterIds())
+            .filter(
+                clusterId ->
+                    filterClusters == null
+                        || filterClusters.contains(db.getClusterNameById(clusterId)))
+            .toArray();
+    if (clusterIds.length < 2) {
+      return null;
+    }
+
+    long minimumRecords =
+        db.getConfiguration().getValueAsLong(OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS);
+    if (db.getStorage().count(clusterIds) < minimumRecords) {
+      return null;
+    }
+
+    return clusterIds;
+  }
+
   private boolean handleClassAsTargetWithIndexedFunction(
       OSelectExecutionPlan plan,
       Set<String> filterClusters,
@@ -1,9 +1,32 @@
 package com.orientechnologies.orient.core.sql.executor;
 
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 /** Created by luigidellaquila on 02/11/16. */
 public class OTraverseResult extends OResultInternal {
+  private static final String PATH = "$path";
+  private static final String STACK = "$stack";
+
   protected Integer depth;
 
+  /** Last element of a path, linked to the path it extends. */
+  private static final class OPathNode {
+    private final OIdentifiable identity;
+    private final OPathNode parent;
+
+    private OPathNode(OIdentifiable identity, OPathNode parent) {
+      this.identity = identity;
+      this.parent = parent;
+    }
+  }
+
+  private OPathNode pathNode;
+
   @Override
   public <T> T getProperty(String name) {
     if ("$depth".equalsIgnoreCase(name)) {
@@ -22,4 +45,53 @@ public class OTraverseResult extends OResultInternal {
       super.setProperty(name, value);
     }
   }
+
+  /**
+   * Links the result to the result it was reached from, instead of copying the path of the parent.
+   * The <code>$path</code> and <code>$stack</code> metadata are built only when they are read.
+   */
+  public void setParent(OTraverseResult parent) {
+    this.pathNode =
+        new OPathNode(getIdentity().get(), parent == null ? null : parent.getPathNode());
+  }
+
+  private OPathNode getPathNode() {
+    if (pathNode == null) {
+      Object path = super.getMetadata(PATH);
+      if (path instanceof List) {
+        for (Object item : (List<?>) path) {
+          pathNode = new OPathNode((OIdentifiable) item, pathNode);
+        }
+      } else {
+        pathNode = new OPathNode(getIdentity().get(), null);
+      }
+    }
+    return pathNode;
+  }
+
+  @Override
+  public Object getMetadata(String key) {
+    if (pathNode != null && (PATH.equals(key) || STACK.equals(key))) {
+      List<OIdentifiable> stack = new ArrayList<>();
+      for (OPathNode node = pathNode; node != null; node = node.parent) {
+        stack.add(node.identity);
+      }
+      if (PATH.equals(key)) {
+        Collections.reverse(stack);
+      }
+      return stack;
+    }
+    return super.getMetadata(key);
+  }
+
+  @Override
+  public Set<String> getMetadataKeys() {
+    if (pathNode == null) {
+      return super.getMetadataKeys();
+    }
+    Set<String> result = new HashSet<>(super.getMetadataKeys());
+    result.add(PATH);
+    result.add(STACK);
+    return result;
+  }
 }
@@ -0,0 +1,211 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator;
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator.Intention;
+import com.orientechnologies.common.directmemory.OPointer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set of binary encoded rows which is kept in direct memory, so it does not put any pressure on GC
+ * independently of the amount of stored rows.
+ *
+ * <p>Rows are appended to the chunks of direct memory, the hash table uses open addressing with
+ * linear probing, every slot keeps the address of the row and its hash code, so rows are compared
+ * only if their hash codes are equal and the table is resized without reading of the rows.
+ *
+ * <p>Nothing is allocated till the first row is added, then the table and the chunks start small
+ * and grow with the set, so a set of a few rows does not reserve megabytes of direct memory.
+ */
+final class OffHeapRowSet implements AutoCloseable {
+  private static final int INITIAL_CHUNK_SIZE = 1 << 14;
+  private static final int MAX_CHUNK_SIZE = 1 << 20;
+  private static final int SLOT_SIZE = 12;
+  private static final int INITIAL_CAPACITY = 1 << 6;
+  private static final int MAX_CAPACITY = 1 << 27;
+
+  private final ODirectMemoryAllocator allocator = ODirectMemoryAllocator.instance();
+  private final int seed;
+
+  private final List<OPointer> chunks = new ArrayList<>();
+  private final List<ByteBuffer> chunkBuffers = new ArrayList<>();
+  private ByteBuffer currentChunk;
+  private int chunkSize = INITIAL_CHUNK_SIZE;
+
+  private OPointer table;
+  private ByteBuffer tableBuffer;
+  private int capacity;
+  private int size;
+
+  private long memoryUsage;
+
+  /**
+   * @param seed seed of the hash function, sets with different seeds distribute rows differently
+   */
+  OffHeapRowSet(int seed) {
+    this.seed = seed;
+  }
+
+  /** @return <code>true</code> if the row is present in the set. */
+  boolean contains(byte[] row) {
+    return size > 0 && findSlot(row, hash(row, seed)) >= 0;
+  }
+
+  /** @return <code>true</code> if the row was not present in the set and is added. */
+  boolean add(byte[] row) {
+    if (table == null) {
+      allocateTable(INITIAL_CAPACITY);
+    }
+    final int hash = hash(row, seed);
+    int slot = findSlot(row, hash);
+    if (slot >= 0) {
+      return false;
+    }
+
+    if ((size + 1) * 4L > capacity * 3L) {
+      if (capacity >= MAX_CAPACITY) {
+        throw new IllegalStateException("Maximum amount of rows in the set is reached " + size);
+      }
+      resize(capacity << 1);
+      slot = findSlot(row, hash);
+    }
+
+    final long address = store(row);
+    final int offset = (-slot - 1) * SLOT_SIZE;
+    tableBuffer.putLong(offset, address);
+    tableBuffer.putInt(offset + 8, hash);
+    size++;
+    return true;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** @return amount of direct memory in bytes allocated by the set. */
+  long memoryUsage() {
+    return memoryUsage;
+  }
+
+  /**
+   * @return index of the slot which contains the row or <code>-(index + 1)</code> of the empty slot
+   *     where row can be inserted.
+   */
+  private int findSlot(byte[] row, int hash) {
+    final int mask = capacity - 1;
+    int slot = hash & mask;
+    while (true) {
+      final int offset = slot * SLOT_SIZE;
+      final long address = tableBuffer.getLong(offset);
+      if (address == 0) {
+        return -slot - 1;
+      }
+      if (tableBuffer.getInt(offset + 8) == hash && rowEquals(address, row)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private boolean rowEquals(long address, byte[] row) {
+    final ByteBuffer chunk = chunkBuffers.get((int) (address >>> 32));
+    final int position = (int) address - 1;
+    if (chunk.getInt(position) != row.length) {
+      return false;
+    }
+    final int dataPosition = position + Integer.BYTES;
+    for (int i = 0; i < row.length; i++) {
+      if (chunk.get(dataPosition + i) != row[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** @return address of the row, chunk index in high bits and position + 1 in low bits */
+  private long store(byte[] row) {
+    final int length = row.length + Integer.BYTES;
+    if (currentChunk == null || currentChunk.remaining() < length) {
+      allocateChunk(Math.max(chunkSize, length));
+      chunkSize = Math.min(chunkSize << 1, MAX_CHUNK_SIZE);
+    }
+
+    final int position = currentChunk.position();
+    currentChunk.putInt(row.length);
+    currentChunk.put(row);
+    return ((long) (chunkBuffers.size() - 1) << 32) | (position + 1);
+  }
+
+  private void allocateChunk(int size) {
+    final OPointer chunk = allocator.allocate(size, 0, false, Intention.QUERY_DISTINCT_ROWS);
+    chunks.add(chunk);
+    currentChunk = chunk.getNativeByteBuffer();
+    chunkBuffers.add(currentChunk);
+    memoryUsage += size;
+  }
+
+  private void allocateTable(int newCapacity) {
+    table = allocator.allocate(newCapacity * SLOT_SIZE, 0, true, Intention.QUERY_DISTINCT_ROWS);
+    tableBuffer = table.getNativeByteBuffer();
+    capacity = newCapacity;
+    memoryUsage += (long) newCapacity * SLOT_SIZE;
+  }
+
+  private void resize(int newCapacity) {
+    final OPointer oldTable = table;
+    final ByteBuffer oldBuffer = tableBuffer;
+    final int oldCapacity = capacity;
+
+    allocateTable(newCapacity);
+    final int mask = newCapacity - 1;
+    for (int i = 0; i < oldCapacity; i++) {
+      final long address = oldBuffer.getLong(i * SLOT_SIZE);
+      if (address == 0) {
+        continue;
+      }
+      final int hash = oldBuffer.getInt(i * SLOT_SIZE + 8);
+      int slot = hash & mask;
+      while (tableBuffer.getLong(slot * SLOT_SIZE) != 0) {
+        slot = (slot + 1) & mask;
+      }
+      tableBuffer.putLong(slot * SLOT_SIZE, address);
+      tableBuffer.putInt(slot * SLOT_SIZE + 8, hash);
+    }
+
+    allocator.deallocate(oldTable);
+    memoryUsage -= (long) oldCapacity * SLOT_SIZE;
+  }
+
+  static int hash(byte[] row, int seed) {
+    int hash = seed;
+    for (byte b : row) {
+      hash = 31 * hash + b;
+    }
+    hash ^= hash >>> 16;
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    hash *= 0xC2B2AE35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+
+  /** Releases direct memory allocated by the set. */
+  @Override
+  public void close() {
+    for (OPointer chunk : chunks) {
+      allocator.deallocate(chunk);
+    }
+    chunks.clear();
+    chunkBuffers.clear();
+    currentChunk = null;
+
+    if (table != null) {
+      allocator.deallocate(table);
+      table = null;
+      tableBuffer = null;
+    }
+    size = 0;
+    memoryUsage = 0;
+  }
+}
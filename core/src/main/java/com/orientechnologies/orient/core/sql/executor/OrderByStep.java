@@ -1,15 +1,26 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OSerializationException;
 import com.orientechnologies.orient.core.sql.parser.OOrderBy;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.PriorityQueue;
 
 /** Created by luigidellaquila on 11/07/16. */
 public class OrderByStep extends AbstractExecutionStep {
@@ -19,8 +30,9 @@ public class OrderByStep extends AbstractExecutionStep {
 
   private long cost = 0;
 
-  private List<OResult> cachedResult = null;
-  private int nextElement = 0;
+  private Iterator<OResult> sortedResult = null;
+  private final List<ResultSpillFile> runs = new ArrayList<>();
+  private Path spillDirectory;
 
   public OrderByStep(
       OOrderBy orderBy, OCommandContext ctx, long timeoutMillis, boolean profilingEnabled) {
@@ -44,24 +56,27 @@ public class OrderByStep extends AbstractExecutionStep {
 
   @Override
   public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
-    if (cachedResult == null) {
-      cachedResult = new ArrayList<>();
+    if (sortedResult == null) {
+      sortedResult = Collections.emptyIterator();
       prev.ifPresent(p -> init(p, ctx));
     }
 
     return new OResultSet() {
       private int currentBatchReturned = 0;
-      private int offset = nextElement;
 
       @Override
       public boolean hasNext() {
         if (currentBatchReturned >= nRecords) {
           return false;
         }
-        if (cachedResult.size() <= nextElement) {
-          return false;
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        try {
+          return sortedResult.hasNext();
+        } finally {
+          if (profilingEnabled) {
+            cost += (System.nanoTime() - begin);
+          }
         }
-        return true;
       }
 
       @Override
@@ -71,11 +86,10 @@ public class OrderByStep extends AbstractExecutionStep {
           if (currentBatchReturned >= nRecords) {
             throw new IllegalStateException();
           }
-          if (cachedResult.size() <= nextElement) {
+          if (!sortedResult.hasNext()) {
             throw new IllegalStateException();
           }
-          OResult result = cachedResult.get(offset + currentBatchReturned);
-          nextElement++;
+          OResult result = sortedResult.next();
           currentBatchReturned++;
           return result;
         } finally {
@@ -106,72 +120,249 @@ public class OrderByStep extends AbstractExecutionStep {
     long timeoutBegin = System.currentTimeMillis();
     final long maxElementsAllowed =
         OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getValueAsLong();
-    boolean sorted = true;
-    do {
-      OResultSet lastBatch = p.syncPull(ctx, 100);
-      if (!lastBatch.hasNext()) {
-        break;
-      }
-      while (lastBatch.hasNext()) {
-        if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
-          sendTimeout();
-        }
+    final int spillThreshold =
+        ResultSpillFile.isAllowed(ctx.getDatabase())
+            ? ctx.getDatabase()
+                .getConfiguration()
+                .getValueAsInteger(OGlobalConfiguration.QUERY_ORDER_BY_SPILL_THRESHOLD)
+            : -1;
+    spillDirectory = ResultSpillFile.getDirectory(ctx.getDatabase());
+    final Comparator<OResult> comparator = (a, b) -> orderBy.compare(a, b, ctx);
+
+    // with a LIMIT only the top records are kept, the worst of them is on the top of the heap
+    final boolean topK =
+        this.maxResults != null && (spillThreshold < 0 || maxResults <= spillThreshold);
+    final Comparator<SortItem> itemComparator =
+        (a, b) -> {
+          int result = comparator.compare(a.result, b.result);
+          return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+        };
+    final PriorityQueue<SortItem> topResults =
+        topK
+            ? new PriorityQueue<>(Math.min(maxResults, 1024) + 1, itemComparator.reversed())
+            : null;
+    long sequence = 0;
 
-        if (this.timedOut) {
+    List<OResult> buffer = new ArrayList<>();
+    // records which can not be written to the disk stay in heap and are merged as the last run
+    final List<OResult> pinned = new ArrayList<>();
+    boolean spill = !topK && spillThreshold >= 0;
+    try {
+      do {
+        OResultSet lastBatch = p.syncPull(ctx, 100);
+        if (!lastBatch.hasNext()) {
           break;
         }
-        OResult item = lastBatch.next();
-        long begin = profilingEnabled ? System.nanoTime() : 0;
-        try {
-          cachedResult.add(item);
-          if (maxElementsAllowed >= 0 && maxElementsAllowed < cachedResult.size()) {
-            this.cachedResult.clear();
-            throw new OCommandExecutionException(
-                "Limit of allowed elements for in-heap ORDER BY in a single query exceeded ("
-                    + maxElementsAllowed
-                    + ") . You can set "
-                    + OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getKey()
-                    + " to increase this limit");
+        while (lastBatch.hasNext()) {
+          if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
+            sendTimeout();
           }
-          sorted = false;
-          // compact, only at twice as the buffer, to avoid to do it at each add
-          if (this.maxResults != null && maxResults * 2 < cachedResult.size()) {
-            cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-            cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
-            sorted = true;
+
+          if (this.timedOut) {
+            break;
           }
-        } finally {
-          if (profilingEnabled) {
-            cost += (System.nanoTime() - begin);
+          OResult item = lastBatch.next();
+          long begin = profilingEnabled ? System.nanoTime() : 0;
+          try {
+            final int inHeap;
+            if (topK) {
+              final SortItem sortItem = new SortItem(item, sequence++);
+              if (topResults.size() < maxResults) {
+                topResults.add(sortItem);
+              } else if (maxResults > 0
+                  && itemComparator.compare(sortItem, topResults.peek()) < 0) {
+                topResults.poll();
+                topResults.add(sortItem);
+              }
+              inHeap = topResults.size();
+            } else {
+              if (spill && !ResultSpillFile.isSpillable(item)) {
+                pinned.add(item);
+              } else {
+                buffer.add(item);
+              }
+              if (spill && buffer.size() > spillThreshold) {
+                spill = spillRun(buffer, comparator);
+                if (spill) {
+                  buffer = new ArrayList<>();
+                }
+              }
+              inHeap = buffer.size() + pinned.size();
+            }
+
+            if (maxElementsAllowed >= 0 && maxElementsAllowed < inHeap) {
+              buffer.clear();
+              pinned.clear();
+              throw new OCommandExecutionException(
+                  "Limit of allowed elements for in-heap ORDER BY in a single query exceeded ("
+                      + maxElementsAllowed
+                      + ") . You can set "
+                      + OGlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getKey()
+                      + " or "
+                      + OGlobalConfiguration.QUERY_ORDER_BY_SPILL_THRESHOLD.getKey()
+                      + " to increase this limit");
+            }
+          } finally {
+            if (profilingEnabled) {
+              cost += (System.nanoTime() - begin);
+            }
           }
         }
-      }
-      if (timedOut) {
-        break;
-      }
+        if (timedOut) {
+          break;
+        }
+      } while (true);
+
       long begin = profilingEnabled ? System.nanoTime() : 0;
       try {
-        // compact at each batch, if needed
-        if (!sorted && this.maxResults != null && maxResults < cachedResult.size()) {
-          cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-          cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
-          sorted = true;
+        if (topK) {
+          List<SortItem> items = new ArrayList<>(topResults);
+          items.sort(itemComparator);
+          for (SortItem item : items) {
+            buffer.add(item.result);
+          }
+        } else {
+          buffer.addAll(pinned);
+          buffer.sort(comparator);
+        }
+
+        if (runs.isEmpty()) {
+          sortedResult = buffer.iterator();
+        } else {
+          sortedResult =
+              new RunMerger(buffer, comparator, (ODatabaseDocumentInternal) ctx.getDatabase());
         }
       } finally {
         if (profilingEnabled) {
           cost += (System.nanoTime() - begin);
         }
       }
-    } while (true);
-    long begin = profilingEnabled ? System.nanoTime() : 0;
+    } catch (RuntimeException e) {
+      closeRuns();
+      throw e;
+    }
+  }
+
+  /**
+   * Sorts records and writes them to the new run file.
+   *
+   * @return <code>false</code> if records can not be written to the disk and have to be kept in
+   *     heap.
+   */
+  private boolean spillRun(List<OResult> buffer, Comparator<OResult> comparator) {
+    buffer.sort(comparator);
     try {
-      if (!sorted) {
-        cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
+      runs.add(ResultSpillFile.write(spillDirectory, buffer));
+      return true;
+    } catch (OSerializationException | UnsupportedOperationException e) {
+      OLogManager.instance()
+          .debug(this, "Records of ORDER BY can not be serialized, they are sorted in heap", e);
+      return false;
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during spill of ORDER BY records to disk"), e);
+    }
+  }
+
+  private void closeRuns() {
+    for (ResultSpillFile run : runs) {
+      try {
+        run.close();
+      } catch (IOException e) {
+        OLogManager.instance().warn(this, "Error during deletion of ORDER BY run file", e);
+      }
+    }
+    runs.clear();
+  }
+
+  @Override
+  public void close() {
+    closeRuns();
+    super.close();
+  }
+
+  private static final class SortItem {
+    private final OResult result;
+    private final long sequence;
+
+    private SortItem(OResult result, long sequence) {
+      this.result = result;
+      this.sequence = sequence;
+    }
+  }
+
+  /**
+   * Lazy k-way merge of the spilled runs and records which are left in heap. Records which are
+   * equal are returned in the order of the runs, so the merge keeps the order of a stable sort.
+   */
+  private final class RunMerger implements Iterator<OResult> {
+    private final ODatabaseDocumentInternal db;
+    private final PriorityQueue<RunHead> heads;
+    private final Iterator<OResult> inHeap;
+    private final int inHeapRun;
+
+    private RunMerger(
+        List<OResult> inHeap, Comparator<OResult> comparator, ODatabaseDocumentInternal db) {
+      this.db = db;
+      this.inHeap = inHeap.iterator();
+      this.inHeapRun = runs.size();
+      this.heads =
+          new PriorityQueue<>(
+              runs.size() + 1,
+              (a, b) -> {
+                int result = comparator.compare(a.result, b.result);
+                return result != 0 ? result : Integer.compare(a.run, b.run);
+              });
+
+      for (int i = 0; i <= inHeapRun; i++) {
+        advance(new RunHead(i));
       }
-    } finally {
-      if (profilingEnabled) {
-        cost += (System.nanoTime() - begin);
+    }
+
+    private void advance(RunHead head) {
+      OResult next;
+      if (head.run == inHeapRun) {
+        next = inHeap.hasNext() ? inHeap.next() : null;
+      } else {
+        try {
+          next = runs.get(head.run).next(db);
+        } catch (IOException e) {
+          throw OException.wrapException(
+              new OCommandExecutionException("Error during reading of ORDER BY run file"), e);
+        }
       }
+
+      if (next != null) {
+        head.result = next;
+        heads.add(head);
+      } else if (heads.isEmpty()) {
+        closeRuns();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public OResult next() {
+      RunHead head = heads.poll();
+      if (head == null) {
+        throw new NoSuchElementException();
+      }
+      OResult result = head.result;
+      advance(head);
+      return result;
+    }
+  }
+
+  private static final class RunHead {
+    private final int run;
+    private OResult result;
+
+    private RunHead(int run) {
+      this.run = run;
     }
   }
 
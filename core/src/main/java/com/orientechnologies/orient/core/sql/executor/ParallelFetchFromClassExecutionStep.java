@@ -0,0 +1,298 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.OExecutionThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OCommandInterruptedException;
+import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Scans clusters of a class in parallel. The clusters are shared among at most {@link
+ * OParallelTasks#maxTasks()} tasks submitted to the OrientDB worker pool, each task uses its own
+ * copy of the database session and scans its clusters one after the other. Tasks evaluate the WHERE
+ * condition (if any) on their own thread and put matching records into the bounded queue which is
+ * drained by the thread which executes the query, so order of the results is not defined.
+ *
+ * <p>Tasks stop when the step is closed, or when the session which executes the query is closed
+ * without closing the result set. The step is never cached, the planner chooses it only when there
+ * is no active transaction, because the tasks do not see changes of the transaction.
+ */
+public class ParallelFetchFromClassExecutionStep extends AbstractExecutionStep {
+  /** Marker which is put into the queue by every task once it is completed. */
+  private static final OResult END_OF_TASK = new OResultInternal();
+
+  private static final int FETCH_BATCH_SIZE = 1_000;
+  private static final long POLL_INTERVAL = 100;
+
+  private final String className;
+  private final int[] clusterIds;
+  private final QueryPlanningInfo planningInfo;
+  private final OWhereClause whereClause;
+  private final int queueSize;
+
+  private BlockingQueue<OResult> queue;
+  private ODatabaseDocumentInternal db;
+  private OParallelTasks<Void> tasks;
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private volatile boolean closed = false;
+  private int runningTasks;
+
+  private long cost = 0;
+
+  /**
+   * @param className the class name
+   * @param clusterIds clusters which are scanned, every cluster is scanned by separate task
+   * @param planningInfo planning info which is used to calculate ranges of scanned positions
+   * @param whereClause condition which is evaluated by the scanning tasks, can be null
+   * @param queueSize maximum amount of records which are fetched but not consumed yet
+   */
+  public ParallelFetchFromClassExecutionStep(
+      String className,
+      int[] clusterIds,
+      QueryPlanningInfo planningInfo,
+      OWhereClause whereClause,
+      int queueSize,
+      OCommandContext ctx,
+      boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+    this.className = className;
+    this.clusterIds = clusterIds;
+    this.planningInfo = planningInfo;
+    this.whereClause = whereClause;
+    this.queueSize = queueSize;
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    if (queue == null) {
+      startTasks(ctx);
+    }
+
+    return new OResultSet() {
+      private int fetched = 0;
+      private OResult nextItem = null;
+
+      @Override
+      public boolean hasNext() {
+        if (fetched >= nRecords) {
+          return false;
+        }
+        if (nextItem == null) {
+          nextItem = fetchNextItem();
+        }
+        return nextItem != null;
+      }
+
+      @Override
+      public OResult next() {
+        if (!hasNext()) {
+          throw new IllegalStateException();
+        }
+        final OResult result = nextItem;
+        nextItem = null;
+        fetched++;
+        ctx.setVariable("$current", result);
+        return result;
+      }
+
+      @Override
+      public void close() {}
+
+      @Override
+      public Optional<OExecutionPlan> getExecutionPlan() {
+        return Optional.empty();
+      }
+
+      @Override
+      public Map<String, Long> getQueryStats() {
+        return null;
+      }
+    };
+  }
+
+  private void startTasks(OCommandContext ctx) {
+    queue = new ArrayBlockingQueue<>(queueSize);
+    // a task waiting for the consumer keeps its worker, so the tasks are bounded by the workers
+    final int taskCount = Math.max(1, OParallelTasks.tasksFor(clusterIds.length, 1));
+    runningTasks = taskCount;
+
+    db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    tasks = new OParallelTasks<>(db, taskCount);
+    for (int i = 0; i < taskCount; i++) {
+      final int firstCluster = i;
+      final OBasicCommandContext taskCtx = (OBasicCommandContext) ctx.copy();
+      tasks.submit(
+          session -> {
+            taskCtx.setDatabase(session);
+            for (int j = firstCluster;
+                j < clusterIds.length && !isStopped() && failure.get() == null;
+                j += taskCount) {
+              scanCluster(clusterIds[j], taskCtx);
+            }
+            return null;
+          },
+          () -> put(END_OF_TASK));
+    }
+  }
+
+  private void scanCluster(int clusterId, OBasicCommandContext taskCtx) {
+    try {
+      final FetchFromClusterExecutionStep fetcher =
+          new FetchFromClusterExecutionStep(clusterId, planningInfo, taskCtx, false);
+      final OWhereClause condition = whereClause == null ? null : whereClause.copy();
+
+      while (!isStopped()) {
+        final OResultSet resultSet = fetcher.syncPull(taskCtx, FETCH_BATCH_SIZE);
+        if (!resultSet.hasNext()) {
+          break;
+        }
+
+        while (!isStopped() && resultSet.hasNext()) {
+          final OResult result = resultSet.next();
+          if (condition == null || condition.matchesFilters(result, taskCtx)) {
+            put(result);
+          }
+        }
+      }
+    } catch (Throwable t) {
+      failure.compareAndSet(null, t);
+    }
+  }
+
+  private void put(OResult result) {
+    try {
+      while (!isStopped() && !queue.offer(result, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+        // wait till consumer takes next record or closes the step
+      }
+    } catch (InterruptedException e) {
+      closed = true;
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * @return true if the records are not consumed anymore, because the step is closed or because the
+   *     session which executes the query is closed without closing the step
+   */
+  private boolean isStopped() {
+    return closed || db.isClosed();
+  }
+
+  private OResult fetchNextItem() {
+    final long begin = profilingEnabled ? System.nanoTime() : 0;
+    try {
+      while (runningTasks > 0 || !queue.isEmpty()) {
+        checkForFailure();
+        if (timedOut) {
+          close();
+          throw new OTimeoutException("Command execution timeout");
+        }
+        if (OExecutionThreadLocal.isInterruptCurrentOperation()) {
+          close();
+          throw new OCommandInterruptedException("The command has been interrupted");
+        }
+
+        final OResult result;
+        try {
+          result = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          close();
+          Thread.currentThread().interrupt();
+          throw OException.wrapException(
+              new OCommandInterruptedException("The command has been interrupted"), e);
+        }
+
+        if (result == END_OF_TASK) {
+          runningTasks--;
+        } else if (result != null) {
+          return result;
+        }
+      }
+
+      checkForFailure();
+      return null;
+    } finally {
+      if (profilingEnabled) {
+        cost += (System.nanoTime() - begin);
+      }
+    }
+  }
+
+  private void checkForFailure() {
+    final Throwable t = failure.get();
+    if (t != null) {
+      close();
+      if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      }
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during parallel scan of class " + className), t);
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    if (tasks != null) {
+      queue.clear();
+      // tasks which are still waiting for a worker never run and never put their end marker
+      runningTasks -= tasks.cancelNotStarted();
+    }
+    super.close();
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    StringBuilder builder = new StringBuilder();
+    String ind = OExecutionStepInternal.getIndent(depth, indent);
+    builder.append(ind);
+    builder.append("+ FETCH FROM CLASS " + className + " IN PARALLEL");
+    if (profilingEnabled) {
+      builder.append(" (" + getCostFormatted() + ")");
+    }
+    builder.append("\n");
+    builder.append(ind);
+    builder.append("  clusters: " + Arrays.toString(clusterIds));
+    if (whereClause != null) {
+      builder.append("\n");
+      builder.append(ind);
+      builder.append("  filter: " + whereClause);
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public long getCost() {
+    return cost;
+  }
+
+  @Override
+  public boolean canBeCached() {
+    // THE PLAN IS VALID ONLY OUT OF TRANSACTIONS
+    return false;
+  }
+
+  @Override
+  public OExecutionStep copy(OCommandContext ctx) {
+    return new ParallelFetchFromClassExecutionStep(
+        className,
+        clusterIds,
+        planningInfo,
+        whereClause == null ? null : whereClause.copy(),
+        queueSize,
+        ctx,
+        profilingEnabled);
+  }
+}
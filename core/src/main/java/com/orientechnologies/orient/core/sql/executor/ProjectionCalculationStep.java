@@ -3,6 +3,7 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.sql.parser.OProjection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -58,6 +59,23 @@ public class ProjectionCalculationStep extends AbstractExecutionStep {
     };
   }
 
+  @Override
+  public List<OResult> syncPullBatch(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    if (!prev.isPresent()) {
+      throw new IllegalStateException("Cannot calculate projections without a previous source");
+    }
+
+    List<OResult> batch = prev.get().syncPullBatch(ctx, nRecords);
+    Object oldCurrent = ctx.getVariable("$current");
+    for (int i = 0; i < batch.size(); i++) {
+      OResult item = batch.get(i);
+      ctx.setVariable("$current", item);
+      batch.set(i, calculateProjections(ctx, item));
+    }
+    ctx.setVariable("$current", oldCurrent);
+    return batch;
+  }
+
   private OResult calculateProjections(OCommandContext ctx, OResult next) {
     long begin = profilingEnabled ? System.nanoTime() : 0;
     try {
@@ -48,6 +48,9 @@ public class QueryPlanningInfo {
   protected boolean orderApplied = false;
   protected boolean projectionsCalculated = false;
 
+  /** set to true when the where clause is evaluated by the fetch step */
+  protected boolean whereClauseApplied = false;
+
   protected OAndBlock ridRangeConditions;
   protected OStorage.LOCKING_STRATEGY lockRecord;
 
@@ -78,6 +81,7 @@ public class QueryPlanningInfo {
     result.limit = this.limit;
     result.orderApplied = this.orderApplied;
     result.projectionsCalculated = this.projectionsCalculated;
+    result.whereClauseApplied = this.whereClauseApplied;
     result.ridRangeConditions = this.ridRangeConditions;
 
     result.lockRecord = this.lockRecord;
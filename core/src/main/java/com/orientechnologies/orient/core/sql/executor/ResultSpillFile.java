@@ -0,0 +1,303 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.encryption.impl.ONothingEncryption;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.result.binary.OResultSerializerNetwork;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Temporary file which keeps records spilled to disk by memory intensive steps, like sorted runs of
+ * {@link OrderByStep} or partitions of {@link AggregateProjectionCalculationStep}. Records are
+ * appended to the file and then read back sequentially in the same order.
+ *
+ * <p>Projections are stored in the binary result format, records are stored as their identity,
+ * version and serialized content, so they are restored without reading them from the storage again.
+ * Results which would not be restored as they are, see {@link #isSpillable(OResult)}, have to be
+ * kept in heap by the caller.
+ *
+ * <p>Files are not encrypted, so records of encrypted databases are never spilled, see {@link
+ * #isAllowed(ODatabase)}. Files are created in {@link OGlobalConfiguration#QUERY_SPILL_DIRECTORY}.
+ */
+class ResultSpillFile implements Closeable {
+  private static final byte END = -1;
+  private static final byte PROJECTION = 0;
+  private static final byte DOCUMENT = 1;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path path;
+  private final OResultSerializerNetwork serializer = new OResultSerializerNetwork();
+  private DataOutputStream output;
+  private DataInputStream input;
+  private boolean finished;
+
+  private ResultSpillFile(Path path) throws IOException {
+    this.path = path;
+    this.output =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+  }
+
+  /**
+   * @return <code>true</code> if the result can be written to the spill file and restored from it
+   *     without loss of information.
+   */
+  static boolean isSpillable(OResult item) {
+    if (item.getClass() != OResultInternal.class) {
+      return false;
+    }
+    OResultInternal result = (OResultInternal) item;
+    if (!result.getMetadataKeys().isEmpty()) {
+      return false;
+    }
+    if (result.element == null) {
+      for (Object value : result.content.values()) {
+        if (!isSpillableValue(value)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (!result.content.isEmpty()) {
+      return false;
+    }
+    ORecord record = result.element.getRecord();
+    return record instanceof ODocument && !record.isDirty() && record.getIdentity().isPersistent();
+  }
+
+  /**
+   * Checks that the value of a projection is restored by the binary result format as it is. Records
+   * are written as links and would be restored as bare identities, other types are not supported by
+   * the format at all.
+   */
+  private static boolean isSpillableValue(Object value) {
+    if (value == null
+        || value instanceof String
+        || value instanceof Boolean
+        || value instanceof Date
+        || value instanceof BigDecimal
+        || value instanceof byte[]) {
+      return true;
+    }
+    if (value instanceof Number) {
+      return value instanceof Integer
+          || value instanceof Long
+          || value instanceof Short
+          || value instanceof Byte
+          || value instanceof Float
+          || value instanceof Double;
+    }
+    if (value instanceof OIdentifiable) {
+      return value instanceof ORID;
+    }
+    if (value instanceof Collection) {
+      for (Object element : (Collection<?>) value) {
+        if (!isSpillableValue(element)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (value instanceof Map) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        if (!(entry.getKey() instanceof String) || !isSpillableValue(entry.getValue())) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (value instanceof OResult) {
+      OResult nested = (OResult) value;
+      if (nested.isElement()
+          || nested.getClass() != OResultInternal.class
+          || !nested.getMetadataKeys().isEmpty()) {
+        return false;
+      }
+      for (Object nestedValue : ((OResultInternal) nested).content.values()) {
+        if (!isSpillableValue(nestedValue)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return <code>false</code> if records of the database must not be written to the disk in plain
+   *     form, because the database is encrypted.
+   */
+  static boolean isAllowed(ODatabase db) {
+    if (db == null) {
+      return true;
+    }
+    OContextConfiguration configuration = db.getConfiguration();
+    String method = configuration.getValueAsString(OGlobalConfiguration.STORAGE_ENCRYPTION_METHOD);
+    return configuration.getValueAsString(OGlobalConfiguration.STORAGE_ENCRYPTION_KEY) == null
+        && (method == null || ONothingEncryption.NAME.equals(method));
+  }
+
+  /** @return directory where the spill files of the database are created */
+  static Path getDirectory(ODatabase db) {
+    String directory =
+        db == null
+            ? OGlobalConfiguration.QUERY_SPILL_DIRECTORY.getValueAsString()
+            : db.getConfiguration().getValueAsString(OGlobalConfiguration.QUERY_SPILL_DIRECTORY);
+    if (directory == null || directory.isEmpty()) {
+      directory = System.getProperty("java.io.tmpdir");
+    }
+    return Paths.get(directory);
+  }
+
+  /**
+   * Creates new empty temporary file in the given directory, records are appended by {@link
+   * #append(OResult)}.
+   */
+  static ResultSpillFile create(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    Path path = Files.createTempFile(directory, "orientdb-spill-", ".tmp");
+    try {
+      return new ResultSpillFile(path);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(path);
+      throw e;
+    }
+  }
+
+  /** Writes all the records to the new temporary file in the given directory. */
+  static ResultSpillFile write(Path directory, List<OResult> records) throws IOException {
+    ResultSpillFile file = create(directory);
+    try {
+      for (OResult item : records) {
+        file.append(item);
+      }
+      file.finishWrite();
+    } catch (IOException | RuntimeException e) {
+      file.close();
+      throw e;
+    }
+    return file;
+  }
+
+  /** Appends the record, only records accepted by {@link #isSpillable(OResult)} can be written. */
+  void append(OResult record) throws IOException {
+    if (output == null) {
+      throw new IllegalStateException("Records of the spill file " + path + " are already read");
+    }
+    OResultInternal item = (OResultInternal) record;
+    if (item.element == null) {
+      BytesContainer bytes = new BytesContainer();
+      serializer.serialize(item, bytes);
+      output.writeByte(PROJECTION);
+      writeBytes(bytes.fitBytes());
+    } else {
+      ORecord element = item.element.getRecord();
+      ORID rid = element.getIdentity();
+      output.writeByte(DOCUMENT);
+      output.writeInt(rid.getClusterId());
+      output.writeLong(rid.getClusterPosition());
+      output.writeInt(element.getVersion());
+      writeBytes(element.toStream());
+    }
+  }
+
+  private void finishWrite() throws IOException {
+    if (output != null) {
+      output.writeByte(END);
+      output.close();
+      output = null;
+    }
+  }
+
+  private void writeBytes(byte[] bytes) throws IOException {
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  /**
+   * Returns records of the file one by one, once reading is started no more records can be
+   * appended. File has to be closed once all records are read.
+   *
+   * @return next record of the file or <code>null</code> if all records are already read.
+   */
+  OResult next(ODatabaseDocumentInternal db) throws IOException {
+    if (input == null) {
+      finishWrite();
+      input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+    }
+    if (finished) {
+      return null;
+    }
+
+    byte type = input.readByte();
+    if (type == END) {
+      finished = true;
+      return null;
+    } else if (type == PROJECTION) {
+      BytesContainer bytes = new BytesContainer(readBytes());
+      return serializer.deserialize(bytes);
+    } else if (type == DOCUMENT) {
+      ORecordId rid = new ORecordId(input.readInt(), input.readLong());
+      int version = input.readInt();
+      byte[] content = readBytes();
+
+      ODocument document = new ODocument();
+      ORecordInternal.setRecordSerializer(document, db.getSerializer());
+      ORecordInternal.fill(document, rid, version, content, false, db);
+      ODocumentInternal.checkClass(document, db);
+      return new OResultInternal(document);
+    }
+    throw new IOException("Invalid type of record " + type + " in the spill file " + path);
+  }
+
+  private byte[] readBytes() throws IOException {
+    int length = input.readInt();
+    if (length < 0) {
+      throw new EOFException("Invalid length of record in the spill file " + path);
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return bytes;
+  }
+
+  /** Closes and deletes the file. */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (output != null) {
+        output.close();
+        output = null;
+      }
+      if (input != null) {
+        input.close();
+        input = null;
+      }
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+}
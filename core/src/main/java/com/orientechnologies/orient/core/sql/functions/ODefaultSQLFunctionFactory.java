@@ -38,6 +38,7 @@ import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionDijkstr
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionIn;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionInE;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionInV;
+import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionKShortestPaths;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionOut;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionOutE;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionOutV;
@@ -58,6 +59,7 @@ import com.orientechnologies.orient.core.sql.functions.misc.OSQLFunctionEncode;
 import com.orientechnologies.orient.core.sql.functions.misc.OSQLFunctionIf;
 import com.orientechnologies.orient.core.sql.functions.misc.OSQLFunctionIfNull;
 import com.orientechnologies.orient.core.sql.functions.misc.OSQLFunctionIndexKeySize;
+import com.orientechnologies.orient.core.sql.functions.misc.OSQLFunctionRefreshGraphStatistics;
 import com.orientechnologies.orient.core.sql.functions.misc.OSQLFunctionStrcmpci;
 import com.orientechnologies.orient.core.sql.functions.misc.OSQLFunctionSysdate;
 import com.orientechnologies.orient.core.sql.functions.misc.OSQLFunctionThrowCME;
@@ -120,6 +122,7 @@ public final class ODefaultSQLFunctionFactory extends OSQLFunctionFactoryTemplat
     register(OSQLFunctionSequence.NAME, OSQLFunctionSequence.class);
     register(OSQLFunctionAbsoluteValue.NAME, OSQLFunctionAbsoluteValue.class);
     register(OSQLFunctionIndexKeySize.NAME, OSQLFunctionIndexKeySize.class);
+    register(OSQLFunctionRefreshGraphStatistics.NAME, OSQLFunctionRefreshGraphStatistics.class);
     register(OSQLFunctionStrcmpci.NAME, OSQLFunctionStrcmpci.class);
     register(OSQLFunctionThrowCME.NAME, OSQLFunctionThrowCME.class);
     // graph
@@ -135,5 +138,6 @@ public final class ODefaultSQLFunctionFactory extends OSQLFunctionFactoryTemplat
     register(OSQLFunctionShortestPath.NAME, OSQLFunctionShortestPath.class);
     register(OSQLFunctionDijkstra.NAME, OSQLFunctionDijkstra.class);
     register(OSQLFunctionAstar.NAME, OSQLFunctionAstar.class);
+    register(OSQLFunctionKShortestPaths.NAME, OSQLFunctionKShortestPaths.class);
   }
 }
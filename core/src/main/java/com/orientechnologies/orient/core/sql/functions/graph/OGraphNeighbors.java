@@ -0,0 +1,213 @@
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordLazyMultiValue;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableSchema;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OEdge;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Reads the neighbors of vertices directly from the connection fields (<code>out_*</code> and
+ * <code>in_*</code>) of the vertex documents, without creating vertex and edge wrappers. The
+ * neighbors of lightweight edges are returned without loading them, the neighbors of regular edges
+ * are read from the edge documents without loading the neighbor vertices.
+ *
+ * <p>Identities are passed around encoded as long values (see {@link #encode(ORID)}), so callers
+ * can keep them in primitive collections. Instances are immutable and can be shared by threads
+ * which use different sessions of the same database.
+ */
+public class OGraphNeighbors {
+  /** Value which is not the encoding of any identity, used when there is no edge or parent. */
+  public static final long NONE = Long.MIN_VALUE;
+
+  private static final String CONNECTION_OUT_PREFIX = "out_";
+  private static final String CONNECTION_IN_PREFIX = "in_";
+  private static final long POSITION_MASK = 0xFFFFFFFFFFFFL;
+
+  /** Receives the neighbors of a vertex. */
+  public interface Visitor {
+    /**
+     * @param neighbor encoded identity of the neighbor vertex
+     * @param edge encoded identity of the edge or {@link #NONE} for lightweight edges
+     * @return false to stop the iteration of the neighbors
+     */
+    boolean visit(long neighbor, long edge);
+  }
+
+  private final ODirection direction;
+  private final OImmutableSchema schema;
+  private final String[] outFields;
+  private final String[] inFields;
+
+  /**
+   * @param db session used to resolve the edge classes
+   * @param direction direction of the edges to follow
+   * @param edgeTypes names of the edge classes to follow (subclasses included), null for all
+   */
+  public OGraphNeighbors(
+      final ODatabaseDocumentInternal db, final ODirection direction, String... edgeTypes) {
+    this.direction = direction;
+    this.schema = db.getMetadata().getImmutableSchemaSnapshot();
+
+    if (edgeTypes != null && edgeTypes.length == 1 && "E".equalsIgnoreCase(edgeTypes[0])) {
+      // DEFAULT CLASS, TREAT IT AS NO CLASS/LABEL
+      edgeTypes = null;
+    }
+    if (edgeTypes != null) {
+      for (String edgeType : edgeTypes) {
+        if (edgeType == null) {
+          edgeTypes = null;
+          break;
+        }
+      }
+    }
+
+    if (edgeTypes == null || edgeTypes.length == 0) {
+      outFields = null;
+      inFields = null;
+    } else {
+      final Set<String> classNames = new HashSet<>();
+      for (String edgeType : edgeTypes) {
+        classNames.add(edgeType);
+        final OClass clazz = schema.getClass(edgeType);
+        if (clazz != null) {
+          for (OClass subClass : clazz.getAllSubclasses()) {
+            classNames.add(subClass.getName());
+          }
+        }
+      }
+      outFields = fieldNames(CONNECTION_OUT_PREFIX, classNames);
+      inFields = fieldNames(CONNECTION_IN_PREFIX, classNames);
+    }
+  }
+
+  private static String[] fieldNames(final String prefix, final Set<String> classNames) {
+    final Set<String> result = new HashSet<>();
+    for (String className : classNames) {
+      result.add(prefix + className);
+    }
+    return result.toArray(new String[0]);
+  }
+
+  /**
+   * Passes all the neighbors of the vertex to the visitor, vertices reached by the outgoing edges
+   * come first when both directions are followed.
+   *
+   * @param db session of the current thread
+   * @param vertex encoded identity of the vertex
+   * @return false if the visitor stopped the iteration
+   */
+  public boolean forEach(final ODatabaseDocumentInternal db, final long vertex, Visitor visitor) {
+    final ORecord record = db.load(decode(vertex));
+    if (!(record instanceof ODocument)) {
+      return true;
+    }
+    final ODocument document = (ODocument) record;
+
+    if (direction == ODirection.BOTH) {
+      return forEach(db, document, ODirection.OUT, visitor)
+          && forEach(db, document, ODirection.IN, visitor);
+    }
+    return forEach(db, document, direction, visitor);
+  }
+
+  private boolean forEach(
+      final ODatabaseDocumentInternal db,
+      final ODocument vertex,
+      final ODirection direction,
+      final Visitor visitor) {
+    final String prefix =
+        direction == ODirection.OUT ? CONNECTION_OUT_PREFIX : CONNECTION_IN_PREFIX;
+    String[] fields = direction == ODirection.OUT ? outFields : inFields;
+    if (fields != null) {
+      // EARLY FETCH ALL THE FIELDS THAT MATTERS
+      vertex.deserializeFields(fields);
+    } else {
+      fields = vertex.fieldNames();
+    }
+
+    for (String field : fields) {
+      if (!field.startsWith(prefix)) {
+        continue;
+      }
+      final Object value = vertex.rawField(field);
+      if (value != null && !visitConnections(db, value, direction, visitor)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean visitConnections(
+      final ODatabaseDocumentInternal db,
+      final Object value,
+      final ODirection direction,
+      final Visitor visitor) {
+    final Iterator<?> connections;
+    if (value instanceof OIdentifiable) {
+      connections = Collections.singleton(value).iterator();
+    } else if (value instanceof ORidBag) {
+      connections = ((ORidBag) value).rawIterator();
+    } else if (value instanceof ORecordLazyMultiValue) {
+      connections = ((ORecordLazyMultiValue) value).rawIterator();
+    } else if (value instanceof Collection) {
+      connections = ((Collection<?>) value).iterator();
+    } else {
+      return true;
+    }
+
+    while (connections.hasNext()) {
+      final Object connection = connections.next();
+      if (!(connection instanceof OIdentifiable)) {
+        continue;
+      }
+      final ORID rid = ((OIdentifiable) connection).getIdentity();
+      final OClass clazz = schema.getClassByClusterId(rid.getClusterId());
+      if (clazz != null && clazz.isVertexType()) {
+        // LIGHTWEIGHT EDGE
+        if (!visitor.visit(encode(rid), NONE)) {
+          return false;
+        }
+        continue;
+      }
+
+      final ORecord edge = connection instanceof ODocument ? (ODocument) connection : db.load(rid);
+      if (!(edge instanceof ODocument)) {
+        continue;
+      }
+      final Object neighbor =
+          ((ODocument) edge)
+              .rawField(direction == ODirection.OUT ? OEdge.DIRECTION_IN : OEdge.DIRECTION_OUT);
+      if (neighbor instanceof OIdentifiable
+          && !visitor.visit(encode(((OIdentifiable) neighbor).getIdentity()), encode(rid))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Encodes the identity into a long value, the cluster id is kept in the highest 16 bits and the
+   * position in the lowest 48 bits, so the temporary identities of records created in a transaction
+   * are encoded as well.
+   */
+  public static long encode(final ORID rid) {
+    return ((long) rid.getClusterId() << 48) | (rid.getClusterPosition() & POSITION_MASK);
+  }
+
+  public static ORID decode(final long rid) {
+    return new ORecordId((short) (rid >>> 48), (rid << 16) >> 16);
+  }
+}
@@ -22,7 +22,8 @@ package com.orientechnologies.orient.core.sql.functions.graph;
 import com.orientechnologies.common.collection.OMultiValue;
 import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.orient.core.command.OCommandContext;
-import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.record.ODirection;
 import com.orientechnologies.orient.core.record.OEdge;
@@ -32,15 +33,11 @@ import com.orientechnologies.orient.core.record.OVertex;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.OSQLHelper;
 import com.orientechnologies.orient.core.sql.executor.OResult;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Locale;
 import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Set;
 
 /**
  * A*'s algorithm describes how to find the cheapest path from one node to another node in a
@@ -51,6 +48,9 @@ import java.util.Set;
  *
  * <p>If property is not defined in edge or is null, distance between vertexes are 0 .
  *
+ * <p>The search runs on {@link OWeightedPathSearch}, the <code>maxDistance</code> option bounds the
+ * weight of the paths explored from the source.
+ *
  * @author Saeed Tabrizi (saeed a_t nowcando.com)
  */
 public class OSQLFunctionAstar extends OSQLFunctionHeuristicPathFinderAbstract {
@@ -58,20 +58,6 @@ public class OSQLFunctionAstar extends OSQLFunctionHeuristicPathFinderAbstract {
 
   private String paramWeightFieldName = "weight";
   private long currentDepth = 0;
-  protected Set<OVertex> closedSet = new HashSet<OVertex>();
-  protected Map<OVertex, OVertex> cameFrom = new HashMap<OVertex, OVertex>();
-
-  protected Map<OVertex, Double> gScore = new HashMap<OVertex, Double>();
-  protected Map<OVertex, Double> fScore = new HashMap<OVertex, Double>();
-  protected PriorityQueue<OVertex> open =
-      new PriorityQueue<OVertex>(
-          1,
-          new Comparator<OVertex>() {
-
-            public int compare(OVertex nodeA, OVertex nodeB) {
-              return Double.compare(fScore.get(nodeA), fScore.get(nodeB));
-            }
-          });
 
   public OSQLFunctionAstar() {
     super(NAME, 3, 4);
@@ -137,100 +123,53 @@ public class OSQLFunctionAstar extends OSQLFunctionHeuristicPathFinderAbstract {
     if (paramSourceVertex == null || paramDestinationVertex == null) {
       return new LinkedList<>();
     }
-    return internalExecute(iContext, iContext.getDatabase());
+    return internalExecute(iContext);
   }
 
-  private LinkedList<OVertex> internalExecute(final OCommandContext iContext, ODatabase graph) {
-
-    OVertex start = paramSourceVertex;
-    OVertex goal = paramDestinationVertex;
-
-    open.add(start);
-
-    // The cost of going from start to start is zero.
-    gScore.put(start, 0.0);
-    // For the first node, that value is completely heuristic.
-    fScore.put(start, getHeuristicCost(start, null, goal, iContext));
-
-    while (!open.isEmpty()) {
-      OVertex current = open.poll();
-
-      // we discussed about this feature in
-      // https://github.com/orientechnologies/orientdb/pull/6002#issuecomment-212492687
-      if (paramEmptyIfMaxDepth == true && currentDepth >= paramMaxDepth) {
-        route.clear(); // to ensure our result is empty
-        return getPath();
-      }
-      // if start and goal vertex is equal so return current path from  cameFrom hash map
-      if (current.getIdentity().equals(goal.getIdentity()) || currentDepth >= paramMaxDepth) {
-
-        while (current != null) {
-          route.add(0, current);
-          current = cameFrom.get(current);
-        }
-        return getPath();
-      }
-
-      closedSet.add(current);
-      for (OEdge neighborEdge : getNeighborEdges(current)) {
-
-        OVertex neighbor = getNeighbor(current, neighborEdge, graph);
-        // Ignore the neighbor which is already evaluated.
-        if (closedSet.contains(neighbor)) {
-          continue;
-        }
-        // The distance from start to a neighbor
-        double tentativeGScore = gScore.get(current) + getDistance(neighborEdge);
-        boolean contains = open.contains(neighbor);
-
-        if (!contains || tentativeGScore < gScore.get(neighbor)) {
-          gScore.put(neighbor, tentativeGScore);
-          fScore.put(
-              neighbor, tentativeGScore + getHeuristicCost(neighbor, current, goal, iContext));
-
-          if (contains) {
-            open.remove(neighbor);
-          }
-          open.offer(neighbor);
-          cameFrom.put(neighbor, current);
-        }
-      }
-
-      // Increment Depth Level
-      currentDepth++;
-    }
-
-    return getPath();
-  }
-
-  private OVertex getNeighbor(OVertex current, OEdge neighborEdge, ODatabase graph) {
-    if (neighborEdge.getFrom().equals(current)) {
-      return toVertex(neighborEdge.getTo());
+  private LinkedList<OVertex> internalExecute(final OCommandContext iContext) {
+    final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().get();
+    final OWeightedPathSearch search =
+        new OWeightedPathSearch(
+            iContext,
+            db,
+            new OGraphNeighbors(db, paramDirection, paramEdgeTypeNames),
+            paramWeightFieldName);
+    if (paramVertexAxisNames.length > 0) {
+      search.setHeuristic(
+          (vertex, parent) -> {
+            currentDepth = search.getExpansions();
+            return getHeuristicCost(
+                toVertex(db, vertex),
+                parent == OGraphNeighbors.NONE ? null : toVertex(db, parent),
+                paramDestinationVertex,
+                iContext);
+          });
     }
-    return toVertex(neighborEdge.getFrom());
-  }
-
-  private OVertex toVertex(OIdentifiable outVertex) {
-    if (outVertex == null) {
-      return null;
+    search.setMaxDistance(paramMaxDistance);
+    // we discussed about the max depth in
+    // https://github.com/orientechnologies/orientdb/pull/6002#issuecomment-212492687
+    search.setMaxExpansions(paramMaxDepth);
+
+    final long reached =
+        search.search(
+            OGraphNeighbors.encode(paramSourceVertex.getIdentity()),
+            OGraphNeighbors.encode(paramDestinationVertex.getIdentity()));
+    currentDepth = search.getExpansions();
+    iContext.setVariable("getNeighbors", search.getExpansions());
+
+    if (reached == OGraphNeighbors.NONE || (search.isLimitReached() && paramEmptyIfMaxDepth)) {
+      route.clear(); // to ensure our result is empty
+      return getPath();
     }
-    if (!(outVertex instanceof OElement)) {
-      outVertex = outVertex.getRecord();
+    for (long vertex : search.getPath(reached)) {
+      route.add(toVertex(db, vertex));
     }
-    return ((OElement) outVertex).asVertex().orElse(null);
+    return getPath();
   }
 
-  protected Set<OEdge> getNeighborEdges(final OVertex node) {
-    context.incrementVariable("getNeighbors");
-
-    final Set<OEdge> neighbors = new HashSet<OEdge>();
-    if (node != null) {
-      for (OEdge v : node.getEdges(paramDirection, paramEdgeTypeNames)) {
-        final OEdge ov = v;
-        if (ov != null) neighbors.add(ov);
-      }
-    }
-    return neighbors;
+  private static OVertex toVertex(final ODatabaseDocumentInternal db, final long vertex) {
+    final ORecord record = db.load(OGraphNeighbors.decode(vertex));
+    return record instanceof OElement ? ((OElement) record).asVertex().orElse(null) : null;
   }
 
   private void bindAdditionalParams(Object additionalParams, OSQLFunctionAstar ctx) {
@@ -264,6 +203,9 @@ public class OSQLFunctionAstar extends OSQLFunctionHeuristicPathFinderAbstract {
       ctx.paramEmptyIfMaxDepth =
           booleanOrDefault(
               mapParams.get(OSQLFunctionAstar.PARAM_EMPTY_IF_MAX_DEPTH), ctx.paramEmptyIfMaxDepth);
+      ctx.paramMaxDistance =
+          doubleOrDefault(
+              mapParams.get(OSQLFunctionAstar.PARAM_MAX_DISTANCE), ctx.paramMaxDistance);
       ctx.paramTieBreaker =
           booleanOrDefault(mapParams.get(OSQLFunctionAstar.PARAM_TIE_BREAKER), ctx.paramTieBreaker);
       ctx.paramDFactor =
@@ -289,7 +231,7 @@ public class OSQLFunctionAstar extends OSQLFunctionHeuristicPathFinderAbstract {
   public String getSyntax() {
     return "astar(<sourceVertex>, <destinationVertex>, <weightEdgeFieldName>, [<options>]) \n "
         + "// options  : {direction:\"OUT\",edgeTypeNames:[] , vertexAxisNames:[] , parallel : false , "
-        + "tieBreaker:true,maxDepth:99999,dFactor:1.0,customHeuristicFormula:'custom_Function_Name_here'  }";
+        + "tieBreaker:true,maxDepth:99999,maxDistance:1000.0,dFactor:1.0,customHeuristicFormula:'custom_Function_Name_here'  }";
   }
 
   @Override
@@ -318,17 +260,6 @@ public class OSQLFunctionAstar extends OSQLFunctionHeuristicPathFinderAbstract {
     return MIN;
   }
 
-  protected double getDistance(final OEdge edge) {
-    if (edge != null) {
-      final Object fieldValue = edge.getProperty(paramWeightFieldName);
-      if (fieldValue != null)
-        if (fieldValue instanceof Float) return (Float) fieldValue;
-        else if (fieldValue instanceof Number) return ((Number) fieldValue).doubleValue();
-    }
-
-    return MIN;
-  }
-
   @Override
   public boolean aggregateResults() {
     return false;
@@ -22,6 +22,7 @@ package com.orientechnologies.orient.core.sql.functions.graph;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.record.OVertex;
+import com.orientechnologies.orient.core.record.impl.ODocument;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
@@ -31,7 +32,9 @@ import java.util.Map;
  * directed weighted graph.
  *
  * <p>The first parameter is source record. The second parameter is destination record. The third
- * parameter is a name of property that represents 'weight'.
+ * parameter is a name of property that represents 'weight'. The fourth parameter is either the
+ * direction of the edges or a map with the options of {@link OSQLFunctionAstar}, eg. <code>
+ * {direction: 'out', maxDistance: 1000}</code> to stop at the vertices farther than 1000.
  *
  * <p>If property is not defined in edge or is null, distance between vertexes are 0.
  *
@@ -64,7 +67,13 @@ public class OSQLFunctionDijkstra extends OSQLFunctionPathFinder {
     Map<String, Object> options = new HashMap<String, Object>();
     options.put("emptyIfMaxDepth", true);
     if (iParams.length > 3) {
-      options.put("direction", iParams[3]);
+      if (iParams[3] instanceof Map) {
+        options.putAll((Map<String, Object>) iParams[3]);
+      } else if (iParams[3] instanceof ODocument) {
+        options.putAll(((ODocument) iParams[3]).toMap());
+      } else {
+        options.put("direction", iParams[3]);
+      }
     }
     result[3] = options;
     return result;
@@ -75,7 +84,7 @@ public class OSQLFunctionDijkstra extends OSQLFunctionPathFinder {
   }
 
   public String getSyntax() {
-    return "dijkstra(<sourceVertex>, <destinationVertex>, <weightEdgeFieldName>, [<direction>])";
+    return "dijkstra(<sourceVertex>, <destinationVertex>, <weightEdgeFieldName>, [<direction>|<options>])";
   }
 
   protected float getDistance(final OVertex node, final OVertex target) {
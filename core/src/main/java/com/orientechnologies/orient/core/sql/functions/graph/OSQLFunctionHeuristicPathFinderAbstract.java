@@ -47,6 +47,7 @@ public abstract class OSQLFunctionHeuristicPathFinderAbstract extends OSQLFuncti
   public static final String PARAM_D_FACTOR = "dFactor";
   public static final String PARAM_TIE_BREAKER = "tieBreaker";
   public static final String PARAM_EMPTY_IF_MAX_DEPTH = "emptyIfMaxDepth";
+  public static final String PARAM_MAX_DISTANCE = "maxDistance";
   protected static Random rnd = new Random();
 
   protected Boolean paramParallel = false;
@@ -59,6 +60,7 @@ public abstract class OSQLFunctionHeuristicPathFinderAbstract extends OSQLFuncti
   protected HeuristicFormula paramHeuristicFormula = HeuristicFormula.MANHATAN;
   protected ODirection paramDirection = ODirection.OUT;
   protected long paramMaxDepth = Long.MAX_VALUE;
+  protected double paramMaxDistance = Double.POSITIVE_INFINITY;
   protected double paramDFactor = 1.0;
   protected String paramCustomHeuristicFormula = "";
 
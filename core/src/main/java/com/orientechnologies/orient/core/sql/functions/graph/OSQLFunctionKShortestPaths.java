@@ -0,0 +1,295 @@
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.common.collection.OMultiValue;
+import com.orientechnologies.common.io.OIOUtils;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.OVertex;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OSQLHelper;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultInternal;
+import com.orientechnologies.orient.core.sql.functions.math.OSQLFunctionMathAbstract;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Finds the k cheapest loopless paths from one vertex to another in a directed weighted graph, with
+ * Yen's algorithm: every path after the first is the cheapest deviation from one of the paths
+ * already found, searched with {@link OWeightedPathSearch} excluding the vertices and edges that
+ * would repeat a known path. All the searches share the cache of the edge weights.
+ *
+ * <p>The first parameter is source record. The second parameter is destination record. The third
+ * parameter is a name of property that represents 'weight', the fourth is the number of paths and
+ * the fifth the map of options: <code>direction</code>, <code>edgeTypeNames</code> and <code>
+ * maxDistance</code>, the maximum weight of the paths.
+ *
+ * <p>Returns the paths ordered by weight, every path is a result with the <code>path</code> (the
+ * list of the vertices) and its <code>weight</code>.
+ */
+public class OSQLFunctionKShortestPaths extends OSQLFunctionMathAbstract {
+  public static final String NAME = "kShortestPaths";
+  public static final String PARAM_DIRECTION = "direction";
+  public static final String PARAM_EDGE_TYPE_NAMES = "edgeTypeNames";
+  public static final String PARAM_MAX_DISTANCE = "maxDistance";
+
+  private ODirection paramDirection = ODirection.OUT;
+  private String[] paramEdgeTypeNames = new String[] {};
+  private double paramMaxDistance = Double.POSITIVE_INFINITY;
+
+  /** Path found by a search, with the connections between its vertices. */
+  private static final class OWeightedPath {
+    private final long[] vertices;
+    private final long[] connections;
+    // WEIGHT OF THE PATH FROM THE SOURCE TO EVERY VERTEX
+    private final double[] weights;
+
+    private OWeightedPath(long[] vertices, long[] connections, double[] weights) {
+      this.vertices = vertices;
+      this.connections = connections;
+      this.weights = weights;
+    }
+
+    private double getWeight() {
+      return weights[weights.length - 1];
+    }
+
+    /** @return true if the first vertices, up to the index, are those of the other path */
+    private boolean startsWith(OWeightedPath other, int index) {
+      if (vertices.length <= index + 1) {
+        return false;
+      }
+      for (int i = 0; i < index; i++) {
+        if (vertices[i] != other.vertices[i] || connections[i] != other.connections[i]) {
+          return false;
+        }
+      }
+      return vertices[index] == other.vertices[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof OWeightedPath)) {
+        return false;
+      }
+      OWeightedPath that = (OWeightedPath) o;
+      return Arrays.equals(vertices, that.vertices) && Arrays.equals(connections, that.connections);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Arrays.hashCode(vertices) + Arrays.hashCode(connections);
+    }
+  }
+
+  public OSQLFunctionKShortestPaths() {
+    super(NAME, 4, 5);
+  }
+
+  public List<OResult> execute(
+      final Object iThis,
+      final OIdentifiable iCurrentRecord,
+      final Object iCurrentResult,
+      final Object[] iParams,
+      final OCommandContext iContext) {
+    final ORecord record = iCurrentRecord != null ? iCurrentRecord.getRecord() : null;
+
+    final OVertex source = toVertex(iParams[0], record, iContext, "sourceVertex");
+    final OVertex destination = toVertex(iParams[1], record, iContext, "destinationVertex");
+    final String weightFieldName = OIOUtils.getStringContent(iParams[2]);
+
+    final Object k = OSQLHelper.getValue(iParams[3], record, iContext);
+    if (!(k instanceof Number) || ((Number) k).intValue() < 1) {
+      throw new IllegalArgumentException("The number of paths must be a positive integer");
+    }
+    if (iParams.length > 4) {
+      bindAdditionalParams(iParams[4]);
+    }
+
+    final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().get();
+    final OWeightedPathSearch search =
+        new OWeightedPathSearch(
+            iContext,
+            db,
+            new OGraphNeighbors(db, paramDirection, paramEdgeTypeNames),
+            weightFieldName);
+
+    final List<OResult> result = new ArrayList<>();
+    for (OWeightedPath path :
+        findPaths(
+            search,
+            OGraphNeighbors.encode(source.getIdentity()),
+            OGraphNeighbors.encode(destination.getIdentity()),
+            ((Number) k).intValue())) {
+      final List<OVertex> vertices = new ArrayList<>(path.vertices.length);
+      for (long vertex : path.vertices) {
+        vertices.add(toVertex(db, vertex));
+      }
+      final OResultInternal item = new OResultInternal();
+      item.setProperty("path", vertices);
+      item.setProperty("weight", path.getWeight());
+      result.add(item);
+    }
+    return result;
+  }
+
+  private List<OWeightedPath> findPaths(
+      final OWeightedPathSearch search, final long source, final long destination, final int k) {
+    final List<OWeightedPath> paths = new ArrayList<>(k);
+    search.setMaxDistance(paramMaxDistance);
+    if (search.search(source, destination) == OGraphNeighbors.NONE) {
+      return paths;
+    }
+    paths.add(toPath(search, null, 0, destination));
+
+    final PriorityQueue<OWeightedPath> candidates =
+        new PriorityQueue<>(Comparator.comparingDouble(OWeightedPath::getWeight));
+    final Set<OWeightedPath> known = new HashSet<>(paths);
+
+    while (paths.size() < k) {
+      final OWeightedPath last = paths.get(paths.size() - 1);
+      for (int i = 0; i < last.vertices.length - 1; i++) {
+        final long spur = last.vertices[i];
+
+        search.clearExclusions();
+        for (OWeightedPath path : paths) {
+          // THE DEVIATION CANNOT FOLLOW A PATH ALREADY FOUND
+          if (path.startsWith(last, i)) {
+            search.excludeConnection(spur, path.connections[i]);
+          }
+        }
+        for (int j = 0; j < i; j++) {
+          // NOR GO BACK TO ITS ROOT, PATHS ARE LOOPLESS
+          search.excludeVertex(last.vertices[j]);
+        }
+        search.setMaxDistance(paramMaxDistance - last.weights[i]);
+
+        if (search.search(spur, destination) != OGraphNeighbors.NONE) {
+          final OWeightedPath candidate = toPath(search, last, i, destination);
+          if (known.add(candidate)) {
+            candidates.add(candidate);
+          }
+        }
+      }
+      if (candidates.isEmpty()) {
+        break;
+      }
+      paths.add(candidates.poll());
+    }
+    return paths;
+  }
+
+  /**
+   * @return the path of the last search joined to the first vertices of the root path, up to the
+   *     index
+   */
+  private static OWeightedPath toPath(
+      final OWeightedPathSearch search,
+      final OWeightedPath root,
+      final int index,
+      final long destination) {
+    final long[] spurVertices = search.getPath(destination);
+    final long[] spurConnections = search.getConnections(destination);
+    final long[] vertices = new long[index + spurVertices.length];
+    final long[] connections = new long[index + spurConnections.length];
+    final double[] weights = new double[vertices.length];
+    if (root != null) {
+      System.arraycopy(root.vertices, 0, vertices, 0, index);
+      System.arraycopy(root.connections, 0, connections, 0, index);
+      System.arraycopy(root.weights, 0, weights, 0, index);
+    }
+    final double rootWeight = root == null ? 0 : root.weights[index];
+    System.arraycopy(spurVertices, 0, vertices, index, spurVertices.length);
+    System.arraycopy(spurConnections, 0, connections, index, spurConnections.length);
+    for (int i = 0; i < spurVertices.length; i++) {
+      weights[index + i] = rootWeight + search.getDistance(spurVertices[i]);
+    }
+    return new OWeightedPath(vertices, connections, weights);
+  }
+
+  private static OVertex toVertex(
+      Object param, final ORecord record, final OCommandContext iContext, final String name) {
+    if (OMultiValue.isMultiValue(param)) {
+      if (OMultiValue.getSize(param) > 1)
+        throw new IllegalArgumentException("Only one " + name + " is allowed");
+      param = OMultiValue.getFirstValue(param);
+      if (param instanceof OResult && ((OResult) param).isElement()) {
+        param = ((OResult) param).getElement().get();
+      }
+    }
+    param = OSQLHelper.getValue(param, record, iContext);
+    if (param instanceof OIdentifiable) {
+      OElement elem = ((OIdentifiable) param).getRecord();
+      if (elem != null && elem.isVertex()) {
+        return elem.asVertex().get();
+      }
+    }
+    throw new IllegalArgumentException("The " + name + " must be a vertex record");
+  }
+
+  private static OVertex toVertex(final ODatabaseDocumentInternal db, final long vertex) {
+    final ORecord record = db.load(OGraphNeighbors.decode(vertex));
+    return record instanceof OElement ? ((OElement) record).asVertex().orElse(null) : null;
+  }
+
+  private void bindAdditionalParams(Object additionalParams) {
+    Map<String, Object> mapParams = null;
+    if (additionalParams instanceof Map) {
+      mapParams = (Map) additionalParams;
+    } else if (additionalParams instanceof OIdentifiable) {
+      mapParams = ((ODocument) ((OIdentifiable) additionalParams).getRecord()).toMap();
+    }
+    if (mapParams == null) {
+      return;
+    }
+    final Object direction = mapParams.get(PARAM_DIRECTION);
+    if (direction instanceof ODirection) {
+      paramDirection = (ODirection) direction;
+    } else if (direction != null) {
+      paramDirection = ODirection.valueOf(direction.toString().toUpperCase(Locale.ENGLISH));
+    }
+    final Object edgeTypeNames = mapParams.get(PARAM_EDGE_TYPE_NAMES);
+    if (edgeTypeNames instanceof String) {
+      paramEdgeTypeNames = ((String) edgeTypeNames).split(",");
+    } else if (edgeTypeNames instanceof String[]) {
+      paramEdgeTypeNames = (String[]) edgeTypeNames;
+    } else if (edgeTypeNames instanceof Collection) {
+      paramEdgeTypeNames =
+          ((Collection<?>) edgeTypeNames).stream().map(String::valueOf).toArray(String[]::new);
+    }
+    final Object maxDistance = mapParams.get(PARAM_MAX_DISTANCE);
+    if (maxDistance instanceof Number) {
+      paramMaxDistance = ((Number) maxDistance).doubleValue();
+    } else if (maxDistance != null) {
+      paramMaxDistance = Double.parseDouble(maxDistance.toString());
+    }
+  }
+
+  public String getSyntax() {
+    return "kShortestPaths(<sourceVertex>, <destinationVertex>, <weightEdgeFieldName>, <k>, [<options>]) \n "
+        + "// options  : {direction:\"OUT\",edgeTypeNames:[] , maxDistance:1000.0 }";
+  }
+
+  @Override
+  public boolean aggregateResults() {
+    return false;
+  }
+
+  @Override
+  public Object getResult() {
+    return null;
+  }
+}
@@ -2,36 +2,37 @@ package com.orientechnologies.orient.core.sql.functions.graph;
 
 import static java.util.stream.Collectors.toList;
 
-import com.orientechnologies.common.collection.OMultiCollectionIterator;
-import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.command.OCommandExecutorAbstract;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.record.ODirection;
-import com.orientechnologies.orient.core.record.OEdge;
 import com.orientechnologies.orient.core.record.OElement;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.OVertex;
 import com.orientechnologies.orient.core.record.impl.ODocument;
-import com.orientechnologies.orient.core.record.impl.OEdgeToVertexIterable;
 import com.orientechnologies.orient.core.sql.OSQLHelper;
+import com.orientechnologies.orient.core.sql.executor.OParallelTasks;
 import com.orientechnologies.orient.core.sql.functions.math.OSQLFunctionMathAbstract;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
 
 /**
  * Shortest path algorithm to find the shortest path from one node to another node in a directed
- * graph.
+ * graph. The search is bidirectional and expands level by level the side with the smaller frontier,
+ * vertices are kept as primitive encoded identities and their neighbors are read from the
+ * connection fields without creating vertex and edge objects, see {@link OGraphNeighbors}. Large
+ * levels are expanded in parallel, see {@link
+ * OGlobalConfiguration#QUERY_SHORTEST_PATH_PARALLEL_THRESHOLD}.
  *
  * @author Luca Garulli (l.garulli--(at)--orientdb.com)
  */
@@ -54,17 +55,26 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
     private String edgeType;
     private String[] edgeTypeParam;
 
-    private ArrayDeque<OVertex> queueLeft = new ArrayDeque<>();
-    private ArrayDeque<OVertex> queueRight = new ArrayDeque<>();
+    private ODatabaseDocumentInternal db;
+    private OGraphNeighbors neighborsLeft;
+    private OGraphNeighbors neighborsRight;
 
-    private final Set<ORID> leftVisited = new HashSet<ORID>();
-    private final Set<ORID> rightVisited = new HashSet<ORID>();
+    // IDENTITIES ENCODED BY OGraphNeighbors.encode()
+    private LongArrayList queueLeft = new LongArrayList();
+    private LongArrayList queueRight = new LongArrayList();
 
-    private final Map<ORID, ORID> previouses = new HashMap<ORID, ORID>();
-    private final Map<ORID, ORID> nexts = new HashMap<ORID, ORID>();
+    /** Vertices visited by the two searches with the vertex they were reached from. */
+    private final LongLongHashMap previouses = new LongLongHashMap();
 
-    private OVertex current;
-    private OVertex currentRight;
+    private final LongLongHashMap nexts = new LongLongHashMap();
+
+    /** Edges the vertices were reached by, only when the edges are returned. */
+    private LongLongHashMap previousEdges;
+
+    private LongLongHashMap nextEdges;
+
+    private int parallelThreshold;
+    private long maxVisited;
     public Integer maxDepth;
     /** option that decides whether or not to return the edge information */
     public Boolean edge;
@@ -145,11 +155,30 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
       bindAdditionalParams(iParams[4], ctx);
     }
 
-    ctx.queueLeft.add(ctx.sourceVertex);
-    ctx.leftVisited.add(ctx.sourceVertex.getIdentity());
+    ctx.db = ODatabaseRecordThreadLocal.instance().get();
+    ctx.parallelThreshold =
+        ctx.db
+            .getConfiguration()
+            .getValueAsInteger(OGlobalConfiguration.QUERY_SHORTEST_PATH_PARALLEL_THRESHOLD);
+    ctx.maxVisited =
+        ctx.db
+            .getConfiguration()
+            .getValueAsLong(OGlobalConfiguration.QUERY_SHORTEST_PATH_MAX_VISITED);
+    if (Boolean.TRUE.equals(ctx.edge)) {
+      ctx.previousEdges = new LongLongHashMap();
+      ctx.nextEdges = new LongLongHashMap();
+    }
+    final String[] edgeTypes = ctx.edgeType == null ? null : ctx.edgeTypeParam;
+    ctx.neighborsLeft = new OGraphNeighbors(ctx.db, ctx.directionLeft, edgeTypes);
+    ctx.neighborsRight = new OGraphNeighbors(ctx.db, ctx.directionRight, edgeTypes);
 
-    ctx.queueRight.add(ctx.destinationVertex);
-    ctx.rightVisited.add(ctx.destinationVertex.getIdentity());
+    final long left = OGraphNeighbors.encode(ctx.sourceVertex.getIdentity());
+    ctx.queueLeft.add(left);
+    ctx.previouses.put(left, OGraphNeighbors.NONE);
+
+    final long right = OGraphNeighbors.encode(ctx.destinationVertex.getIdentity());
+    ctx.queueRight.add(right);
+    ctx.nexts.put(right, OGraphNeighbors.NONE);
 
     int depth = 1;
     while (true) {
@@ -254,201 +283,178 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
     return null;
   }
 
-  /**
-   * get adjacent vertices and edges
-   *
-   * @param srcVertex
-   * @param direction
-   * @param types
-   * @return
-   * @author Thomas Young (YJJThomasYoung@hotmail.com)
-   */
-  private ORawPair<Iterable<OVertex>, Iterable<OEdge>> getVerticesAndEdges(
-      OVertex srcVertex, ODirection direction, String... types) {
-    if (direction == ODirection.BOTH) {
-      OMultiCollectionIterator<OVertex> vertexIterator = new OMultiCollectionIterator<>();
-      OMultiCollectionIterator<OEdge> edgeIterator = new OMultiCollectionIterator<>();
-      ORawPair<Iterable<OVertex>, Iterable<OEdge>> pair1 =
-          getVerticesAndEdges(srcVertex, ODirection.OUT, types);
-      ORawPair<Iterable<OVertex>, Iterable<OEdge>> pair2 =
-          getVerticesAndEdges(srcVertex, ODirection.IN, types);
-      vertexIterator.add(pair1.first);
-      vertexIterator.add(pair2.first);
-      edgeIterator.add(pair1.second);
-      edgeIterator.add(pair2.second);
-      return new ORawPair<>(vertexIterator, edgeIterator);
-    } else {
-      Iterable<OEdge> edges1 = srcVertex.getEdges(direction, types);
-      Iterable<OEdge> edges2 = srcVertex.getEdges(direction, types);
-      return new ORawPair<>(new OEdgeToVertexIterable(edges1, direction), edges2);
-    }
+  public String getSyntax() {
+    return "shortestPath(<sourceVertex>, <destinationVertex>, [<direction>, [ <edgeTypeAsString> ]])";
   }
 
-  /**
-   * get adjacent vertices and edges
-   *
-   * @param srcVertex
-   * @param direction
-   * @return
-   * @author Thomas Young (YJJThomasYoung@hotmail.com)
-   */
-  private ORawPair<Iterable<OVertex>, Iterable<OEdge>> getVerticesAndEdges(
-      OVertex srcVertex, ODirection direction) {
-    return getVerticesAndEdges(srcVertex, direction, (String[]) null);
+  protected List<ORID> walkLeft(final OSQLFunctionShortestPath.OShortestPathContext ctx) {
+    final OLevelExpansion level =
+        new OLevelExpansion(ctx, ctx.previouses, ctx.previousEdges, ctx.nexts);
+    expand(ctx, ctx.queueLeft, ctx.neighborsLeft, level);
+    ctx.queueLeft = level.nextLevel;
+    return level.meeting == OGraphNeighbors.NONE ? null : computePath(ctx, level.meeting);
   }
 
-  public String getSyntax() {
-    return "shortestPath(<sourceVertex>, <destinationVertex>, [<direction>, [ <edgeTypeAsString> ]])";
+  protected List<ORID> walkRight(final OSQLFunctionShortestPath.OShortestPathContext ctx) {
+    final OLevelExpansion level =
+        new OLevelExpansion(ctx, ctx.nexts, ctx.nextEdges, ctx.previouses);
+    expand(ctx, ctx.queueRight, ctx.neighborsRight, level);
+    ctx.queueRight = level.nextLevel;
+    return level.meeting == OGraphNeighbors.NONE ? null : computePath(ctx, level.meeting);
   }
 
-  protected List<ORID> walkLeft(final OSQLFunctionShortestPath.OShortestPathContext ctx) {
-    ArrayDeque<OVertex> nextLevelQueue = new ArrayDeque<>();
-    if (!Boolean.TRUE.equals(ctx.edge)) {
-      while (!ctx.queueLeft.isEmpty()) {
-        ctx.current = ctx.queueLeft.poll();
-
-        Iterable<OVertex> neighbors;
-        if (ctx.edgeType == null) {
-          neighbors = ctx.current.getVertices(ctx.directionLeft);
-        } else {
-          neighbors = ctx.current.getVertices(ctx.directionLeft, ctx.edgeTypeParam);
-        }
-        for (OVertex neighbor : neighbors) {
-          final OVertex v = (OVertex) neighbor;
-          final ORID neighborIdentity = v.getIdentity();
-
-          if (ctx.rightVisited.contains(neighborIdentity)) {
-            ctx.previouses.put(neighborIdentity, ctx.current.getIdentity());
-            return computePath(ctx.previouses, ctx.nexts, neighborIdentity);
-          }
-          if (!ctx.leftVisited.contains(neighborIdentity)) {
-            ctx.previouses.put(neighborIdentity, ctx.current.getIdentity());
-
-            nextLevelQueue.offer(v);
-            ctx.leftVisited.add(neighborIdentity);
-          }
-        }
-      }
-    } else {
-      while (!ctx.queueLeft.isEmpty()) {
-        ctx.current = ctx.queueLeft.poll();
-
-        ORawPair<Iterable<OVertex>, Iterable<OEdge>> neighbors;
-        if (ctx.edgeType == null) {
-          neighbors = getVerticesAndEdges(ctx.current, ctx.directionLeft);
-        } else {
-          neighbors = getVerticesAndEdges(ctx.current, ctx.directionLeft, ctx.edgeTypeParam);
-        }
-        Iterator<OVertex> vertexIterator = neighbors.first.iterator();
-        Iterator<OEdge> edgeIterator = neighbors.second.iterator();
-        while (vertexIterator.hasNext() && edgeIterator.hasNext()) {
-          OVertex v = vertexIterator.next();
-          final ORID neighborVertexIdentity = v.getIdentity();
-          final ORID neighborEdgeIdentity = edgeIterator.next().getIdentity();
-
-          if (ctx.rightVisited.contains(neighborVertexIdentity)) {
-            ctx.previouses.put(neighborVertexIdentity, neighborEdgeIdentity);
-            ctx.previouses.put(neighborEdgeIdentity, ctx.current.getIdentity());
-            return computePath(ctx.previouses, ctx.nexts, neighborVertexIdentity);
-          }
-          if (!ctx.leftVisited.contains(neighborVertexIdentity)) {
-            ctx.previouses.put(neighborVertexIdentity, neighborEdgeIdentity);
-            ctx.previouses.put(neighborEdgeIdentity, ctx.current.getIdentity());
-
-            nextLevelQueue.offer(v);
-            ctx.leftVisited.add(neighborVertexIdentity);
-          }
-        }
+  private void expand(
+      final OShortestPathContext ctx,
+      final LongArrayList queue,
+      final OGraphNeighbors neighbors,
+      final OLevelExpansion level) {
+    final int tasks =
+        ctx.db.getTransaction().isActive()
+            ? 1
+            : OParallelTasks.tasksFor(queue.size(), ctx.parallelThreshold);
+    if (tasks > 1) {
+      expandInParallel(ctx, queue, neighbors, level, tasks);
+      return;
+    }
+
+    for (int i = 0; i < queue.size(); i++) {
+      level.current = queue.get(i);
+      if (!neighbors.forEach(ctx.db, level.current, level)) {
+        return;
       }
     }
-    ctx.queueLeft = nextLevelQueue;
-    return null;
   }
 
-  protected List<ORID> walkRight(final OSQLFunctionShortestPath.OShortestPathContext ctx) {
-    final ArrayDeque<OVertex> nextLevelQueue = new ArrayDeque<>();
-    if (!Boolean.TRUE.equals(ctx.edge)) {
-      while (!ctx.queueRight.isEmpty()) {
-        ctx.currentRight = ctx.queueRight.poll();
-
-        Iterable<OVertex> neighbors;
-        if (ctx.edgeType == null) {
-          neighbors = ctx.currentRight.getVertices(ctx.directionRight);
-        } else {
-          neighbors = ctx.currentRight.getVertices(ctx.directionRight, ctx.edgeTypeParam);
+  /**
+   * Splits the level in contiguous ranges of vertices which are expanded in parallel, see {@link
+   * OParallelTasks}. The tasks only read the vertices visited so far, the neighbors they find are
+   * merged by the current thread in the order of the level, so the result is the same of the
+   * sequential expansion.
+   */
+  private void expandInParallel(
+      final OShortestPathContext ctx,
+      final LongArrayList queue,
+      final OGraphNeighbors neighbors,
+      final OLevelExpansion level,
+      final int tasks) {
+    final List<LongArrayList> found =
+        OParallelTasks.executeRanges(
+            ctx.db,
+            queue.size(),
+            tasks,
+            (session, from, to) -> expandRange(session, queue, from, to, neighbors, level.visited),
+            "expansion of shortestPath()");
+
+    for (LongArrayList neighborhood : found) {
+      // TRIPLES OF VERTEX, NEIGHBOR AND EDGE
+      for (int i = 0; i < neighborhood.size(); i += 3) {
+        level.current = neighborhood.get(i);
+        if (!level.visit(neighborhood.get(i + 1), neighborhood.get(i + 2))) {
+          return;
         }
-        for (OVertex neighbor : neighbors) {
-          final OVertex v = (OVertex) neighbor;
-          final ORID neighborIdentity = v.getIdentity();
+      }
+    }
+  }
 
-          if (ctx.leftVisited.contains(neighborIdentity)) {
-            ctx.nexts.put(neighborIdentity, ctx.currentRight.getIdentity());
-            return computePath(ctx.previouses, ctx.nexts, neighborIdentity);
-          }
-          if (!ctx.rightVisited.contains(neighborIdentity)) {
+  private static LongArrayList expandRange(
+      final ODatabaseDocumentInternal session,
+      final LongArrayList queue,
+      final int from,
+      final int to,
+      final OGraphNeighbors neighbors,
+      final LongLongHashMap visited) {
+    final LongArrayList result = new LongArrayList();
+    for (int i = from; i < to; i++) {
+      final long vertex = queue.get(i);
+      neighbors.forEach(
+          session,
+          vertex,
+          (neighbor, edge) -> {
+            if (!visited.containsKey(neighbor)) {
+              result.add(vertex);
+              result.add(neighbor);
+              result.add(edge);
+            }
+            return true;
+          });
+    }
+    return result;
+  }
 
-            ctx.nexts.put(neighborIdentity, ctx.currentRight.getIdentity());
+  /** Collects the vertices reached by the expansion of a level of one of the two searches. */
+  private final class OLevelExpansion implements OGraphNeighbors.Visitor {
+    private final OShortestPathContext ctx;
+    private final LongLongHashMap visited;
+    private final LongLongHashMap visitedEdges;
+    private final LongLongHashMap opposite;
+    private final LongArrayList nextLevel = new LongArrayList();
+    private long current;
+    private long meeting = OGraphNeighbors.NONE;
+
+    private OLevelExpansion(
+        final OShortestPathContext ctx,
+        final LongLongHashMap visited,
+        final LongLongHashMap visitedEdges,
+        final LongLongHashMap opposite) {
+      this.ctx = ctx;
+      this.visited = visited;
+      this.visitedEdges = visitedEdges;
+      this.opposite = opposite;
+    }
 
-            nextLevelQueue.offer(v);
-            ctx.rightVisited.add(neighborIdentity);
-          }
-        }
+    @Override
+    public boolean visit(final long neighbor, final long edge) {
+      if (opposite.containsKey(neighbor)) {
+        link(neighbor, edge);
+        meeting = neighbor;
+        return false;
       }
-    } else {
-      while (!ctx.queueRight.isEmpty()) {
-        ctx.currentRight = ctx.queueRight.poll();
-
-        ORawPair<Iterable<OVertex>, Iterable<OEdge>> neighbors;
-        if (ctx.edgeType == null) {
-          neighbors = getVerticesAndEdges(ctx.currentRight, ctx.directionRight);
-        } else {
-          neighbors = getVerticesAndEdges(ctx.currentRight, ctx.directionRight, ctx.edgeTypeParam);
+      if (!visited.containsKey(neighbor)) {
+        link(neighbor, edge);
+        nextLevel.add(neighbor);
+
+        if (ctx.maxVisited > 0 && ctx.previouses.size() + ctx.nexts.size() > ctx.maxVisited) {
+          throw new OCommandExecutionException(
+              "The shortestPath() function visited more than "
+                  + ctx.maxVisited
+                  + " vertices, the limit is set by '"
+                  + OGlobalConfiguration.QUERY_SHORTEST_PATH_MAX_VISITED.getKey()
+                  + "'");
         }
+      }
+      return true;
+    }
 
-        Iterator<OVertex> vertexIterator = neighbors.first.iterator();
-        Iterator<OEdge> edgeIterator = neighbors.second.iterator();
-        while (vertexIterator.hasNext() && edgeIterator.hasNext()) {
-          final OVertex v = vertexIterator.next();
-          final ORID neighborVertexIdentity = v.getIdentity();
-          final ORID neighborEdgeIdentity = edgeIterator.next().getIdentity();
-
-          if (ctx.leftVisited.contains(neighborVertexIdentity)) {
-            ctx.nexts.put(neighborVertexIdentity, neighborEdgeIdentity);
-            ctx.nexts.put(neighborEdgeIdentity, ctx.currentRight.getIdentity());
-            return computePath(ctx.previouses, ctx.nexts, neighborVertexIdentity);
-          }
-          if (!ctx.rightVisited.contains(neighborVertexIdentity)) {
-            ctx.nexts.put(neighborVertexIdentity, neighborEdgeIdentity);
-            ctx.nexts.put(neighborEdgeIdentity, ctx.currentRight.getIdentity());
-
-            nextLevelQueue.offer(v);
-            ctx.rightVisited.add(neighborVertexIdentity);
-          }
-        }
+    private void link(final long neighbor, final long edge) {
+      visited.put(neighbor, current);
+      if (visitedEdges != null && edge != OGraphNeighbors.NONE) {
+        visitedEdges.put(neighbor, edge);
       }
     }
-    ctx.queueRight = nextLevelQueue;
-    return null;
   }
 
-  private List<ORID> computePath(
-      final Map<ORID, ORID> leftDistances,
-      final Map<ORID, ORID> rightDistances,
-      final ORID neighbor) {
+  private List<ORID> computePath(final OShortestPathContext ctx, final long meeting) {
     final List<ORID> result = new ArrayList<ORID>();
 
-    ORID current = neighbor;
-    while (current != null) {
-      result.add(0, current);
-      current = leftDistances.get(current);
+    long current = meeting;
+    while (current != OGraphNeighbors.NONE) {
+      result.add(0, OGraphNeighbors.decode(current));
+      if (ctx.previousEdges != null && ctx.previousEdges.containsKey(current)) {
+        result.add(0, OGraphNeighbors.decode(ctx.previousEdges.get(current)));
+      }
+      current = ctx.previouses.getIfAbsent(current, OGraphNeighbors.NONE);
     }
 
-    current = neighbor;
-    while (current != null) {
-      current = rightDistances.get(current);
-      if (current != null) {
-        result.add(current);
+    current = meeting;
+    while (true) {
+      if (ctx.nextEdges != null && ctx.nextEdges.containsKey(current)) {
+        result.add(OGraphNeighbors.decode(ctx.nextEdges.get(current)));
+      }
+      current = ctx.nexts.getIfAbsent(current, OGraphNeighbors.NONE);
+      if (current == OGraphNeighbors.NONE) {
+        break;
       }
+      result.add(OGraphNeighbors.decode(current));
     }
 
     return result;
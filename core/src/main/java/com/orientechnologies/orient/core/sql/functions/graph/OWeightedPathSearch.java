@@ -0,0 +1,339 @@
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.command.OCommandExecutorAbstract;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.Arrays;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongDoubleHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+/**
+ * Finds the cheapest path between two vertices of a graph whose edges are weighted by a property,
+ * with the A* algorithm (Dijkstra's algorithm when no heuristic is set).
+ *
+ * <p>Vertices and edges are kept as encoded identities (see {@link OGraphNeighbors#encode}) in
+ * primitive collections, the open set is a binary heap indexed by vertex. The weight of every edge
+ * is read once, deserializing only the weight property, and is cached for the following searches,
+ * so an instance can run several searches on the same graph, eg. the spur searches of the k
+ * shortest paths.
+ *
+ * <p>Edges without the weight property, and lightweight edges, weigh 0.
+ */
+public class OWeightedPathSearch {
+  /** Estimates the cost of the path from a vertex to the target. */
+  public interface Heuristic {
+    /**
+     * @param vertex encoded identity of the vertex
+     * @param parent encoded identity of the vertex it is reached from, {@link OGraphNeighbors#NONE}
+     *     for the source
+     */
+    double estimate(long vertex, long parent);
+  }
+
+  private final OCommandContext context;
+  private final ODatabaseDocumentInternal db;
+  private final OGraphNeighbors neighbors;
+  private final String weightField;
+  private final LongDoubleHashMap weights = new LongDoubleHashMap();
+
+  private Heuristic heuristic;
+  private double maxDistance = Double.POSITIVE_INFINITY;
+  private long maxExpansions = Long.MAX_VALUE;
+  private final LongHashSet excludedVertices = new LongHashSet();
+  private final LongObjectHashMap<LongHashSet> excludedEdges = new LongObjectHashMap<>();
+
+  private LongDoubleHashMap distances;
+  private LongLongHashMap previouses;
+  private LongLongHashMap previousEdges;
+  private long expansions;
+  private boolean limitReached;
+
+  /**
+   * @param context context of the command, used to check its interruption
+   * @param db session of the current thread
+   * @param neighbors neighbors of the vertices to follow
+   * @param weightField name of the edge property holding the weight, null if edges weigh 0
+   */
+  public OWeightedPathSearch(
+      final OCommandContext context,
+      final ODatabaseDocumentInternal db,
+      final OGraphNeighbors neighbors,
+      final String weightField) {
+    this.context = context;
+    this.db = db;
+    this.neighbors = neighbors;
+    this.weightField = weightField;
+  }
+
+  /** Sets the heuristic of A*, it has to be consistent to find the cheapest path. */
+  public void setHeuristic(final Heuristic heuristic) {
+    this.heuristic = heuristic;
+  }
+
+  /** Vertices farther than the distance from the source are not reached. */
+  public void setMaxDistance(final double maxDistance) {
+    this.maxDistance = maxDistance;
+  }
+
+  /** Stops the search after expanding the number of vertices. */
+  public void setMaxExpansions(final long maxExpansions) {
+    this.maxExpansions = maxExpansions;
+  }
+
+  /** Excludes the vertex from the following searches. */
+  public void excludeVertex(final long vertex) {
+    excludedVertices.add(vertex);
+  }
+
+  /**
+   * Excludes the connection from the following searches.
+   *
+   * @param from encoded identity of the vertex the connection is followed from
+   * @param connection encoded identity returned by {@link #getConnection(long, long)}
+   */
+  public void excludeConnection(final long from, final long connection) {
+    excludedEdges.getIfAbsentPut(from, LongHashSet::new).add(connection);
+  }
+
+  /** Removes all the exclusions. */
+  public void clearExclusions() {
+    excludedVertices.clear();
+    excludedEdges.clear();
+  }
+
+  /**
+   * Searches the cheapest path from the source to the target.
+   *
+   * @return the target if it has been reached, the last vertex expanded if the search stopped
+   *     because of the maximum number of expansions, {@link OGraphNeighbors#NONE} if the target
+   *     cannot be reached
+   */
+  public long search(final long source, final long target) {
+    distances = new LongDoubleHashMap();
+    previouses = new LongLongHashMap();
+    previousEdges = new LongLongHashMap();
+    expansions = 0;
+    limitReached = false;
+
+    final LongHashSet closed = new LongHashSet();
+    final Heap open = new Heap();
+
+    distances.put(source, 0);
+    open.offer(source, estimate(source, OGraphNeighbors.NONE));
+
+    while (!open.isEmpty()) {
+      final long current = open.poll();
+
+      if (expansions >= maxExpansions) {
+        limitReached = true;
+        return current;
+      }
+      if (current == target) {
+        return current;
+      }
+
+      closed.add(current);
+      final double currentDistance = distances.get(current);
+      final LongHashSet excluded = excludedEdges.get(current);
+      neighbors.forEach(
+          db,
+          current,
+          (neighbor, edge) -> {
+            if (closed.contains(neighbor)
+                || excludedVertices.contains(neighbor)
+                || (excluded != null && excluded.contains(getConnection(neighbor, edge)))) {
+              return true;
+            }
+            final double distance = currentDistance + getWeight(edge);
+            if (distance > maxDistance) {
+              return true;
+            }
+            final boolean contains = open.contains(neighbor);
+            if (!contains || distance < distances.get(neighbor)) {
+              distances.put(neighbor, distance);
+              if (contains) {
+                open.remove(neighbor);
+              }
+              open.offer(neighbor, distance + estimate(neighbor, current));
+              previouses.put(neighbor, current);
+              previousEdges.put(neighbor, edge);
+            }
+            return true;
+          });
+
+      expansions++;
+      if (!OCommandExecutorAbstract.checkInterruption(context)) {
+        break;
+      }
+    }
+    return OGraphNeighbors.NONE;
+  }
+
+  /** @return true if the last search stopped because of the maximum number of expansions */
+  public boolean isLimitReached() {
+    return limitReached;
+  }
+
+  /** @return the number of vertices expanded by the last search */
+  public long getExpansions() {
+    return expansions;
+  }
+
+  /** @return the distance of the vertex from the source of the last search */
+  public double getDistance(final long vertex) {
+    return distances.getIfAbsent(vertex, Double.POSITIVE_INFINITY);
+  }
+
+  /** @return the vertices of the path from the source of the last search to the vertex */
+  public long[] getPath(final long vertex) {
+    final LongArrayList path = new LongArrayList();
+    for (long step = vertex; step != OGraphNeighbors.NONE; ) {
+      path.add(step);
+      step = previouses.getIfAbsent(step, OGraphNeighbors.NONE);
+    }
+    return path.reverseThis().toArray();
+  }
+
+  /**
+   * @return the connections followed by the path from the source of the last search to the vertex,
+   *     the connection at index i joins the vertices at index i and i + 1 of {@link #getPath(long)}
+   */
+  public long[] getConnections(final long vertex) {
+    final LongArrayList connections = new LongArrayList();
+    for (long step = vertex; previouses.containsKey(step); step = previouses.get(step)) {
+      connections.add(getConnection(step, previousEdges.get(step)));
+    }
+    return connections.reverseThis().toArray();
+  }
+
+  /**
+   * @return the encoded identity of the edge, or of the neighbor for lightweight edges, which is
+   *     never the identity of an edge
+   */
+  public static long getConnection(final long neighbor, final long edge) {
+    return edge == OGraphNeighbors.NONE ? neighbor : edge;
+  }
+
+  /** @return the weight of the connection, 0 for lightweight edges */
+  public double getConnectionWeight(final long neighbor, final long connection) {
+    return connection == neighbor ? 0 : getWeight(connection);
+  }
+
+  private double estimate(final long vertex, final long parent) {
+    return heuristic == null ? 0 : heuristic.estimate(vertex, parent);
+  }
+
+  private double getWeight(final long edge) {
+    if (edge == OGraphNeighbors.NONE || weightField == null) {
+      return 0;
+    }
+    if (weights.containsKey(edge)) {
+      return weights.get(edge);
+    }
+    double weight = 0;
+    final ORecord record = db.load(OGraphNeighbors.decode(edge));
+    if (record instanceof ODocument) {
+      final ODocument document = (ODocument) record;
+      document.deserializeFields(weightField);
+      final Object value = document.rawField(weightField);
+      if (value instanceof Number) {
+        weight = ((Number) value).doubleValue();
+      }
+    }
+    weights.put(edge, weight);
+    return weight;
+  }
+
+  /**
+   * Binary min heap of vertices, ordered by priority, with the position of every vertex so it can
+   * be removed without scanning the heap. Equal priorities are ordered as {@link
+   * java.util.PriorityQueue} does.
+   */
+  private static final class Heap {
+    private long[] vertices = new long[16];
+    private double[] priorities = new double[16];
+    private final LongIntHashMap positions = new LongIntHashMap();
+    private int size;
+
+    private boolean isEmpty() {
+      return size == 0;
+    }
+
+    private boolean contains(final long vertex) {
+      return positions.containsKey(vertex);
+    }
+
+    private void offer(final long vertex, final double priority) {
+      if (size == vertices.length) {
+        vertices = Arrays.copyOf(vertices, size * 2);
+        priorities = Arrays.copyOf(priorities, size * 2);
+      }
+      siftUp(size++, vertex, priority);
+    }
+
+    private long poll() {
+      final long result = vertices[0];
+      removeAt(0);
+      return result;
+    }
+
+    private void remove(final long vertex) {
+      removeAt(positions.get(vertex));
+    }
+
+    private void removeAt(final int i) {
+      positions.remove(vertices[i]);
+      final int last = --size;
+      if (i == last) {
+        return;
+      }
+      final long moved = vertices[last];
+      final double movedPriority = priorities[last];
+      siftDown(i, moved, movedPriority);
+      if (vertices[i] == moved) {
+        siftUp(i, moved, movedPriority);
+      }
+    }
+
+    private void siftUp(int i, final long vertex, final double priority) {
+      while (i > 0) {
+        final int parent = (i - 1) >>> 1;
+        if (priority >= priorities[parent]) {
+          break;
+        }
+        set(i, vertices[parent], priorities[parent]);
+        i = parent;
+      }
+      set(i, vertex, priority);
+    }
+
+    private void siftDown(int i, final long vertex, final double priority) {
+      final int half = size >>> 1;
+      while (i < half) {
+        int child = (i << 1) + 1;
+        final int right = child + 1;
+        if (right < size && priorities[child] > priorities[right]) {
+          child = right;
+        }
+        if (priority <= priorities[child]) {
+          break;
+        }
+        set(i, vertices[child], priorities[child]);
+        i = child;
+      }
+      set(i, vertex, priority);
+    }
+
+    private void set(final int i, final long vertex, final double priority) {
+      vertices[i] = vertex;
+      priorities[i] = priority;
+      positions.put(vertex, i);
+    }
+  }
+}
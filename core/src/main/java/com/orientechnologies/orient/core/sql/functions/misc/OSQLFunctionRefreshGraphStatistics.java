@@ -0,0 +1,61 @@
+package com.orientechnologies.orient.core.sql.functions.misc;
+
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.metadata.security.ORole;
+import com.orientechnologies.orient.core.metadata.security.ORule;
+import com.orientechnologies.orient.core.sql.executor.OGraphStatistics;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunctionAbstract;
+
+/**
+ * Refreshes the statistics used by the query planners, see {@link OGraphStatistics}. Without
+ * parameters the statistics of all the vertex classes and of all the indexes are computed again,
+ * otherwise only the ones of the vertex class or of the index with the given name.
+ *
+ * <p>Example: <code>select refreshGraphStatistics('Person')</code>
+ */
+public class OSQLFunctionRefreshGraphStatistics extends OSQLFunctionAbstract {
+  public static final String NAME = "refreshGraphStatistics";
+
+  public OSQLFunctionRefreshGraphStatistics() {
+    super(NAME, 0, 1);
+  }
+
+  public Object execute(
+      Object iThis,
+      final OIdentifiable iCurrentRecord,
+      Object iCurrentResult,
+      final Object[] iParams,
+      OCommandContext context) {
+    final ODatabaseDocumentInternal database = (ODatabaseDocumentInternal) context.getDatabase();
+    database.checkSecurity(ORule.ResourceGeneric.SCHEMA, ORole.PERMISSION_UPDATE);
+
+    final OGraphStatistics statistics = OGraphStatistics.get(database);
+    if (statistics == null) {
+      throw new OCommandExecutionException(
+          "Graph statistics are not available for database " + database.getName());
+    }
+
+    if (iParams.length == 0 || iParams[0] == null) {
+      statistics.refresh(database);
+      return true;
+    }
+
+    final String name = String.valueOf(iParams[0]);
+    if (database.getMetadata().getImmutableSchemaSnapshot().existsClass(name)) {
+      statistics.refreshVertexClass(database, name);
+      return true;
+    }
+    if (database.getMetadata().getIndexManagerInternal().getIndex(database, name) != null) {
+      statistics.refreshIndex(database, name);
+      return true;
+    }
+    throw new OCommandExecutionException("Class or index '" + name + "' not found");
+  }
+
+  public String getSyntax() {
+    return "refreshGraphStatistics([<class-or-index-name-string>])";
+  }
+}
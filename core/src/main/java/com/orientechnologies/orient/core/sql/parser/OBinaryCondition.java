@@ -9,6 +9,12 @@ import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryComparator;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryField;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ODocumentSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import java.util.ArrayList;
@@ -45,6 +51,10 @@ public class OBinaryCondition extends OBooleanExpression {
     if (left.isFunctionAll()) {
       return evaluateAllFunction(currentRecord, ctx);
     }
+    final Boolean binaryResult = evaluateBinary(currentRecord, ctx);
+    if (binaryResult != null) {
+      return binaryResult;
+    }
     Object leftVal = left.execute(currentRecord, ctx);
     Object rightVal = right.execute(currentRecord, ctx);
     OCollate collate = left.getCollate(currentRecord, ctx);
@@ -58,6 +68,88 @@ public class OBinaryCondition extends OBooleanExpression {
     return operator.execute(leftVal, rightVal);
   }
 
+  /**
+   * Compares the serialized value of a field of a stored document with a constant by {@link
+   * OBinaryComparator}, so the filters which read few fields of wide documents do not deserialize
+   * them. Only numbers and strings are compared this way, the binary comparison of the other types
+   * does not match the conversions of the operators.
+   *
+   * @return result of the comparison or <code>null</code> if the condition has to be evaluated on
+   *     deserialized values
+   */
+  private Boolean evaluateBinary(OResult currentRecord, OCommandContext ctx) {
+    if (!(currentRecord instanceof OResultInternal)
+        || !isBinaryOperator()
+        || !left.isBaseIdentifier()
+        || !right.isEarlyCalculated(ctx)) {
+      return null;
+    }
+    final OBinaryField field =
+        ((OResultInternal) currentRecord)
+            .getBinaryProperty(left.getDefaultAlias().getStringValue());
+    if (field == null || !isBinaryComparable(field.type)) {
+      return null;
+    }
+    final Object value = right.execute(currentRecord, ctx);
+    final OType type = value == null ? null : OType.getTypeByValue(value);
+    if (type == null
+        || !isBinaryComparable(type)
+        || (type == OType.STRING) != (field.type == OType.STRING)
+        || left.getCollate(currentRecord, ctx) != null) {
+      return null;
+    }
+
+    final ODocumentSerializer serializer = ORecordSerializerBinary.INSTANCE.getCurrentSerializer();
+    final BytesContainer bytes = new BytesContainer();
+    serializer.serializeValue(bytes, value, type, null, null, null);
+    bytes.offset = 0;
+    final OBinaryField constant = new OBinaryField(null, type, bytes, null);
+
+    final OBinaryComparator comparator = serializer.getComparator();
+    if (operator instanceof OEqualsCompareOperator) {
+      return comparator.isEqual(field, constant);
+    }
+    if (operator instanceof ONeOperator || operator instanceof ONeqOperator) {
+      return !comparator.isEqual(field, constant);
+    }
+    final int result = comparator.compare(field, constant);
+    if (operator instanceof OLtOperator) {
+      return result < 0;
+    }
+    if (operator instanceof OLeOperator) {
+      return result <= 0;
+    }
+    if (operator instanceof OGtOperator) {
+      return result > 0;
+    }
+    return result >= 0;
+  }
+
+  private boolean isBinaryOperator() {
+    return operator instanceof OEqualsCompareOperator
+        || operator instanceof ONeOperator
+        || operator instanceof ONeqOperator
+        || operator instanceof OLtOperator
+        || operator instanceof OLeOperator
+        || operator instanceof OGtOperator
+        || operator instanceof OGeOperator;
+  }
+
+  private static boolean isBinaryComparable(OType type) {
+    switch (type) {
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case STRING:
+        return true;
+      default:
+        return false;
+    }
+  }
+
   private boolean evaluateAny(OResult currentRecord, OCommandContext ctx) {
     for (String s : currentRecord.getPropertyNames()) {
       Object leftVal = currentRecord.getProperty(s);
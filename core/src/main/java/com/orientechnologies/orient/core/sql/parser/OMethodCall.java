@@ -191,6 +191,14 @@ public class OMethodCall extends SimpleNode {
     return ODatabaseRecordThreadLocal.instance().get();
   }
 
+  public OIdentifier getMethodName() {
+    return methodName;
+  }
+
+  public List<OExpression> getParams() {
+    return params;
+  }
+
   public boolean needsAliases(Set<String> aliases) {
     for (OExpression param : params) {
       if (param.needsAliases(aliases)) {
@@ -299,6 +299,7 @@ public class OSelectStatement extends OStatement {
 
   public OInternalExecutionPlan createExecutionPlan(OCommandContext ctx, boolean enableProfiling) {
     OSelectExecutionPlanner planner = new OSelectExecutionPlanner(this);
+    planner.setParallelScanAllowed(true);
     OInternalExecutionPlan result = planner.createExecutionPlan(ctx, enableProfiling, true);
     result.setStatement(this.originalStatement);
     return result;
@@ -307,6 +308,7 @@ public class OSelectStatement extends OStatement {
   public OInternalExecutionPlan createExecutionPlanNoCache(
       OCommandContext ctx, boolean enableProfiling) {
     OSelectExecutionPlanner planner = new OSelectExecutionPlanner(this);
+    planner.setParallelScanAllowed(true);
     OInternalExecutionPlan result = planner.createExecutionPlan(ctx, enableProfiling, false);
     result.setStatement(this.originalStatement);
     return result;
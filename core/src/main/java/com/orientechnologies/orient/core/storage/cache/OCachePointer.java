@@ -57,6 +57,9 @@ public final class OCachePointer {
   private final OPointer pointer;
   private final OByteBufferPool bufferPool;
 
+  /** Read only buffer which points to the page mapped into memory, used instead of pointer. */
+  private final ByteBuffer mappedBuffer;
+
   private long version;
 
   private final long fileId;
@@ -71,8 +74,26 @@ public final class OCachePointer {
       final OByteBufferPool bufferPool,
       final long fileId,
       final int pageIndex) {
+    this(pointer, bufferPool, null, fileId, pageIndex);
+  }
+
+  /**
+   * Creates pointer to the page of a file mapped into memory. Such pointer does not own any direct
+   * memory, so nothing is returned into the buffer pool once pointer is released.
+   */
+  public OCachePointer(final ByteBuffer mappedBuffer, final long fileId, final int pageIndex) {
+    this(null, null, mappedBuffer, fileId, pageIndex);
+  }
+
+  private OCachePointer(
+      final OPointer pointer,
+      final OByteBufferPool bufferPool,
+      final ByteBuffer mappedBuffer,
+      final long fileId,
+      final int pageIndex) {
     this.pointer = pointer;
     this.bufferPool = bufferPool;
+    this.mappedBuffer = mappedBuffer;
 
     if (fileId < 0) {
       throw new IllegalStateException("File id has invalid value " + fileId);
@@ -222,7 +243,7 @@ public final class OCachePointer {
 
   public ByteBuffer getBuffer() {
     if (pointer == null) {
-      return null;
+      return mappedBuffer;
     }
 
     return pointer.getNativeByteBuffer();
@@ -232,9 +253,19 @@ public final class OCachePointer {
     return pointer;
   }
 
+  public boolean isMapped() {
+    return mappedBuffer != null;
+  }
+
   public ByteBuffer getBufferDuplicate() {
     if (pointer == null) {
-      return null;
+      if (mappedBuffer == null) {
+        return null;
+      }
+
+      final ByteBuffer duplicate = mappedBuffer.duplicate().order(ByteOrder.nativeOrder());
+      duplicate.rewind();
+      return duplicate;
     }
     final ByteBuffer duplicate =
         pointer.getNativeByteBuffer().duplicate().order(ByteOrder.nativeOrder());
@@ -0,0 +1,39 @@
+package com.orientechnologies.orient.core.storage.cache;
+
+/**
+ * Marks pages loaded by the current thread as pages of a sequential scan. Read cache does not count
+ * accesses to such pages in the frequency sketch of eviction policy and does not promote them to
+ * the protected segment, so a full scan of a big cluster does not evict the working set of the
+ * cache.
+ *
+ * <p>Calls of {@link #enter()} and {@link #exit()} may be nested and have to be balanced:
+ *
+ * <pre>
+ *   OReadCacheScanMode.enter();
+ *   try {
+ *     ...
+ *   } finally {
+ *     OReadCacheScanMode.exit();
+ *   }
+ * </pre>
+ */
+public final class OReadCacheScanMode {
+  private static final ThreadLocal<int[]> SCAN_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+  private OReadCacheScanMode() {}
+
+  public static void enter() {
+    SCAN_DEPTH.get()[0]++;
+  }
+
+  public static void exit() {
+    final int[] depth = SCAN_DEPTH.get();
+    assert depth[0] > 0;
+
+    depth[0]--;
+  }
+
+  public static boolean isActive() {
+    return SCAN_DEPTH.get()[0] > 0;
+  }
+}
@@ -13,6 +13,7 @@ import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntryImpl;
 import com.orientechnologies.orient.core.storage.cache.OCachePointer;
 import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OReadCacheScanMode;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
 import com.orientechnologies.orient.core.storage.cache.chm.readbuffer.BoundedBuffer;
 import com.orientechnologies.orient.core.storage.cache.chm.readbuffer.Buffer;
@@ -39,6 +40,11 @@ import java.util.concurrent.locks.ReentrantLock;
  * additional pages from write cache to disk cache. Window TinyLFU policy is used as cache eviction
  * policy because it prevents usage of ghost entries and as result considerably decrease usage of
  * heap memory.
+ *
+ * <p>Pages loaded by the thread which is in {@link OReadCacheScanMode} are not counted by the
+ * frequency sketch and are not promoted to the protected segment of the policy.
+ *
+ * @see PartitionedReadCache
  */
 public final class AsyncReadCache implements OReadCache {
 
@@ -198,6 +204,8 @@ public final class AsyncReadCache implements OReadCache {
       requests.increment();
     }
 
+    final boolean scan = OReadCacheScanMode.isActive();
+
     while (true) {
       checkWriteBuffer();
 
@@ -207,7 +215,9 @@ public final class AsyncReadCache implements OReadCache {
 
       if (cacheEntry != null) {
         if (cacheEntry.acquireEntry()) {
-          afterRead(cacheEntry);
+          if (!scan) {
+            afterRead(cacheEntry);
+          }
 
           if (trackHitRate) {
             hits.increment();
@@ -256,9 +266,11 @@ public final class AsyncReadCache implements OReadCache {
               hits.increment();
             }
 
-            afterRead(cacheEntry);
+            if (!scan) {
+              afterRead(cacheEntry);
+            }
           } else {
-            afterAdd(cacheEntry);
+            afterAdd(cacheEntry, scan);
 
             try {
               writeCache.checkCacheOverflow();
@@ -290,7 +302,7 @@ public final class AsyncReadCache implements OReadCache {
           "Page  " + fileId + ":" + pageIndex + " was allocated in other thread");
     }
 
-    afterAdd(cacheEntry);
+    afterAdd(cacheEntry, false);
 
     return cacheEntry;
   }
@@ -366,6 +378,19 @@ public final class AsyncReadCache implements OReadCache {
       throws IOException {
     fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
     final int newPageIndex = writeCache.allocateNewPage(fileId);
+    return addAllocatedPage(fileId, newPageIndex, writeCache, startLSN);
+  }
+
+  /**
+   * Adds page which is already allocated in write cache to this cache.
+   *
+   * @param fileId internal id of file, which already passed check of compatibility with write cache
+   */
+  OCacheEntry addAllocatedPage(
+      final long fileId,
+      final int newPageIndex,
+      final OWriteCache writeCache,
+      final OLogSequenceNumber startLSN) {
     final OCacheEntry cacheEntry = addNewPagePointerToTheCache(fileId, newPageIndex);
 
     cacheEntry.acquireExclusiveLock();
@@ -383,8 +408,8 @@ public final class AsyncReadCache implements OReadCache {
     }
   }
 
-  private void afterAdd(final OCacheEntry entry) {
-    afterWrite(() -> policy.onAdd(entry));
+  private void afterAdd(final OCacheEntry entry, final boolean scan) {
+    afterWrite(() -> policy.onAdd(entry, scan));
   }
 
   private void afterWrite(final Runnable command) {
@@ -570,7 +595,7 @@ public final class AsyncReadCache implements OReadCache {
     writeCache.close();
   }
 
-  private void clearFile(final long fileId, final int filledUpTo, final OWriteCache writeCache) {
+  void clearFile(final long fileId, final int filledUpTo, final OWriteCache writeCache) {
     evictionLock.lock();
     try {
       emptyBuffers();
@@ -624,6 +649,22 @@ public final class AsyncReadCache implements OReadCache {
     }
   }
 
+  long getRequests() {
+    return requests.sum();
+  }
+
+  long getHits() {
+    return hits.sum();
+  }
+
+  long getEvictions() {
+    return policy.getEvictions();
+  }
+
+  int getSize() {
+    return cacheSize.get();
+  }
+
   int hitRate() {
     final long reqSum = requests.sum();
     if (reqSum == 0) {
@@ -0,0 +1,19 @@
+package com.orientechnologies.orient.core.storage.cache.chm;
+
+/** Provides an MBean for {@link PartitionedReadCache}, values are reported per partition. */
+public interface OPartitionedReadCacheMXBean {
+  /** @return Amount of independent partitions of read cache */
+  int getPartitions();
+
+  /** @return Amount of page requests which were served from read cache */
+  long[] getHits();
+
+  /** @return Amount of page requests which caused load of page from write cache */
+  long[] getMisses();
+
+  /** @return Amount of pages evicted from read cache by eviction policy */
+  long[] getEvictions();
+
+  /** @return Amount of pages contained in read cache */
+  int[] getSizes();
+}
@@ -0,0 +1,303 @@
+package com.orientechnologies.orient.core.storage.cache.chm;
+
+import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Read cache which is split on several independent {@link AsyncReadCache} partitions. Each
+ * partition has its own eviction policy, frequency sketch, event buffers and eviction lock, so
+ * threads which load different pages contend on different locks during draining of buffers. Pages
+ * are distributed between partitions by hash code of {@link PageKey}, so consecutive pages of the
+ * same file are spread over all partitions.
+ *
+ * <p>Operations which are performed on the whole file are performed on all partitions.
+ */
+public final class PartitionedReadCache implements OReadCache, OPartitionedReadCacheMXBean {
+  private static final String MBEAN_NAME =
+      "com.orientechnologies.orient.core.storage.cache.chm:type=PartitionedReadCache";
+
+  private final AsyncReadCache[] partitions;
+  private final int mask;
+
+  /** @param partitions amount of partitions, rounded up to the closest power of two */
+  public PartitionedReadCache(
+      final OByteBufferPool bufferPool,
+      final long maxCacheSizeInBytes,
+      final int pageSize,
+      final int partitions) {
+    final int partitionsCount = ceilingPowerOfTwo(Math.max(1, partitions));
+
+    this.partitions = new AsyncReadCache[partitionsCount];
+    this.mask = partitionsCount - 1;
+
+    for (int i = 0; i < partitionsCount; i++) {
+      this.partitions[i] =
+          new AsyncReadCache(bufferPool, maxCacheSizeInBytes / partitionsCount, pageSize, true);
+    }
+  }
+
+  @Override
+  public long addFile(final String fileName, final OWriteCache writeCache) throws IOException {
+    return writeCache.addFile(fileName);
+  }
+
+  @Override
+  public long addFile(final String fileName, long fileId, final OWriteCache writeCache)
+      throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+    return writeCache.addFile(fileName, fileId);
+  }
+
+  @Override
+  public OCacheEntry loadForWrite(
+      final long fileId,
+      final long pageIndex,
+      final boolean checkPinnedPages,
+      final OWriteCache writeCache,
+      final boolean verifyChecksums,
+      final OLogSequenceNumber startLSN) {
+    return partition(writeCache, fileId, pageIndex)
+        .loadForWrite(fileId, pageIndex, checkPinnedPages, writeCache, verifyChecksums, startLSN);
+  }
+
+  @Override
+  public OCacheEntry loadForRead(
+      final long fileId,
+      final long pageIndex,
+      final boolean checkPinnedPages,
+      final OWriteCache writeCache,
+      final boolean verifyChecksums) {
+    return partition(writeCache, fileId, pageIndex)
+        .loadForRead(fileId, pageIndex, checkPinnedPages, writeCache, verifyChecksums);
+  }
+
+  @Override
+  public OCacheEntry silentLoadForRead(
+      final long extFileId,
+      final int pageIndex,
+      final OWriteCache writeCache,
+      final boolean verifyChecksums) {
+    return partition(writeCache, extFileId, pageIndex)
+        .silentLoadForRead(extFileId, pageIndex, writeCache, verifyChecksums);
+  }
+
+  @Override
+  public void releaseFromRead(final OCacheEntry cacheEntry, final OWriteCache writeCache) {
+    partition(cacheEntry.getFileId(), cacheEntry.getPageIndex())
+        .releaseFromRead(cacheEntry, writeCache);
+  }
+
+  @Override
+  public void releaseFromWrite(
+      final OCacheEntry cacheEntry, final OWriteCache writeCache, final boolean changed) {
+    partition(cacheEntry.getFileId(), cacheEntry.getPageIndex())
+        .releaseFromWrite(cacheEntry, writeCache, changed);
+  }
+
+  @Override
+  public OCacheEntry allocateNewPage(
+      long fileId, final OWriteCache writeCache, final OLogSequenceNumber startLSN)
+      throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+    final int newPageIndex = writeCache.allocateNewPage(fileId);
+
+    return partition(fileId, newPageIndex)
+        .addAllocatedPage(fileId, newPageIndex, writeCache, startLSN);
+  }
+
+  @Override
+  public long getUsedMemory() {
+    long usedMemory = 0;
+    for (final AsyncReadCache partition : partitions) {
+      usedMemory += partition.getUsedMemory();
+    }
+
+    return usedMemory;
+  }
+
+  @Override
+  public void clear() {
+    for (final AsyncReadCache partition : partitions) {
+      partition.clear();
+    }
+  }
+
+  @Override
+  public void truncateFile(long fileId, final OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
+    writeCache.truncateFile(fileId);
+
+    clearFile(fileId, filledUpTo, writeCache);
+  }
+
+  @Override
+  public void closeFile(long fileId, final boolean flush, final OWriteCache writeCache) {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+    final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
+
+    clearFile(fileId, filledUpTo, writeCache);
+    writeCache.close(fileId, flush);
+  }
+
+  @Override
+  public void deleteFile(long fileId, final OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+    final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
+
+    clearFile(fileId, filledUpTo, writeCache);
+    writeCache.deleteFile(fileId);
+  }
+
+  @Override
+  public void deleteStorage(final OWriteCache writeCache) throws IOException {
+    clearStorage(writeCache);
+    writeCache.delete();
+  }
+
+  @Override
+  public void closeStorage(final OWriteCache writeCache) throws IOException {
+    clearStorage(writeCache);
+    writeCache.close();
+  }
+
+  @Override
+  public void changeMaximumAmountOfMemory(final long maxMemory) {
+    for (final AsyncReadCache partition : partitions) {
+      partition.changeMaximumAmountOfMemory(maxMemory / partitions.length);
+    }
+  }
+
+  @Override
+  public int getPartitions() {
+    return partitions.length;
+  }
+
+  @Override
+  public long[] getHits() {
+    final long[] hits = new long[partitions.length];
+    for (int i = 0; i < partitions.length; i++) {
+      hits[i] = partitions[i].getHits();
+    }
+
+    return hits;
+  }
+
+  @Override
+  public long[] getMisses() {
+    final long[] misses = new long[partitions.length];
+    for (int i = 0; i < partitions.length; i++) {
+      final AsyncReadCache partition = partitions[i];
+      // hits are read first, so amount of misses can not be negative
+      final long hits = partition.getHits();
+      misses[i] = partition.getRequests() - hits;
+    }
+
+    return misses;
+  }
+
+  @Override
+  public long[] getEvictions() {
+    final long[] evictions = new long[partitions.length];
+    for (int i = 0; i < partitions.length; i++) {
+      evictions[i] = partitions[i].getEvictions();
+    }
+
+    return evictions;
+  }
+
+  @Override
+  public int[] getSizes() {
+    final int[] sizes = new int[partitions.length];
+    for (int i = 0; i < partitions.length; i++) {
+      sizes[i] = partitions[i].getSize();
+    }
+
+    return sizes;
+  }
+
+  public void registerMBean() {
+    try {
+      final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName mBeanName = new ObjectName(MBEAN_NAME);
+      if (mBeanServer.isRegistered(mBeanName)) {
+        mBeanServer.unregisterMBean(mBeanName);
+      }
+
+      mBeanServer.registerMBean(this, mBeanName);
+    } catch (final Exception e) {
+      OLogManager.instance().error(this, "Error during registration of read cache MBean", e);
+    }
+  }
+
+  public void unregisterMBean() {
+    try {
+      final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName mBeanName = new ObjectName(MBEAN_NAME);
+      if (mBeanServer.isRegistered(mBeanName)) {
+        mBeanServer.unregisterMBean(mBeanName);
+      }
+    } catch (final Exception e) {
+      OLogManager.instance().error(this, "Error during unregistration of read cache MBean", e);
+    }
+  }
+
+  AsyncReadCache[] partitions() {
+    return partitions;
+  }
+
+  private void clearStorage(final OWriteCache writeCache) {
+    final Collection<Long> files = writeCache.files().values();
+    final List<ORawPair<Long, Integer>> filledUpTo = new ArrayList<>(1024);
+    for (final long fileId : files) {
+      filledUpTo.add(new ORawPair<>(fileId, (int) writeCache.getFilledUpTo(fileId)));
+    }
+
+    for (final ORawPair<Long, Integer> entry : filledUpTo) {
+      clearFile(entry.first, entry.second, writeCache);
+    }
+  }
+
+  private void clearFile(final long fileId, final int filledUpTo, final OWriteCache writeCache) {
+    for (final AsyncReadCache partition : partitions) {
+      partition.clearFile(fileId, filledUpTo, writeCache);
+    }
+  }
+
+  private AsyncReadCache partition(
+      final OWriteCache writeCache, final long extFileId, final long pageIndex) {
+    return partition(
+        OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), extFileId), pageIndex);
+  }
+
+  private AsyncReadCache partition(final long fileId, final long pageIndex) {
+    // finalization step of MurmurHash3, all bits of hash code affect index of partition
+    int hash = PageKey.hashCode(fileId, (int) pageIndex);
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+
+    return partitions[hash & mask];
+  }
+
+  private static int ceilingPowerOfTwo(final int x) {
+    // From Hacker's Delight, Chapter 3, Harry S. Warren Jr.
+    return 1 << -Integer.numberOfLeadingZeros(x - 1);
+  }
+}
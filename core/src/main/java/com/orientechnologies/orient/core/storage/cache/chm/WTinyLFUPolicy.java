@@ -5,6 +5,7 @@ import com.orientechnologies.orient.core.storage.cache.OCachePointer;
 import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /** Window TinyLFU eviction policy https://arxiv.org/pdf/1512.00727.pdf. */
 final class WTinyLFUPolicy {
@@ -16,6 +17,7 @@ final class WTinyLFUPolicy {
   private final Admittor admittor;
 
   private final AtomicInteger cacheSize;
+  private final LongAdder evictions = new LongAdder();
 
   private final LRUList eden = new LRUList();
   private final LRUList probation = new LRUList();
@@ -78,7 +80,19 @@ final class WTinyLFUPolicy {
   }
 
   void onAdd(final OCacheEntry cacheEntry) {
-    admittor.increment(PageKey.hashCode(cacheEntry.getFileId(), (int) cacheEntry.getPageIndex()));
+    onAdd(cacheEntry, false);
+  }
+
+  /**
+   * Adds page to the eden segment of the cache.
+   *
+   * @param scan if <code>true</code> page is loaded by sequential scan, such pages are not counted
+   *     by admittor so they are the first candidates for eviction once they leave the eden.
+   */
+  void onAdd(final OCacheEntry cacheEntry, final boolean scan) {
+    if (!scan) {
+      admittor.increment(PageKey.hashCode(cacheEntry.getFileId(), (int) cacheEntry.getPageIndex()));
+    }
 
     if (cacheEntry.isAlive()) {
       assert !eden.contains(cacheEntry);
@@ -124,6 +138,7 @@ final class WTinyLFUPolicy {
 
             if (removed) {
               cacheSize.decrementAndGet();
+              evictions.increment();
             }
 
             final OCachePointer pointer = victim.getCachePointer();
@@ -142,6 +157,7 @@ final class WTinyLFUPolicy {
 
             if (removed) {
               cacheSize.decrementAndGet();
+              evictions.increment();
             }
 
             final OCachePointer pointer = candidate.getCachePointer();
@@ -176,6 +192,10 @@ final class WTinyLFUPolicy {
     cacheEntry.clearCachePointer();
   }
 
+  long getEvictions() {
+    return evictions.sum();
+  }
+
   private void calculateMaxSizes() {
     maxEdenSize = maxSize * EDEN_PERCENT / 100;
     maxProtectedSize = maxSize - maxEdenSize - (maxSize - maxEdenSize) * PROBATIONARY_PERCENT / 100;
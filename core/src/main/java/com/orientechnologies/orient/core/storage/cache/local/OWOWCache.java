@@ -48,6 +48,7 @@ import com.orientechnologies.orient.core.exception.OInvalidStorageEncryptionKeyE
 import com.orientechnologies.orient.core.exception.OSecurityException;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.exception.OWriteCacheException;
+import com.orientechnologies.orient.core.index.engine.v1.OCellBTreeMultiValueIndexEngine;
 import com.orientechnologies.orient.core.storage.OChecksumMode;
 import com.orientechnologies.orient.core.storage.OStorageAbstract;
 import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
@@ -55,9 +56,12 @@ import com.orientechnologies.orient.core.storage.cache.OCachePointer;
 import com.orientechnologies.orient.core.storage.cache.OPageDataVerificationError;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
 import com.orientechnologies.orient.core.storage.cache.local.doublewritelog.DoubleWriteLog;
-import com.orientechnologies.orient.core.storage.fs.AsyncFile;
+import com.orientechnologies.orient.core.storage.cluster.OClusterPositionMap;
+import com.orientechnologies.orient.core.storage.cluster.OPaginatedCluster;
 import com.orientechnologies.orient.core.storage.fs.IOResult;
+import com.orientechnologies.orient.core.storage.fs.MappedFile;
 import com.orientechnologies.orient.core.storage.fs.OFile;
+import com.orientechnologies.orient.core.storage.fs.OFileIOMode;
 import com.orientechnologies.orient.core.storage.impl.local.OPageIsBrokenListener;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.MetaDataRecord;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
@@ -404,6 +408,24 @@ public final class OWOWCache extends OAbstractWriteCache
 
   private final boolean callFsync;
 
+  /** Implementation of files which is used to read and write pages */
+  private final OFileIOMode fileIOMode;
+
+  /** Extensions of files pages of which are read directly from memory mapped files. */
+  private static final String[] MAPPED_FILE_EXTENSIONS = {
+    OPaginatedCluster.DEF_EXTENSION,
+    OClusterPositionMap.DEF_EXTENSION,
+    OCellBTreeMultiValueIndexEngine.DATA_FILE_EXTENSION
+  };
+
+  /**
+   * If this flag is set pages of cluster files are not copied into direct memory on load but point
+   * directly to the memory mapped regions of the files, see {@link #enableMappedReads()}.
+   */
+  private volatile boolean mappedReads;
+
+  private final ConcurrentMap<Integer, MappedFile> mappedFiles = new ConcurrentHashMap<>();
+
   private final int chunkSize;
 
   private final long pagesFlushInterval;
@@ -440,7 +462,8 @@ public final class OWOWCache extends OAbstractWriteCache
       final OChecksumMode checksumMode,
       final byte[] iv,
       final byte[] aesKey,
-      final boolean callFsync) {
+      final boolean callFsync,
+      final OFileIOMode fileIOMode) {
 
     if (aesKey != null && aesKey.length != 16 && aesKey.length != 24 && aesKey.length != 32) {
       throw new OInvalidStorageEncryptionKeyException(
@@ -456,6 +479,7 @@ public final class OWOWCache extends OAbstractWriteCache
     this.iv = iv;
     this.aesKey = aesKey;
     this.callFsync = callFsync;
+    this.fileIOMode = fileIOMode;
 
     filesLock.acquireWriteLock();
     try {
@@ -1059,6 +1083,26 @@ public final class OWOWCache extends OAbstractWriteCache
     }
   }
 
+  /**
+   * Switches cache into the mode when pages of cluster files (clusters data, cluster position maps
+   * and multi-value indexes) are mapped into memory and are returned without copying of their
+   * content. Mapped pages are read only, so this mode may be used only if storage prohibits any
+   * modification of data. Pages of encrypted storages are always copied, because they have to be
+   * decrypted.
+   */
+  public void enableMappedReads() {
+    if (aesKey != null) {
+      OLogManager.instance()
+          .warnNoDb(
+              this,
+              "Storage %s is encrypted, pages will be copied into the disk cache instead of mapping",
+              storageName);
+      return;
+    }
+
+    mappedReads = true;
+  }
+
   @Override
   public OCachePointer load(
       final long fileId,
@@ -1078,6 +1122,15 @@ public final class OWOWCache extends OAbstractWriteCache
       // page is not cached load it from file
       if (pagePointer == null) {
         try {
+          if (mappedReads) {
+            final OCachePointer mappedPagePointer =
+                loadMappedPage(intId, startPageIndex, verifyChecksums);
+            if (mappedPagePointer != null) {
+              mappedPagePointer.incrementReadersReferrer();
+              return mappedPagePointer;
+            }
+          }
+
           // load requested page and preload requested amount of pages
           final OCachePointer filePagePointer =
               loadFileContent(intId, startPageIndex, verifyChecksums);
@@ -1203,6 +1256,8 @@ public final class OWOWCache extends OAbstractWriteCache
 
     filesLock.acquireWriteLock();
     try {
+      closeMappedFile(intId);
+
       final ORawPair<String, String> file;
       final Future<ORawPair<String, String>> future =
           commitExecutor.submit(new DeleteFileTask(fileId));
@@ -1231,6 +1286,7 @@ public final class OWOWCache extends OAbstractWriteCache
 
     filesLock.acquireWriteLock();
     try {
+      closeMappedFile(intId);
       removeCachedPages(intId);
       final OClosableEntry<Long, OFile> entry = files.acquire(fileId);
       try {
@@ -1260,6 +1316,8 @@ public final class OWOWCache extends OAbstractWriteCache
 
     filesLock.acquireWriteLock();
     try {
+      closeMappedFile(intId);
+
       final OClosableEntry<Long, OFile> entry = files.acquire(fileId);
 
       if (entry == null) {
@@ -1375,6 +1433,8 @@ public final class OWOWCache extends OAbstractWriteCache
 
     filesLock.acquireWriteLock();
     try {
+      closeMappedFiles();
+
       final Collection<Integer> fileIds = nameIdMap.values();
 
       final List<Long> closedIds = new ArrayList<>(1_000);
@@ -1460,6 +1520,13 @@ public final class OWOWCache extends OAbstractWriteCache
         removeCachedPages(intId);
       }
 
+      try {
+        closeMappedFile(intId);
+      } catch (final IOException e) {
+        throw OException.wrapException(
+            new OStorageException("Can not close mapped file with id " + intId), e);
+      }
+
       if (!files.close(fileId)) {
         throw new OStorageException(
             "Can not close file with id " + internalFileId(fileId) + " because it is still in use");
@@ -1644,6 +1711,8 @@ public final class OWOWCache extends OAbstractWriteCache
     final List<Long> result = new ArrayList<>(1_024);
     filesLock.acquireWriteLock();
     try {
+      closeMappedFiles();
+
       for (final int internalFileId : nameIdMap.values()) {
         if (internalFileId < 0) {
           continue;
@@ -1840,7 +1909,7 @@ public final class OWOWCache extends OAbstractWriteCache
 
   private OFile createFileInstance(final String fileName, final int fileId) {
     final String internalFileName = createInternalFileName(fileName, fileId);
-    return new AsyncFile(storagePath.resolve(internalFileName), pageSize);
+    return fileIOMode.newFile(storagePath.resolve(internalFileName), pageSize);
   }
 
   private static String createInternalFileName(final String fileName, final int fileId) {
@@ -1917,7 +1986,7 @@ public final class OWOWCache extends OAbstractWriteCache
 
         if (files.get(externalId) == null) {
           final Path path = storagePath.resolve(idFileNameMap.get((nameIdEntry.getValue())));
-          final AsyncFile file = new AsyncFile(path, pageSize);
+          final OFile file = fileIOMode.newFile(path, pageSize);
 
           if (file.exists()) {
             file.open();
@@ -1982,7 +2051,7 @@ public final class OWOWCache extends OAbstractWriteCache
 
         if (files.get(externalId) == null) {
           final Path path = storagePath.resolve(idFileNameMap.get((nameIdEntry.getValue())));
-          final AsyncFile file = new AsyncFile(path, pageSize);
+          final OFile file = fileIOMode.newFile(path, pageSize);
 
           if (file.exists()) {
             file.open();
@@ -2056,7 +2125,7 @@ public final class OWOWCache extends OAbstractWriteCache
 
         if (files.get(externalId) == null) {
           final OFile fileClassic =
-              new AsyncFile(storagePath.resolve(nameIdEntry.getKey()), pageSize);
+              fileIOMode.newFile(storagePath.resolve(nameIdEntry.getKey()), pageSize);
 
           if (fileClassic.exists()) {
             fileClassic.open();
@@ -2287,6 +2356,94 @@ public final class OWOWCache extends OAbstractWriteCache
     }
   }
 
+  /**
+   * @return Pointer to the page mapped into memory or <code>null</code> if page can not be mapped
+   *     and has to be loaded by usual way.
+   */
+  private OCachePointer loadMappedPage(
+      final int internalFileId, final long pageIndex, final boolean verifyChecksums)
+      throws IOException {
+    MappedFile mappedFile = mappedFiles.get(internalFileId);
+    if (mappedFile == null) {
+      if (!isMappedFile(idNameMap.get(internalFileId))) {
+        return null;
+      }
+
+      mappedFile = openMappedFile(internalFileId);
+    }
+
+    final ByteBuffer buffer = mappedFile.page(pageIndex);
+    if (buffer == null) {
+      return null;
+    }
+
+    // broken pages are loaded by usual way, so they can be restored from double write log
+    if (verifyChecksums
+        && (checksumMode == OChecksumMode.StoreAndVerify
+            || checksumMode == OChecksumMode.StoreAndThrow
+            || checksumMode == OChecksumMode.StoreAndSwitchReadOnlyMode)
+        && !verifyMagicChecksumAndDecryptPage(buffer, internalFileId, pageIndex)) {
+      return null;
+    }
+
+    buffer.position(0);
+    return new OCachePointer(buffer, composeFileId(id, internalFileId), (int) pageIndex);
+  }
+
+  private MappedFile openMappedFile(final int internalFileId) throws IOException {
+    final long fileId = composeFileId(id, internalFileId);
+    try {
+      final OClosableEntry<Long, OFile> entry = files.acquire(fileId);
+      try {
+        final OFile file = entry.get();
+        if (file == null) {
+          throw new IllegalArgumentException(
+              "File with id " + internalFileId + " not found in WOW Cache");
+        }
+
+        final MappedFile mappedFile = new MappedFile(storagePath.resolve(file.getName()), pageSize);
+        final MappedFile existingMappedFile = mappedFiles.putIfAbsent(internalFileId, mappedFile);
+        if (existingMappedFile != null) {
+          mappedFile.close();
+          return existingMappedFile;
+        }
+
+        return mappedFile;
+      } finally {
+        files.release(entry);
+      }
+    } catch (final InterruptedException e) {
+      throw OException.wrapException(new OStorageException("Data load was interrupted"), e);
+    }
+  }
+
+  private static boolean isMappedFile(final String fileName) {
+    if (fileName == null) {
+      return false;
+    }
+
+    for (final String extension : MAPPED_FILE_EXTENSIONS) {
+      if (fileName.endsWith(extension)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private void closeMappedFile(final int internalFileId) throws IOException {
+    final MappedFile mappedFile = mappedFiles.remove(internalFileId);
+    if (mappedFile != null) {
+      mappedFile.close();
+    }
+  }
+
+  private void closeMappedFiles() throws IOException {
+    for (final int internalFileId : mappedFiles.keySet()) {
+      closeMappedFile(internalFileId);
+    }
+  }
+
   private OCachePointer loadFileContent(
       final int internalFileId, final long pageIndex, final boolean verifyChecksums)
       throws IOException {
@@ -24,6 +24,7 @@ import static com.orientechnologies.orient.core.storage.impl.local.paginated.wal
 import static com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog.WAL_SEGMENT_EXTENSION;
 
 import com.orientechnologies.common.collection.closabledictionary.OClosableLinkedContainer;
+import com.orientechnologies.common.concur.lock.OModificationOperationProhibitedException;
 import com.orientechnologies.common.directmemory.OByteBufferPool;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OFileUtils;
@@ -39,6 +40,7 @@ import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.engine.local.OEngineLocalPaginated;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.index.engine.v1.OCellBTreeMultiValueIndexEngine;
+import com.orientechnologies.orient.core.index.engine.v1.ONormalizedKeyIndexEngine;
 import com.orientechnologies.orient.core.storage.OChecksumMode;
 import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.local.OWOWCache;
@@ -49,6 +51,7 @@ import com.orientechnologies.orient.core.storage.cluster.OClusterPositionMap;
 import com.orientechnologies.orient.core.storage.cluster.v2.FreeSpaceMap;
 import com.orientechnologies.orient.core.storage.config.OClusterBasedStorageConfiguration;
 import com.orientechnologies.orient.core.storage.fs.OFile;
+import com.orientechnologies.orient.core.storage.fs.OFileIOMode;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OStorageConfigurationSegment;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.StorageStartupMetadata;
@@ -137,6 +140,8 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
     OClusterBasedStorageConfiguration.TREE_NULL_FILE_EXTENSION,
     OCellBTreeMultiValueIndexEngine.DATA_FILE_EXTENSION,
     OCellBTreeMultiValueIndexEngine.M_CONTAINER_EXTENSION,
+    ONormalizedKeyIndexEngine.DATA_FILE_EXTENSION,
+    ONormalizedKeyIndexEngine.NULL_BUCKET_FILE_EXTENSION,
     DoubleWriteLogGL.EXTENSION,
     FreeSpaceMap.DEF_EXTENSION
   };
@@ -161,6 +166,9 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
 
   private Future<?> fuzzyCheckpointTask;
 
+  /** Id of the freeze request which prohibits modifications in read only mode, or -1. */
+  private long readOnlyFreezeId = -1;
+
   private final long walMaxSegSize;
   private final long doubleWriteLogMaxSegSize;
 
@@ -520,7 +528,9 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
         contextConfiguration.getValueAsBoolean(
             OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_STATISTICS),
         contextConfiguration.getValueAsInteger(
-            OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL));
+            OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL),
+        contextConfiguration.getValueAsBoolean(OGlobalConfiguration.WAL_GROUP_COMMIT),
+        contextConfiguration.getValueAsInteger(OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_DELAY));
   }
 
   @Override
@@ -559,10 +569,29 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
     }
   }
 
+  @Override
+  protected void postOpenSteps(final OContextConfiguration contextConfiguration) {
+    super.postOpenSteps(contextConfiguration);
+
+    if (contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_MMAP_READ_ONLY)) {
+      readOnlyFreezeId =
+          atomicOperationsManager.freezeAtomicOperations(
+              OModificationOperationProhibitedException.class,
+              "Storage " + name + " is opened in read only mode, modifications are prohibited");
+      ((OWOWCache) writeCache).enableMappedReads();
+    }
+  }
+
   @Override
   protected Map<String, Object> preCloseSteps() {
     final Map<String, Object> params = super.preCloseSteps();
 
+    // storage is closed inside of atomic operation
+    if (readOnlyFreezeId >= 0) {
+      atomicOperationsManager.releaseAtomicOperations(readOnlyFreezeId);
+      readOnlyFreezeId = -1;
+    }
+
     if (fuzzyCheckpointTask != null) {
       fuzzyCheckpointTask.cancel(false);
     }
@@ -785,7 +814,10 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
             contextConfiguration.getValueAsBoolean(
                 OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_STATISTICS),
             contextConfiguration.getValueAsInteger(
-                OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL));
+                OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL),
+            contextConfiguration.getValueAsBoolean(OGlobalConfiguration.WAL_GROUP_COMMIT),
+            contextConfiguration.getValueAsInteger(
+                OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_DELAY));
 
     writeAheadLog = diskWriteAheadLog;
     writeAheadLog.addCheckpointListener(this);
@@ -845,7 +877,9 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
                 OGlobalConfiguration.STORAGE_CHECKSUM_MODE, OChecksumMode.class),
             iv,
             aesKey,
-            contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_CALL_FSYNC));
+            contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_CALL_FSYNC),
+            contextConfiguration.getValueAsEnum(
+                OGlobalConfiguration.STORAGE_FILE_IO_MODE, OFileIOMode.class));
 
     wowCache.loadRegisteredFiles();
     wowCache.addBackgroundExceptionListener(this);
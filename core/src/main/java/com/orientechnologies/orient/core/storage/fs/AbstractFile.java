@@ -0,0 +1,338 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.common.concur.lock.ScalableRWLock;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base of the files which are accessed through a channel. It keeps the logical size of the file and
+ * the counter of the writes which are not synchronized yet, and manages the life cycle of the
+ * channel. Subclasses open the channel and implement the positional reads and writes.
+ *
+ * @param <C> type of the channel
+ */
+abstract class AbstractFile<C extends Channel> implements OFile {
+  protected final ScalableRWLock lock = new ScalableRWLock();
+  protected volatile Path osFile;
+
+  protected final AtomicLong dirtyCounter = new AtomicLong();
+  private final Object flushSemaphore = new Object();
+
+  private final AtomicLong size = new AtomicLong(-1);
+  protected volatile C fileChannel;
+
+  private final int pageSize;
+
+  AbstractFile(final Path osFile, final int pageSize) {
+    this.osFile = osFile;
+    this.pageSize = pageSize;
+  }
+
+  protected abstract C openChannel() throws IOException;
+
+  protected abstract long channelSize() throws IOException;
+
+  protected abstract void truncateChannel(long size) throws IOException;
+
+  protected abstract void forceChannel() throws IOException;
+
+  /** Writes bytes of the buffer from its position, at the position in the file. */
+  protected abstract int writeChannel(ByteBuffer buffer, long position) throws IOException;
+
+  /** Reads bytes into the buffer from its position, at the position in the file. */
+  protected abstract int readChannel(ByteBuffer buffer, long position) throws IOException;
+
+  @Override
+  public void create() throws IOException {
+    lock.exclusiveLock();
+    try {
+      if (fileChannel != null) {
+        throw new OStorageException("File " + osFile + " is already opened.");
+      }
+
+      Files.createFile(osFile);
+
+      doOpen();
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  private void initSize() throws IOException {
+    if (channelSize() < HEADER_SIZE) {
+      final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+
+      int written = 0;
+      do {
+        buffer.position(written);
+        written += writeChannel(buffer, written);
+      } while (written < HEADER_SIZE);
+
+      dirtyCounter.incrementAndGet();
+    }
+
+    long currentSize = channelSize() - HEADER_SIZE;
+
+    if (currentSize % pageSize != 0) {
+      final long initialSize = currentSize;
+
+      currentSize = (currentSize / pageSize) * pageSize;
+      truncateChannel(currentSize + HEADER_SIZE);
+
+      OLogManager.instance()
+          .warnNoDb(
+              this,
+              "Data page in file {} was partially written and will be truncated, "
+                  + "initial size {}, truncated size {}",
+              osFile,
+              initialSize,
+              currentSize);
+    }
+
+    if (size.get() < 0) {
+      size.set(currentSize);
+    } else {
+      if (channelSize() - HEADER_SIZE > size.get()) {
+        throw new IllegalStateException(
+            "Physical size of the file "
+                + (channelSize() - HEADER_SIZE)
+                + " but logical size is "
+                + size.get());
+      }
+    }
+  }
+
+  @Override
+  public void open() {
+    lock.exclusiveLock();
+    try {
+      doOpen();
+    } catch (IOException e) {
+      throw OException.wrapException(new OStorageException("Can not open file " + osFile), e);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  private void doOpen() throws IOException {
+    if (fileChannel != null) {
+      throw new OStorageException("File " + osFile + " is already opened.");
+    }
+
+    fileChannel = openChannel();
+
+    initSize();
+  }
+
+  @Override
+  public long getFileSize() {
+    return size.get();
+  }
+
+  @Override
+  public String getName() {
+    return osFile.getFileName().toString();
+  }
+
+  @Override
+  public boolean isOpen() {
+    lock.sharedLock();
+    try {
+      return fileChannel != null;
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  @Override
+  public boolean exists() {
+    return Files.exists(osFile);
+  }
+
+  @Override
+  public void write(long offset, ByteBuffer buffer) throws IOException {
+    lock.sharedLock();
+    try {
+      buffer.rewind();
+
+      checkForClose();
+      checkPosition(offset);
+      checkPosition(offset + buffer.limit() - 1);
+
+      int written = 0;
+      do {
+        buffer.position(written);
+        written += writeChannel(buffer, offset + HEADER_SIZE + written);
+      } while (written < buffer.limit());
+
+      dirtyCounter.incrementAndGet();
+      assert written == buffer.limit();
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  @Override
+  public void read(long offset, ByteBuffer buffer, boolean throwOnEof) throws IOException {
+    lock.sharedLock();
+    try {
+      checkForClose();
+      checkPosition(offset);
+
+      int read = 0;
+      do {
+        buffer.position(read);
+        final int bytesRead = readChannel(buffer, offset + HEADER_SIZE + read);
+
+        if (bytesRead == -1) {
+          if (throwOnEof) {
+            throw new EOFException("End of file " + osFile + " is reached.");
+          }
+
+          break;
+        }
+
+        read += bytesRead;
+      } while (read < buffer.limit());
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  @Override
+  public long allocateSpace(int size) {
+    return this.size.getAndAdd(size);
+  }
+
+  @Override
+  public void shrink(long size) throws IOException {
+    lock.exclusiveLock();
+    try {
+      checkForClose();
+
+      this.size.set(0);
+      truncateChannel(size + HEADER_SIZE);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  @Override
+  public void synch() {
+    lock.sharedLock();
+    try {
+      doSynch();
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  private void doSynch() {
+    synchronized (flushSemaphore) {
+      long dirtyCounterValue = dirtyCounter.get();
+      if (dirtyCounterValue > 0) {
+        try {
+          forceChannel();
+        } catch (final IOException e) {
+          OLogManager.instance()
+              .warn(
+                  this,
+                  "Error during flush of file %s. Data may be lost in case of power failure",
+                  e,
+                  getName());
+        }
+
+        dirtyCounter.addAndGet(-dirtyCounterValue);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    lock.exclusiveLock();
+    try {
+      doSynch();
+      doClose();
+    } catch (IOException e) {
+      throw OException.wrapException(
+          new OStorageException("Error during closing the file " + osFile), e);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  private void doClose() throws IOException {
+    // ignore if closed
+    if (fileChannel != null) {
+      fileChannel.close();
+      fileChannel = null;
+    }
+  }
+
+  @Override
+  public void delete() throws IOException {
+    lock.exclusiveLock();
+    try {
+      doClose();
+
+      Files.delete(osFile);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  @Override
+  public void renameTo(Path newFile) throws IOException {
+    lock.exclusiveLock();
+    try {
+      doClose();
+
+      //noinspection NonAtomicOperationOnVolatileField
+      osFile = Files.move(osFile, newFile);
+
+      doOpen();
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  @Override
+  public void replaceContentWith(final Path newContentFile) throws IOException {
+    lock.exclusiveLock();
+    try {
+      doClose();
+
+      Files.copy(newContentFile, osFile, StandardCopyOption.REPLACE_EXISTING);
+
+      doOpen();
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  protected final void checkPosition(long offset) {
+    final long fileSize = size.get();
+    if (offset < 0 || offset >= fileSize) {
+      throw new OStorageException(
+          "You are going to access region outside of allocated file position. File size = "
+              + fileSize
+              + ", requested position "
+              + offset);
+    }
+  }
+
+  protected final void checkForClose() {
+    if (fileChannel == null) {
+      throw new OStorageException("File " + osFile + " is closed");
+    }
+  }
+}
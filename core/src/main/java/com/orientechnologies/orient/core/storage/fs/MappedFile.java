@@ -0,0 +1,109 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read only view of the pages of a file which is mapped into memory by {@link FileChannel#map}.
+ * File is mapped by chunks which are created on the first access to the pages of the chunk. Pages
+ * are returned as read only slices of the mapped chunks, so page content is not copied and OS page
+ * cache is the only place where content of the file is cached.
+ *
+ * <p>Mapping is valid only while the file is not modified, it is responsibility of the caller to
+ * prohibit modifications of the file content.
+ */
+public final class MappedFile {
+  /** Maximum size of the single mapped chunk, mapped regions are limited by 2Gb in Java. */
+  private static final int MAX_CHUNK_SIZE = 1 << 30;
+
+  private final Path osFile;
+  private final int pageSize;
+  private final int pagesPerChunk;
+
+  /** Array is copied on every change, so readers may access it without synchronization. */
+  private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+
+  private FileChannel fileChannel;
+
+  public MappedFile(final Path osFile, final int pageSize) throws IOException {
+    this.osFile = osFile;
+    this.pageSize = pageSize;
+    this.pagesPerChunk = MAX_CHUNK_SIZE / pageSize;
+
+    fileChannel = FileChannel.open(osFile, StandardOpenOption.READ);
+  }
+
+  /**
+   * @return Read only buffer which contains content of the page with the given index or <code>null
+   *     </code> if page is not stored in the file.
+   */
+  public ByteBuffer page(final long pageIndex) throws IOException {
+    final int chunkIndex = (int) (pageIndex / pagesPerChunk);
+    final int pageOffset = (int) (pageIndex - (long) chunkIndex * pagesPerChunk) * pageSize;
+
+    final MappedByteBuffer[] chunks = this.chunks;
+    MappedByteBuffer chunk = chunkIndex < chunks.length ? chunks[chunkIndex] : null;
+    if (chunk == null || chunk.capacity() < pageOffset + pageSize) {
+      chunk = mapChunk(chunkIndex);
+      if (chunk == null || chunk.capacity() < pageOffset + pageSize) {
+        return null;
+      }
+    }
+
+    final ByteBuffer page = chunk.duplicate();
+    page.limit(pageOffset + pageSize);
+    page.position(pageOffset);
+
+    return page.slice().order(ByteOrder.nativeOrder());
+  }
+
+  private synchronized MappedByteBuffer mapChunk(final int chunkIndex) throws IOException {
+    if (fileChannel == null) {
+      throw new IOException("File " + osFile + " is closed");
+    }
+
+    final long chunkPosition = OFile.HEADER_SIZE + (long) chunkIndex * pagesPerChunk * pageSize;
+    final long chunkSize =
+        Math.min(
+            (long) pagesPerChunk * pageSize,
+            (fileChannel.size() - chunkPosition) / pageSize * pageSize);
+
+    if (chunkSize <= 0) {
+      return null;
+    }
+
+    MappedByteBuffer[] chunks = this.chunks;
+    final MappedByteBuffer chunk = chunkIndex < chunks.length ? chunks[chunkIndex] : null;
+    // file may grow after the chunk was mapped, so mapping is repeated only if chunk is not full
+    if (chunk != null && chunk.capacity() >= chunkSize) {
+      return chunk;
+    }
+
+    final MappedByteBuffer newChunk =
+        fileChannel.map(FileChannel.MapMode.READ_ONLY, chunkPosition, chunkSize);
+    chunks = Arrays.copyOf(chunks, Math.max(chunks.length, chunkIndex + 1));
+    chunks[chunkIndex] = newChunk;
+    this.chunks = chunks;
+
+    return newChunk;
+  }
+
+  /**
+   * Closes the file channel, mapped regions are released by GC once there are no references to them
+   * left.
+   */
+  public synchronized void close() throws IOException {
+    if (fileChannel != null) {
+      fileChannel.close();
+      fileChannel = null;
+    }
+
+    chunks = new MappedByteBuffer[0];
+  }
+}
@@ -0,0 +1,30 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import java.nio.file.Path;
+
+/** Defines implementations of {@link OFile} which may be used by disk cache of storage. */
+public enum OFileIOMode {
+  /**
+   * Every page of flushed batch is written by separate asynchronous write request, see {@link
+   * AsyncFile}.
+   */
+  Async {
+    @Override
+    public OFile newFile(final Path osFile, final int pageSize) {
+      return new AsyncFile(osFile, pageSize);
+    }
+  },
+
+  /**
+   * Flushed batch is sorted by position in file, adjacent pages are merged and written by single
+   * vectored write, see {@link VectoredFile}.
+   */
+  Vectored {
+    @Override
+    public OFile newFile(final Path osFile, final int pageSize) {
+      return new VectoredFile(osFile, pageSize);
+    }
+  };
+
+  public abstract OFile newFile(Path osFile, int pageSize);
+}
@@ -0,0 +1,207 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.common.util.ORawPair;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File which writes batches of pages by vectored I/O. Buffers of the batch are sorted by position
+ * in the file, buffers which are adjacent in the file are merged into the single region and each
+ * region is written by single gathering write, so a flush of contiguous dirty pages is converted
+ * into a big sequential write. Batch is written by the calling thread, so the returned {@link
+ * IOResult} is already completed.
+ *
+ * <p>{@link FileChannel} is closed when a thread which uses it is interrupted. The file is not
+ * closed in such case, the channel is reopened and the interrupted operation is repeated, the
+ * interruption flag of the thread is restored once the operation is completed.
+ */
+public final class VectoredFile extends AbstractFile<FileChannel> {
+  /** Maximum amount of buffers passed to single gathering write, equals to typical IOV_MAX. */
+  private static final int MAX_BUFFERS_PER_WRITE = 1024;
+
+  private static final IOResult COMPLETED = () -> {};
+
+  /** Gathering writes change position of the channel, so they have to be serialized. */
+  private final Lock positionLock = new ReentrantLock();
+
+  private final Object reopenLock = new Object();
+
+  public VectoredFile(final Path osFile, final int pageSize) {
+    super(osFile, pageSize);
+  }
+
+  @Override
+  protected FileChannel openChannel() throws IOException {
+    return FileChannel.open(osFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  @Override
+  protected long channelSize() throws IOException {
+    return execute(FileChannel::size);
+  }
+
+  @Override
+  protected void truncateChannel(final long size) throws IOException {
+    execute((channel) -> channel.truncate(size));
+  }
+
+  @Override
+  protected void forceChannel() throws IOException {
+    execute(
+        (channel) -> {
+          channel.force(false);
+          return null;
+        });
+  }
+
+  @Override
+  protected int writeChannel(final ByteBuffer buffer, final long position) throws IOException {
+    final int start = buffer.position();
+    return execute(
+        (channel) -> {
+          buffer.position(start);
+          return channel.write(buffer, position);
+        });
+  }
+
+  @Override
+  protected int readChannel(final ByteBuffer buffer, final long position) throws IOException {
+    final int start = buffer.position();
+    return execute(
+        (channel) -> {
+          buffer.position(start);
+          return channel.read(buffer, position);
+        });
+  }
+
+  @Override
+  public IOResult write(List<ORawPair<Long, ByteBuffer>> buffers) throws IOException {
+    if (buffers.isEmpty()) {
+      return COMPLETED;
+    }
+
+    final List<ORawPair<Long, ByteBuffer>> sortedBuffers = new ArrayList<>(buffers);
+    sortedBuffers.sort(Comparator.comparingLong(pair -> pair.first));
+
+    lock.sharedLock();
+    try {
+      checkForClose();
+
+      for (final ORawPair<Long, ByteBuffer> pair : sortedBuffers) {
+        pair.second.rewind();
+
+        checkPosition(pair.first);
+        checkPosition(pair.first + pair.second.limit() - 1);
+      }
+
+      int regionStart = 0;
+      while (regionStart < sortedBuffers.size()) {
+        final long regionOffset = sortedBuffers.get(regionStart).first;
+        long regionEnd = regionOffset + sortedBuffers.get(regionStart).second.limit();
+
+        int regionLimit = regionStart + 1;
+        while (regionLimit < sortedBuffers.size()
+            && regionLimit - regionStart < MAX_BUFFERS_PER_WRITE
+            && sortedBuffers.get(regionLimit).first == regionEnd) {
+          regionEnd += sortedBuffers.get(regionLimit).second.limit();
+          regionLimit++;
+        }
+
+        final ByteBuffer[] region = new ByteBuffer[regionLimit - regionStart];
+        for (int i = 0; i < region.length; i++) {
+          region[i] = sortedBuffers.get(regionStart + i).second;
+        }
+
+        writeRegion(regionOffset, region);
+        regionStart = regionLimit;
+      }
+
+      dirtyCounter.incrementAndGet();
+    } finally {
+      lock.sharedUnlock();
+    }
+
+    return COMPLETED;
+  }
+
+  private void writeRegion(final long offset, final ByteBuffer[] region) throws IOException {
+    if (region.length == 1) {
+      final ByteBuffer buffer = region[0];
+
+      int written = 0;
+      do {
+        buffer.position(written);
+        written += writeChannel(buffer, offset + HEADER_SIZE + written);
+      } while (written < buffer.limit());
+
+      return;
+    }
+
+    positionLock.lock();
+    try {
+      final ByteBuffer last = region[region.length - 1];
+      while (last.hasRemaining()) {
+        execute(
+            (channel) -> {
+              // POSITIONS OF THE BUFFERS TELL WHAT IS ALREADY WRITTEN, ALSO BY AN INTERRUPTED WRITE
+              long position = offset + HEADER_SIZE;
+              int first = 0;
+              while (!region[first].hasRemaining()) {
+                position += region[first].limit();
+                first++;
+              }
+
+              channel.position(position + region[first].position());
+              return channel.write(region, first, region.length - first);
+            });
+      }
+    } finally {
+      positionLock.unlock();
+    }
+  }
+
+  private interface ChannelOperation<T> {
+    T execute(FileChannel channel) throws IOException;
+  }
+
+  /**
+   * Executes the operation on the channel of the file, if the channel is closed because this or
+   * other thread which used it was interrupted, reopens the channel and repeats the operation.
+   * Caller holds the shared lock of the file, so the file itself can not be closed meanwhile.
+   */
+  private <T> T execute(final ChannelOperation<T> operation) throws IOException {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        final FileChannel channel = fileChannel;
+        try {
+          return operation.execute(channel);
+        } catch (final ClosedChannelException e) {
+          interrupted |= Thread.interrupted();
+          reopen(channel);
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void reopen(final FileChannel closedChannel) throws IOException {
+    synchronized (reopenLock) {
+      if (fileChannel == closedChannel) {
+        fileChannel = openChannel();
+      }
+    }
+  }
+}
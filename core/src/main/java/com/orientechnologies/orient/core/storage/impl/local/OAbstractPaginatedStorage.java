@@ -86,6 +86,7 @@ import com.orientechnologies.orient.core.index.engine.OSingleValueIndexEngine;
 import com.orientechnologies.orient.core.index.engine.OV1IndexEngine;
 import com.orientechnologies.orient.core.index.engine.v1.OCellBTreeMultiValueIndexEngine;
 import com.orientechnologies.orient.core.index.engine.v1.OCellBTreeSingleValueIndexEngine;
+import com.orientechnologies.orient.core.index.engine.v1.ONormalizedKeyIndexEngine;
 import com.orientechnologies.orient.core.metadata.OMetadataDefault;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
@@ -113,6 +114,7 @@ import com.orientechnologies.orient.core.storage.OStorageOperationResult;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.cache.OPageDataVerificationError;
 import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OReadCacheScanMode;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
 import com.orientechnologies.orient.core.storage.cache.local.OBackgroundExceptionListener;
 import com.orientechnologies.orient.core.storage.cluster.OOfflineCluster;
@@ -481,6 +483,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           // versions
           atomicOperationsManager.executeInsideAtomicOperation(null, this::checkRidBagsPresence);
           status = STATUS.OPEN;
+
+          postOpenSteps(contextConfiguration);
         } finally {
           stateLock.releaseWriteLock();
         }
@@ -1959,7 +1963,17 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         checkOpennessAndMigration();
 
         final OCluster cluster = doGetAndCheckCluster(clusterId);
-        return cluster.nextPage(lastPosition);
+        if (!OGlobalConfiguration.DISK_CACHE_SCAN_RESISTANT.getValueAsBoolean()) {
+          return cluster.nextPage(lastPosition);
+        }
+
+        // pages of full cluster scan should not displace working set from read cache
+        OReadCacheScanMode.enter();
+        try {
+          return cluster.nextPage(lastPosition);
+        } finally {
+          OReadCacheScanMode.exit();
+        }
       } finally {
         stateLock.releaseReadLock();
         interruptionManager.exitCriticalPath();
@@ -5069,6 +5083,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   protected void preCreateSteps() throws IOException {}
 
+  protected void postOpenSteps(final OContextConfiguration contextConfiguration) {}
+
   protected abstract void initWalAndDiskCache(OContextConfiguration contextConfiguration)
       throws IOException, InterruptedException;
 
@@ -5786,6 +5802,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                       && !(engine instanceof OSBTreeIndexEngine
                           || engine instanceof OHashTableIndexEngine
                           || engine instanceof OCellBTreeSingleValueIndexEngine
+                          || engine instanceof ONormalizedKeyIndexEngine
                           || engine instanceof OCellBTreeMultiValueIndexEngine
                           || engine instanceof OAutoShardingIndexEngine)) {
                     engine.close();
@@ -5799,6 +5816,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                 && !(engine instanceof OSBTreeIndexEngine
                     || engine instanceof OHashTableIndexEngine
                     || engine instanceof OCellBTreeSingleValueIndexEngine
+                    || engine instanceof ONormalizedKeyIndexEngine
                     || engine instanceof OCellBTreeMultiValueIndexEngine
                     || engine instanceof OAutoShardingIndexEngine)) {
               // delete method is implemented only in non native indexes, so they do not use ODB
@@ -25,6 +25,7 @@ import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
+import com.orientechnologies.orient.core.storage.index.sbtreebonsai.global.BTreeBonsaiGlobal;
 import com.orientechnologies.orient.core.storage.index.sbtreebonsai.local.OSBTreeBonsai;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.Change;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OBonsaiCollectionPointer;
@@ -62,6 +63,12 @@ public class ORidBagUpdateSerializationOperation implements ORecordSerialization
 
     OSBTreeBonsai<OIdentifiable, Integer> tree = loadTree();
     try {
+      if (tree instanceof BTreeBonsaiGlobal) {
+        ((BTreeBonsaiGlobal) tree).applyChanges(atomicOperation, changedValues);
+        changedValues.clear();
+        return;
+      }
+
       for (Map.Entry<OIdentifiable, Change> entry : changedValues.entrySet()) {
         Integer storedCounter = tree.get(entry.getKey());
 
@@ -318,6 +318,7 @@ public class OAtomicOperationsManager {
       throw new ODatabaseException("There is no atomic operation active");
     }
 
+    OLogSequenceNumber lsn = null;
     try {
       storage.moveToErrorStateIfNeeded(error);
 
@@ -326,13 +327,10 @@ public class OAtomicOperationsManager {
       }
 
       try {
-        final OLogSequenceNumber lsn;
         if (trackPageOperations) {
           lsn = operation.commitChanges(writeAheadLog);
         } else if (!operation.isRollbackInProgress()) {
           lsn = operation.commitChanges(writeAheadLog);
-        } else {
-          lsn = null;
         }
 
         final long operationId = operation.getOperationUnitId();
@@ -361,6 +359,11 @@ public class OAtomicOperationsManager {
     } finally {
       atomicOperationsFreezer.endOperation();
     }
+
+    // components are already unlocked, so other operations may proceed while commit waits for fsync
+    if (error == null && lsn != null) {
+      writeAheadLog.flushTill(lsn);
+    }
   }
 
   public void ensureThatComponentsUnlocked() {
@@ -204,6 +204,37 @@ public class ODurablePage {
     return changes.getBinaryValue(buffer, pageOffset, valLen);
   }
 
+  /**
+   * Compares the bytes stored in the page with the bytes of the array, both treated as unsigned, if
+   * one of them is prefix of the other the shorter one goes first. The bytes are compared in the
+   * page without copying them, unless the page has pending changes.
+   */
+  protected final int compareBinaryValue(
+      final int pageOffset, final int valLen, final byte[] value, final int offset, final int len) {
+    final int common = Math.min(valLen, len);
+    if (changes == null) {
+      final ByteBuffer buffer = pointer.getBuffer();
+      assert buffer != null;
+
+      for (int i = 0; i < common; i++) {
+        final int diff = (buffer.get(pageOffset + i) & 0xFF) - (value[offset + i] & 0xFF);
+        if (diff != 0) {
+          return diff;
+        }
+      }
+    } else {
+      final byte[] stored =
+          changes.getBinaryValue(pointer.getBufferDuplicate(), pageOffset, common);
+      for (int i = 0; i < common; i++) {
+        final int diff = (stored[i] & 0xFF) - (value[offset + i] & 0xFF);
+        if (diff != 0) {
+          return diff;
+        }
+      }
+    }
+    return Integer.compare(valLen, len);
+  }
+
   protected int getObjectSizeInDirectMemory(
       final OBinarySerializer<?> binarySerializer, final int offset) {
     final ByteBuffer buffer = pointer.getBufferDuplicate();
@@ -50,6 +50,9 @@ public class OMemoryWriteAheadLog extends OAbstractWriteAheadLog {
   @Override
   public void flush() {}
 
+  @Override
+  public void flushTill(OLogSequenceNumber lsn) {}
+
   @Override
   public OLogSequenceNumber logAtomicOperationStartRecord(
       boolean isRollbackSupported, long unitId) {
@@ -44,6 +44,13 @@ public interface OWriteAheadLog {
 
   void flush();
 
+  /**
+   * Waits till all records up to passed LSN are written and synced to the disk, if log is
+   * configured to guarantee durability of each commit. Concurrent callers may be served by single
+   * fsync.
+   */
+  void flushTill(OLogSequenceNumber lsn);
+
   OLogSequenceNumber logAtomicOperationStartRecord(
       final boolean isRollbackSupported, final long unitId, byte[] metadata);
 
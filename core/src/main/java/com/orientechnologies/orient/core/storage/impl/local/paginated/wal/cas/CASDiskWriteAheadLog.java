@@ -7,6 +7,8 @@ import com.orientechnologies.common.directmemory.OPointer;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.profiler.OLatencyHistogram;
+import com.orientechnologies.common.profiler.OProfiler;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.thread.OScheduledThreadPoolExecutorWithLogging;
@@ -14,6 +16,7 @@ import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.types.OModifiableLong;
 import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.common.util.OUncaughtExceptionHandler;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.exception.EncryptionKeyAbsentException;
 import com.orientechnologies.orient.core.exception.OInvalidStorageEncryptionKeyException;
 import com.orientechnologies.orient.core.exception.OSecurityException;
@@ -71,6 +74,9 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -234,6 +240,31 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
   private long reportTs = -1;
 
+  /**
+   * If group commit is switched on, commits wait till their records are synced to the disk, single
+   * thread performs fsync on behalf of all waiting commits. Commit which performs fsync may wait
+   * for new commits to join the group, interval of waiting adapts to the latency of fsync and to
+   * the rate of commits but never exceeds {@link #groupCommitMaxDelay}.
+   */
+  private final boolean groupCommit;
+
+  private final long groupCommitMaxDelay;
+  private final Lock groupCommitLock = new ReentrantLock();
+
+  /** Moving average of duration of flush with fsync performed during group commit in ns. */
+  private volatile long groupCommitFsyncTime = 0;
+
+  /** Moving average of interval between commits in ns. */
+  private volatile long groupCommitInterval = Long.MAX_VALUE;
+
+  private final AtomicLong lastGroupCommitTs = new AtomicLong(-1);
+
+  /** Amount of flushes with fsync performed by group commits. */
+  private final AtomicLong groupCommitFsyncs = new AtomicLong();
+
+  /** Histogram of time spent by commits waiting for WAL fsync in ns. */
+  private final OLatencyHistogram commitWaitHistogram = new OLatencyHistogram();
+
   public CASDiskWriteAheadLog(
       final String storageName,
       final Path storagePath,
@@ -254,6 +285,51 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
       boolean printPerformanceStatistic,
       int statisticPrintInterval)
       throws IOException {
+    this(
+        storageName,
+        storagePath,
+        walPath,
+        maxPagesCacheSize,
+        bufferSize,
+        aesKey,
+        iv,
+        segmentsInterval,
+        maxSegmentSize,
+        commitDelay,
+        filterWALFiles,
+        locale,
+        walSizeHardLimit,
+        fsyncInterval,
+        keepSingleWALSegment,
+        callFsync,
+        printPerformanceStatistic,
+        statisticPrintInterval,
+        false,
+        0);
+  }
+
+  public CASDiskWriteAheadLog(
+      final String storageName,
+      final Path storagePath,
+      final Path walPath,
+      final int maxPagesCacheSize,
+      final int bufferSize,
+      byte[] aesKey,
+      byte[] iv,
+      long segmentsInterval,
+      final long maxSegmentSize,
+      final int commitDelay,
+      final boolean filterWALFiles,
+      final Locale locale,
+      final long walSizeHardLimit,
+      final int fsyncInterval,
+      boolean keepSingleWALSegment,
+      boolean callFsync,
+      boolean printPerformanceStatistic,
+      int statisticPrintInterval,
+      boolean groupCommit,
+      int groupCommitMaxDelay)
+      throws IOException {
 
     if (aesKey != null && aesKey.length != 16 && aesKey.length != 24 && aesKey.length != 32) {
       throw new OInvalidStorageEncryptionKeyException(
@@ -277,6 +353,9 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
     this.fsyncInterval = fsyncInterval;
 
+    this.groupCommit = groupCommit;
+    this.groupCommitMaxDelay = groupCommitMaxDelay * 1_000L;
+
     walSizeLimit = walSizeHardLimit;
 
     this.walLocation = calculateWalPath(storagePath, walPath);
@@ -346,6 +425,39 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
     log(new EmptyWALRecord());
 
     flush();
+
+    if (groupCommit) {
+      registerProfilerHooks();
+    }
+  }
+
+  private void registerProfilerHooks() {
+    registerCommitWaitHook("p50", 0.5);
+    registerCommitWaitHook("p99", 0.99);
+    registerCommitWaitHook("p999", 0.999);
+  }
+
+  private void registerCommitWaitHook(final String name, final double quantile) {
+    Orient.instance()
+        .getProfiler()
+        .registerHookValue(
+            "db." + storageName + ".wal.commitWait." + name,
+            "Time which commits wait for WAL fsync in group commit mode, " + name + " (in us.)",
+            OProfiler.METRIC_TYPE.STAT,
+            () -> commitWaitHistogram.percentile(quantile) / 1_000,
+            "db.*.wal.commitWait." + name);
+  }
+
+  private void unregisterProfilerHooks() {
+    Orient.instance()
+        .getProfiler()
+        .unregisterHookValue("db." + storageName + ".wal.commitWait.p50");
+    Orient.instance()
+        .getProfiler()
+        .unregisterHookValue("db." + storageName + ".wal.commitWait.p99");
+    Orient.instance()
+        .getProfiler()
+        .unregisterHookValue("db." + storageName + ".wal.commitWait.p999");
   }
 
   @Override
@@ -1355,11 +1467,92 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
     waitTillWriteWillBeFinished();
   }
 
+  @Override
+  public void flushTill(final OLogSequenceNumber lsn) {
+    if (!groupCommit || lsn == null) {
+      return;
+    }
+
+    final long startTs = System.nanoTime();
+    final long lastTs = lastGroupCommitTs.getAndSet(startTs);
+    if (lastTs >= 0) {
+      final long interval = startTs - lastTs;
+      final long averageInterval = groupCommitInterval;
+      groupCommitInterval =
+          averageInterval == Long.MAX_VALUE
+              ? interval
+              : averageInterval + (interval - averageInterval) / 8;
+    }
+
+    try {
+      while (!isFlushed(lsn)) {
+        groupCommitLock.lock();
+        try {
+          // commits which were waiting on the lock are already flushed by previous fsync
+          if (isFlushed(lsn)) {
+            break;
+          }
+
+          final long delay = groupCommitDelay();
+          if (delay > 0) {
+            LockSupport.parkNanos(delay);
+          }
+
+          final long fsyncStartTs = System.nanoTime();
+          flush();
+          groupCommitFsyncs.incrementAndGet();
+
+          final long fsyncTime = System.nanoTime() - fsyncStartTs;
+          final long averageFsyncTime = groupCommitFsyncTime;
+          groupCommitFsyncTime =
+              averageFsyncTime == 0
+                  ? fsyncTime
+                  : averageFsyncTime + (fsyncTime - averageFsyncTime) / 8;
+        } finally {
+          groupCommitLock.unlock();
+        }
+      }
+    } finally {
+      commitWaitHistogram.record(System.nanoTime() - startTs);
+    }
+  }
+
+  /**
+   * Delay before fsync is worth only if new commits are expected to arrive during fsync, in such
+   * case fsync is delayed till half of its own duration, so commits which arrive in this interval
+   * are served by the same fsync.
+   */
+  private long groupCommitDelay() {
+    final long fsyncTime = groupCommitFsyncTime;
+    if (groupCommitInterval >= fsyncTime) {
+      return 0;
+    }
+
+    return Math.min(fsyncTime / 2, groupCommitMaxDelay);
+  }
+
+  private boolean isFlushed(final OLogSequenceNumber lsn) {
+    final OLogSequenceNumber flushedLSN = this.flushedLSN;
+    return flushedLSN != null && flushedLSN.compareTo(lsn) >= 0;
+  }
+
+  OLatencyHistogram getCommitWaitHistogram() {
+    return commitWaitHistogram;
+  }
+
+  long getGroupCommitFsyncs() {
+    return groupCommitFsyncs.get();
+  }
+
   public void close() throws IOException {
     close(true);
   }
 
   public void close(final boolean flush) throws IOException {
+    if (groupCommit) {
+      unregisterProfilerHooks();
+    }
+
     if (flush) {
       doFlush(true);
     }
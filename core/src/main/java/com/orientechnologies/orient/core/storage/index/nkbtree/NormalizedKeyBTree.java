@@ -1,9 +1,74 @@
-package com.orientechnologies.orient.core.storage.index.nkbtree;
-
-import com.orientechnologies.orient.core.index.OCompositeKey;
-
-public interface NormalizedKeyBTree<K> {
-  byte[] get(final OCompositeKey key);
-
-  void put(final OCompositeKey key, final byte[] value);
-}
+package com.orientechnologies.orient.core.storage.index.nkbtree;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.encryption.OEncryption;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.engine.OBaseIndexEngine;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
+import java.io.IOException;
+import java.util.stream.Stream;
+
+/**
+ * Single value tree which stores keys in normalized (byte comparable) form, so key lookup does not
+ * require deserialization of keys stored in pages and keys are compared as plain byte arrays.
+ *
+ * <p>Normalized keys keep the order of original keys, so range queries are executed on normalized
+ * keys too, only the keys which are equal to a bound once normalized are compared as original keys.
+ *
+ * @param <K> type of original (not normalized) key
+ */
+public interface NormalizedKeyBTree<K> {
+  void create(
+      OAtomicOperation atomicOperation,
+      OBinarySerializer<K> keySerializer,
+      OType[] keyTypes,
+      int keySize,
+      OEncryption encryption)
+      throws IOException;
+
+  void load(
+      String name,
+      int keySize,
+      OType[] keyTypes,
+      OBinarySerializer<K> keySerializer,
+      OEncryption encryption);
+
+  void close();
+
+  void delete(OAtomicOperation atomicOperation) throws IOException;
+
+  ORID get(K key);
+
+  void put(OAtomicOperation atomicOperation, K key, ORID value) throws IOException;
+
+  boolean validatedPut(
+      OAtomicOperation atomicOperation,
+      K key,
+      ORID value,
+      OBaseIndexEngine.Validator<K, ORID> validator)
+      throws IOException;
+
+  ORID remove(OAtomicOperation atomicOperation, K key) throws IOException;
+
+  long size();
+
+  Stream<ORawPair<K, ORID>> allEntries();
+
+  /** @return all entries of the tree, the last key first */
+  Stream<ORawPair<K, ORID>> allEntriesDesc();
+
+  /**
+   * @param from lower bound, null if the range has no lower bound
+   * @param to upper bound, null if the range has no upper bound
+   * @return entries with keys between the bounds, composite bounds which have less keys than the
+   *     index match all the keys which start with them
+   */
+  Stream<ORawPair<K, ORID>> iterateEntriesBetween(
+      K from, boolean fromInclusive, K to, boolean toInclusive, boolean ascSortOrder);
+
+  Stream<K> keyStream();
+
+  void acquireAtomicExclusiveLock();
+}
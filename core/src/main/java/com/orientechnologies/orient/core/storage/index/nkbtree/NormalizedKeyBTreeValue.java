@@ -1,31 +1,296 @@
 package com.orientechnologies.orient.core.storage.index.nkbtree;
 
+import com.ibm.icu.text.Collator;
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.encryption.OEncryption;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.engine.OBaseIndexEngine;
+import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
-import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
+import com.orientechnologies.orient.core.storage.index.nkbtree.normalizers.KeyNormalizer;
+import com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3.CellBTreeSingleValueV3;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
 
-public class NormalizedKeyBTreeValue<K> extends ODurableComponent implements NormalizedKeyBTree<K> {
-  private final String nullFileExtension;
+/**
+ * Implementation of {@link NormalizedKeyBTree} on top of {@link CellBTreeSingleValueV3} which
+ * operates by {@link ONormalizedKey} keys. Pages, WAL records and atomic operations are handled by
+ * the underlying tree, keys are compared as unsigned bytes in place in the pages of the tree.
+ *
+ * <p>Stored key consists of normalized key and serialized original key. Serialized original key is
+ * used to restore keys during full scans and to distinguish keys which have the same normalized
+ * form because normalization lost precision, for example decimals which are normalized as doubles.
+ * Decimals are stored without trailing zeros, so keys which are equal as decimals, like 1.0 and
+ * 1.00, are stored as the same key.
+ *
+ * @param <K> type of original (not normalized) key
+ */
+public final class NormalizedKeyBTreeValue<K> implements NormalizedKeyBTree<K> {
+  private static final byte[] EMPTY = new byte[0];
+
+  private final CellBTreeSingleValueV3<ONormalizedKey> tree;
+  private final KeyNormalizer keyNormalizer = new KeyNormalizer();
+
+  private OBinarySerializer<K> keySerializer;
+  private OType[] keyTypes;
 
   public NormalizedKeyBTreeValue(
       final String name,
       final String dataFileExtension,
       final String nullFileExtension,
       final OAbstractPaginatedStorage storage) {
-    super(storage, name, dataFileExtension, name + dataFileExtension);
-    acquireExclusiveLock();
-    try {
-      this.nullFileExtension = nullFileExtension;
-    } finally {
-      releaseExclusiveLock();
+    tree = new CellBTreeSingleValueV3<>(name, dataFileExtension, nullFileExtension, storage);
+  }
+
+  @Override
+  public void create(
+      final OAtomicOperation atomicOperation,
+      final OBinarySerializer<K> keySerializer,
+      final OType[] keyTypes,
+      final int keySize,
+      final OEncryption encryption) {
+    assert keySerializer != null;
+    assert keyTypes != null;
+
+    this.keySerializer = keySerializer;
+    this.keyTypes = Arrays.copyOf(keyTypes, keyTypes.length);
+
+    tree.create(atomicOperation, ONormalizedKeySerializer.INSTANCE, null, 1, encryption);
+  }
+
+  @Override
+  public void load(
+      final String name,
+      final int keySize,
+      final OType[] keyTypes,
+      final OBinarySerializer<K> keySerializer,
+      final OEncryption encryption) {
+    this.keySerializer = keySerializer;
+    this.keyTypes = Arrays.copyOf(keyTypes, keyTypes.length);
+
+    tree.load(name, 1, null, ONormalizedKeySerializer.INSTANCE, encryption);
+  }
+
+  @Override
+  public void close() {
+    tree.close();
+  }
+
+  @Override
+  public void delete(final OAtomicOperation atomicOperation) {
+    tree.delete(atomicOperation);
+  }
+
+  @Override
+  public ORID get(final K key) {
+    return tree.get(normalize(key));
+  }
+
+  @Override
+  public void put(final OAtomicOperation atomicOperation, final K key, final ORID value) {
+    tree.put(atomicOperation, normalize(key), value);
+  }
+
+  @Override
+  public boolean validatedPut(
+      final OAtomicOperation atomicOperation,
+      final K key,
+      final ORID value,
+      final OBaseIndexEngine.Validator<K, ORID> validator) {
+    return tree.validatedPut(
+        atomicOperation,
+        normalize(key),
+        value,
+        (normalizedKey, oldValue, newValue) -> validator.validate(key, oldValue, newValue));
+  }
+
+  @Override
+  public ORID remove(final OAtomicOperation atomicOperation, final K key) {
+    return tree.remove(atomicOperation, normalize(key));
+  }
+
+  @Override
+  public long size() {
+    return tree.size();
+  }
+
+  @Override
+  public Stream<ORawPair<K, ORID>> allEntries() {
+    return tree.allEntries().map((entry) -> new ORawPair<>(denormalize(entry.first), entry.second));
+  }
+
+  @Override
+  public Stream<ORawPair<K, ORID>> allEntriesDesc() {
+    return allNormalizedEntriesDesc()
+        .map((entry) -> new ORawPair<>(denormalize(entry.first), entry.second));
+  }
+
+  private Stream<ORawPair<ONormalizedKey, ORID>> allNormalizedEntriesDesc() {
+    final ONormalizedKey lastKey = tree.lastKey();
+    if (lastKey == null) {
+      return Stream.empty();
     }
+    return tree.iterateEntriesMinor(lastKey, true, false);
   }
 
   @Override
-  public byte[] get(final OCompositeKey key) {
-    return new byte[0];
+  public Stream<ORawPair<K, ORID>> iterateEntriesBetween(
+      final K from,
+      final boolean fromInclusive,
+      final K to,
+      final boolean toInclusive,
+      final boolean ascSortOrder) {
+    final K convertedFrom = from == null ? null : convert(from);
+    final K convertedTo = to == null ? null : convert(to);
+    final byte[] normalizedFrom = convertedFrom == null ? null : normalizeBound(convertedFrom);
+    final byte[] normalizedTo = convertedTo == null ? null : normalizeBound(convertedTo);
+
+    // stored keys consist of normalized and serialized key, so the first one which starts with
+    // the lower bound goes after the lower bound with empty serialized key
+    final ONormalizedKey lowerKey =
+        normalizedFrom == null ? null : new ONormalizedKey(normalizedFrom, EMPTY);
+    // and the last one which starts with the upper bound goes before the next normalized key
+    final byte[] afterTo = normalizedTo == null ? null : next(normalizedTo);
+    final ONormalizedKey upperKey = afterTo == null ? null : new ONormalizedKey(afterTo, EMPTY);
+
+    final Stream<ORawPair<ONormalizedKey, ORID>> entries;
+    if (lowerKey != null && upperKey != null) {
+      if (lowerKey.compareTo(upperKey) >= 0) {
+        return Stream.empty();
+      }
+      entries = tree.iterateEntriesBetween(lowerKey, true, upperKey, false, ascSortOrder);
+    } else if (lowerKey != null) {
+      entries = tree.iterateEntriesMajor(lowerKey, true, ascSortOrder);
+    } else if (upperKey != null) {
+      entries = tree.iterateEntriesMinor(upperKey, false, ascSortOrder);
+    } else {
+      entries = ascSortOrder ? tree.allEntries() : allNormalizedEntriesDesc();
+    }
+
+    return entries
+        .filter(
+            (entry) ->
+                isAfter(entry.first, normalizedFrom, convertedFrom, fromInclusive)
+                    && isBefore(entry.first, normalizedTo, convertedTo, toInclusive))
+        .map((entry) -> new ORawPair<>(denormalize(entry.first), entry.second));
+  }
+
+  /**
+   * Keys which start with the normalized bound may be equal to the bound or, if normalization lost
+   * precision, even go before it, so they are compared as original keys.
+   */
+  private boolean isAfter(
+      final ONormalizedKey key,
+      final byte[] normalizedFrom,
+      final K from,
+      final boolean inclusive) {
+    if (from == null || !startsWith(key.getNormalized(), normalizedFrom)) {
+      return true;
+    }
+    final int result = ODefaultComparator.INSTANCE.compare(denormalize(key), from);
+    return result > 0 || (result == 0 && inclusive);
+  }
+
+  private boolean isBefore(
+      final ONormalizedKey key, final byte[] normalizedTo, final K to, final boolean inclusive) {
+    if (to == null || !startsWith(key.getNormalized(), normalizedTo)) {
+      return true;
+    }
+    final int result = ODefaultComparator.INSTANCE.compare(denormalize(key), to);
+    return result < 0 || (result == 0 && inclusive);
+  }
+
+  private static boolean startsWith(final byte[] normalized, final byte[] prefix) {
+    return normalized.length >= prefix.length
+        && ONormalizedKey.compare(normalized, 0, prefix.length, prefix, 0, prefix.length) == 0;
+  }
+
+  /** @return the first byte array which goes after all the arrays which start with given one */
+  private static byte[] next(final byte[] normalized) {
+    int length = normalized.length;
+    while (length > 0 && normalized[length - 1] == (byte) 0xFF) {
+      length--;
+    }
+    if (length == 0) {
+      return null;
+    }
+    final byte[] result = Arrays.copyOf(normalized, length);
+    result[length - 1]++;
+    return result;
+  }
+
+  @Override
+  public Stream<K> keyStream() {
+    return tree.keyStream().map(this::denormalize);
   }
 
   @Override
-  public void put(final OCompositeKey key, final byte[] value) {}
+  public void acquireAtomicExclusiveLock() {
+    tree.acquireAtomicExclusiveLock();
+  }
+
+  private ONormalizedKey normalize(K key) {
+    if (key == null) {
+      return null;
+    }
+
+    key = convert(key);
+
+    return new ONormalizedKey(
+        keyNormalizer.normalize(toCompositeKey(key), keyTypes, Collator.NO_DECOMPOSITION),
+        keySerializer.serializeNativeAsWhole(key, (Object[]) keyTypes));
+  }
+
+  /** Normalizes bound of range, composite bound may have less keys than the index. */
+  private byte[] normalizeBound(final K key) {
+    final OCompositeKey compositeKey = toCompositeKey(key);
+    return keyNormalizer.normalize(
+        compositeKey,
+        Arrays.copyOf(keyTypes, compositeKey.getKeys().size()),
+        Collator.NO_DECOMPOSITION);
+  }
+
+  private K denormalize(final ONormalizedKey key) {
+    return keySerializer.deserializeNativeObject(key.getSerialized(), 0);
+  }
+
+  @SuppressWarnings("unchecked")
+  private K convert(final K key) {
+    if (key instanceof OCompositeKey) {
+      final List<Object> keys = ((OCompositeKey) key).getKeys();
+      final OCompositeKey convertedKey = new OCompositeKey();
+      for (int i = 0; i < keys.size(); i++) {
+        convertedKey.addKey(convertItem(keys.get(i), i));
+      }
+      return (K) convertedKey;
+    }
+
+    return (K) convertItem(key, 0);
+  }
+
+  private Object convertItem(final Object item, final int index) {
+    if (item == null || index >= keyTypes.length) {
+      return item;
+    }
+
+    final Object converted = OType.convert(item, keyTypes[index].getDefaultJavaType());
+    if (converted instanceof BigDecimal) {
+      return ((BigDecimal) converted).stripTrailingZeros();
+    }
+    return converted;
+  }
+
+  private static OCompositeKey toCompositeKey(final Object key) {
+    if (key instanceof OCompositeKey) {
+      return (OCompositeKey) key;
+    }
+
+    return new OCompositeKey(key);
+  }
 }
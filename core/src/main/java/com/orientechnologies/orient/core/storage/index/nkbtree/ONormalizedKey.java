@@ -0,0 +1,71 @@
+package com.orientechnologies.orient.core.storage.index.nkbtree;
+
+import java.util.Arrays;
+
+/**
+ * Key stored by {@link NormalizedKeyBTreeValue}: the normalized (byte comparable) form of the
+ * original key followed by the serialized original key. Keys are ordered by normalized form, the
+ * serialized original key only orders keys whose normalized forms are equal because normalization
+ * lost precision, for example decimals which are normalized as doubles.
+ *
+ * <p>Both parts are compared as unsigned bytes, see {@link #compare(byte[], int, int, byte[], int,
+ * int)}, which is also how the tree compares keys in place in its pages, without deserialization.
+ */
+public final class ONormalizedKey implements Comparable<ONormalizedKey> {
+  private final byte[] normalized;
+  private final byte[] serialized;
+
+  public ONormalizedKey(final byte[] normalized, final byte[] serialized) {
+    this.normalized = normalized;
+    this.serialized = serialized;
+  }
+
+  public byte[] getNormalized() {
+    return normalized;
+  }
+
+  public byte[] getSerialized() {
+    return serialized;
+  }
+
+  @Override
+  public int compareTo(final ONormalizedKey other) {
+    final int result =
+        compare(normalized, 0, normalized.length, other.normalized, 0, other.normalized.length);
+    if (result != 0) {
+      return result;
+    }
+    return compare(serialized, 0, serialized.length, other.serialized, 0, other.serialized.length);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return o instanceof ONormalizedKey && compareTo((ONormalizedKey) o) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(normalized) + Arrays.hashCode(serialized);
+  }
+
+  /**
+   * Compares byte ranges as unsigned bytes, if one of them is prefix of the other the shorter one
+   * goes first.
+   */
+  public static int compare(
+      final byte[] one,
+      final int offsetOne,
+      final int lengthOne,
+      final byte[] two,
+      final int offsetTwo,
+      final int lengthTwo) {
+    final int common = Math.min(lengthOne, lengthTwo);
+    for (int i = 0; i < common; i++) {
+      final int diff = (one[offsetOne + i] & 0xFF) - (two[offsetTwo + i] & 0xFF);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return Integer.compare(lengthOne, lengthTwo);
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.index.nkbtree;
+
+import com.orientechnologies.orient.core.exception.OConfigurationException;
+import com.orientechnologies.orient.core.index.ODefaultIndexFactory;
+import com.orientechnologies.orient.core.index.OIndexDictionary;
+import com.orientechnologies.orient.core.index.OIndexException;
+import com.orientechnologies.orient.core.index.OIndexFactory;
+import com.orientechnologies.orient.core.index.OIndexInternal;
+import com.orientechnologies.orient.core.index.OIndexUnique;
+import com.orientechnologies.orient.core.index.engine.OBaseIndexEngine;
+import com.orientechnologies.orient.core.index.engine.v1.ONormalizedKeyIndexEngine;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.OStorage;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperationsManager;
+import com.orientechnologies.orient.core.storage.index.engine.ORemoteIndexEngine;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Factory of single value indexes which store keys in normalized form. Existing UNIQUE and
+ * DICTIONARY indexes can be migrated by recreation of index with <code>ENGINE NKBTREE</code>,
+ * content of index is rebuilt from records during creation.
+ *
+ * <p>Supports index types:
+ *
+ * <ul>
+ *   <li>UNIQUE
+ *   <li>DICTIONARY
+ * </ul>
+ */
+public final class ONormalizedKeyIndexFactory implements OIndexFactory {
+  public static final String NKBTREE_ALGORITHM = "NKBTREE";
+
+  private static final Set<String> TYPES;
+  private static final Set<String> ALGORITHMS;
+
+  static {
+    final Set<String> types = new HashSet<>(2);
+    types.add(OClass.INDEX_TYPE.UNIQUE.toString());
+    types.add(OClass.INDEX_TYPE.DICTIONARY.toString());
+    TYPES = Collections.unmodifiableSet(types);
+  }
+
+  static {
+    final Set<String> algorithms = new HashSet<>(1);
+    algorithms.add(NKBTREE_ALGORITHM);
+
+    ALGORITHMS = Collections.unmodifiableSet(algorithms);
+  }
+
+  public Set<String> getTypes() {
+    return TYPES;
+  }
+
+  public Set<String> getAlgorithms() {
+    return ALGORITHMS;
+  }
+
+  public OIndexInternal createIndex(
+      final String name,
+      final OStorage storage,
+      final String indexType,
+      final String algorithm,
+      String valueContainerAlgorithm,
+      final ODocument metadata,
+      int version,
+      final OAtomicOperationsManager atomicOperationsManager)
+      throws OConfigurationException {
+    if (version < 0) {
+      version = getLastVersion(algorithm);
+    }
+
+    if (valueContainerAlgorithm == null) {
+      valueContainerAlgorithm = ODefaultIndexFactory.NONE_VALUE_CONTAINER;
+    }
+
+    final int binaryFormatVersion = storage.getConfiguration().getBinaryFormatVersion();
+
+    if (OClass.INDEX_TYPE.UNIQUE.toString().equals(indexType)) {
+      return new OIndexUnique(
+          name,
+          indexType,
+          algorithm,
+          version,
+          (OAbstractPaginatedStorage) storage,
+          valueContainerAlgorithm,
+          metadata,
+          binaryFormatVersion,
+          atomicOperationsManager);
+    } else if (OClass.INDEX_TYPE.DICTIONARY.toString().equals(indexType)) {
+      return new OIndexDictionary(
+          name,
+          indexType,
+          algorithm,
+          version,
+          (OAbstractPaginatedStorage) storage,
+          valueContainerAlgorithm,
+          metadata,
+          binaryFormatVersion,
+          atomicOperationsManager);
+    }
+
+    throw new OConfigurationException("Unsupported type: " + indexType);
+  }
+
+  @Override
+  public int getLastVersion(final String algorithm) {
+    return ONormalizedKeyIndexEngine.VERSION;
+  }
+
+  @Override
+  public OBaseIndexEngine createIndexEngine(
+      final int indexId,
+      final String algorithm,
+      final String name,
+      final Boolean durableInNonTxMode,
+      final OStorage storage,
+      final int version,
+      final int apiVersion,
+      final boolean multiValue,
+      final Map<String, String> engineProperties) {
+    if (multiValue) {
+      throw new OIndexException(
+          "Index engine " + NKBTREE_ALGORITHM + " supports only single value indexes");
+    }
+
+    final OBaseIndexEngine indexEngine;
+
+    final String storageType = storage.getType();
+    switch (storageType) {
+      case "memory":
+      case "plocal":
+      case "distributed":
+        indexEngine =
+            new ONormalizedKeyIndexEngine(
+                indexId, name, (OAbstractPaginatedStorage) storage, version);
+        break;
+      case "remote":
+        indexEngine = new ORemoteIndexEngine(indexId, name);
+        break;
+      default:
+        throw new OIndexException("Unsupported storage type: " + storageType);
+    }
+
+    return indexEngine;
+  }
+}
@@ -0,0 +1,174 @@
+package com.orientechnologies.orient.core.storage.index.nkbtree;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChanges;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Serializer of {@link ONormalizedKey}. Key is stored in following format: length of normalized
+ * key, length of serialized original key, normalized key, serialized original key, so both parts
+ * can be compared without deserialization of the key.
+ */
+public final class ONormalizedKeySerializer implements OBinarySerializer<ONormalizedKey> {
+  public static final ONormalizedKeySerializer INSTANCE = new ONormalizedKeySerializer();
+  public static final byte ID = 26;
+
+  /** Size of the lengths which precede the parts of the key. */
+  public static final int HEADER_SIZE = 2 * OIntegerSerializer.INT_SIZE;
+
+  @Override
+  public int getObjectSize(final ONormalizedKey object, final Object... hints) {
+    return HEADER_SIZE + object.getNormalized().length + object.getSerialized().length;
+  }
+
+  @Override
+  public int getObjectSize(final byte[] stream, final int startPosition) {
+    return HEADER_SIZE
+        + OIntegerSerializer.INSTANCE.deserializeLiteral(stream, startPosition)
+        + OIntegerSerializer.INSTANCE.deserializeLiteral(
+            stream, startPosition + OIntegerSerializer.INT_SIZE);
+  }
+
+  @Override
+  public void serialize(
+      final ONormalizedKey object,
+      final byte[] stream,
+      final int startPosition,
+      final Object... hints) {
+    OIntegerSerializer.INSTANCE.serializeLiteral(
+        object.getNormalized().length, stream, startPosition);
+    OIntegerSerializer.INSTANCE.serializeLiteral(
+        object.getSerialized().length, stream, startPosition + OIntegerSerializer.INT_SIZE);
+    copyParts(object, stream, startPosition);
+  }
+
+  @Override
+  public ONormalizedKey deserialize(final byte[] stream, final int startPosition) {
+    return readParts(
+        stream,
+        startPosition,
+        OIntegerSerializer.INSTANCE.deserializeLiteral(stream, startPosition),
+        OIntegerSerializer.INSTANCE.deserializeLiteral(
+            stream, startPosition + OIntegerSerializer.INT_SIZE));
+  }
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public boolean isFixedLength() {
+    return false;
+  }
+
+  @Override
+  public int getFixedLength() {
+    return 0;
+  }
+
+  @Override
+  public void serializeNativeObject(
+      final ONormalizedKey object,
+      final byte[] stream,
+      final int startPosition,
+      final Object... hints) {
+    OIntegerSerializer.INSTANCE.serializeNative(
+        object.getNormalized().length, stream, startPosition);
+    OIntegerSerializer.INSTANCE.serializeNative(
+        object.getSerialized().length, stream, startPosition + OIntegerSerializer.INT_SIZE);
+    copyParts(object, stream, startPosition);
+  }
+
+  @Override
+  public ONormalizedKey deserializeNativeObject(final byte[] stream, final int startPosition) {
+    return readParts(
+        stream,
+        startPosition,
+        OIntegerSerializer.INSTANCE.deserializeNative(stream, startPosition),
+        OIntegerSerializer.INSTANCE.deserializeNative(
+            stream, startPosition + OIntegerSerializer.INT_SIZE));
+  }
+
+  @Override
+  public int getObjectSizeNative(final byte[] stream, final int startPosition) {
+    return HEADER_SIZE
+        + OIntegerSerializer.INSTANCE.deserializeNative(stream, startPosition)
+        + OIntegerSerializer.INSTANCE.deserializeNative(
+            stream, startPosition + OIntegerSerializer.INT_SIZE);
+  }
+
+  @Override
+  public ONormalizedKey preprocess(final ONormalizedKey value, final Object... hints) {
+    return value;
+  }
+
+  @Override
+  public void serializeInByteBufferObject(
+      final ONormalizedKey object, final ByteBuffer buffer, final Object... hints) {
+    buffer.putInt(object.getNormalized().length);
+    buffer.putInt(object.getSerialized().length);
+    buffer.put(object.getNormalized());
+    buffer.put(object.getSerialized());
+  }
+
+  @Override
+  public ONormalizedKey deserializeFromByteBufferObject(final ByteBuffer buffer) {
+    final byte[] normalized = new byte[buffer.getInt()];
+    final byte[] serialized = new byte[buffer.getInt()];
+    buffer.get(normalized);
+    buffer.get(serialized);
+    return new ONormalizedKey(normalized, serialized);
+  }
+
+  @Override
+  public int getObjectSizeInByteBuffer(final ByteBuffer buffer) {
+    return HEADER_SIZE + buffer.getInt() + buffer.getInt();
+  }
+
+  @Override
+  public ONormalizedKey deserializeFromByteBufferObject(
+      final ByteBuffer buffer, final OWALChanges walChanges, final int offset) {
+    final int normalizedLength = walChanges.getIntValue(buffer, offset);
+    final int serializedLength =
+        walChanges.getIntValue(buffer, offset + OIntegerSerializer.INT_SIZE);
+    return new ONormalizedKey(
+        walChanges.getBinaryValue(buffer, offset + HEADER_SIZE, normalizedLength),
+        walChanges.getBinaryValue(
+            buffer, offset + HEADER_SIZE + normalizedLength, serializedLength));
+  }
+
+  @Override
+  public int getObjectSizeInByteBuffer(
+      final ByteBuffer buffer, final OWALChanges walChanges, final int offset) {
+    return HEADER_SIZE
+        + walChanges.getIntValue(buffer, offset)
+        + walChanges.getIntValue(buffer, offset + OIntegerSerializer.INT_SIZE);
+  }
+
+  private static void copyParts(
+      final ONormalizedKey object, final byte[] stream, final int startPosition) {
+    final byte[] normalized = object.getNormalized();
+    System.arraycopy(normalized, 0, stream, startPosition + HEADER_SIZE, normalized.length);
+    System.arraycopy(
+        object.getSerialized(),
+        0,
+        stream,
+        startPosition + HEADER_SIZE + normalized.length,
+        object.getSerialized().length);
+  }
+
+  private static ONormalizedKey readParts(
+      final byte[] stream,
+      final int startPosition,
+      final int normalizedLength,
+      final int serializedLength) {
+    final int normalizedStart = startPosition + HEADER_SIZE;
+    final int serializedStart = normalizedStart + normalizedLength;
+    return new ONormalizedKey(
+        Arrays.copyOfRange(stream, normalizedStart, serializedStart),
+        Arrays.copyOfRange(stream, serializedStart, serializedStart + serializedLength));
+  }
+}
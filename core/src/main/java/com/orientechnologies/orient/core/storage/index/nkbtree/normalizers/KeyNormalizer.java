@@ -27,6 +27,14 @@ public class KeyNormalizer {
     normalizers.put(OType.BINARY, new BinaryKeyNormalizer());
   }
 
+  /**
+   * @param keyType type of key to normalize
+   * @return <code>true</code> if keys of given type can be converted into byte comparable form.
+   */
+  public boolean isSupported(final OType keyType) {
+    return normalizers.containsKey(keyType);
+  }
+
   public byte[] normalize(
       final OCompositeKey keys, final OType[] keyTypes, final int decompositon) {
     if (keys == null) {
@@ -57,7 +65,7 @@ public class KeyNormalizer {
       final OType keyType,
       final int decompositon) {
     try {
-      final KeyNormalizers keyNormalizer = normalizers.get(keyType);
+      final KeyNormalizers keyNormalizer = normalizers.get(key == null ? null : keyType);
       if (keyNormalizer == null) {
         throw new UnsupportedOperationException(
             "Type " + key.getClass().getTypeName() + " is currently not supported");
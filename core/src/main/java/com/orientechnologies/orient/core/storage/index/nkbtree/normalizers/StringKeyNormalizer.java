@@ -2,16 +2,31 @@ package com.orientechnologies.orient.core.storage.index.nkbtree.normalizers;
 
 import com.ibm.icu.text.CollationKey;
 import com.ibm.icu.text.Collator;
+import com.ibm.icu.util.ULocale;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.commons.lang.ArrayUtils;
 
+/**
+ * Normalized form of string keys is persisted inside of index pages, so collator is bound to the
+ * root locale instead of default locale of JVM. Collators are frozen to be safely shared between
+ * threads, one collator is cached for each decomposition mode.
+ */
 public class StringKeyNormalizer implements KeyNormalizers {
-  private final Collator instance = Collator.getInstance();
+  private final ConcurrentMap<Integer, Collator> collators = new ConcurrentHashMap<>();
 
   @Override
   public byte[] execute(Object key, int decomposition) throws IOException {
-    instance.setDecomposition(decomposition);
+    final Collator instance =
+        collators.computeIfAbsent(
+            decomposition,
+            (mode) -> {
+              final Collator collator = Collator.getInstance(ULocale.ROOT);
+              collator.setDecomposition(mode);
+              return collator.freeze();
+            });
     final CollationKey collationKey = instance.getCollationKey((String) key);
     final ByteBuffer bb = ByteBuffer.allocate(1);
     bb.put((byte) 0);
@@ -41,6 +41,8 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.po.cel
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.po.cellbtree.singlevalue.v3.bucket.CellBTreeBucketSingleValueV3ShrinkPO;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.po.cellbtree.singlevalue.v3.bucket.CellBTreeBucketSingleValueV3SwitchBucketTypePO;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.po.cellbtree.singlevalue.v3.bucket.CellBTreeBucketSingleValueV3UpdateValuePO;
+import com.orientechnologies.orient.core.storage.index.nkbtree.ONormalizedKey;
+import com.orientechnologies.orient.core.storage.index.nkbtree.ONormalizedKeySerializer;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -100,6 +102,10 @@ public final class CellBTreeSingleValueBucketV3<K> extends ODurablePage {
   }
 
   public int find(final K key, final OBinarySerializer<K> keySerializer) {
+    if (keySerializer == ONormalizedKeySerializer.INSTANCE) {
+      return findNormalized((ONormalizedKey) key);
+    }
+
     int low = 0;
     int high = size() - 1;
 
@@ -120,6 +126,46 @@ public final class CellBTreeSingleValueBucketV3<K> extends ODurablePage {
     return -(low + 1); // key not found.
   }
 
+  /** Same as {@link #find}, but keys are compared in place, as bytes, without deserialization. */
+  private int findNormalized(final ONormalizedKey key) {
+    final byte[] normalized = key.getNormalized();
+    final byte[] serialized = key.getSerialized();
+    final int keyOffset = isLeaf() ? 0 : 2 * OIntegerSerializer.INT_SIZE;
+
+    int low = 0;
+    int high = size() - 1;
+
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int entryPosition =
+          getIntValue(mid * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET) + keyOffset;
+      final int normalizedLength = getIntValue(entryPosition);
+      final int partsPosition = entryPosition + ONormalizedKeySerializer.HEADER_SIZE;
+
+      int cmp =
+          compareBinaryValue(partsPosition, normalizedLength, normalized, 0, normalized.length);
+      if (cmp == 0) {
+        cmp =
+            compareBinaryValue(
+                partsPosition + normalizedLength,
+                getIntValue(entryPosition + OIntegerSerializer.INT_SIZE),
+                serialized,
+                0,
+                serialized.length);
+      }
+
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid; // key found
+      }
+    }
+
+    return -(low + 1); // key not found.
+  }
+
   public void removeLeafEntry(final int entryIndex, byte[] key, byte[] value) {
     final int entryPosition =
         getIntValue(POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE);
@@ -15,6 +15,7 @@ import com.orientechnologies.orient.core.storage.ridbag.sbtree.Change;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OBonsaiCollectionPointer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -85,6 +86,68 @@ public class BTreeBonsaiGlobal implements OSBTreeBonsai<OIdentifiable, Integer>
         value);
   }
 
+  /**
+   * Applies changes of the bag to the tree. Stored counters are read by a single range scan instead
+   * of a lookup per changed link and new counters are written by the sorted batch insert, so
+   * conversion of big bags and big batches of new links do not descend the tree per link.
+   *
+   * <p>Keys of the map may be new records whose identities are changed in place by the commit, so
+   * the map is not sorted by the current identities, they are sorted here.
+   */
+  public void applyChanges(
+      final OAtomicOperation atomicOperation, final Map<OIdentifiable, Change> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    final List<ORawPair<EdgeKey, Change>> sortedChanges = new ArrayList<>(changes.size());
+    for (final Map.Entry<OIdentifiable, Change> entry : changes.entrySet()) {
+      final ORID rid = entry.getKey().getIdentity();
+      sortedChanges.add(
+          new ORawPair<>(
+              new EdgeKey(ridBagId, rid.getClusterId(), rid.getClusterPosition()),
+              entry.getValue()));
+    }
+    sortedChanges.sort(Comparator.comparing(pair -> pair.first));
+
+    final List<ORawPair<EdgeKey, Integer>> puts = new ArrayList<>(changes.size());
+    final List<EdgeKey> removals = new ArrayList<>();
+    try (final Stream<ORawPair<EdgeKey, Integer>> stream =
+        bTree.iterateEntriesBetween(
+            sortedChanges.get(0).first,
+            true,
+            sortedChanges.get(sortedChanges.size() - 1).first,
+            true,
+            true)) {
+      final Iterator<ORawPair<EdgeKey, Integer>> storedIterator = stream.iterator();
+      ORawPair<EdgeKey, Integer> stored = storedIterator.hasNext() ? storedIterator.next() : null;
+
+      for (final ORawPair<EdgeKey, Change> change : sortedChanges) {
+        final EdgeKey key = change.first;
+
+        while (stored != null && stored.first.compareTo(key) < 0) {
+          stored = storedIterator.hasNext() ? storedIterator.next() : null;
+        }
+
+        final Integer storedCounter =
+            stored != null && stored.first.compareTo(key) == 0 ? stored.second : null;
+        final int counter = change.second.applyTo(storedCounter);
+        if (counter <= 0) {
+          if (storedCounter != null) {
+            removals.add(key);
+          }
+        } else {
+          puts.add(new ORawPair<>(key, counter));
+        }
+      }
+    }
+
+    for (final EdgeKey key : removals) {
+      bTree.remove(atomicOperation, key);
+    }
+    bTree.putAll(atomicOperation, puts);
+  }
+
   @Override
   public void clear(OAtomicOperation atomicOperation) {
     try (Stream<ORawPair<EdgeKey, Integer>> stream =
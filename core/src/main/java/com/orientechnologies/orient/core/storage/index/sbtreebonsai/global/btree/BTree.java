@@ -220,6 +220,116 @@ public final class BTree extends ODurableComponent {
         });
   }
 
+  /**
+   * Puts entries which are sorted by key in ascending order. Leaf bucket is looked up only once for
+   * all consecutive entries which belong to it and size of the tree is updated once for the whole
+   * batch, so sorted batches are inserted much faster than entry by entry. An entry which does not
+   * belong to the current leaf is looked up from the root, so unsorted entries are put correctly
+   * too.
+   */
+  public void putAll(
+      final OAtomicOperation atomicOperation,
+      final List<ORawPair<EdgeKey, Integer>> sortedEntries) {
+    executeInsideComponentOperation(
+        atomicOperation,
+        operation -> {
+          acquireExclusiveLock();
+          try {
+            long sizeDiff = 0;
+
+            LeafSearchResult leaf = null;
+            OCacheEntry keyBucketCacheEntry = null;
+            try {
+              for (final ORawPair<EdgeKey, Integer> entry : sortedEntries) {
+                final EdgeKey key = entry.first;
+                if (keyBucketCacheEntry != null && !leaf.contains(key)) {
+                  releasePageFromWrite(atomicOperation, keyBucketCacheEntry);
+                  keyBucketCacheEntry = null;
+                }
+
+                if (keyBucketCacheEntry == null) {
+                  leaf = findLeafForUpdate(key, atomicOperation);
+                  keyBucketCacheEntry =
+                      loadPageForWrite(
+                          atomicOperation,
+                          fileId,
+                          leaf.searchResult.getLastPathItem(),
+                          false,
+                          true);
+                }
+
+                Bucket keyBucket = new Bucket(keyBucketCacheEntry);
+                final int index = keyBucket.find(key);
+
+                final byte[] serializedKey =
+                    EdgeKeySerializer.INSTANCE.serializeNativeAsWhole(key, (Object[]) null);
+                final byte[] serializedValue =
+                    IntSerializer.INSTANCE.serializeNativeAsWhole(entry.second, (Object[]) null);
+
+                int insertionIndex;
+                if (index >= 0) {
+                  final byte[] oldRawValue = keyBucket.getRawValue(index);
+                  if (oldRawValue.length == serializedValue.length) {
+                    keyBucket.updateValue(index, serializedValue, serializedKey.length);
+                    continue;
+                  }
+
+                  keyBucket.removeLeafEntry(index, serializedKey.length, oldRawValue.length);
+                  insertionIndex = index;
+                } else {
+                  insertionIndex = -index - 1;
+                  sizeDiff++;
+                }
+
+                boolean split = false;
+                UpdateBucketSearchResult bucketSearchResult = leaf.searchResult;
+                while (!keyBucket.addLeafEntry(insertionIndex, serializedKey, serializedValue)) {
+                  bucketSearchResult =
+                      splitBucket(
+                          keyBucket,
+                          keyBucketCacheEntry,
+                          bucketSearchResult.path,
+                          bucketSearchResult.insertionIndexes,
+                          insertionIndex,
+                          atomicOperation);
+                  split = true;
+
+                  insertionIndex = bucketSearchResult.itemIndex;
+
+                  final long pageIndex = bucketSearchResult.getLastPathItem();
+
+                  if (pageIndex != keyBucketCacheEntry.getPageIndex()) {
+                    releasePageFromWrite(atomicOperation, keyBucketCacheEntry);
+
+                    keyBucketCacheEntry =
+                        loadPageForWrite(atomicOperation, fileId, pageIndex, false, true);
+                  }
+
+                  //noinspection ObjectAllocationInLoop
+                  keyBucket = new Bucket(keyBucketCacheEntry);
+                }
+
+                if (split) {
+                  // bounds of the leaf are changed, so it is looked up again for the next entry
+                  releasePageFromWrite(atomicOperation, keyBucketCacheEntry);
+                  keyBucketCacheEntry = null;
+                }
+              }
+            } finally {
+              if (keyBucketCacheEntry != null) {
+                releasePageFromWrite(atomicOperation, keyBucketCacheEntry);
+              }
+            }
+
+            if (sizeDiff != 0) {
+              updateSize(sizeDiff, atomicOperation);
+            }
+          } finally {
+            releaseExclusiveLock();
+          }
+        });
+  }
+
   public EdgeKey firstKey() {
     atomicOperationsManager.acquireReadLock(this);
     try {
@@ -752,6 +862,65 @@ public final class BTree extends ODurableComponent {
     }
   }
 
+  /**
+   * Same as {@link #findBucketForUpdate(EdgeKey, OAtomicOperation)} but also returns the separation
+   * keys which bound the keys of the found leaf.
+   */
+  private LeafSearchResult findLeafForUpdate(
+      final EdgeKey key, final OAtomicOperation atomicOperation) throws IOException {
+    int pageIndex = ROOT_INDEX;
+    EdgeKey lowerBound = null;
+    EdgeKey upperBound = null;
+
+    final ArrayList<Integer> path = new ArrayList<>(8);
+    final ArrayList<Integer> itemIndexes = new ArrayList<>(8);
+
+    while (true) {
+      if (path.size() > MAX_PATH_LENGTH) {
+        throw new OStorageException(
+            "We reached max level of depth of SBTree but still found nothing, seems like tree is in corrupted state. You should rebuild index related to given query.");
+      }
+
+      path.add(pageIndex);
+      final OCacheEntry bucketEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
+      try {
+        final Bucket keyBucket = new Bucket(bucketEntry);
+        final int index = keyBucket.find(key);
+
+        if (keyBucket.isLeaf()) {
+          itemIndexes.add(index);
+          return new LeafSearchResult(
+              new UpdateBucketSearchResult(itemIndexes, path, index), lowerBound, upperBound);
+        }
+
+        final int childIndex;
+        if (index >= 0) {
+          pageIndex = keyBucket.getRight(index);
+          childIndex = index + 1;
+        } else {
+          final int insertionIndex = -index - 1;
+
+          if (insertionIndex >= keyBucket.size()) {
+            pageIndex = keyBucket.getRight(insertionIndex - 1);
+          } else {
+            pageIndex = keyBucket.getLeft(insertionIndex);
+          }
+          childIndex = insertionIndex;
+        }
+        itemIndexes.add(childIndex);
+
+        if (childIndex > 0) {
+          lowerBound = keyBucket.getKey(childIndex - 1);
+        }
+        if (childIndex < keyBucket.size()) {
+          upperBound = keyBucket.getKey(childIndex);
+        }
+      } finally {
+        releasePageFromRead(atomicOperation, bucketEntry);
+      }
+    }
+  }
+
   private BucketSearchResult findBucket(final EdgeKey key, final OAtomicOperation atomicOperation)
       throws IOException {
     long pageIndex = ROOT_INDEX;
@@ -1404,6 +1573,28 @@ public final class BTree extends ODurableComponent {
     }
   }
 
+  private static final class LeafSearchResult {
+
+    private final UpdateBucketSearchResult searchResult;
+    private final EdgeKey lowerBound;
+    private final EdgeKey upperBound;
+
+    private LeafSearchResult(
+        final UpdateBucketSearchResult searchResult,
+        final EdgeKey lowerBound,
+        final EdgeKey upperBound) {
+      this.searchResult = searchResult;
+      this.lowerBound = lowerBound;
+      this.upperBound = upperBound;
+    }
+
+    /** @return <code>true</code> if the key belongs to the found leaf */
+    private boolean contains(final EdgeKey key) {
+      return (lowerBound == null || key.compareTo(lowerBound) >= 0)
+          && (upperBound == null || key.compareTo(upperBound) < 0);
+    }
+  }
+
   private static final class PagePathItemUnit {
 
     private final long pageIndex;
@@ -22,6 +22,7 @@ package com.orientechnologies.orient.enterprise.channel.binary;
 import com.orientechnologies.common.exception.OInvalidBinaryChunkException;
 import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.compression.OCompression;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.id.ORID;
@@ -414,6 +415,20 @@ public abstract class OChannelBinary extends OChannel
     super.close();
   }
 
+  /**
+   * Compresses all the data sent and received from now on, both the peers enable the compression at
+   * the same point of the conversation.
+   *
+   * @param compression codec negotiated with the peer
+   * @param threshold minimum size of the sent blocks to compress
+   */
+  public void enableCompression(final OCompression compression, final int threshold) {
+    inStream = new OChannelCompressedInputStream(inStream, compression);
+    outStream = new OChannelCompressedOutputStream(outStream, compression, threshold);
+    in = new DataInputStream(inStream);
+    out = new DataOutputStream(outStream);
+  }
+
   public DataOutputStream getDataOutput() {
     return out;
   }
@@ -0,0 +1,169 @@
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * In memory frame of a request or of a response multiplexed on a binary channel. Frame is written
+ * and read with the same encoding used by {@link OChannelBinary}, so requests and responses are
+ * serialized in a frame exactly as they are serialized on a dedicated channel, then the frame is
+ * sent as a single chunk tagged with the id of the stream it belongs to.
+ */
+public class OChannelBinaryFrame implements OChannelDataInput, OChannelDataOutput {
+  private final ByteArrayOutputStream buffer;
+  private final DataOutputStream out;
+  private final DataInputStream in;
+
+  /** Creates an empty frame to write to. */
+  public OChannelBinaryFrame() {
+    buffer = new ByteArrayOutputStream();
+    out = new DataOutputStream(buffer);
+    in = null;
+  }
+
+  /** Creates a frame to read the received content. */
+  public OChannelBinaryFrame(final byte[] content) {
+    buffer = null;
+    out = null;
+    in = new DataInputStream(new ByteArrayInputStream(content));
+  }
+
+  /** @return content written to the frame */
+  public byte[] toByteArray() {
+    return buffer.toByteArray();
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    return in.readByte();
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    return in.readBoolean();
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    return in.readInt();
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    return in.readLong();
+  }
+
+  @Override
+  public short readShort() throws IOException {
+    return in.readShort();
+  }
+
+  @Override
+  public String readString() throws IOException {
+    final byte[] bytes = readBytes();
+    return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+  }
+
+  @Override
+  public byte[] readBytes() throws IOException {
+    final int len = in.readInt();
+    if (len < 0) return null;
+
+    final byte[] bytes = new byte[len];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  @Override
+  public ORecordId readRID() throws IOException {
+    final int clusterId = readShort();
+    final long clusterPosition = readLong();
+    return new ORecordId(clusterId, clusterPosition);
+  }
+
+  @Override
+  public int readVersion() throws IOException {
+    return readInt();
+  }
+
+  @Override
+  public InputStream getDataInput() {
+    return in;
+  }
+
+  @Override
+  public OChannelBinaryFrame writeByte(final byte iContent) throws IOException {
+    out.write(iContent);
+    return this;
+  }
+
+  @Override
+  public OChannelBinaryFrame writeBoolean(final boolean iContent) throws IOException {
+    out.writeBoolean(iContent);
+    return this;
+  }
+
+  @Override
+  public OChannelBinaryFrame writeInt(final int iContent) throws IOException {
+    out.writeInt(iContent);
+    return this;
+  }
+
+  @Override
+  public OChannelBinaryFrame writeLong(final long iContent) throws IOException {
+    out.writeLong(iContent);
+    return this;
+  }
+
+  @Override
+  public OChannelBinaryFrame writeShort(final short iContent) throws IOException {
+    out.writeShort(iContent);
+    return this;
+  }
+
+  @Override
+  public OChannelBinaryFrame writeString(final String iContent) throws IOException {
+    return writeBytes(iContent != null ? iContent.getBytes(StandardCharsets.UTF_8) : null);
+  }
+
+  @Override
+  public OChannelBinaryFrame writeBytes(final byte[] iContent) throws IOException {
+    return writeBytes(iContent, iContent != null ? iContent.length : 0);
+  }
+
+  @Override
+  public OChannelBinaryFrame writeBytes(final byte[] iContent, final int iLength)
+      throws IOException {
+    if (iContent == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(iLength);
+      out.write(iContent, 0, iLength);
+    }
+    return this;
+  }
+
+  @Override
+  public void writeRID(final ORID iRID) throws IOException {
+    writeShort((short) iRID.getClusterId());
+    writeLong(iRID.getClusterPosition());
+  }
+
+  @Override
+  public void writeVersion(final int version) throws IOException {
+    writeInt(version);
+  }
+
+  @Override
+  public OutputStream getDataOutput() {
+    return out;
+  }
+}
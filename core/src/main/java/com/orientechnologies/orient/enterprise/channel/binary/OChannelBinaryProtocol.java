@@ -67,6 +67,7 @@ public class OChannelBinaryProtocol {
   public static final byte REQUEST_QUERY = 45; // since 3.0
   public static final byte REQUEST_CLOSE_QUERY = 46; // since 3.0
   public static final byte REQUEST_QUERY_NEXT_PAGE = 47; // since 3.0
+  public static final byte REQUEST_QUERY_PREPARED = 48; // since 3.1
 
   public static final byte REQUEST_SERVER_QUERY = 50; // since 3.2
 
@@ -85,6 +86,7 @@ public class OChannelBinaryProtocol {
   public static final byte REQUEST_SERVER_INFO = 75; // SINCE 2.2.0
 
   public static final byte REQUEST_OK_PUSH = 90;
+  public static final byte REQUEST_MULTIPLEXED = 91; // SINCE 3.1
 
   // DISTRIBUTED
   public static final byte REQUEST_CLUSTER = 92; // SINCE 1.0
@@ -116,6 +118,7 @@ public class OChannelBinaryProtocol {
   public static final byte RESPONSE_STATUS_OK = 0;
   public static final byte RESPONSE_STATUS_ERROR = 1;
   public static final byte PUSH_DATA = 3;
+  public static final byte RESPONSE_MULTIPLEXED = 4; // SINCE 3.1
 
   // CONSTANTS
   public static final short RECORD_NULL = -2;
@@ -143,8 +146,10 @@ public class OChannelBinaryProtocol {
       36; // ABILITY TO CREATE DATABASE FROM INCREMENTAL BACKUP
   public static final int PROTOCOL_VERSION_37 = 37;
   public static final int PROTOCOL_VERSION_38 = 38;
+  public static final int PROTOCOL_VERSION_39 = 39; // HANDSHAKE NEGOTIATES WIRE COMPRESSION
+  public static final int PROTOCOL_VERSION_40 = 40; // PREPARED STATEMENT HANDLES
 
-  public static final int CURRENT_PROTOCOL_VERSION = PROTOCOL_VERSION_38;
+  public static final int CURRENT_PROTOCOL_VERSION = PROTOCOL_VERSION_40;
   public static final int OLDEST_SUPPORTED_PROTOCOL_VERSION = PROTOCOL_VERSION_26;
 
   // This are specific messages inside the subscribe message
@@ -158,6 +163,7 @@ public class OChannelBinaryProtocol {
   public static final byte SUBSCRIBE_PUSH_INDEX_MANAGER = 5;
   public static final byte SUBSCRIBE_PUSH_FUNCTIONS = 6;
   public static final byte SUBSCRIBE_PUSH_SEQUENCES = 7;
+  public static final byte SUBSCRIBE_PUSH_RECORDS = 8;
 
   // Used by the client to identify what data was pushed
   public static final byte REQUEST_PUSH_DISTRIB_CONFIG = 80;
@@ -167,6 +173,7 @@ public class OChannelBinaryProtocol {
   public static final byte REQUEST_PUSH_INDEX_MANAGER = 84;
   public static final byte REQUEST_PUSH_FUNCTIONS = 85;
   public static final byte REQUEST_PUSH_SEQUENCES = 86;
+  public static final byte REQUEST_PUSH_RECORDS = 87;
 
   // Default encoding, in future will be possible to have other encodings
   public static final byte ENCODING_DEFAULT = 0;
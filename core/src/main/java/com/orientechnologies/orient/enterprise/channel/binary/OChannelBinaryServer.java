@@ -26,7 +26,11 @@ import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.LockSupport;
 
 public class OChannelBinaryServer extends OChannelBinary {
 
@@ -34,16 +38,52 @@ public class OChannelBinaryServer extends OChannelBinary {
       throws IOException {
     super(iSocket, iConfig);
 
+    final OutputStream socketOutput =
+        socket.getChannel() != null
+            ? new OSocketChannelOutputStream(socket.getChannel())
+            : socket.getOutputStream();
     if (socketBufferSize > 0) {
       inStream = new BufferedInputStream(socket.getInputStream(), socketBufferSize);
-      outStream = new BufferedOutputStream(socket.getOutputStream(), socketBufferSize);
+      outStream = new BufferedOutputStream(socketOutput, socketBufferSize);
     } else {
       inStream = new BufferedInputStream(socket.getInputStream());
-      outStream = new BufferedOutputStream(socket.getOutputStream());
+      outStream = new BufferedOutputStream(socketOutput);
     }
 
     out = new DataOutputStream(outStream);
     in = new DataInputStream(inStream);
     connected();
   }
+
+  /**
+   * Writes directly to the channel of a socket accepted by a server socket channel. The streams of
+   * such a socket serialize the writes with the reads, so a message could not be pushed to the
+   * client while the connection is waiting for the next request.
+   */
+  private static class OSocketChannelOutputStream extends OutputStream {
+    private final SocketChannel channel;
+
+    private OSocketChannelOutputStream(final SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+      while (buffer.hasRemaining()) {
+        // THE CHANNEL IS NOT BLOCKING WHILE A TIMED READ IS WAITING FOR DATA
+        if (channel.write(buffer) == 0) LockSupport.parkNanos(100_000);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
 }
@@ -0,0 +1,82 @@
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.compression.OCompression;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream of a binary channel with negotiated compression, reads the blocks sent by {@link
+ * OChannelCompressedOutputStream} and serves their uncompressed content. Lengths of the blocks are
+ * read before the peer is authenticated, so blocks longer than {@link
+ * OChannelCompressedOutputStream#MAX_BLOCK_SIZE} are rejected before they are allocated.
+ */
+public class OChannelCompressedInputStream extends InputStream {
+  private final DataInputStream in;
+  private final OCompression compression;
+  private byte[] block = new byte[0];
+  private int position;
+
+  public OChannelCompressedInputStream(final InputStream in, final OCompression compression) {
+    this.in = new DataInputStream(in);
+    this.compression = compression;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (position >= block.length && !readBlock()) return -1;
+    return block[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) return 0;
+    if (position >= block.length && !readBlock()) return -1;
+
+    final int read = Math.min(len, block.length - position);
+    System.arraycopy(block, position, b, off, read);
+    position += read;
+    return read;
+  }
+
+  /** Returns the bytes left in the current block or, if it is consumed, the received bytes. */
+  @Override
+  public int available() throws IOException {
+    if (position < block.length) return block.length - position;
+    return in.available();
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private boolean readBlock() throws IOException {
+    do {
+      final int type = in.read();
+      if (type < 0) return false;
+
+      // COMPRESSED BLOCKS ARE SENT ONLY IF THEY ARE SHORTER THAN THE PLAIN ONES
+      final int length = in.readInt();
+      if (length < 0 || length > OChannelCompressedOutputStream.MAX_BLOCK_SIZE)
+        throw new ONetworkProtocolException("Invalid compressed block length: " + length);
+
+      final byte[] content = new byte[length];
+      in.readFully(content);
+      if (type == OChannelCompressedOutputStream.COMPRESSED_BLOCK) {
+        try {
+          block =
+              compression.uncompress(
+                  content, 0, length, OChannelCompressedOutputStream.MAX_BLOCK_SIZE);
+        } catch (RuntimeException e) {
+          throw OException.wrapException(
+              new ONetworkProtocolException("Invalid compressed block"), e);
+        }
+      } else if (type == OChannelCompressedOutputStream.PLAIN_BLOCK) block = content;
+      else throw new ONetworkProtocolException("Invalid compressed block type: " + type);
+      position = 0;
+    } while (block.length == 0);
+    return true;
+  }
+}
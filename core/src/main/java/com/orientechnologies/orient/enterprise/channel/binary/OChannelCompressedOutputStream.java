@@ -0,0 +1,89 @@
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import com.orientechnologies.orient.core.compression.OCompression;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Output stream of a binary channel with negotiated compression. Written data is collected in
+ * blocks which are sent on flush, or when the maximum block size is reached. Every block starts
+ * with a flag that tells if it is compressed and with its length, blocks smaller than the threshold
+ * or which would not shrink are sent as they are.
+ *
+ * @see OChannelCompressedInputStream
+ */
+public class OChannelCompressedOutputStream extends OutputStream {
+  public static final byte PLAIN_BLOCK = 0;
+  public static final byte COMPRESSED_BLOCK = 1;
+  public static final int MAX_BLOCK_SIZE = 64 * 1024;
+
+  private final DataOutputStream out;
+  private final OCompression compression;
+  private final int threshold;
+  private byte[] block = new byte[1024];
+  private int size;
+
+  public OChannelCompressedOutputStream(
+      final OutputStream out, final OCompression compression, final int threshold) {
+    this.out = new DataOutputStream(out);
+    this.compression = compression;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    ensureCapacity(1);
+    block[size++] = (byte) b;
+    if (size >= MAX_BLOCK_SIZE) writeBlock();
+  }
+
+  @Override
+  public void write(final byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      final int chunk = Math.min(len, MAX_BLOCK_SIZE - size);
+      ensureCapacity(chunk);
+      System.arraycopy(b, off, block, size, chunk);
+      size += chunk;
+      off += chunk;
+      len -= chunk;
+      if (size >= MAX_BLOCK_SIZE) writeBlock();
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (size > 0) writeBlock();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+  private void ensureCapacity(final int len) {
+    if (size + len > block.length)
+      block =
+          Arrays.copyOf(block, Math.min(Math.max(block.length << 1, size + len), MAX_BLOCK_SIZE));
+  }
+
+  private void writeBlock() throws IOException {
+    if (size >= threshold) {
+      final byte[] compressed = compression.compress(block, 0, size);
+      if (compressed.length < size) {
+        out.writeByte(COMPRESSED_BLOCK);
+        out.writeInt(compressed.length);
+        out.write(compressed);
+        size = 0;
+        return;
+      }
+    }
+
+    out.writeByte(PLAIN_BLOCK);
+    out.writeInt(size);
+    out.write(block, 0, size);
+    size = 0;
+  }
+}
@@ -0,0 +1,48 @@
+package com.orientechnologies.common.profiler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OLatencyHistogramTest {
+  @Test
+  public void testEmpty() {
+    final OLatencyHistogram histogram = new OLatencyHistogram();
+
+    Assert.assertEquals(0, histogram.count());
+    Assert.assertEquals(0, histogram.percentile(0.99));
+  }
+
+  @Test
+  public void testBuckets() {
+    for (long value = 0; value < 1_000_000; value++) {
+      final int index = OLatencyHistogram.bucketIndex(value);
+      Assert.assertTrue(OLatencyHistogram.bucketUpperBound(index) >= value);
+      if (index > 0) {
+        Assert.assertTrue(OLatencyHistogram.bucketUpperBound(index - 1) < value);
+      }
+    }
+
+    final int index = OLatencyHistogram.bucketIndex(Long.MAX_VALUE);
+    Assert.assertEquals(Long.MAX_VALUE, OLatencyHistogram.bucketUpperBound(index));
+  }
+
+  @Test
+  public void testPercentiles() {
+    final OLatencyHistogram histogram = new OLatencyHistogram();
+    for (int i = 1; i <= 100_000; i++) {
+      histogram.record(i);
+    }
+
+    Assert.assertEquals(100_000, histogram.count());
+
+    assertWithinError(50_000, histogram.percentile(0.5));
+    assertWithinError(99_000, histogram.percentile(0.99));
+    assertWithinError(99_900, histogram.percentile(0.999));
+    assertWithinError(100_000, histogram.percentile(1.0));
+  }
+
+  private static void assertWithinError(final long expected, final long actual) {
+    Assert.assertTrue(actual >= expected);
+    Assert.assertTrue(actual <= expected + expected / 8);
+  }
+}
@@ -0,0 +1,118 @@
+package com.orientechnologies.orient.core.ridbag;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.db.record.ridbag.embedded.OEmbeddedRidBag;
+import com.orientechnologies.orient.core.db.record.ridbag.embedded.OPackedRids;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OPackedRidsTest {
+
+  @Test
+  public void testPackAndLookup() {
+    Random random = new Random(42);
+    ORID[] rids = new ORID[2_000];
+    Set<ORID> expected = new HashSet<>();
+    for (int i = 0; i < rids.length; i++) {
+      // duplicates and large gaps between positions
+      rids[i] = new ORecordId(random.nextInt(5) * 7, random.nextInt(3_000) * 1_000_003L);
+      expected.add(rids[i]);
+    }
+    List<ORID> sorted = new ArrayList<>(Arrays.asList(rids));
+    sorted.sort(null);
+
+    OPackedRids packed = OPackedRids.pack(rids, rids.length);
+    Assert.assertEquals(rids.length, packed.size());
+
+    OPackedRids.Cursor cursor = packed.cursor();
+    for (ORID rid : sorted) {
+      Assert.assertTrue(cursor.next());
+      Assert.assertEquals(rid.getClusterId(), cursor.getClusterId());
+      Assert.assertEquals(rid.getClusterPosition(), cursor.getClusterPosition());
+    }
+    Assert.assertFalse(cursor.next());
+
+    for (int clusterId = -1; clusterId < 36; clusterId++) {
+      for (int i = 0; i < 3_000; i++) {
+        long position = i * 1_000_003L;
+        Assert.assertEquals(
+            expected.contains(new ORecordId(clusterId, position)),
+            packed.contains(clusterId, position));
+        Assert.assertFalse(packed.contains(clusterId, position + 1));
+      }
+    }
+  }
+
+  @Test
+  public void testLoadAndModifyPackedBag() {
+    Object oldValue = OGlobalConfiguration.RID_BAG_EMBEDDED_PACKED.getValue();
+    OGlobalConfiguration.RID_BAG_EMBEDDED_PACKED.setValue(true);
+    ODatabaseDocument db =
+        new ODatabaseDocumentTx("memory:" + OPackedRidsTest.class.getSimpleName());
+    db.create();
+    try {
+      Set<ORID> linked = new HashSet<>();
+      ORidBag bag = new ORidBag();
+      for (int i = 0; i < 30; i++) {
+        ODocument target = new ODocument();
+        target.save(db.getClusterNameById(db.getDefaultClusterId()));
+        bag.add(target);
+        linked.add(target.getIdentity());
+      }
+      ODocument owner = new ODocument();
+      owner.field("links", bag);
+      owner.save(db.getClusterNameById(db.getDefaultClusterId()));
+
+      db.getLocalCache().clear();
+      owner = db.load(owner.getIdentity());
+      bag = owner.field("links");
+      Assert.assertTrue(bag.isEmbedded());
+      Assert.assertNotNull(((OEmbeddedRidBag) bag.getDelegate()).getPacked());
+      Assert.assertEquals(30, bag.size());
+      for (ORID rid : linked) {
+        Assert.assertTrue(bag.contains(rid));
+      }
+      Set<ORID> loaded = new HashSet<>();
+      for (Iterator<OIdentifiable> it = bag.rawIterator(); it.hasNext(); ) {
+        loaded.add(it.next().getIdentity());
+      }
+      Assert.assertEquals(linked, loaded);
+
+      // removal during iteration converts the bag to the plain entries
+      Iterator<OIdentifiable> it = bag.rawIterator();
+      ORID removed = it.next().getIdentity();
+      it.remove();
+      int remaining = 0;
+      while (it.hasNext()) {
+        Assert.assertNotEquals(removed, it.next().getIdentity());
+        remaining++;
+      }
+      Assert.assertEquals(29, remaining);
+      Assert.assertNull(((OEmbeddedRidBag) bag.getDelegate()).getPacked());
+      owner.save();
+
+      db.getLocalCache().clear();
+      owner = db.load(owner.getIdentity());
+      bag = owner.field("links");
+      Assert.assertEquals(29, bag.size());
+      Assert.assertFalse(bag.contains(removed));
+    } finally {
+      db.drop();
+      OGlobalConfiguration.RID_BAG_EMBEDDED_PACKED.setValue(oldValue);
+    }
+  }
+}
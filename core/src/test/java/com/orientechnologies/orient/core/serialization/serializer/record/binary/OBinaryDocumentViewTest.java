@@ -0,0 +1,92 @@
+package com.orientechnologies.orient.core.serialization.serializer.record.binary;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OBinaryDocumentViewTest {
+  private static final int FIELDS = 50;
+
+  private ODatabaseDocument db;
+
+  @Before
+  public void before() {
+    db = new ODatabaseDocumentTx("memory:" + OBinaryDocumentViewTest.class.getSimpleName());
+    db.create();
+  }
+
+  @After
+  public void after() {
+    db.drop();
+  }
+
+  @Test
+  public void testPartialDeserializationOfWideDocument() {
+    OClass wide = db.getMetadata().getSchema().createClass("Wide");
+    for (int i = 0; i < FIELDS; i += 2) {
+      wide.createProperty("f" + i, OType.INTEGER);
+    }
+
+    ODocument document = new ODocument("Wide");
+    for (int i = 0; i < FIELDS; i++) {
+      document.field("f" + i, i);
+    }
+    document.field("empty", (Object) null);
+    document.save();
+
+    db.getLocalCache().clear();
+    ODocument loaded = db.load(document.getIdentity());
+
+    Assert.assertEquals(7, (int) loaded.field("f7"));
+    OBinaryDocumentView view = ODocumentInternal.getBinaryView(loaded);
+    Assert.assertNotNull(view);
+    Assert.assertEquals(FIELDS + 1, view.fieldCount());
+    // names of the global properties and of the schemaless fields
+    Assert.assertEquals("f10", view.getName(view.indexOf("f10")));
+    Assert.assertEquals("f11", view.getName(view.indexOf("f11")));
+
+    Assert.assertEquals(40, (int) loaded.field("f40"));
+    Assert.assertNull(loaded.field("empty"));
+    Assert.assertNull(loaded.field("missing"));
+    Assert.assertSame(view, ODocumentInternal.getBinaryView(loaded));
+
+    Assert.assertEquals(FIELDS + 1, loaded.fieldNames().length);
+    for (int i = 0; i < FIELDS; i++) {
+      Assert.assertEquals(i, (int) loaded.field("f" + i));
+    }
+  }
+
+  @Test
+  public void testSchemalessFields() {
+    ODocument document = new ODocument();
+    document.field("name", "foo");
+    document.field("count", 10L);
+    document.field("nothing", (Object) null);
+
+    ORecordSerializerBinaryV1 serializer = new ORecordSerializerBinaryV1();
+    BytesContainer bytes = new BytesContainer();
+    serializer.serialize(document, bytes);
+
+    OBinaryDocumentView view =
+        new OBinaryDocumentView(new BytesContainer(bytes.fitBytes()), new ODocument());
+    Assert.assertEquals(3, view.fieldCount());
+    Assert.assertEquals(-1, view.indexOf("missing"));
+
+    int name = view.indexOf("name");
+    Assert.assertEquals(OType.STRING, view.getType(name));
+    Assert.assertEquals("foo", view.getValue(serializer, name, new ODocument()));
+
+    int nothing = view.indexOf("nothing");
+    Assert.assertNull(view.getType(nothing));
+    Assert.assertEquals(-1, view.indexOf("nothin"));
+    Assert.assertEquals("nothing", view.getName(nothing));
+    Assert.assertEquals("name", view.getName(name));
+  }
+}
@@ -0,0 +1,169 @@
+package com.orientechnologies.orient.core.serialization.serializer.record.binary;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ORecordSerializerBinaryV2Test {
+  private ODatabaseDocumentTx db;
+  private Object oldValue;
+
+  @Before
+  public void before() {
+    oldValue = OGlobalConfiguration.DB_DOCUMENT_SERIALIZER_STRICT_LAYOUT.getValue();
+    OGlobalConfiguration.DB_DOCUMENT_SERIALIZER_STRICT_LAYOUT.setValue(true);
+    db = new ODatabaseDocumentTx("memory:" + ORecordSerializerBinaryV2Test.class.getSimpleName());
+    db.create();
+
+    OClass telemetry = db.getMetadata().getSchema().createClass("Telemetry");
+    telemetry.createProperty("active", OType.BOOLEAN);
+    telemetry.createProperty("code", OType.BYTE);
+    telemetry.createProperty("sensor", OType.SHORT);
+    telemetry.createProperty("count", OType.INTEGER);
+    telemetry.createProperty("sequence", OType.LONG);
+    telemetry.createProperty("ratio", OType.FLOAT);
+    telemetry.createProperty("value", OType.DOUBLE);
+    telemetry.createProperty("timestamp", OType.DATETIME);
+    telemetry.createProperty("name", OType.STRING);
+    telemetry.createProperty("amount", OType.DECIMAL);
+    telemetry.createProperty("tags", OType.EMBEDDEDLIST, OType.STRING);
+    telemetry.createProperty("note", OType.STRING);
+    telemetry.setStrictMode(true);
+  }
+
+  @After
+  public void after() {
+    db.drop();
+    OGlobalConfiguration.DB_DOCUMENT_SERIALIZER_STRICT_LAYOUT.setValue(oldValue);
+  }
+
+  @Test
+  public void testWriteAndReadStrictLayout() {
+    Date timestamp = new Date(1_600_000_000_000L);
+    ODocument document = createTelemetry(3, timestamp);
+    document.save();
+    Assert.assertEquals(2, document.toStream()[0]);
+
+    db.getLocalCache().clear();
+    ODocument loaded = db.load(document.getIdentity());
+    Assert.assertEquals(true, loaded.field("active"));
+    Assert.assertEquals((byte) 7, (byte) loaded.field("code"));
+    Assert.assertEquals((short) 12, (short) loaded.field("sensor"));
+    Assert.assertEquals(3, (int) loaded.field("count"));
+    Assert.assertEquals(1L << 40, (long) loaded.field("sequence"));
+    Assert.assertEquals(0.5f, loaded.field("ratio"), 0f);
+    Assert.assertEquals(21.25d, loaded.field("value"), 0d);
+    Assert.assertEquals(timestamp, loaded.field("timestamp"));
+    Assert.assertEquals("sensor-3", loaded.field("name"));
+    Assert.assertEquals(new BigDecimal("10.05"), loaded.field("amount"));
+    Assert.assertEquals(Arrays.asList("a", "b"), loaded.field("tags"));
+    Assert.assertNull(loaded.field("note"));
+
+    // null fields are kept, fields which were never set are not
+    Assert.assertTrue(loaded.containsField("note"));
+    Assert.assertEquals(
+        new HashSet<>(
+            Arrays.asList(
+                "active",
+                "code",
+                "sensor",
+                "count",
+                "sequence",
+                "ratio",
+                "value",
+                "timestamp",
+                "name",
+                "amount",
+                "tags",
+                "note")),
+        new HashSet<>(Arrays.asList(loaded.fieldNames())));
+
+    ODocument partial = new ODocument("Telemetry");
+    ORecordSerializerBinary.INSTANCE.fromStream(
+        document.toStream(), partial, new String[] {"sequence", "name"});
+    Assert.assertEquals(1L << 40, (long) partial.field("sequence"));
+    Assert.assertEquals("sensor-3", partial.field("name"));
+
+    byte[] bytes = ORecordSerializerBinary.INSTANCE.toStream(loaded);
+    OResult result =
+        ORecordSerializerBinary.INSTANCE.getBinaryResult(db, bytes, new ORecordId(-1, -1));
+    Assert.assertEquals(21.25d, (double) result.getProperty("value"), 0d);
+    Assert.assertEquals("sensor-3", result.getProperty("name"));
+    Assert.assertNull(result.getProperty("note"));
+    Assert.assertEquals(12, result.getPropertyNames().size());
+  }
+
+  @Test
+  public void testFallbackForNotMatchingDocuments() {
+    ODocument document = new ODocument("Telemetry");
+    document.field("count", 5);
+    document.field("extra", "not in schema");
+    byte[] bytes = ORecordSerializerBinary.INSTANCE.toStream(document);
+    Assert.assertEquals(1, bytes[0]);
+
+    ORecordSerializerBinary serializer = new ORecordSerializerBinary((byte) 2);
+    bytes = serializer.toStream(document);
+    Assert.assertEquals(2, bytes[0]);
+    ODocument loaded = (ODocument) serializer.fromStream(bytes, new ODocument(), null);
+    Assert.assertEquals(5, (int) loaded.field("count"));
+    Assert.assertEquals("not in schema", loaded.field("extra"));
+  }
+
+  @Test
+  public void testSchemaEvolution() {
+    ODocument old = createTelemetry(1, new Date());
+    old.save();
+
+    db.getMetadata().getSchema().getClass("Telemetry").createProperty("unit", OType.STRING);
+    ODocument current = createTelemetry(2, new Date());
+    current.field("unit", "celsius");
+    current.save();
+    Assert.assertEquals(2, current.toStream()[0]);
+
+    db.getLocalCache().clear();
+    old = db.load(old.getIdentity());
+    Assert.assertEquals(1, (int) old.field("count"));
+    Assert.assertFalse(old.containsField("unit"));
+
+    current = db.load(current.getIdentity());
+    Assert.assertEquals("celsius", current.field("unit"));
+
+    try (OResultSet result = db.query("select from Telemetry where count = 2")) {
+      Assert.assertEquals("celsius", result.next().getProperty("unit"));
+      Assert.assertFalse(result.hasNext());
+    }
+    try (OResultSet result = db.query("select count(*) as total from Telemetry where value > 20")) {
+      Assert.assertEquals(2L, (long) result.next().getProperty("total"));
+    }
+  }
+
+  private ODocument createTelemetry(int count, Date timestamp) {
+    ODocument document = new ODocument("Telemetry");
+    document.field("active", true);
+    document.field("code", (byte) 7);
+    document.field("sensor", (short) 12);
+    document.field("count", count);
+    document.field("sequence", 1L << 40);
+    document.field("ratio", 0.5f);
+    document.field("value", 21.25d);
+    document.field("timestamp", timestamp);
+    document.field("name", "sensor-" + count);
+    document.field("amount", new BigDecimal("10.05"));
+    document.field("tags", Arrays.asList("a", "b"));
+    document.field("note", (Object) null);
+    return document;
+  }
+}
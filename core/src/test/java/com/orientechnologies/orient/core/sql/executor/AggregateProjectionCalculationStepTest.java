@@ -0,0 +1,149 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AggregateProjectionCalculationStepTest {
+  private static final String CLASS_NAME = "AggregateStepTest";
+  private static final int RECORDS = 2_000;
+  private static final int GROUPS = 300;
+
+  private static ODatabaseDocument db;
+
+  @BeforeClass
+  public static void beforeClass() {
+    db =
+        new ODatabaseDocumentTx(
+            "memory:" + AggregateProjectionCalculationStepTest.class.getSimpleName());
+    db.create();
+    db.getConfiguration().setValue(OGlobalConfiguration.QUERY_GROUP_BY_SPILL_THRESHOLD, 10);
+
+    db.getMetadata().getSchema().createClass(CLASS_NAME);
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument document = new ODocument(CLASS_NAME);
+      document.field("user", "user" + (i % GROUPS));
+      document.field("kind", i % 2);
+      document.field("amount", i);
+      if (i % 7 == 0) {
+        document.field("embedded", new ODocument().field("amount", i), OType.EMBEDDED);
+      }
+      document.save();
+    }
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    db.close();
+  }
+
+  @Test
+  public void testSpillGroups() {
+    Map<String, Long> expectedCounts = new HashMap<>();
+    Map<String, Long> expectedSums = new HashMap<>();
+    for (int i = 0; i < RECORDS; i++) {
+      String user = "user" + (i % GROUPS);
+      expectedCounts.merge(user, 1L, Long::sum);
+      expectedSums.merge(user, (long) i, Long::sum);
+    }
+
+    try (OResultSet result =
+        db.query(
+            "select user, count(*) as count, sum(amount) as sum from "
+                + CLASS_NAME
+                + " group by user")) {
+      int groups = 0;
+      while (result.hasNext()) {
+        OResult item = result.next();
+        String user = item.getProperty("user");
+        Assert.assertEquals(expectedCounts.get(user), (Long) item.getProperty("count"));
+        Assert.assertEquals(
+            (long) expectedSums.get(user), ((Number) item.getProperty("sum")).longValue());
+        groups++;
+      }
+      Assert.assertEquals(GROUPS, groups);
+    }
+  }
+
+  @Test
+  public void testNotSpillableRecordsAreKeptInHeap() {
+    Map<String, Long> expectedCounts = new HashMap<>();
+    Map<String, Long> expectedSums = new HashMap<>();
+    for (int i = 0; i < RECORDS; i++) {
+      String user = "user" + (i % GROUPS);
+      expectedCounts.merge(user, 1L, Long::sum);
+      expectedSums.merge(user, (long) i, Long::sum);
+    }
+
+    // projections with embedded documents can not be written to the spill files
+    try (OResultSet result =
+        db.query(
+            "select user, count(*) as count, sum(amount) as sum, count(embedded) as embedded"
+                + " from (select user, amount, embedded from "
+                + CLASS_NAME
+                + ") group by user")) {
+      int groups = 0;
+      long embedded = 0;
+      while (result.hasNext()) {
+        OResult item = result.next();
+        String user = item.getProperty("user");
+        Assert.assertEquals(expectedCounts.get(user), (Long) item.getProperty("count"));
+        Assert.assertEquals(
+            (long) expectedSums.get(user), ((Number) item.getProperty("sum")).longValue());
+        embedded += (Long) item.getProperty("embedded");
+        groups++;
+      }
+      Assert.assertEquals(GROUPS, groups);
+      Assert.assertEquals((RECORDS + 6) / 7, embedded);
+    }
+  }
+
+  @Test
+  public void testSpillCompositeKeys() {
+    try (OResultSet result =
+        db.query(
+            "select user, kind, count(*) as count from " + CLASS_NAME + " group by user, kind")) {
+      int groups = 0;
+      long total = 0;
+      while (result.hasNext()) {
+        OResult item = result.next();
+        String user = item.getProperty("user");
+        int kind = item.getProperty("kind");
+        Assert.assertEquals(Integer.parseInt(user.substring(4)) % 2, kind);
+        total += (Long) item.getProperty("count");
+        groups++;
+      }
+      Assert.assertEquals(GROUPS, groups);
+      Assert.assertEquals(RECORDS, total);
+    }
+  }
+
+  @Test
+  public void testTransactionKeepsGroupsInHeap() {
+    db.begin();
+    try {
+      ODocument document = new ODocument(CLASS_NAME);
+      document.field("user", "newUser");
+      document.field("amount", 1);
+      document.save();
+
+      try (OResultSet result =
+          db.query(
+              "select count(*) as count from (select user, count(*) from "
+                  + CLASS_NAME
+                  + " group by user)")) {
+        Assert.assertEquals(GROUPS + 1, ((Number) result.next().getProperty("count")).intValue());
+      }
+    } finally {
+      db.rollback();
+    }
+  }
+}
@@ -3,6 +3,12 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.HashSet;
+import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -41,4 +47,94 @@ public class DistinctExecutionStepTest {
     res.next();
     Assert.assertFalse(res.hasNext());
   }
+
+  @Test
+  public void testPropertyOrder() {
+    OCommandContext ctx = new OBasicCommandContext();
+    DistinctExecutionStep step = new DistinctExecutionStep(ctx, false);
+
+    AbstractExecutionStep prev =
+        new AbstractExecutionStep(ctx, false) {
+          boolean done = false;
+
+          @Override
+          public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+            OInternalResultSet result = new OInternalResultSet();
+            if (!done) {
+              OResultInternal first = new OResultInternal();
+              first.setProperty("name", "foo");
+              first.setProperty("kind", 1);
+              result.add(first);
+
+              OResultInternal second = new OResultInternal();
+              second.setProperty("kind", 1);
+              second.setProperty("name", "foo");
+              result.add(second);
+              done = true;
+            }
+            return result;
+          }
+        };
+
+    step.setPrevious(prev);
+    OResultSet res = step.syncPull(ctx, 10);
+    Assert.assertTrue(res.hasNext());
+    res.next();
+    Assert.assertFalse(res.hasNext());
+  }
+
+  @Test
+  public void testSpillProjections() {
+    ODatabaseDocument db =
+        new ODatabaseDocumentTx("memory:" + DistinctExecutionStepTest.class.getSimpleName());
+    db.create();
+    try {
+      db.getConfiguration().setValue(OGlobalConfiguration.QUERY_DISTINCT_MEMORY_LIMIT, 0);
+      db.getMetadata().getSchema().createClass("DistinctSpill");
+      for (int i = 0; i < 1_000; i++) {
+        ODocument document = new ODocument("DistinctSpill");
+        document.field("name", "name" + (i % 150));
+        document.field("kind", i % 3);
+        document.save();
+      }
+
+      try (OResultSet result = db.query("select distinct name, kind from DistinctSpill")) {
+        Set<String> keys = new HashSet<>();
+        while (result.hasNext()) {
+          OResult item = result.next();
+          Assert.assertTrue(keys.add(item.getProperty("name") + "/" + item.getProperty("kind")));
+        }
+        Assert.assertEquals(150, keys.size());
+      }
+
+      try (OResultSet result =
+          db.query("select distinct kind from DistinctSpill order by kind desc")) {
+        for (int kind = 2; kind >= 0; kind--) {
+          Assert.assertEquals(kind, (int) result.next().getProperty("kind"));
+        }
+        Assert.assertFalse(result.hasNext());
+      }
+
+      try (OResultSet result = db.query("select distinct @this as record from DistinctSpill")) {
+        Assert.assertEquals(1_000, result.stream().count());
+      }
+
+      try (OResultSet result =
+          db.query("select distinct kind, @this as record from DistinctSpill")) {
+        int count = 0;
+        while (result.hasNext()) {
+          OResult item = result.next();
+          // records are restored with their content, not as bare RIDs
+          Object record = ((OResultInternal) item).content.get("record");
+          Assert.assertTrue(record instanceof ODocument);
+          Assert.assertEquals(
+              item.<Integer>getProperty("kind"), ((ODocument) record).<Integer>field("kind"));
+          count++;
+        }
+        Assert.assertEquals(1_000, count);
+      }
+    } finally {
+      db.drop();
+    }
+  }
 }
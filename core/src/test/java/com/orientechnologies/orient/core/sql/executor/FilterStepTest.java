@@ -0,0 +1,122 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
+import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
+import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FilterStepTest extends TestUtilsFixture {
+
+  @Test
+  public void shouldFilterBatches() {
+    OClass clazz = createClassInstance();
+    for (int i = 0; i < 100; i++) {
+      ODocument document = new ODocument(clazz.getName());
+      document.field("value", i);
+      document.save();
+    }
+
+    OBasicCommandContext context = new OBasicCommandContext();
+    context.setDatabase(database);
+    FilterStep step = createStep(clazz, "value % 3 = 0", context);
+
+    Set<Integer> values = new HashSet<>();
+    List<OResult> batch = step.syncPullBatch(context, 10);
+    while (!batch.isEmpty()) {
+      Assert.assertTrue(batch.size() <= 10);
+      for (OResult item : batch) {
+        int value = item.getProperty("value");
+        Assert.assertEquals(0, value % 3);
+        Assert.assertTrue(values.add(value));
+      }
+      batch = step.syncPullBatch(context, 10);
+    }
+    Assert.assertEquals(34, values.size());
+  }
+
+  @Test
+  public void shouldMixRowAndBatchPulls() {
+    OClass clazz = createClassInstance();
+    for (int i = 0; i < 50; i++) {
+      ODocument document = new ODocument(clazz.getName());
+      document.field("value", i);
+      document.save();
+    }
+
+    OBasicCommandContext context = new OBasicCommandContext();
+    context.setDatabase(database);
+    FilterStep step = createStep(clazz, "value >= 10", context);
+
+    Set<Integer> values = new HashSet<>();
+    OResultSet resultSet = step.syncPull(context, 5);
+    for (int i = 0; i < 3; i++) {
+      values.add(resultSet.next().getProperty("value"));
+    }
+
+    List<OResult> batch = step.syncPullBatch(context, 7);
+    while (!batch.isEmpty()) {
+      for (OResult item : batch) {
+        Assert.assertTrue(values.add(item.getProperty("value")));
+      }
+      batch = step.syncPullBatch(context, 7);
+    }
+    Assert.assertEquals(40, values.size());
+  }
+
+  @Test
+  public void shouldCompareSerializedFields() {
+    OClass clazz = createClassInstance();
+    for (int i = 0; i < 100; i++) {
+      ODocument document = new ODocument(clazz.getName());
+      document.field("value", i);
+      document.field("name", "name" + i);
+      document.save();
+    }
+    database.getLocalCache().clear();
+
+    OBasicCommandContext context = new OBasicCommandContext();
+    context.setDatabase(database);
+    FilterStep step =
+        createStep(clazz, "value >= 10 and value < 20.5 and name <> 'name15'", context);
+
+    Set<Integer> values = new HashSet<>();
+    OResultSet resultSet = step.syncPull(context, 100);
+    while (resultSet.hasNext()) {
+      OResult item = resultSet.next();
+      ODocument document = (ODocument) item.getElement().get().getRecord();
+      // THE FIELDS ARE COMPARED SERIALIZED, THEY ARE DESERIALIZED ONLY ONCE THEY ARE READ
+      Assert.assertFalse(ODocumentInternal.rawContainsField(document, "value"));
+      Assert.assertFalse(ODocumentInternal.rawContainsField(document, "name"));
+      Assert.assertTrue(values.add(item.getProperty("value")));
+    }
+    Assert.assertEquals(10, values.size());
+    for (int i = 10; i <= 20; i++) {
+      Assert.assertEquals(i != 15, values.contains(i));
+    }
+  }
+
+  private static FilterStep createStep(
+      OClass clazz, String condition, OBasicCommandContext context) {
+    OWhereClause whereClause =
+        ((OSelectStatement)
+                OSQLEngine.parse(
+                    "select from " + clazz.getName() + " where " + condition,
+                    (ODatabaseDocumentInternal) database))
+            .getWhereClause();
+
+    FetchFromClassExecutionStep fetch =
+        new FetchFromClassExecutionStep(clazz.getName(), null, context, null, false);
+    FilterStep step = new FilterStep(whereClause, context, -1, false);
+    step.setPrevious(fetch);
+    return step;
+  }
+}
@@ -0,0 +1,148 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.record.OVertex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MatchClosingEdgeStepTest {
+  private static final String TRIANGLES =
+      "match {class: Account, as: a}.out('Transfer'){as: b}.out('Transfer'){as: c}"
+          + ".out('Transfer'){as: a} return a.name as a, b.name as b, c.name as c";
+
+  private OrientDB orientDB;
+  private ODatabaseSession session;
+
+  @Before
+  public void before() {
+    orientDB = new OrientDB("embedded:", OrientDBConfig.defaultConfig());
+    orientDB.execute(
+        "create database ? memory users (admin identified by 'admin' role admin)",
+        MatchClosingEdgeStepTest.class.getSimpleName());
+    session = orientDB.open(MatchClosingEdgeStepTest.class.getSimpleName(), "admin", "admin");
+
+    session.createVertexClass("Account");
+    session.createEdgeClass("Transfer");
+    session.createEdgeClass("Other");
+
+    OVertex[] accounts = new OVertex[8];
+    for (int i = 0; i < accounts.length; i++) {
+      accounts[i] = session.newVertex("Account");
+      accounts[i].setProperty("name", "a" + i);
+      accounts[i].save();
+    }
+    // TWO CYCLES, THE SECOND ONE HAS TWO EDGES FROM a5 TO a3
+    int[][] transfers = {{0, 1}, {1, 2}, {2, 0}, {3, 4}, {4, 5}, {5, 3}, {5, 3}, {0, 6}, {6, 7}};
+    for (int[] transfer : transfers) {
+      session.newEdge(accounts[transfer[0]], accounts[transfer[1]], "Transfer").save();
+    }
+    // AN EDGE OF ANOTHER CLASS CLOSING A CYCLE
+    session.newEdge(accounts[7], accounts[0], "Other").save();
+  }
+
+  @Test
+  public void testTriangles() {
+    OGlobalConfiguration.QUERY_MATCH_BATCH_SIZE.setValue(2);
+    try {
+      List<String> batched = execute(TRIANGLES);
+      assertEquals(9, batched.size());
+      assertTrue(batched.contains("a0 a1 a2"));
+      assertEquals(2, Collections.frequency(batched, "a3 a4 a5"));
+      assertEquals(batched, executeNotBatched(TRIANGLES));
+    } finally {
+      OGlobalConfiguration.QUERY_MATCH_BATCH_SIZE.setValue(1000);
+    }
+  }
+
+  @Test
+  public void testReverseAndBoth() {
+    String reverse =
+        "match {class: Account, as: a}.in('Transfer'){as: b}.in('Transfer'){as: c}"
+            + ".in('Transfer'){as: a} return a.name as a, b.name as b, c.name as c";
+    List<String> batched = execute(reverse);
+    assertEquals(9, batched.size());
+    assertEquals(batched, executeNotBatched(reverse));
+
+    String both =
+        "match {class: Account, as: a, where: (name = 'a0')}.out('Transfer'){as: b}"
+            + ".out('Transfer'){as: c}.both(){as: a} return a.name as a, b.name as b, c.name as c";
+    batched = execute(both);
+    // a7 IS CONNECTED TO a0 BY AN EDGE OF ANOTHER CLASS
+    assertEquals(Arrays.asList("a0 a1 a2", "a0 a6 a7"), batched);
+    assertEquals(batched, executeNotBatched(both));
+
+    String other =
+        "match {class: Account, as: a}.out('Transfer'){as: b}.out('Transfer'){as: c}"
+            + ".out('Other'){as: a} return a.name as a, b.name as b, c.name as c";
+    batched = execute(other);
+    assertEquals(Collections.singletonList("a0 a6 a7"), batched);
+    assertEquals(batched, executeNotBatched(other));
+  }
+
+  @Test
+  public void testFilterOnClosingAlias() {
+    String query =
+        "match {class: Account, as: a}.out('Transfer'){as: b}.out('Transfer'){as: c}"
+            + ".out('Transfer'){as: a, where: (name = 'a4')} return a.name as a, b.name as b,"
+            + " c.name as c";
+    List<String> batched = execute(query);
+    assertEquals(Collections.nCopies(2, "a4 a5 a3"), batched);
+    assertEquals(batched, executeNotBatched(query));
+  }
+
+  @Test
+  public void testExecutionPlan() {
+    try (OResultSet result = session.query(TRIANGLES)) {
+      String plan = result.getExecutionPlan().get().prettyPrint(0, 2);
+      assertTrue(plan.contains("MATCH CLOSING EDGE"));
+    }
+    OGlobalConfiguration.QUERY_MATCH_BATCH_SIZE.setValue(0);
+    try (OResultSet result = session.query(TRIANGLES)) {
+      String plan = result.getExecutionPlan().get().prettyPrint(0, 2);
+      assertFalse(plan.contains("MATCH CLOSING EDGE"));
+    } finally {
+      OGlobalConfiguration.QUERY_MATCH_BATCH_SIZE.setValue(1000);
+    }
+  }
+
+  private List<String> executeNotBatched(String query) {
+    OGlobalConfiguration.QUERY_MATCH_BATCH_SIZE.setValue(0);
+    try {
+      return execute(query);
+    } finally {
+      OGlobalConfiguration.QUERY_MATCH_BATCH_SIZE.setValue(1000);
+    }
+  }
+
+  private List<String> execute(String query) {
+    List<String> result = new ArrayList<>();
+    try (OResultSet rs = session.query(query)) {
+      while (rs.hasNext()) {
+        OResult item = rs.next();
+        result.add(
+            item.getProperty("a") + " " + item.getProperty("b") + " " + item.getProperty("c"));
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  @After
+  public void after() {
+    session.close();
+    orientDB.drop(MatchClosingEdgeStepTest.class.getSimpleName());
+    orientDB.close();
+  }
+}
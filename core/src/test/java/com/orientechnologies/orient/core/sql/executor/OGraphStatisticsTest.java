@@ -0,0 +1,192 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OVertex;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OGraphStatisticsTest {
+  private OrientDB orientDB;
+  private ODatabaseSession session;
+
+  @Before
+  public void before() {
+    orientDB =
+        new OrientDB(
+            "embedded:",
+            OrientDBConfig.builder()
+                .addConfig(OGlobalConfiguration.QUERY_GRAPH_STATISTICS, true)
+                .build());
+    orientDB.execute(
+        "create database ? memory users (admin identified by 'admin' role admin)",
+        OGraphStatisticsTest.class.getSimpleName());
+    session = orientDB.open(OGraphStatisticsTest.class.getSimpleName(), "admin", "admin");
+
+    session.createVertexClass("Person").createProperty("country", OType.STRING);
+    session.createVertexClass("Country");
+    session.createEdgeClass("Knows");
+    session.createEdgeClass("LivesIn");
+    session.command("create index Person.country on Person (country) notunique").close();
+
+    OVertex[] countries = new OVertex[2];
+    for (int i = 0; i < countries.length; i++) {
+      countries[i] = session.newVertex("Country");
+      countries[i].setProperty("name", "country" + i);
+      countries[i].save();
+    }
+    OVertex[] people = new OVertex[10];
+    for (int i = 0; i < people.length; i++) {
+      people[i] = session.newVertex("Person");
+      people[i].setProperty("name", "person" + i);
+      people[i].setProperty("country", "country" + (i % 2));
+      people[i].save();
+      session.newEdge(people[i], countries[i % 2], "LivesIn").save();
+    }
+    // EVERY PERSON KNOWS THE NEXT THREE PEOPLE
+    for (int i = 0; i < people.length; i++) {
+      for (int j = 1; j <= 3; j++) {
+        session.newEdge(people[i], people[(i + j) % people.length], "Knows").save();
+      }
+    }
+  }
+
+  @Test
+  public void testDegrees() {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) session;
+    assertTrue(OGraphStatistics.isEnabled(db));
+    OGraphStatistics statistics = OGraphStatistics.get(db);
+
+    OGraphStatistics.OVertexClassStatistics person =
+        statistics.getVertexClassStatistics(db, "Person");
+    assertEquals(10, person.count);
+    assertEquals(10, person.sampled);
+    assertEquals(3.0, person.getDegree(ODirection.OUT, "Knows").average, 0.001);
+    assertEquals(3, person.getDegree(ODirection.IN, "Knows").max);
+    assertEquals(1.0, person.getDegree(ODirection.OUT, "LivesIn").average, 0.001);
+
+    assertEquals(
+        3.0,
+        statistics.getAverageDegree(
+            db, "Person", ODirection.OUT, Collections.singletonList("Knows")),
+        0.001);
+    assertEquals(4.0, statistics.getAverageDegree(db, "Person", ODirection.OUT, null), 0.001);
+    assertEquals(
+        6.0,
+        statistics.getAverageDegree(
+            db, "Person", ODirection.BOTH, Collections.singletonList("Knows")),
+        0.001);
+    assertEquals(
+        5.0,
+        statistics.getAverageDegree(
+            db, "Country", ODirection.IN, Collections.singletonList("LivesIn")),
+        0.001);
+    assertEquals(-1.0, statistics.getAverageDegree(db, "Missing", ODirection.OUT, null), 0.001);
+  }
+
+  @Test
+  public void testPersistence() {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) session;
+    OGraphStatistics.get(db).refresh(db);
+    assertNotNull(db.getStorage().getConfiguration().getProperty(OGraphStatistics.PROPERTY));
+
+    // A NEW INSTANCE READS THE STATISTICS STORED IN THE DATABASE
+    OGraphStatistics reloaded = new OGraphStatistics();
+    OGraphStatistics.OVertexClassStatistics person =
+        reloaded.getVertexClassStatistics(db, "Person");
+    assertEquals(3.0, person.getDegree(ODirection.OUT, "Knows").average, 0.001);
+
+    OGraphStatistics.OIndexStatistics index = reloaded.getIndexStatistics(db, "Person.country");
+    assertNotNull(index);
+    assertEquals(10, index.entries);
+    assertEquals(2, index.distinctKeys);
+    assertEquals(5, index.getAverageEntriesPerKey());
+  }
+
+  @Test
+  public void testStaleStatistics() {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) session;
+    OGraphStatistics statistics = OGraphStatistics.get(db);
+    assertEquals(2, statistics.getVertexClassStatistics(db, "Country").count);
+    assertNull(statistics.getIndexStatistics(db, "Person.country"));
+
+    for (int i = 0; i < 3; i++) {
+      session.newVertex("Country").save();
+    }
+    assertEquals(5, statistics.getVertexClassStatistics(db, "Country").count);
+  }
+
+  @Test
+  public void testRefreshFunction() {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) session;
+    OGraphStatistics statistics = OGraphStatistics.get(db);
+    assertNull(statistics.getIndexStatistics(db, "Person.country"));
+
+    try (OResultSet result =
+        session.command("select refreshGraphStatistics('Person.country') as refreshed")) {
+      assertTrue(result.next().getProperty("refreshed"));
+    }
+    assertEquals(2, statistics.getIndexStatistics(db, "Person.country").distinctKeys);
+
+    for (int i = 0; i < 3; i++) {
+      session.newVertex("Country").save();
+    }
+    try (OResultSet result = session.command("select refreshGraphStatistics() as refreshed")) {
+      assertTrue(result.next().getProperty("refreshed"));
+    }
+    assertEquals(5, statistics.getVertexClassStatistics(db, "Country").count);
+  }
+
+  @Test
+  public void testMatch() {
+    OGraphStatistics.get((ODatabaseDocumentInternal) session)
+        .refresh((ODatabaseDocumentInternal) session);
+    Set<String> names = new HashSet<>();
+    try (OResultSet result =
+        session.query(
+            "match {class: Person, as: p}-Knows->{as: friend}-LivesIn->"
+                + "{class: Country, as: c, where: (name = 'country0')} return friend.name as name")) {
+      while (result.hasNext()) {
+        names.add(result.next().getProperty("name"));
+      }
+    }
+    assertEquals(5, names.size());
+    for (String name : names) {
+      int index = Integer.parseInt(name.substring("person".length()));
+      assertEquals(0, index % 2);
+    }
+
+    names.clear();
+    try (OResultSet result =
+        session.query(
+            "match {class: Person, as: p, where: (name = 'person0')}.out('Knows'){as: friend}"
+                + ".out('Knows'){as: fof} return fof.name as name")) {
+      while (result.hasNext()) {
+        names.add(result.next().getProperty("name"));
+      }
+    }
+    assertEquals(5, names.size());
+    assertTrue(names.contains("person6"));
+  }
+
+  @After
+  public void after() {
+    session.close();
+    orientDB.drop(OGraphStatisticsTest.class.getSimpleName());
+    orientDB.close();
+  }
+}
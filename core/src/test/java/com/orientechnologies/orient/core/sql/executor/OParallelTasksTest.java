@@ -0,0 +1,76 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OParallelTasksTest {
+  private static final String URL = "memory:" + OParallelTasksTest.class.getSimpleName();
+
+  private ODatabaseDocumentTx db;
+
+  @Before
+  public void before() {
+    db = new ODatabaseDocumentTx(URL);
+    db.create();
+  }
+
+  @After
+  public void after() {
+    db.activateOnCurrentThread();
+    db.drop();
+  }
+
+  @Test
+  public void testExecuteRanges() {
+    List<Integer> sizes =
+        OParallelTasks.executeRanges(db, 10, 3, (session, from, to) -> to - from, "test");
+    Assert.assertEquals(3, sizes.size());
+    Assert.assertEquals(10, sizes.stream().mapToInt(Integer::intValue).sum());
+    // THE COPIES ARE CLOSED, THE SESSION OF THE CALLER IS ACTIVE AGAIN
+    Assert.assertFalse(ODatabaseRecordThreadLocal.instance().get().isClosed());
+  }
+
+  @Test
+  public void testTasksOfWorkersRunOnTheWorker() throws Exception {
+    Assert.assertFalse(Orient.instance().isWorkerThread());
+
+    // ALL THE CORE WORKERS WAIT FOR THEIR OWN TASKS AT THE SAME TIME
+    int workers = OParallelTasks.maxTasks();
+    CountDownLatch started = new CountDownLatch(workers);
+    List<Future<Integer>> futures = new ArrayList<>(workers);
+    for (int i = 0; i < workers; i++) {
+      futures.add(
+          Orient.instance()
+              .submit(
+                  () -> {
+                    ODatabaseDocumentTx session = new ODatabaseDocumentTx(URL);
+                    session.open("admin", "admin");
+                    try {
+                      started.countDown();
+                      started.await();
+                      Assert.assertEquals(1, OParallelTasks.tasksFor(1_000, 1));
+                      List<Integer> sizes =
+                          OParallelTasks.executeRanges(
+                              session, 10, 2, (copy, from, to) -> to - from, "test");
+                      Assert.assertFalse(ODatabaseRecordThreadLocal.instance().get().isClosed());
+                      return sizes.stream().mapToInt(Integer::intValue).sum();
+                    } finally {
+                      session.close();
+                    }
+                  }));
+    }
+    for (Future<Integer> future : futures) {
+      Assert.assertEquals(10, (int) future.get(30, TimeUnit.SECONDS));
+    }
+  }
+}
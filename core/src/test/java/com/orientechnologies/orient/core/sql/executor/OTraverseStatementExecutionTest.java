@@ -1,8 +1,14 @@
 package com.orientechnologies.orient.core.sql.executor;
 
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.record.OVertex;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -277,4 +283,63 @@ public class OTraverseStatementExecutionTest {
     Assert.assertEquals(1, ((Collection) val).size());
     result.close();
   }
+
+  @Test
+  public void testBreadthFirstParallel() {
+    String classPrefix = "testBreadthFirstParallel_";
+    db.createVertexClass(classPrefix + "V");
+    db.createEdgeClass(classPrefix + "E");
+    OVertex[] vertices = new OVertex[40];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = db.newVertex(classPrefix + "V");
+      vertices[i].setProperty("name", "n" + i);
+      vertices[i].save();
+    }
+    // A BINARY TREE WITH SOME EDGES BACK TO THE UPPER LEVELS
+    for (int i = 1; i < vertices.length; i++) {
+      db.newEdge(vertices[(i - 1) / 2], vertices[i], classPrefix + "E").save();
+      if (i % 3 == 0) {
+        db.newEdge(vertices[i], vertices[i / 3], classPrefix + "E").save();
+      }
+    }
+
+    String[] queries = {
+      "traverse out() from (select from "
+          + classPrefix
+          + "V where name = 'n0') strategy breadth_first",
+      "traverse out('"
+          + classPrefix
+          + "E') from (select from "
+          + classPrefix
+          + "V where name in ['n0', 'n5']) while $depth < 3 strategy breadth_first",
+      "traverse out() from (select from "
+          + classPrefix
+          + "V where name = 'n0') maxdepth 2 strategy breadth_first"
+    };
+    for (String query : queries) {
+      List<String> sequential = traverse(query);
+      OGlobalConfiguration.QUERY_TRAVERSE_PARALLEL_THRESHOLD.setValue(2);
+      try {
+        Assert.assertEquals(sequential, traverse(query));
+      } finally {
+        OGlobalConfiguration.QUERY_TRAVERSE_PARALLEL_THRESHOLD.setValue(0);
+      }
+    }
+    Assert.assertEquals(40, traverse(queries[0]).size());
+  }
+
+  private List<String> traverse(String query) {
+    List<String> result = new ArrayList<>();
+    try (OResultSet rs = db.query(query)) {
+      while (rs.hasNext()) {
+        OResult item = rs.next();
+        List<String> path = new ArrayList<>();
+        for (Object rid : (Collection<?>) item.getMetadata("$path")) {
+          path.add(((OElement) ((OIdentifiable) rid).getRecord()).getProperty("name"));
+        }
+        result.add(item.getProperty("name") + " " + item.getMetadata("$depth") + " " + path);
+      }
+    }
+    return result;
+  }
 }
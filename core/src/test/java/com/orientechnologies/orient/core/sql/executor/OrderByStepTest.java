@@ -0,0 +1,169 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class OrderByStepTest {
+  private static final String CLASS_NAME = "OrderByStepTest";
+  private static final int RECORDS = 1_000;
+
+  private static ODatabaseDocument db;
+
+  @BeforeClass
+  public static void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:" + OrderByStepTest.class.getSimpleName());
+    db.create();
+    db.getConfiguration().setValue(OGlobalConfiguration.QUERY_ORDER_BY_SPILL_THRESHOLD, 64);
+
+    db.getMetadata().getSchema().createClass(CLASS_NAME);
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument document = new ODocument(CLASS_NAME);
+      document.field("value", (i * 7919) % RECORDS);
+      document.field("group", i % 10);
+      document.field("name", "name" + i);
+      if (i % 10 == 0) {
+        document.field(
+            "embedded", new ODocument().field("value", (i * 7919) % RECORDS), OType.EMBEDDED);
+      }
+      document.save();
+    }
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    db.close();
+  }
+
+  @Test
+  public void testSpillRecords() {
+    try (OResultSet result = db.query("select from " + CLASS_NAME + " order by value desc")) {
+      int expected = RECORDS - 1;
+      while (result.hasNext()) {
+        OResult item = result.next();
+        Assert.assertTrue(item.isElement());
+        Assert.assertEquals(expected, (int) item.getProperty("value"));
+        Assert.assertTrue(item.getIdentity().get().isPersistent());
+        expected--;
+      }
+      Assert.assertEquals(-1, expected);
+    }
+  }
+
+  @Test
+  public void testSpillProjectionsIsStable() {
+    try (OResultSet result =
+        db.query("select group, value from " + CLASS_NAME + " order by group")) {
+      List<Integer> values = new ArrayList<>();
+      int previousGroup = -1;
+      while (result.hasNext()) {
+        OResult item = result.next();
+        Assert.assertFalse(item.isElement());
+        int group = item.getProperty("group");
+        Assert.assertTrue(group >= previousGroup);
+        previousGroup = group;
+        values.add(item.getProperty("value"));
+      }
+      Assert.assertEquals(RECORDS, values.size());
+
+      // records with the same group are returned in the order of the scan
+      for (int i = 0; i < RECORDS; i++) {
+        int index = (i % 10) * (RECORDS / 10) + i / 10;
+        Assert.assertEquals((i * 7919) % RECORDS, (int) values.get(index));
+      }
+    }
+  }
+
+  @Test
+  public void testProjectionsWithRecordsAreKeptInHeap() {
+    try (OResultSet result =
+        db.query("select value, embedded from " + CLASS_NAME + " order by value desc")) {
+      int expected = RECORDS - 1;
+      int embedded = 0;
+      while (result.hasNext()) {
+        OResult item = result.next();
+        Assert.assertEquals(expected, (int) item.getProperty("value"));
+
+        Object value = item.getProperty("embedded");
+        if (value != null) {
+          Assert.assertFalse(
+              value.getClass()
+                  + " "
+                  + value
+                  + " "
+                  + ((OResultInternal) item).content.get("embedded").getClass(),
+              value instanceof ORID);
+          Assert.assertEquals(expected, (int) ((OResult) value).getProperty("value"));
+          embedded++;
+        }
+        expected--;
+      }
+      Assert.assertEquals(-1, expected);
+      Assert.assertEquals(RECORDS / 10, embedded);
+    }
+  }
+
+  @Test
+  public void testTopK() {
+    try (OResultSet result =
+        db.query("select value from " + CLASS_NAME + " order by value skip 5 limit 10")) {
+      for (int i = 5; i < 15; i++) {
+        Assert.assertEquals(i, (int) result.next().getProperty("value"));
+      }
+      Assert.assertFalse(result.hasNext());
+    }
+  }
+
+  @Test
+  public void testLimitAboveSpillThreshold() {
+    try (OResultSet result =
+        db.query("select value from " + CLASS_NAME + " order by value limit 500")) {
+      for (int i = 0; i < 500; i++) {
+        Assert.assertEquals(i, (int) result.next().getProperty("value"));
+      }
+      Assert.assertFalse(result.hasNext());
+    }
+  }
+
+  @Test
+  public void testSpillDirectory() {
+    File directory = new File("target" + File.separator + "orderBySpillTest");
+    OFileUtils.deleteRecursively(directory);
+    db.getConfiguration().setValue(OGlobalConfiguration.QUERY_SPILL_DIRECTORY, directory.getPath());
+    try (OResultSet result = db.query("select from " + CLASS_NAME + " order by value")) {
+      Assert.assertEquals(0, (int) result.next().getProperty("value"));
+      Assert.assertTrue(directory.list().length > 0);
+    } finally {
+      db.getConfiguration().setValue(OGlobalConfiguration.QUERY_SPILL_DIRECTORY, null);
+    }
+    Assert.assertEquals(0, directory.list().length);
+    OFileUtils.deleteRecursively(directory);
+  }
+
+  @Test
+  public void testEncryptedDatabaseDoesNotSpill() {
+    File directory = new File("target" + File.separator + "orderBySpillEncryptedTest");
+    OFileUtils.deleteRecursively(directory);
+    db.getConfiguration().setValue(OGlobalConfiguration.QUERY_SPILL_DIRECTORY, directory.getPath());
+    db.getConfiguration()
+        .setValue(OGlobalConfiguration.STORAGE_ENCRYPTION_KEY, "T1JJRU5UREJfSVNfQ09PTA==");
+    try (OResultSet result = db.query("select from " + CLASS_NAME + " order by value")) {
+      Assert.assertEquals(0, (int) result.next().getProperty("value"));
+      Assert.assertFalse(directory.exists());
+    } finally {
+      db.getConfiguration().setValue(OGlobalConfiguration.QUERY_SPILL_DIRECTORY, null);
+      db.getConfiguration().setValue(OGlobalConfiguration.STORAGE_ENCRYPTION_KEY, null);
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParallelFetchFromClassExecutionStepTest {
+  private static final String CLASS_NAME = "ParallelScan";
+  private static final int RECORDS = 1_000;
+
+  private static ODatabaseDocument db;
+
+  @BeforeClass
+  public static void beforeClass() {
+    db =
+        new ODatabaseDocumentTx(
+            "memory:" + ParallelFetchFromClassExecutionStepTest.class.getSimpleName());
+    db.create();
+
+    db.getConfiguration().setValue(OGlobalConfiguration.QUERY_PARALLEL_AUTO, true);
+    db.getConfiguration().setValue(OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS, 100);
+    db.getConfiguration().setValue(OGlobalConfiguration.QUERY_PARALLEL_RESULT_QUEUE_SIZE, 16);
+
+    OClass clazz = db.getMetadata().getSchema().createClass(CLASS_NAME);
+    for (int i = 0; i < 3; i++) {
+      clazz.addCluster(CLASS_NAME + "_extra_" + i);
+    }
+
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument document = new ODocument(CLASS_NAME);
+      document.field("value", i);
+      document.save();
+    }
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    db.close();
+  }
+
+  @Test
+  public void testFilter() {
+    try (OResultSet result = db.query("select from " + CLASS_NAME + " where value % 2 = 0")) {
+      assertParallelPlan(result);
+
+      Set<Integer> values = new HashSet<>();
+      while (result.hasNext()) {
+        int value = result.next().getProperty("value");
+        Assert.assertEquals(0, value % 2);
+        Assert.assertTrue(values.add(value));
+      }
+      Assert.assertEquals(RECORDS / 2, values.size());
+    }
+  }
+
+  @Test
+  public void testAggregate() {
+    try (OResultSet result =
+        db.query(
+            "select count(*) as count, sum(value) as sum from "
+                + CLASS_NAME
+                + " where value >= 100")) {
+      assertParallelPlan(result);
+
+      OResult item = result.next();
+      Assert.assertEquals(RECORDS - 100, ((Number) item.getProperty("count")).longValue());
+      Assert.assertEquals(
+          (long) RECORDS * (RECORDS - 1) / 2 - 100 * 99 / 2,
+          ((Number) item.getProperty("sum")).longValue());
+      Assert.assertFalse(result.hasNext());
+    }
+  }
+
+  @Test
+  public void testLimit() {
+    for (int i = 0; i < 10; i++) {
+      try (OResultSet result = db.query("select from " + CLASS_NAME + " limit 5")) {
+        assertParallelPlan(result);
+        Assert.assertEquals(5, result.stream().count());
+      }
+    }
+  }
+
+  @Test
+  public void testSequentialScanInTransaction() {
+    db.begin();
+    try (OResultSet result = db.query("select from " + CLASS_NAME + " where value < 10")) {
+      Assert.assertFalse(
+          result.getExecutionPlan().get().getSteps().stream()
+              .anyMatch(step -> step instanceof ParallelFetchFromClassExecutionStep));
+      Assert.assertEquals(10, result.stream().count());
+    } finally {
+      db.rollback();
+    }
+  }
+
+  @Test
+  public void testPlanIsNotReusedInTransaction() {
+    final String query = "select from " + CLASS_NAME + " where value < 20";
+    try (OResultSet result = db.query(query)) {
+      assertParallelPlan(result);
+      Assert.assertEquals(20, result.stream().count());
+    }
+
+    db.begin();
+    try {
+      ODocument document = new ODocument(CLASS_NAME);
+      document.field("value", -1);
+      document.save();
+
+      try (OResultSet result = db.query(query)) {
+        Assert.assertFalse(
+            result.getExecutionPlan().get().getSteps().stream()
+                .anyMatch(step -> step instanceof ParallelFetchFromClassExecutionStep));
+        Assert.assertEquals(21, result.stream().count());
+      }
+    } finally {
+      db.rollback();
+    }
+  }
+
+  @Test
+  public void testMoreClustersThanWorkers() {
+    String className = CLASS_NAME + "ManyClusters";
+    OClass clazz = db.getMetadata().getSchema().createClass(className);
+    int clusters = OParallelTasks.maxTasks() * 2 + 1;
+    while (clazz.getClusterIds().length < clusters) {
+      clazz.addCluster(className + "_" + clazz.getClusterIds().length);
+    }
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument document = new ODocument(className);
+      document.field("value", i);
+      document.save();
+    }
+
+    try (OResultSet result = db.query("select from " + className + " where value >= 10")) {
+      assertParallelPlan(result);
+
+      Set<Integer> values = new HashSet<>();
+      while (result.hasNext()) {
+        Assert.assertTrue(values.add(result.next().getProperty("value")));
+      }
+      Assert.assertEquals(RECORDS - 10, values.size());
+    }
+  }
+
+  @Test
+  public void testSequentialScanOnWorkerThread() throws Exception {
+    String url = db.getURL();
+    Future<Long> count =
+        Orient.instance()
+            .submit(
+                () -> {
+                  ODatabaseDocument session = new ODatabaseDocumentTx(url);
+                  session.open("admin", "admin");
+                  try (OResultSet result =
+                      session.query("select from " + CLASS_NAME + " where value < 10")) {
+                    Assert.assertFalse(
+                        result.getExecutionPlan().get().getSteps().stream()
+                            .anyMatch(step -> step instanceof ParallelFetchFromClassExecutionStep));
+                    return result.stream().count();
+                  } finally {
+                    session.close();
+                  }
+                });
+    Assert.assertEquals(10, (long) count.get(30, TimeUnit.SECONDS));
+    db.activateOnCurrentThread();
+  }
+
+  private static void assertParallelPlan(OResultSet result) {
+    Assert.assertTrue(
+        result.getExecutionPlan().get().getSteps().stream()
+            .anyMatch(step -> step instanceof ParallelFetchFromClassExecutionStep));
+  }
+}
@@ -477,6 +477,29 @@ public class OSQLFunctionAstarTest {
     assertEquals(v3, result.get(3));
   }
 
+  @Test
+  public void testMaxDistance() throws Exception {
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(OSQLFunctionAstar.PARAM_DIRECTION, "out");
+    options.put(OSQLFunctionAstar.PARAM_EDGE_TYPE_NAMES, new String[] {"has_path"});
+    options.put(OSQLFunctionAstar.PARAM_MAX_DISTANCE, 700);
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(graph);
+    List<OVertex> result =
+        functionAstar.execute(null, null, null, new Object[] {v1, v4, "'weight'", options}, ctx);
+    assertEquals(0, result.size());
+
+    options.put(OSQLFunctionAstar.PARAM_MAX_DISTANCE, 750);
+    result =
+        new OSQLFunctionAstar()
+            .execute(null, null, null, new Object[] {v1, v4, "'weight'", options}, ctx);
+    assertEquals(4, result.size());
+    assertEquals(v1, result.get(0));
+    assertEquals(v2, result.get(1));
+    assertEquals(v3, result.get(2));
+    assertEquals(v4, result.get(3));
+  }
+
   @Test
   public void testSql() {
     Iterable r =
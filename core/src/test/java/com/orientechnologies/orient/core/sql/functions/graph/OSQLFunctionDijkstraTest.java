@@ -8,7 +8,9 @@ import com.orientechnologies.orient.core.db.OrientDB;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.record.OEdge;
 import com.orientechnologies.orient.core.record.OVertex;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -85,4 +87,31 @@ public class OSQLFunctionDijkstraTest {
     assertEquals(v3, result.get(2));
     assertEquals(v4, result.get(3));
   }
+
+  @Test
+  public void testOptions() throws Exception {
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put("direction", "in");
+    List<OVertex> result =
+        functionDijkstra.execute(
+            null,
+            null,
+            null,
+            new Object[] {v4, v1, "'weight'", options},
+            new OBasicCommandContext());
+    assertEquals(4, result.size());
+    assertEquals(v4, result.get(0));
+    assertEquals(v1, result.get(3));
+
+    options.put("maxDistance", 2);
+    result =
+        new OSQLFunctionDijkstra()
+            .execute(
+                null,
+                null,
+                null,
+                new Object[] {v4, v1, "'weight'", options},
+                new OBasicCommandContext());
+    assertEquals(0, result.size());
+  }
 }
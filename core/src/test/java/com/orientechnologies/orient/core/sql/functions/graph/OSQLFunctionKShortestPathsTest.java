@@ -0,0 +1,134 @@
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.record.OEdge;
+import com.orientechnologies.orient.core.record.OVertex;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OSQLFunctionKShortestPathsTest {
+
+  private OrientDB orientDB;
+  private ODatabaseDocument graph;
+
+  private OVertex v1;
+  private OVertex v2;
+  private OVertex v3;
+  private OVertex v4;
+
+  @Before
+  public void setUp() throws Exception {
+    orientDB =
+        OCreateDatabaseUtil.createDatabase(
+            "OSQLFunctionKShortestPathsTest", "embedded:", OCreateDatabaseUtil.TYPE_MEMORY);
+    graph =
+        orientDB.open(
+            "OSQLFunctionKShortestPathsTest", "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD);
+
+    graph.createEdgeClass("weight");
+
+    v1 = graph.newVertex();
+    v2 = graph.newVertex();
+    v3 = graph.newVertex();
+    v4 = graph.newVertex();
+
+    v1.setProperty("node_id", "A");
+    v2.setProperty("node_id", "B");
+    v3.setProperty("node_id", "C");
+    v4.setProperty("node_id", "D");
+
+    newEdge(v1, v2, 1.0f);
+    newEdge(v2, v3, 1.0f);
+    newEdge(v1, v3, 100.0f);
+    newEdge(v3, v4, 1.0f);
+    newEdge(v2, v4, 5.0f);
+    newEdge(v1, v4, 50.0f);
+  }
+
+  private void newEdge(OVertex from, OVertex to, float weight) {
+    OEdge edge = graph.newEdge(from, to, "weight");
+    edge.setProperty("weight", weight);
+    edge.save();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    graph.close();
+    orientDB.close();
+  }
+
+  @Test
+  public void testExecute() throws Exception {
+    final List<OResult> result =
+        new OSQLFunctionKShortestPaths()
+            .execute(null, null, null, new Object[] {v1, v4, "'weight'", 3}, ctx());
+
+    assertEquals(3, result.size());
+    assertEquals(Arrays.asList(v1, v2, v3, v4), result.get(0).getProperty("path"));
+    assertEquals(3.0, result.get(0).<Double>getProperty("weight"), 0.0);
+    assertEquals(Arrays.asList(v1, v2, v4), result.get(1).getProperty("path"));
+    assertEquals(6.0, result.get(1).<Double>getProperty("weight"), 0.0);
+    assertEquals(Arrays.asList(v1, v4), result.get(2).getProperty("path"));
+    assertEquals(50.0, result.get(2).<Double>getProperty("weight"), 0.0);
+  }
+
+  @Test
+  public void testAllPaths() throws Exception {
+    final List<OResult> result =
+        new OSQLFunctionKShortestPaths()
+            .execute(null, null, null, new Object[] {v1, v4, "'weight'", 10}, ctx());
+
+    assertEquals(4, result.size());
+    assertEquals(Arrays.asList(v1, v3, v4), result.get(3).getProperty("path"));
+    assertEquals(101.0, result.get(3).<Double>getProperty("weight"), 0.0);
+  }
+
+  @Test
+  public void testOptions() throws Exception {
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(OSQLFunctionKShortestPaths.PARAM_DIRECTION, "in");
+    options.put(OSQLFunctionKShortestPaths.PARAM_MAX_DISTANCE, 10);
+    final List<OResult> result =
+        new OSQLFunctionKShortestPaths()
+            .execute(null, null, null, new Object[] {v4, v1, "'weight'", 10, options}, ctx());
+
+    assertEquals(2, result.size());
+    assertEquals(Arrays.asList(v4, v3, v2, v1), result.get(0).getProperty("path"));
+    assertEquals(Arrays.asList(v4, v2, v1), result.get(1).getProperty("path"));
+  }
+
+  @Test
+  public void testSql() {
+    try (OResultSet rs =
+        graph.query(
+            "select expand(kShortestPaths(?, ?, 'weight', 2, {'direction':'out'}))",
+            v1.getIdentity(),
+            v4.getIdentity())) {
+      assertTrue(rs.hasNext());
+      assertEquals(3.0, rs.next().<Double>getProperty("weight"), 0.0);
+      assertTrue(rs.hasNext());
+      assertEquals(6.0, rs.next().<Double>getProperty("weight"), 0.0);
+      assertFalse(rs.hasNext());
+    }
+  }
+
+  private OBasicCommandContext ctx() {
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(graph);
+    return ctx;
+  }
+}
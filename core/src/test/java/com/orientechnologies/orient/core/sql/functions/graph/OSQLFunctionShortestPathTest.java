@@ -4,9 +4,12 @@ import static java.util.Arrays.asList;
 
 import com.orientechnologies.orient.core.OCreateDatabaseUtil;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.OrientDB;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.OEdge;
 import com.orientechnologies.orient.core.record.OVertex;
 import java.util.HashMap;
 import java.util.List;
@@ -216,4 +219,67 @@ public class OSQLFunctionShortestPathTest {
 
     Assert.assertEquals(0, result.size());
   }
+
+  @Test
+  public void testEdges() throws Exception {
+    Map<String, Object> additionalParams = new HashMap<String, Object>();
+    additionalParams.put("edge", true);
+    final List<ORID> result =
+        function.execute(
+            null,
+            null,
+            null,
+            new Object[] {vertices.get(1), vertices.get(4), null, null, additionalParams},
+            new OBasicCommandContext());
+
+    Assert.assertEquals(5, result.size());
+    Assert.assertEquals(vertices.get(1).getIdentity(), result.get(0));
+    OEdge edge = graph.load(result.get(1));
+    Assert.assertEquals(vertices.get(3), edge.getFrom());
+    Assert.assertEquals(vertices.get(1), edge.getTo());
+    Assert.assertEquals(vertices.get(3).getIdentity(), result.get(2));
+    edge = graph.load(result.get(3));
+    Assert.assertEquals(vertices.get(3), edge.getFrom());
+    Assert.assertEquals(vertices.get(4), edge.getTo());
+    Assert.assertEquals(vertices.get(4).getIdentity(), result.get(4));
+  }
+
+  @Test
+  public void testParallelExpansion() throws Exception {
+    OGlobalConfiguration.QUERY_SHORTEST_PATH_PARALLEL_THRESHOLD.setValue(1);
+    try {
+      final List<ORID> result =
+          function.execute(
+              null,
+              null,
+              null,
+              new Object[] {vertices.get(1), vertices.get(20)},
+              new OBasicCommandContext());
+
+      Assert.assertEquals(11, result.size());
+      Assert.assertEquals(vertices.get(1).getIdentity(), result.get(0));
+      Assert.assertEquals(vertices.get(3).getIdentity(), result.get(1));
+      int next = 2;
+      for (int i = 4; i <= 20; i += 2) {
+        Assert.assertEquals(vertices.get(i).getIdentity(), result.get(next++));
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_SHORTEST_PATH_PARALLEL_THRESHOLD.setValue(0);
+    }
+  }
+
+  @Test(expected = OCommandExecutionException.class)
+  public void testMaxVisited() throws Exception {
+    OGlobalConfiguration.QUERY_SHORTEST_PATH_MAX_VISITED.setValue(5);
+    try {
+      function.execute(
+          null,
+          null,
+          null,
+          new Object[] {vertices.get(1), vertices.get(20)},
+          new OBasicCommandContext());
+    } finally {
+      OGlobalConfiguration.QUERY_SHORTEST_PATH_MAX_VISITED.setValue(0);
+    }
+  }
 }
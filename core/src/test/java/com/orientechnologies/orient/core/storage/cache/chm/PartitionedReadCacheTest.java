@@ -0,0 +1,135 @@
+package com.orientechnologies.orient.core.storage.cache.chm;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator;
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator.Intention;
+import com.orientechnologies.common.directmemory.OPointer;
+import com.orientechnologies.common.types.OModifiableBoolean;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OCachePointer;
+import com.orientechnologies.orient.core.storage.cache.OReadCacheScanMode;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PartitionedReadCacheTest {
+  private static final int PAGE_SIZE = 1024;
+
+  private OByteBufferPool bufferPool;
+  private OWriteCache writeCache;
+
+  @Before
+  public void before() throws Exception {
+    bufferPool = new OByteBufferPool(PAGE_SIZE, new ODirectMemoryAllocator(), 0);
+
+    writeCache = mock(OWriteCache.class);
+    when(writeCache.load(anyLong(), anyLong(), any(OModifiableBoolean.class), anyBoolean()))
+        .thenAnswer(
+            invocation -> {
+              final long fileId = (Long) invocation.getArguments()[0];
+              final long pageIndex = (Long) invocation.getArguments()[1];
+
+              final OPointer pointer = bufferPool.acquireDirect(true, Intention.TEST);
+              final OCachePointer cachePointer =
+                  new OCachePointer(pointer, bufferPool, fileId, (int) pageIndex);
+              cachePointer.incrementReadersReferrer();
+              return cachePointer;
+            });
+  }
+
+  @Test
+  public void testPagesAreDistributedBetweenPartitions() {
+    final PartitionedReadCache readCache =
+        new PartitionedReadCache(bufferPool, 1024 * PAGE_SIZE, PAGE_SIZE, 3);
+    Assert.assertEquals(4, readCache.getPartitions());
+
+    for (int i = 0; i < 256; i++) {
+      load(readCache, i % 2, i);
+    }
+
+    Assert.assertEquals(256L * PAGE_SIZE, readCache.getUsedMemory());
+
+    int pages = 0;
+    for (final int size : readCache.getSizes()) {
+      Assert.assertTrue(size > 0);
+      pages += size;
+    }
+    Assert.assertEquals(256, pages);
+    Assert.assertEquals(256, sum(readCache.getMisses()));
+    Assert.assertEquals(0, sum(readCache.getHits()));
+
+    for (int i = 0; i < 256; i++) {
+      load(readCache, i % 2, i);
+    }
+
+    Assert.assertEquals(256, sum(readCache.getHits()));
+    Assert.assertEquals(256, sum(readCache.getMisses()));
+
+    for (final AsyncReadCache partition : readCache.partitions()) {
+      partition.assertSize();
+      partition.assertConsistency();
+    }
+
+    readCache.clear();
+    Assert.assertEquals(0, readCache.getUsedMemory());
+  }
+
+  @Test
+  public void testScanDoesNotEvictHotPages() {
+    final PartitionedReadCache readCache =
+        new PartitionedReadCache(bufferPool, 256 * PAGE_SIZE, PAGE_SIZE, 2);
+
+    for (int n = 0; n < 10; n++) {
+      for (int i = 0; i < 32; i++) {
+        load(readCache, 0, i);
+      }
+    }
+
+    OReadCacheScanMode.enter();
+    try {
+      for (int i = 0; i < 10_000; i++) {
+        load(readCache, 1, i);
+      }
+    } finally {
+      OReadCacheScanMode.exit();
+    }
+    Assert.assertFalse(OReadCacheScanMode.isActive());
+    Assert.assertTrue(sum(readCache.getEvictions()) > 0);
+
+    final long hits = sum(readCache.getHits());
+    for (int i = 0; i < 32; i++) {
+      load(readCache, 0, i);
+    }
+    Assert.assertEquals(32, sum(readCache.getHits()) - hits);
+
+    for (final AsyncReadCache partition : readCache.partitions()) {
+      partition.assertSize();
+      partition.assertConsistency();
+    }
+
+    readCache.clear();
+    Assert.assertEquals(0, readCache.getUsedMemory());
+  }
+
+  private void load(final PartitionedReadCache readCache, final long fileId, final int pageIndex) {
+    final OCacheEntry cacheEntry =
+        readCache.loadForRead(fileId, pageIndex, false, writeCache, false);
+    Assert.assertNotNull(cacheEntry);
+    readCache.releaseFromRead(cacheEntry, writeCache);
+  }
+
+  private static long sum(final long[] values) {
+    long sum = 0;
+    for (final long value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,106 @@
+package com.orientechnologies.orient.core.storage.disk;
+
+import com.orientechnologies.common.concur.lock.OModificationOperationProhibitedException;
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import java.io.File;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OLocalPaginatedStorageMappedReadsTest {
+  private static final String DB_NAME = OLocalPaginatedStorageMappedReadsTest.class.getSimpleName();
+  private static final int RECORDS = 10_000;
+
+  private String buildDirectory;
+  private OrientDB orientDB;
+
+  @Before
+  public void before() {
+    buildDirectory =
+        System.getProperty("buildDirectory", ".")
+            + File.separator
+            + OLocalPaginatedStorageMappedReadsTest.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(buildDirectory));
+
+    orientDB = new OrientDB("embedded:" + buildDirectory, OrientDBConfig.defaultConfig());
+    orientDB.execute(
+        "create database " + DB_NAME + " plocal users ( admin identified by 'admin' role admin)");
+
+    try (final ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin")) {
+      session.createClass("Mapped");
+
+      for (int i = 0; i < RECORDS; i++) {
+        final ODocument document = new ODocument("Mapped");
+        document.field("value", i);
+        document.field("payload", "payload of record " + i);
+        document.save();
+      }
+    }
+
+    orientDB.close();
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    OFileUtils.deleteRecursively(new File(buildDirectory));
+  }
+
+  @Test
+  public void testReadMappedPages() throws Exception {
+    final OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.STORAGE_MMAP_READ_ONLY, true)
+            .build();
+    orientDB = new OrientDB("embedded:" + buildDirectory, config);
+
+    try (final ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin", config)) {
+      long count = 0;
+      long sum = 0;
+      try (final OResultSet resultSet = session.query("select from Mapped")) {
+        while (resultSet.hasNext()) {
+          final int value = resultSet.next().getProperty("value");
+          sum += value;
+          count++;
+        }
+      }
+
+      Assert.assertEquals(RECORDS, count);
+      Assert.assertEquals((long) RECORDS * (RECORDS - 1) / 2, sum);
+
+      final OLocalPaginatedStorage storage =
+          (OLocalPaginatedStorage) ((ODatabaseDocumentInternal) session).getStorage();
+      final OReadCache readCache = storage.getReadCache();
+      final OWriteCache writeCache = storage.getWriteCache();
+
+      final long fileId = writeCache.fileIdByName("mapped.pcl");
+      final OCacheEntry cacheEntry = readCache.loadForRead(fileId, 1, false, writeCache, true);
+      try {
+        Assert.assertTrue(cacheEntry.getCachePointer().isMapped());
+        Assert.assertTrue(cacheEntry.getCachePointer().getBuffer().isReadOnly());
+      } finally {
+        readCache.releaseFromRead(cacheEntry, writeCache);
+      }
+
+      try {
+        final ODocument document = new ODocument("Mapped");
+        document.field("value", -1);
+        document.save();
+        Assert.fail();
+      } catch (OModificationOperationProhibitedException e) {
+        // expected
+      }
+    }
+  }
+}
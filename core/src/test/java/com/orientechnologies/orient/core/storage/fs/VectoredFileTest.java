@@ -0,0 +1,202 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.common.util.ORawPair;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class VectoredFileTest {
+  private static Path buildDirectoryPath;
+
+  @BeforeClass
+  public static void beforeClass() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty()) buildDirectory = ".";
+
+    buildDirectory += File.separator + "vectoredFileTest";
+    buildDirectoryPath = Paths.get(buildDirectory);
+  }
+
+  @Before
+  public void before() {
+    OFileUtils.deleteRecursively(buildDirectoryPath.toFile());
+  }
+
+  @Test
+  public void testWrite() throws Exception {
+    final VectoredFile file = new VectoredFile(buildDirectoryPath, 1);
+    file.create();
+
+    file.allocateSpace(128);
+    file.allocateSpace(256);
+
+    final long position = file.allocateSpace(1024);
+    Assert.assertEquals(128 + 256, position);
+
+    final byte[] data = new byte[1024];
+    final Random random = new Random();
+
+    random.nextBytes(data);
+
+    file.write(position, ByteBuffer.wrap(data));
+
+    final ByteBuffer result = ByteBuffer.allocate(1024).order(ByteOrder.nativeOrder());
+    file.read(position, result, true);
+
+    Assert.assertArrayEquals(data, result.array());
+    file.close();
+  }
+
+  @Test
+  public void testOpenWriteSeveralChunks() throws Exception {
+    final VectoredFile file = new VectoredFile(buildDirectoryPath, 1);
+    file.create();
+
+    final long position1 = file.allocateSpace(128 * 1024);
+    final long position2 = file.allocateSpace(256 * 1024);
+    final long position3 = file.allocateSpace(1024 * 1024);
+
+    final byte[] data1 = new byte[128 * 1024];
+    final byte[] data2 = new byte[256 * 1024];
+    final byte[] data3 = new byte[1024 * 1024];
+
+    final Random random = new Random();
+
+    random.nextBytes(data1);
+    random.nextBytes(data2);
+    random.nextBytes(data3);
+
+    final List<ORawPair<Long, ByteBuffer>> buffers = new ArrayList<>();
+
+    buffers.add(new ORawPair<>(position3, ByteBuffer.wrap(data3)));
+    buffers.add(new ORawPair<>(position1, ByteBuffer.wrap(data1)));
+    buffers.add(new ORawPair<>(position2, ByteBuffer.wrap(data2)));
+
+    final IOResult result = file.write(buffers);
+    result.await();
+    file.close();
+    file.open();
+
+    final ByteBuffer result1 = ByteBuffer.allocate(128 * 1024);
+    final ByteBuffer result2 = ByteBuffer.allocate(256 * 1024);
+    final ByteBuffer result3 = ByteBuffer.allocate(1024 * 1024);
+
+    file.read(position1, result1, true);
+    file.read(position2, result2, true);
+    file.read(position3, result3, true);
+
+    Assert.assertArrayEquals(result1.array(), data1);
+    Assert.assertArrayEquals(result2.array(), data2);
+    Assert.assertArrayEquals(result3.array(), data3);
+
+    file.close();
+  }
+
+  @Test
+  public void testWriteNotAdjacentChunks() throws Exception {
+    final int pageSize = 1024;
+    final int pages = 3001;
+
+    final VectoredFile file = new VectoredFile(buildDirectoryPath, pageSize);
+    file.create();
+    file.allocateSpace(pages * pageSize);
+
+    final Random random = new Random();
+    final byte[][] data = new byte[pages][];
+    final List<ORawPair<Long, ByteBuffer>> buffers = new ArrayList<>();
+
+    // every third page is skipped, pages are added in reverse order
+    for (int i = pages - 1; i >= 0; i--) {
+      if (i % 3 == 2) {
+        continue;
+      }
+
+      data[i] = new byte[pageSize];
+      random.nextBytes(data[i]);
+      buffers.add(new ORawPair<>((long) i * pageSize, ByteBuffer.wrap(data[i])));
+    }
+
+    file.write(buffers).await();
+    file.close();
+    file.open();
+
+    for (int i = 0; i < pages; i++) {
+      final ByteBuffer result = ByteBuffer.allocate(pageSize);
+      file.read((long) i * pageSize, result, true);
+
+      if (data[i] == null) {
+        Assert.assertArrayEquals(new byte[pageSize], result.array());
+      } else {
+        Assert.assertArrayEquals(data[i], result.array());
+      }
+    }
+
+    file.close();
+  }
+
+  @Test
+  public void testOpenClose() throws Exception {
+    final VectoredFile file = new VectoredFile(buildDirectoryPath, 1);
+    Assert.assertFalse(file.isOpen());
+
+    file.create();
+    Assert.assertTrue(file.isOpen());
+
+    file.close();
+
+    Assert.assertFalse(file.isOpen());
+    file.open();
+    Assert.assertTrue(file.isOpen());
+    file.close();
+    Assert.assertFalse(file.isOpen());
+  }
+
+  @Test
+  public void testWriteWhenInterrupted() throws Exception {
+    final VectoredFile file = new VectoredFile(buildDirectoryPath, 1);
+    file.create();
+
+    final long position1 = file.allocateSpace(1024);
+    final long position2 = file.allocateSpace(1024);
+
+    final byte[] data1 = new byte[1024];
+    final byte[] data2 = new byte[1024];
+
+    final Random random = new Random();
+    random.nextBytes(data1);
+    random.nextBytes(data2);
+
+    final List<ORawPair<Long, ByteBuffer>> buffers = new ArrayList<>();
+    buffers.add(new ORawPair<>(position1, ByteBuffer.wrap(data1)));
+    buffers.add(new ORawPair<>(position2, ByteBuffer.wrap(data2)));
+
+    Thread.currentThread().interrupt();
+    try {
+      file.write(buffers).await();
+      Assert.assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+
+    Assert.assertTrue(file.isOpen());
+
+    final ByteBuffer result = ByteBuffer.allocate(2048).order(ByteOrder.nativeOrder());
+    file.read(position1, result, true);
+
+    final byte[] expected = new byte[2048];
+    System.arraycopy(data1, 0, expected, 0, 1024);
+    System.arraycopy(data2, 0, expected, 1024, 1024);
+    Assert.assertArrayEquals(expected, result.array());
+    file.close();
+  }
+}
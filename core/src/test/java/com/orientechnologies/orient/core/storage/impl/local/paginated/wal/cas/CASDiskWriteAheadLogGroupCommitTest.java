@@ -0,0 +1,129 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated.wal.cas;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALRecordsFactory;
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CASDiskWriteAheadLogGroupCommitTest {
+  private static Path testDirectory;
+
+  private CASDiskWriteAheadLog wal;
+
+  @BeforeClass
+  public static void beforeClass() {
+    testDirectory =
+        Paths.get(
+            System.getProperty(
+                "buildDirectory" + File.separator + "casWALGroupCommitTest",
+                "." + File.separator + "target" + File.separator + "casWALGroupCommitTest"));
+
+    OWALRecordsFactory.INSTANCE.registerNewRecord(1024, CASDiskWriteAheadLogIT.TestRecord.class);
+  }
+
+  @Before
+  public void before() throws Exception {
+    OFileUtils.deleteRecursively(testDirectory.toFile());
+
+    // background fsync is rare, so records are synced by the commits
+    wal =
+        new CASDiskWriteAheadLog(
+            "walGroupCommitTest",
+            testDirectory,
+            testDirectory,
+            100,
+            64,
+            null,
+            null,
+            Integer.MAX_VALUE,
+            Integer.MAX_VALUE,
+            20,
+            true,
+            Locale.US,
+            -1,
+            2_000,
+            false,
+            true,
+            false,
+            10,
+            true,
+            10);
+  }
+
+  @After
+  public void after() throws Exception {
+    wal.close();
+    OFileUtils.deleteRecursively(testDirectory.toFile());
+  }
+
+  @Test
+  public void testConcurrentCommitsShareFsync() throws Exception {
+    final int committers = 8;
+    final Random random = new Random();
+    final List<OLogSequenceNumber> lsns = new ArrayList<>(committers);
+    for (int i = 0; i < committers; i++) {
+      lsns.add(wal.log(new CASDiskWriteAheadLogIT.TestRecord(random, wal.pageSize(), 1)));
+    }
+
+    final CyclicBarrier barrier = new CyclicBarrier(committers);
+    final ExecutorService executor = Executors.newFixedThreadPool(committers);
+    try {
+      final List<Future<Void>> futures = new ArrayList<>(committers);
+      for (final OLogSequenceNumber lsn : lsns) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  barrier.await();
+                  wal.flushTill(lsn);
+                  // waiter returns only once its own record is synced
+                  Assert.assertTrue(wal.getFlushedLsn().compareTo(lsn) >= 0);
+                  return null;
+                }));
+      }
+      for (final Future<Void> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    // all the records are logged before the commits, so the first fsync serves all of them
+    Assert.assertTrue(wal.getGroupCommitFsyncs() <= 1);
+    Assert.assertEquals(committers, wal.getCommitWaitHistogram().count());
+  }
+
+  @Test
+  public void testFlushedCommitDoesNotWait() throws Exception {
+    final Random random = new Random();
+    final OLogSequenceNumber first =
+        wal.log(new CASDiskWriteAheadLogIT.TestRecord(random, wal.pageSize(), 1));
+    wal.flushTill(first);
+    Assert.assertTrue(wal.getFlushedLsn().compareTo(first) >= 0);
+    final long fsyncs = wal.getGroupCommitFsyncs();
+
+    wal.flushTill(first);
+    Assert.assertEquals(fsyncs, wal.getGroupCommitFsyncs());
+
+    final OLogSequenceNumber second =
+        wal.log(new CASDiskWriteAheadLogIT.TestRecord(random, wal.pageSize(), 1));
+    wal.flushTill(second);
+    Assert.assertTrue(wal.getFlushedLsn().compareTo(second) >= 0);
+    Assert.assertEquals(fsyncs + 1, wal.getGroupCommitFsyncs());
+  }
+}
@@ -16,6 +16,7 @@ import com.orientechnologies.orient.core.storage.cache.local.OWOWCache;
 import com.orientechnologies.orient.core.storage.cache.local.doublewritelog.DoubleWriteLogNoOP;
 import com.orientechnologies.orient.core.storage.fs.AsyncFile;
 import com.orientechnologies.orient.core.storage.fs.OFile;
+import com.orientechnologies.orient.core.storage.fs.OFileIOMode;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurablePage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OAbstractWALRecord;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
@@ -167,7 +168,8 @@ public class WOWCacheTestIT {
             OChecksumMode.StoreAndVerify,
             null,
             null,
-            false);
+            false,
+            OFileIOMode.Async);
 
     wowCache.loadRegisteredFiles();
   }
@@ -271,7 +273,8 @@ public class WOWCacheTestIT {
             OChecksumMode.StoreAndVerify,
             iv,
             aesKey,
-            false);
+            false,
+            OFileIOMode.Async);
 
     wowCache.loadRegisteredFiles();
 
@@ -502,7 +505,8 @@ public class WOWCacheTestIT {
             OChecksumMode.StoreAndVerify,
             iv,
             aesKey,
-            false);
+            false,
+            OFileIOMode.Async);
 
     wowCache.loadRegisteredFiles();
 
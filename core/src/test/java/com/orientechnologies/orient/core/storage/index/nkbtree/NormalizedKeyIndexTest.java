@@ -0,0 +1,276 @@
+package com.orientechnologies.orient.core.storage.index.nkbtree;
+
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexException;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NormalizedKeyIndexTest {
+  private OrientDB orientDB;
+  private ODatabaseSession db;
+
+  @Before
+  public void before() {
+    orientDB = new OrientDB("embedded:", OrientDBConfig.defaultConfig());
+    OCreateDatabaseUtil.createDatabase(
+        NormalizedKeyIndexTest.class.getSimpleName(), orientDB, OCreateDatabaseUtil.TYPE_MEMORY);
+    db =
+        orientDB.open(
+            NormalizedKeyIndexTest.class.getSimpleName(),
+            "admin",
+            OCreateDatabaseUtil.NEW_ADMIN_PASSWORD);
+
+    final OClass tenantClass = db.createClass("TenantEvent");
+    tenantClass.createProperty("tenantId", OType.INTEGER);
+    tenantClass.createProperty("name", OType.STRING);
+    tenantClass.createProperty("date", OType.DATETIME);
+    db.command(
+            "create index TenantEvent.key on TenantEvent (tenantId, name, date) UNIQUE ENGINE"
+                + " NKBTREE")
+        .close();
+  }
+
+  @After
+  public void after() {
+    db.close();
+    orientDB.drop(NormalizedKeyIndexTest.class.getSimpleName());
+    orientDB.close();
+  }
+
+  @Test
+  public void testPutGetRemove() {
+    final Date date = new Date(1_000_000);
+    final ORID first = createEvent(1, "first", date);
+    final ORID second = createEvent(1, "second", date);
+    final ORID third = createEvent(2, "first", date);
+
+    final OIndex index = getIndex();
+    Assert.assertEquals(3, index.getInternal().size());
+
+    Assert.assertEquals(first, getRid(index, 1, "first", date));
+    Assert.assertEquals(second, getRid(index, 1, "second", date));
+    Assert.assertEquals(third, getRid(index, 2, "first", date));
+    Assert.assertNull(getRid(index, 2, "second", date));
+    Assert.assertNull(getRid(index, 1, "first", new Date(2_000_000)));
+
+    db.delete(second);
+    Assert.assertEquals(2, index.getInternal().size());
+    Assert.assertNull(getRid(index, 1, "second", date));
+  }
+
+  @Test(expected = ORecordDuplicatedException.class)
+  public void testDuplicateKey() {
+    final Date date = new Date(1_000_000);
+    createEvent(1, "first", date);
+    createEvent(1, "first", date);
+  }
+
+  @Test
+  public void testKeyStream() {
+    final Date date = new Date(1_000_000);
+    for (int i = 0; i < 100; i++) {
+      createEvent(i % 10, "name" + i, date);
+    }
+
+    final OIndex index = getIndex();
+    try (Stream<Object> keyStream = index.getInternal().keyStream()) {
+      final List<Object> keys = keyStream.collect(Collectors.toList());
+      Assert.assertEquals(100, keys.size());
+      for (int i = 0; i < 100; i++) {
+        Assert.assertTrue(keys.contains(new OCompositeKey(i % 10, "name" + i, date)));
+      }
+    }
+  }
+
+  @Test
+  public void testQuery() {
+    final Date date = new Date(1_000_000);
+    for (int i = 0; i < 100; i++) {
+      createEvent(i % 10, "name" + i, date);
+    }
+
+    try (OResultSet resultSet =
+        db.query(
+            "select from TenantEvent where tenantId = ? and name = ? and date = ?",
+            5,
+            "name15",
+            date)) {
+      Assert.assertTrue(resultSet.hasNext());
+      Assert.assertEquals("name15", resultSet.next().getProperty("name"));
+      Assert.assertFalse(resultSet.hasNext());
+    }
+
+    try (OResultSet resultSet =
+        db.query("select from TenantEvent where tenantId = ? and name > ?", 5, "name15")) {
+      Assert.assertEquals(9, resultSet.stream().count());
+    }
+  }
+
+  @Test
+  public void testDescStream() {
+    final Date date = new Date(1_000_000);
+    for (int i = 0; i < 100; i++) {
+      createEvent(i % 10, "name" + i, date);
+    }
+
+    final OIndex index = getIndex();
+    final List<Object> keys;
+    try (Stream<ORawPair<Object, ORID>> stream = index.getInternal().stream()) {
+      keys = stream.map((entry) -> entry.first).collect(Collectors.toList());
+    }
+    Assert.assertEquals(100, keys.size());
+
+    final List<Object> descKeys;
+    try (Stream<ORawPair<Object, ORID>> stream = index.getInternal().descStream()) {
+      descKeys = stream.map((entry) -> entry.first).collect(Collectors.toList());
+    }
+    Collections.reverse(descKeys);
+    Assert.assertEquals(keys, descKeys);
+  }
+
+  @Test
+  public void testRangeQueries() {
+    final OClass priceClass = db.createClass("Price");
+    priceClass.createProperty("amount", OType.DECIMAL);
+    db.command("create index Price.amount on Price (amount) UNIQUE ENGINE NKBTREE").close();
+    for (int i = 0; i < 100; i++) {
+      final OElement price = db.newElement("Price");
+      price.setProperty("amount", new BigDecimal(i).movePointLeft(1));
+      db.save(price);
+    }
+    final OIndex index =
+        ((ODatabaseDocumentInternal) db)
+            .getMetadata()
+            .getIndexManagerInternal()
+            .getIndex((ODatabaseDocumentInternal) db, "Price.amount");
+
+    try (Stream<ORawPair<Object, ORID>> stream =
+        index
+            .getInternal()
+            .streamEntriesBetween(
+                new BigDecimal("1.5"), true, new BigDecimal("2.5"), false, true)) {
+      Assert.assertEquals(
+          Collections.singletonList(new BigDecimal("1.5")),
+          stream.map((entry) -> entry.first).limit(1).collect(Collectors.toList()));
+    }
+    try (Stream<ORawPair<Object, ORID>> stream =
+        index
+            .getInternal()
+            .streamEntriesBetween(
+                new BigDecimal("1.5"), false, new BigDecimal("2.5"), true, true)) {
+      Assert.assertEquals(10, stream.count());
+    }
+    try (Stream<ORawPair<Object, ORID>> stream =
+        index.getInternal().streamEntriesMajor(new BigDecimal("9"), false, false)) {
+      final List<Object> keys = stream.map((entry) -> entry.first).collect(Collectors.toList());
+      Assert.assertEquals(9, keys.size());
+      Assert.assertEquals(new BigDecimal("9.9"), keys.get(0));
+    }
+    try (Stream<ORawPair<Object, ORID>> stream =
+        index.getInternal().streamEntriesMinor(new BigDecimal("1"), true, true)) {
+      Assert.assertEquals(11, stream.count());
+    }
+
+    try (OResultSet resultSet = db.query("select from Price where amount >= 5 and amount < 6")) {
+      Assert.assertEquals(10, resultSet.stream().count());
+    }
+    try (OResultSet resultSet =
+        db.query("select amount from Price where amount < 0.3 order by amount desc")) {
+      final List<Object> amounts =
+          resultSet.stream()
+              .map((result) -> result.getProperty("amount"))
+              .collect(Collectors.toList());
+      Assert.assertEquals(3, amounts.size());
+      Assert.assertEquals(0, new BigDecimal("0.2").compareTo((BigDecimal) amounts.get(0)));
+    }
+  }
+
+  @Test
+  public void testCompositeRangeQueries() {
+    final Date date = new Date(1_000_000);
+    for (int i = 0; i < 100; i++) {
+      createEvent(i % 10, "name" + i, date);
+    }
+
+    final OIndex index = getIndex();
+    try (Stream<ORawPair<Object, ORID>> stream =
+        index
+            .getInternal()
+            .streamEntriesBetween(new OCompositeKey(3), true, new OCompositeKey(5), true, true)) {
+      Assert.assertEquals(30, stream.count());
+    }
+    try (Stream<ORawPair<Object, ORID>> stream =
+        index.getInternal().streamEntriesMajor(new OCompositeKey(3, "name33"), false, true)) {
+      // name43 .. name93 of tenant 3 and all the names of tenants 4 .. 9
+      Assert.assertEquals(6 + 60, stream.count());
+    }
+    try (Stream<ORawPair<Object, ORID>> stream =
+        index.getInternal().streamEntriesMinor(new OCompositeKey(1), false, false)) {
+      Assert.assertEquals(10, stream.count());
+    }
+  }
+
+  @Test(expected = ORecordDuplicatedException.class)
+  public void testDuplicateDecimalKey() {
+    final OClass priceClass = db.createClass("Price");
+    priceClass.createProperty("amount", OType.DECIMAL);
+    db.command("create index Price.amount on Price (amount) UNIQUE ENGINE NKBTREE").close();
+
+    final OElement first = db.newElement("Price");
+    first.setProperty("amount", new BigDecimal("1.0"));
+    db.save(first);
+
+    final OElement second = db.newElement("Price");
+    second.setProperty("amount", new BigDecimal("1.00"));
+    db.save(second);
+  }
+
+  @Test(expected = OIndexException.class)
+  public void testNotUniqueIsNotSupported() {
+    db.command("create index TenantEvent.name on TenantEvent (name) NOTUNIQUE ENGINE NKBTREE")
+        .close();
+  }
+
+  private ORID createEvent(final int tenantId, final String name, final Date date) {
+    final OElement event = db.newElement("TenantEvent");
+    event.setProperty("tenantId", tenantId);
+    event.setProperty("name", name);
+    event.setProperty("date", date);
+    return db.save(event).getIdentity();
+  }
+
+  private OIndex getIndex() {
+    return ((ODatabaseDocumentInternal) db)
+        .getMetadata()
+        .getIndexManagerInternal()
+        .getIndex((ODatabaseDocumentInternal) db, "TenantEvent.key");
+  }
+
+  private static ORID getRid(
+      final OIndex index, final int tenantId, final String name, final Date date) {
+    try (Stream<ORID> rids = index.getInternal().getRids(new OCompositeKey(tenantId, name, date))) {
+      return rids.findFirst().orElse(null);
+    }
+  }
+}
@@ -9,7 +9,10 @@ import com.orientechnologies.orient.core.db.OrientDBConfig;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperationsManager;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
@@ -141,6 +144,65 @@ public class BTreeTestIT {
     }
   }
 
+  @Test
+  public void testKeyPutAll() throws Exception {
+    // keys of other bags surround keys of the batch, so batch has to respect bounds of leaves
+    final List<ORawPair<EdgeKey, Integer>> otherEntries = new ArrayList<>();
+    for (int i = 0; i < keysCount; i++) {
+      otherEntries.add(new ORawPair<>(new EdgeKey(41, i % 32, i), -i));
+    }
+    for (int i = 0; i < keysCount; i++) {
+      otherEntries.add(new ORawPair<>(new EdgeKey(43, i % 32, i), -i));
+    }
+    otherEntries.sort(Comparator.comparing(entry -> entry.first));
+    atomicOperationsManager.executeInsideAtomicOperation(
+        null, atomicOperation -> bTree.putAll(atomicOperation, otherEntries));
+
+    final int existing = keysCount / 2;
+    for (int i = 0; i < existing; i++) {
+      final int index = i * 2;
+      atomicOperationsManager.executeInsideAtomicOperation(
+          null, atomicOperation -> bTree.put(atomicOperation, new EdgeKey(42, 3, index), 1));
+    }
+
+    final List<ORawPair<EdgeKey, Integer>> entries = new ArrayList<>();
+    for (int i = 0; i < keysCount; i++) {
+      entries.add(new ORawPair<>(new EdgeKey(42, 3, i), i + 1_000_000));
+    }
+    atomicOperationsManager.executeInsideAtomicOperation(
+        null, atomicOperation -> bTree.putAll(atomicOperation, entries));
+
+    for (int i = 0; i < keysCount; i++) {
+      Assert.assertEquals(i + 1_000_000, bTree.get(new EdgeKey(42, 3, i)));
+      Assert.assertEquals(-i, bTree.get(new EdgeKey(41, i % 32, i)));
+      Assert.assertEquals(-i, bTree.get(new EdgeKey(43, i % 32, i)));
+    }
+
+    try (Stream<ORawPair<EdgeKey, Integer>> stream =
+        bTree.iterateEntriesBetween(
+            new EdgeKey(42, Integer.MIN_VALUE, Long.MIN_VALUE),
+            true,
+            new EdgeKey(42, Integer.MAX_VALUE, Long.MAX_VALUE),
+            true,
+            true)) {
+      Assert.assertEquals(keysCount, stream.count());
+    }
+
+    // entries out of order are looked up from the root
+    final List<ORawPair<EdgeKey, Integer>> reversed = new ArrayList<>();
+    for (int i = keysCount - 1; i >= 0; i--) {
+      reversed.add(new ORawPair<>(new EdgeKey(42, 3, i), i + 2_000_000));
+    }
+    atomicOperationsManager.executeInsideAtomicOperation(
+        null, atomicOperation -> bTree.putAll(atomicOperation, reversed));
+
+    for (int i = 0; i < keysCount; i++) {
+      Assert.assertEquals(i + 2_000_000, bTree.get(new EdgeKey(42, 3, i)));
+      Assert.assertEquals(-i, bTree.get(new EdgeKey(41, i % 32, i)));
+      Assert.assertEquals(-i, bTree.get(new EdgeKey(43, i % 32, i)));
+    }
+  }
+
   @Test
   public void testKeyPutRandomUniform() throws Exception {
     final NavigableSet<EdgeKey> keys = new TreeSet<>();
@@ -76,6 +76,57 @@ public class ORidBagAtomicUpdateTest extends DatabaseAbstractTest {
     Assert.assertEquals(ridBag.size(), 0);
   }
 
+  @Test
+  public void testAddManyNewDocumentsAndRemoveStoredOnesInOneTransaction() {
+    final String clusterName = database.getClusterNameById(database.getDefaultClusterId());
+    ODocument rootDoc = new ODocument();
+    ORidBag ridBag = new ORidBag();
+    rootDoc.field("ridBag", ridBag);
+    final List<ODocument> storedDocs = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      ODocument doc = new ODocument();
+      doc.save(clusterName);
+      storedDocs.add(doc);
+      ridBag.add(doc);
+    }
+    rootDoc.save(clusterName);
+
+    // temporary identities of the new documents precede the stored ones, but the final ones follow
+    // them, so the changes are not sorted by the final identities any more once they are committed
+    database.begin();
+    final List<ODocument> newDocs = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      ODocument doc = new ODocument();
+      doc.save(clusterName);
+      newDocs.add(doc);
+      ridBag.add(doc);
+    }
+    for (int i = 0; i < storedDocs.size(); i += 2) {
+      ridBag.remove(storedDocs.get(i));
+    }
+    ridBag.add(storedDocs.get(1));
+    rootDoc.save(clusterName);
+    database.commit();
+
+    database.getLocalCache().clear();
+    rootDoc = database.load(rootDoc.getIdentity());
+    ridBag = rootDoc.field("ridBag");
+    Assert.assertEquals(newDocs.size() + storedDocs.size() / 2 + 1, ridBag.size());
+
+    final Map<ORID, Integer> counters = new HashMap<>();
+    for (OIdentifiable identifiable : ridBag) {
+      counters.merge(identifiable.getIdentity(), 1, Integer::sum);
+    }
+    for (int i = 0; i < storedDocs.size(); i++) {
+      final Integer expected = i == 1 ? Integer.valueOf(2) : i % 2 == 1 ? 1 : null;
+      Assert.assertEquals(expected, counters.get(storedDocs.get(i).getIdentity()));
+    }
+    for (ODocument doc : newDocs) {
+      Assert.assertTrue(doc.getIdentity().isPersistent());
+      Assert.assertEquals(Integer.valueOf(1), counters.get(doc.getIdentity()));
+    }
+  }
+
   @Test
   public void testAddTwoNewDocumentsWithCME() {
     final ODocument cmeDoc = new ODocument();
@@ -0,0 +1,70 @@
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.compression.impl.OLZ4Compression;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OChannelCompressedInputStreamTest {
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    byte[] data = new byte[200 * 1024];
+    for (int i = 0; i < data.length; i++) data[i] = (byte) (i % 17);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    OChannelCompressedOutputStream out =
+        new OChannelCompressedOutputStream(bytes, OLZ4Compression.INSTANCE, 1024);
+    out.write(data);
+    out.flush();
+    Assert.assertTrue(bytes.size() < data.length);
+
+    byte[] read = new byte[data.length];
+    new DataInputStream(
+            new OChannelCompressedInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()), OLZ4Compression.INSTANCE))
+        .readFully(read);
+    Assert.assertArrayEquals(data, read);
+  }
+
+  @Test(expected = ONetworkProtocolException.class)
+  public void testBlockLengthIsChecked() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeByte(OChannelCompressedOutputStream.PLAIN_BLOCK);
+    out.writeInt(Integer.MAX_VALUE);
+
+    new OChannelCompressedInputStream(
+            new ByteArrayInputStream(bytes.toByteArray()), OLZ4Compression.INSTANCE)
+        .read();
+  }
+
+  @Test(expected = ONetworkProtocolException.class)
+  public void testUncompressedLengthIsChecked() throws IOException {
+    byte[] compressed = OLZ4Compression.INSTANCE.compress(new byte[1024]);
+    // DECLARES MORE THAN THE MAXIMUM BLOCK SIZE
+    OIntegerSerializer.INSTANCE.serializeLiteral(Integer.MAX_VALUE - 8, compressed, 0);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeByte(OChannelCompressedOutputStream.COMPRESSED_BLOCK);
+    out.writeInt(compressed.length);
+    out.write(compressed);
+
+    new OChannelCompressedInputStream(
+            new ByteArrayInputStream(bytes.toByteArray()), OLZ4Compression.INSTANCE)
+        .read();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCorruptedContentIsRejected() {
+    byte[] compressed = OLZ4Compression.INSTANCE.compress(new byte[1024]);
+    OLZ4Compression.INSTANCE.uncompress(Arrays.copyOf(compressed, compressed.length - 2));
+  }
+}
@@ -23,6 +23,7 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.profiler.OAbstractProfiler.OProfilerHookValue;
 import com.orientechnologies.common.profiler.OProfiler.METRIC_TYPE;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.command.OCommandRequestText;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
@@ -49,6 +50,11 @@ import java.util.Set;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.net.ssl.SSLSocket;
 
@@ -61,6 +67,7 @@ public class OClientConnectionManager {
   protected final ConcurrentMap<OHashToken, OClientSessions> sessions =
       new ConcurrentHashMap<OHashToken, OClientSessions>();
   protected final TimerTask timerTask;
+  private final ThreadPoolExecutor multiplexingExecutor;
   private OServer server;
 
   public OClientConnectionManager(OServer server) {
@@ -79,6 +86,18 @@ public class OClientConnectionManager {
                 delay,
                 delay);
 
+    final int workers =
+        OGlobalConfiguration.NETWORK_BINARY_MULTIPLEXING_WORKERS.getValueAsInteger();
+    multiplexingExecutor =
+        new OThreadPoolExecutorWithLogging(
+            workers,
+            workers,
+            1,
+            TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            new MultiplexingThreadFactory());
+    multiplexingExecutor.allowCoreThreadTimeOut(true);
+
     Orient.instance()
         .getProfiler()
         .registerHookValue(
@@ -457,8 +476,14 @@ public class OClientConnectionManager {
     }
   }
 
+  /** @return executor of the requests received on multiplexed binary channels */
+  public ExecutorService getMultiplexingExecutor() {
+    return multiplexingExecutor;
+  }
+
   public void shutdown() {
     timerTask.cancel();
+    multiplexingExecutor.shutdown();
 
     List<ONetworkProtocol> toWait = new ArrayList<ONetworkProtocol>();
 
@@ -568,4 +593,16 @@ public class OClientConnectionManager {
       return sessions.get(key);
     }
   }
+
+  private static class MultiplexingThreadFactory implements ThreadFactory {
+    private final AtomicInteger serial = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread th = new Thread(r);
+      th.setName("OrientDB Multiplexed Requests " + serial.incrementAndGet());
+      th.setDaemon(true);
+      return th;
+    }
+  }
 }
@@ -0,0 +1,49 @@
+package com.orientechnologies.orient.server;
+
+import com.orientechnologies.orient.core.sql.parser.OStatement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parsed statements prepared by a client session, identified by the handles sent back to the
+ * client. The least recently used statements are dropped first, a client sending the handle of a
+ * dropped statement prepares it again.
+ */
+public class OClientPreparedStatements {
+  // HANDLES ARE UNIQUE IN THE SERVER, SO A HANDLE OF ANOTHER SESSION IS NEVER FOUND
+  private static final AtomicInteger serial = new AtomicInteger();
+
+  private final Map<Integer, OStatement> statements;
+
+  public OClientPreparedStatements(final int maxStatements) {
+    statements =
+        new LinkedHashMap<Integer, OStatement>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(final Map.Entry<Integer, OStatement> eldest) {
+            return size() > maxStatements;
+          }
+        };
+  }
+
+  /** Keeps the statement and returns its handle. */
+  public synchronized int prepare(final OStatement statement) {
+    final int handle = serial.getAndIncrement() & Integer.MAX_VALUE;
+    statements.put(handle, statement);
+    return handle;
+  }
+
+  /**
+   * Returns the prepared statement or null if not found or if the hash of its text does not match
+   * the expected one.
+   */
+  public synchronized OStatement get(final int handle, final int statementHash) {
+    final OStatement statement = statements.get(handle);
+    if (statement == null || statement.getOriginalStatement() == null) return null;
+    return statement.getOriginalStatement().hashCode() == statementHash ? statement : null;
+  }
+
+  public synchronized int size() {
+    return statements.size();
+  }
+}
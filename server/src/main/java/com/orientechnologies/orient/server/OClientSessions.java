@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.server;
 
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -10,11 +11,24 @@ public class OClientSessions {
   private List<OClientConnection> connections =
       Collections.synchronizedList(new ArrayList<OClientConnection>());
   private byte[] binaryToken;
+  private OClientPreparedStatements preparedStatements;
 
   public OClientSessions(byte[] binaryToken) {
     this.binaryToken = binaryToken;
   }
 
+  /**
+   * Returns the statements prepared by the session, or null if prepared statements are disabled.
+   */
+  public synchronized OClientPreparedStatements getPreparedStatements() {
+    if (preparedStatements == null) {
+      final int size = OGlobalConfiguration.NETWORK_BINARY_PREPARED_STATEMENTS.getValueAsInteger();
+      if (size <= 0) return null;
+      preparedStatements = new OClientPreparedStatements(size);
+    }
+    return preparedStatements;
+  }
+
   public void addConnection(OClientConnection conn) {
     this.connections.add(conn);
   }
@@ -19,6 +19,7 @@ import com.orientechnologies.orient.core.command.OCommandResultListener;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.*;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentEmbedded;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.db.tool.ODatabaseImport;
@@ -45,10 +46,12 @@ import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializerFactory;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkV37;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.parser.OLocalResultSetLifecycleDecorator;
+import com.orientechnologies.orient.core.sql.parser.OStatement;
 import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 import com.orientechnologies.orient.core.storage.OPhysicalPosition;
@@ -1332,6 +1335,50 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
 
   @Override
   public OBinaryResponse executeQuery(OQueryRequest request) {
+    return executeQuery(request, null);
+  }
+
+  @Override
+  public OBinaryResponse executeQueryPrepared(OQueryPreparedRequest request) {
+    OQueryRequest query = request.getQuery();
+    if (OQueryRequest.EXECUTE == query.getOperationType()
+        || !(connection.getDatabase() instanceof ODatabaseDocumentEmbedded)) {
+      // ONLY SQL QUERIES AND COMMANDS ARE PREPARED
+      if (request.getStatementHandle() != OQueryPreparedRequest.NO_HANDLE) {
+        return new OQueryPreparedResponse();
+      }
+      return new OQueryPreparedResponse(OQueryPreparedRequest.NO_HANDLE, executeQuery(query, null));
+    }
+    OClientPreparedStatements prepared = null;
+    if (connection.getTokenBytes() != null) {
+      OClientSessions session = server.getClientConnectionManager().getSession(connection);
+      if (session != null) prepared = session.getPreparedStatements();
+    }
+
+    if (request.getStatementHandle() != OQueryPreparedRequest.NO_HANDLE) {
+      OStatement statement =
+          prepared != null
+              ? prepared.get(request.getStatementHandle(), request.getStatementHash())
+              : null;
+      if (statement == null) {
+        // UNKNOWN HANDLE: THE CLIENT SENDS THE STATEMENT TEXT AGAIN
+        return new OQueryPreparedResponse();
+      }
+      return new OQueryPreparedResponse(
+          request.getStatementHandle(), executeQuery(query, statement));
+    }
+
+    OStatement statement = OSQLEngine.parse(query.getStatement(), connection.getDatabase());
+    int handle = OQueryPreparedRequest.NO_HANDLE;
+    if (prepared != null) handle = prepared.prepare(statement);
+    return new OQueryPreparedResponse(handle, executeQuery(query, statement));
+  }
+
+  /**
+   * Executes the query of the request, using the already parsed statement if any instead of the
+   * statement text.
+   */
+  private OQueryResponse executeQuery(OQueryRequest request, OStatement statement) {
     ODatabaseDocumentInternal database = connection.getDatabase();
     OQueryMetadataUpdateListener metadataListener = new OQueryMetadataUpdateListener();
     database.getSharedContext().registerListener(metadataListener);
@@ -1339,7 +1386,22 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
       ((OTransactionOptimistic) database.getTransaction()).resetChangesTracking();
     }
     OResultSet rs;
-    if (OQueryRequest.QUERY == request.getOperationType()) {
+    if (statement != null) {
+      ODatabaseDocumentEmbedded embedded = (ODatabaseDocumentEmbedded) database;
+      if (OQueryRequest.QUERY == request.getOperationType()) {
+        if (request.isNamedParams()) {
+          rs = embedded.queryStatement(statement, request.getNamedParameters());
+        } else {
+          rs = embedded.queryStatement(statement, request.getPositionalParameters());
+        }
+      } else {
+        if (request.isNamedParams()) {
+          rs = embedded.commandStatement(statement, request.getNamedParameters());
+        } else {
+          rs = embedded.commandStatement(statement, request.getPositionalParameters());
+        }
+      }
+    } else if (OQueryRequest.QUERY == request.getOperationType()) {
       // TODO Assert is sql.
       if (request.isNamedParams()) {
         rs = database.query(request.getStatement(), request.getNamedParameters());
@@ -1698,6 +1760,14 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
     return new OSubscribeSequencesResponse();
   }
 
+  @Override
+  public OBinaryResponse executeSubscribeRecords(OSubscribeRecordsRequest request) {
+    OPushManager manager = server.getPushManager();
+    manager.subscribeRecords(
+        connection.getDatabase(), (ONetworkProtocolBinary) connection.getProtocol());
+    return new OSubscribeRecordsResponse();
+  }
+
   @Override
   public OBinaryResponse executeUnsubscribeLiveQuery(OUnsubscribeLiveQueryRequest request) {
     ODatabaseDocumentInternal database = connection.getDatabase();
@@ -12,16 +12,24 @@ import com.orientechnologies.orient.client.remote.message.OPushStorageConfigurat
 import com.orientechnologies.orient.core.config.OStorageConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.OMetadataUpdateListener;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.index.OIndexManagerAbstract;
 import com.orientechnologies.orient.core.index.OIndexManagerShared;
 import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
+import com.orientechnologies.orient.core.query.live.OLiveQueryHookV2;
+import com.orientechnologies.orient.core.query.live.OLiveQueryListenerV2;
+import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
@@ -39,7 +47,9 @@ public class OPushManager implements OMetadataUpdateListener {
   protected final OPushEventType indexManager = new OPushEventType();
   protected final OPushEventType functions = new OPushEventType();
   protected final OPushEventType sequences = new OPushEventType();
+  protected final OPushRecordsEventType records = new OPushRecordsEventType();
   private Set<String> registerDatabase = new HashSet<>();
+  private final Map<String, RecordsListener> recordsListeners = new HashMap<>();
   private final ExecutorService executor;
 
   public OPushManager() {
@@ -84,6 +94,20 @@ public class OPushManager implements OMetadataUpdateListener {
     indexManager.cleanListeners();
     functions.cleanListeners();
     sequences.cleanListeners();
+    records.cleanListeners();
+    unsubscribeUnusedRecordsListeners();
+  }
+
+  /** Stops to collect the changes of the records of the databases without subscribed clients. */
+  private void unsubscribeUnusedRecordsListeners() {
+    final Iterator<RecordsListener> iter = recordsListeners.values().iterator();
+    while (iter.hasNext()) {
+      final RecordsListener listener = iter.next();
+      if (!records.hasListeners(listener.database)) {
+        listener.ops.unsubscribe(listener.getToken());
+        iter.remove();
+      }
+    }
   }
 
   private void cleanListeners(Map<String, Set<WeakReference<ONetworkProtocolBinary>>> toClean) {
@@ -135,6 +159,25 @@ public class OPushManager implements OMetadataUpdateListener {
     genericSubscribe(sequences, database, protocol);
   }
 
+  /**
+   * Subscribes to the identities of the documents updated or deleted in the database, the changes
+   * are collected from the live query notifications of the database.
+   */
+  public synchronized void subscribeRecords(
+      ODatabaseDocumentInternal database, ONetworkProtocolBinary protocol) {
+    final RecordsListener listener =
+        recordsListeners.computeIfAbsent(database.getName(), RecordsListener::new);
+    // THE LISTENER IS REGISTERED AGAIN IN CASE THE DATABASE HAS BEEN CLOSED IN THE MEANWHILE
+    listener.ops = OLiveQueryHookV2.getOpsReference(database);
+    if (OLiveQueryHookV2.subscribe(listener.getToken(), listener, database) == -1) {
+      throw new ODatabaseException(
+          "Cannot notify the changes of the records of database '"
+              + database.getName()
+              + "', live query support is disabled");
+    }
+    records.subscribe(database.getName(), protocol);
+  }
+
   @Override
   public void onSchemaUpdate(String database, OSchemaShared schema) {
     OPushSchemaRequest request = new OPushSchemaRequest(schema.toNetworkStream());
@@ -166,7 +209,8 @@ public class OPushManager implements OMetadataUpdateListener {
     storageConfigurations.send(database, request, this);
   }
 
-  public void genericNotify(
+  /** Sends the pending request of the database to the clients, returns false if rejected. */
+  public boolean genericNotify(
       Map<String, Set<WeakReference<ONetworkProtocolBinary>>> context,
       String database,
       OPushEventType pack) {
@@ -180,17 +224,16 @@ public class OPushManager implements OMetadataUpdateListener {
                 clients = new HashSet<>(cl);
               }
             }
-            if (clients != null) {
+            // THE PENDING REQUEST IS TAKEN ONCE AND SENT TO ALL THE CLIENTS
+            OBinaryPushRequest<?> request = pack.getRequest(database);
+            if (clients != null && request != null) {
               Iterator<WeakReference<ONetworkProtocolBinary>> iter = clients.iterator();
               while (iter.hasNext()) {
                 WeakReference<ONetworkProtocolBinary> ref = iter.next();
                 ONetworkProtocolBinary protocolBinary = ref.get();
                 if (protocolBinary != null) {
                   try {
-                    OBinaryPushRequest<?> request = pack.getRequest(database);
-                    if (request != null) {
-                      OBinaryPushResponse response = protocolBinary.push(request);
-                    }
+                    OBinaryPushResponse response = protocolBinary.push(request);
                   } catch (IOException e) {
                     synchronized (OPushManager.this) {
                       context.get(database).remove(ref);
@@ -204,9 +247,39 @@ public class OPushManager implements OMetadataUpdateListener {
               }
             }
           });
+      return true;
     } catch (RejectedExecutionException e) {
       OLogManager.instance()
           .info(this, "Cannot send push request to client for database '%s'", database);
+      return false;
+    }
+  }
+
+  private class RecordsListener implements OLiveQueryListenerV2 {
+    private final String database;
+    private final int token = new Random().nextInt();
+    private OLiveQueryHookV2.OLiveQueryOps ops;
+
+    private RecordsListener(String database) {
+      this.database = database;
+    }
+
+    @Override
+    public void onLiveResult(OLiveQueryHookV2.OLiveQueryOp iRecord) {
+      if (iRecord.type == ORecordOperation.CREATED) return;
+      OResult changed = iRecord.before != null ? iRecord.before : iRecord.after;
+      Object rid = changed.getProperty("@rid");
+      if (rid instanceof OIdentifiable) {
+        records.send(database, ((OIdentifiable) rid).getIdentity(), OPushManager.this);
+      }
+    }
+
+    @Override
+    public void onLiveResultEnd() {}
+
+    @Override
+    public int getToken() {
+      return token;
     }
   }
 
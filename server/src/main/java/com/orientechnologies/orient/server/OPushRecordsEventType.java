@@ -0,0 +1,67 @@
+package com.orientechnologies.orient.server;
+
+import com.orientechnologies.orient.client.remote.message.OBinaryPushRequest;
+import com.orientechnologies.orient.client.remote.message.OPushRecordsRequest;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinary;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+import java.lang.ref.WeakReference;
+import java.net.Socket;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Collects the identities of the changed documents of a database till they are pushed, so all the
+ * changes happened while a push is in progress are sent with the next push.
+ */
+public class OPushRecordsEventType extends OPushEventType {
+  private final Set<String> notified = new HashSet<>();
+
+  public synchronized void send(String database, ORID rid, OPushManager pushManager) {
+    OPushRecordsRequest pending = (OPushRecordsRequest) databases.get(database);
+    if (pending == null) {
+      pending = new OPushRecordsRequest();
+      databases.put(database, pending);
+    }
+    pending.addRecord(rid.copy());
+    // A REJECTED NOTIFICATION IS RETRIED WITH THE NEXT CHANGE, THE COLLECTED CHANGES ARE KEPT
+    if (notified.add(database) && !pushManager.genericNotify(listeners, database, this)) {
+      notified.remove(database);
+    }
+  }
+
+  /**
+   * Removes also the clients whose channel is closed, because the listener of the changes is kept
+   * only while a client is subscribed.
+   */
+  @Override
+  public synchronized void cleanListeners() {
+    for (Set<WeakReference<ONetworkProtocolBinary>> value : listeners.values()) {
+      Iterator<WeakReference<ONetworkProtocolBinary>> iter = value.iterator();
+      while (iter.hasNext()) {
+        final ONetworkProtocolBinary protocol = iter.next().get();
+        if (protocol == null || isClosed(protocol)) {
+          iter.remove();
+        }
+      }
+    }
+  }
+
+  private static boolean isClosed(ONetworkProtocolBinary protocol) {
+    final OChannelBinary channel = protocol.getChannel();
+    final Socket socket = channel != null ? channel.socket : null;
+    return socket == null || socket.isClosed() || socket.isInputShutdown();
+  }
+
+  public synchronized boolean hasListeners(String database) {
+    final Set<WeakReference<ONetworkProtocolBinary>> clients = listeners.get(database);
+    return clients != null && !clients.isEmpty();
+  }
+
+  @Override
+  public synchronized OBinaryPushRequest<?> getRequest(String database) {
+    notified.remove(database);
+    return super.getRequest(database);
+  }
+}
@@ -32,6 +32,8 @@ import com.orientechnologies.orient.server.config.OServerCommandConfiguration;
 import com.orientechnologies.orient.server.config.OServerParameterConfiguration;
 import com.orientechnologies.orient.server.network.protocol.OBeforeDatabaseOpenNetworkEventListener;
 import com.orientechnologies.orient.server.network.protocol.ONetworkProtocol;
+import com.orientechnologies.orient.server.network.protocol.binary.OBinaryConnectionSelector;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
 import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommand;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
@@ -42,6 +44,7 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -58,6 +61,7 @@ public class OServerNetworkListener extends Thread {
   private OContextConfiguration configuration;
   private OServer server;
   private int protocolVersion = -1;
+  private OBinaryConnectionSelector connectionSelector;
   private List<OBeforeDatabaseOpenNetworkEventListener> beforeDatabaseOpenNetworkEventListener =
       new ArrayList<OBeforeDatabaseOpenNetworkEventListener>();
 
@@ -88,11 +92,11 @@ public class OServerNetworkListener extends Thread {
       throw OException.wrapException(new ONetworkProtocolException(message), e);
     }
 
-    listen(iHostName, iHostPortRange, iProtocolName, iProtocol);
     protocolType = iProtocol;
-
     readParameters(iServer.getContextConfiguration(), iParameters);
 
+    listen(iHostName, iHostPortRange, iProtocolName, iProtocol);
+
     if (iCommands != null) {
       for (int i = 0; i < iCommands.length; ++i) {
         if (iCommands[i].stateful)
@@ -104,6 +108,7 @@ public class OServerNetworkListener extends Thread {
       }
     }
 
+    if (connectionSelector != null) connectionSelector.start();
     start();
   }
 
@@ -196,6 +201,8 @@ public class OServerNetworkListener extends Thread {
         serverSocket.close();
       } catch (IOException e) {
       }
+
+    if (connectionSelector != null) connectionSelector.shutdown();
   }
 
   public boolean isActive() {
@@ -278,6 +285,14 @@ public class OServerNetworkListener extends Thread {
     return protocolType;
   }
 
+  /**
+   * Returns the selector which serves the connections of this listener, null if every connection is
+   * served by its own thread.
+   */
+  public OBinaryConnectionSelector getConnectionSelector() {
+    return connectionSelector;
+  }
+
   public InetSocketAddress getInboundAddr() {
     return inboundAddr;
   }
@@ -366,10 +381,15 @@ public class OServerNetworkListener extends Thread {
       final String iProtocolName,
       Class<? extends ONetworkProtocol> protocolClass) {
 
+    final boolean useSelector = isSelectorEnabled(iProtocolName, protocolClass);
+
     for (int port : getPorts(iHostPortRange)) {
       inboundAddr = new InetSocketAddress(iHostName, port);
       try {
-        serverSocket = socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
+        if (useSelector) serverSocket = createServerSocketChannel(port, iHostName);
+        else
+          serverSocket =
+              socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
 
         if (serverSocket.isBound()) {
           OLogManager.instance()
@@ -384,9 +404,16 @@ public class OServerNetworkListener extends Thread {
                       + "} (protocol v."
                       + protocolVersion
                       + ", socket="
-                      + socketFactory.getName()
+                      + (useSelector ? "selector" : socketFactory.getName())
                       + ")");
 
+          if (useSelector)
+            connectionSelector =
+                new OBinaryConnectionSelector(
+                    server.getThreadGroup(),
+                    "OrientDB " + protocolClass.getSimpleName() + " selector at " + inboundAddr,
+                    configuration.getValueAsInteger(
+                        OGlobalConfiguration.NETWORK_BINARY_SELECTOR_WORKERS));
           return;
         }
       } catch (BindException be) {
@@ -415,6 +442,41 @@ public class OServerNetworkListener extends Thread {
             iHostPortRange, iHostName));
   }
 
+  /**
+   * Connections are served by a selector only for the binary protocol on plain sockets, because the
+   * selector needs the channel of the socket.
+   */
+  private boolean isSelectorEnabled(
+      final String iProtocolName, final Class<? extends ONetworkProtocol> protocolClass) {
+    if (!configuration.getValueAsBoolean(OGlobalConfiguration.NETWORK_BINARY_SELECTOR))
+      return false;
+
+    if (!ONetworkProtocolBinary.class.isAssignableFrom(protocolClass)) return false;
+
+    if (!(socketFactory instanceof ODefaultServerSocketFactory)) {
+      OLogManager.instance()
+          .warn(
+              this,
+              "Selector is not supported with socket '%s', %s connections are served by a thread each",
+              socketFactory.getName(),
+              iProtocolName);
+      return false;
+    }
+    return true;
+  }
+
+  private ServerSocket createServerSocketChannel(final int port, final String iHostName)
+      throws IOException {
+    final ServerSocketChannel channel = ServerSocketChannel.open();
+    try {
+      channel.socket().bind(new InetSocketAddress(InetAddress.getByName(iHostName), port));
+      return channel.socket();
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
   /**
    * Initializes connection parameters by the reading XML configuration. If not specified, get the
    * parameters defined as global configuration.
@@ -12,6 +12,7 @@ public class HandshakeInfo {
   private byte encoding;
   private byte errorEncoding;
   private ORecordSerializer serializer;
+  private String compression;
 
   public HandshakeInfo(
       short protocolVersion,
@@ -62,4 +63,13 @@ public class HandshakeInfo {
   public byte getErrorEncoding() {
     return errorEncoding;
   }
+
+  /** @return name of the compression negotiated for the channel, null if not compressed */
+  public String getCompression() {
+    return compression;
+  }
+
+  public void setCompression(String compression) {
+    this.compression = compression;
+  }
 }
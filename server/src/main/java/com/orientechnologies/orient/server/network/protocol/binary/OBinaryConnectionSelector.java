@@ -0,0 +1,166 @@
+package com.orientechnologies.orient.server.network.protocol.binary;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the connections of a binary listener without a dedicated thread per connection. Idle
+ * connections are parked on a NIO selector, when a request arrives the connection is taken off the
+ * selector and the request is executed by a worker thread with the usual blocking reads and writes,
+ * then the connection is parked again. Threads are used only by the connections which are executing
+ * a request, so a server can keep open many more idle connections than the threads it can run.
+ * Requests are executed by a bounded number of workers, connections which receive requests while
+ * all the workers are busy wait in a queue, each of them at most once, because a connection is
+ * parked again only once its request is executed.
+ *
+ * <p>Connections which receive messages pushed by the server (push subscriptions, distributed
+ * channels) are moved to a dedicated thread, because pushes are written while the connection is
+ * idle and a parked socket is in non blocking mode.
+ */
+public class OBinaryConnectionSelector extends Thread {
+  private final Selector selector;
+  private final Queue<ONetworkProtocolBinary> toPark = new ConcurrentLinkedQueue<>();
+  private final ThreadPoolExecutor workers;
+  private volatile boolean active = true;
+
+  /** @param maxWorkers maximum number of threads which execute the requests of the connections */
+  public OBinaryConnectionSelector(final ThreadGroup group, final String name, final int maxWorkers)
+      throws IOException {
+    super(group, name);
+    setDaemon(true);
+    selector = Selector.open();
+    final int poolSize = Math.max(1, maxWorkers);
+    workers =
+        new OThreadPoolExecutorWithLogging(
+            poolSize,
+            poolSize,
+            1,
+            TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            new WorkerThreadFactory(group, name));
+    workers.allowCoreThreadTimeOut(true);
+  }
+
+  /** Starts to serve the connection, the connection is parked till its first request arrives. */
+  public void register(final ONetworkProtocolBinary protocol) {
+    park(protocol);
+  }
+
+  private void park(final ONetworkProtocolBinary protocol) {
+    toPark.add(protocol);
+    selector.wakeup();
+  }
+
+  /** Executes the requests of the connection till no more data is buffered, then parks it. */
+  private void serve(final ONetworkProtocolBinary protocol) {
+    while (protocol.executeNext()) {
+      if (protocol.requiresDedicatedThread()) {
+        protocol.start();
+        return;
+      }
+      if (!protocol.hasBufferedInput()) {
+        park(protocol);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void run() {
+    final List<SelectionKey> ready = new ArrayList<>();
+    try {
+      while (active) {
+        selector.select();
+
+        ONetworkProtocolBinary protocol;
+        while ((protocol = toPark.poll()) != null) {
+          final SocketChannel channel = protocol.getChannel().socket.getChannel();
+          try {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, protocol);
+          } catch (IOException | RuntimeException e) {
+            OLogManager.instance().debug(this, "Error on parking connection %s", e, protocol);
+            protocol.sendShutdown();
+            protocol.shutdown();
+          }
+        }
+
+        for (SelectionKey key : selector.selectedKeys()) {
+          key.cancel();
+          ready.add(key);
+        }
+        selector.selectedKeys().clear();
+        if (ready.isEmpty()) continue;
+
+        // COMPLETES THE DEREGISTRATION OF THE CANCELLED KEYS, SO THE CHANNELS CAN BE BLOCKING AGAIN
+        selector.selectNow();
+        for (SelectionKey key : ready) {
+          final ONetworkProtocolBinary readable = (ONetworkProtocolBinary) key.attachment();
+          try {
+            ((SocketChannel) key.channel()).configureBlocking(true);
+            workers.execute(() -> serve(readable));
+          } catch (IOException | RuntimeException e) {
+            OLogManager.instance().debug(this, "Error on serving connection %s", e, readable);
+            readable.sendShutdown();
+            readable.shutdown();
+          }
+        }
+        ready.clear();
+      }
+    } catch (IOException | ClosedSelectorException e) {
+      if (active) OLogManager.instance().error(this, "Error on selecting binary connections", e);
+    }
+  }
+
+  /** Stops to serve the connections, the parked connections are closed. */
+  public void shutdown() {
+    active = false;
+    try {
+      for (SelectionKey key : selector.keys()) {
+        final ONetworkProtocolBinary protocol = (ONetworkProtocolBinary) key.attachment();
+        protocol.sendShutdown();
+        protocol.shutdown();
+      }
+    } catch (ClosedSelectorException e) {
+      // ALREADY CLOSED
+    }
+    try {
+      selector.close();
+    } catch (IOException e) {
+      OLogManager.instance().debug(this, "Error on closing selector", e);
+    }
+    workers.shutdown();
+  }
+
+  private static class WorkerThreadFactory implements ThreadFactory {
+    private final ThreadGroup group;
+    private final String name;
+    private final AtomicInteger serial = new AtomicInteger();
+
+    private WorkerThreadFactory(final ThreadGroup group, final String name) {
+      this.group = group;
+      this.name = name;
+    }
+
+    @Override
+    public Thread newThread(final Runnable r) {
+      final Thread th = new Thread(group, r, name + " worker " + serial.incrementAndGet());
+      th.setDaemon(true);
+      return th;
+    }
+  }
+}
@@ -42,7 +42,10 @@ public class ONetworkBinaryProtocolFactory {
       case 37:
         return ONetworkBinaryProtocolFactory::createRequest37;
       case 38:
+      case 39:
         return ONetworkBinaryProtocolFactory::createRequest38;
+      case 40:
+        return ONetworkBinaryProtocolFactory::createRequest40;
       default:
         return ONetworkBinaryProtocolFactory::createRequest;
     }
@@ -407,4 +410,14 @@ public class ONetworkBinaryProtocolFactory {
         return createRequest37(requestType);
     }
   }
+
+  public static OBinaryRequest<? extends OBinaryResponse> createRequest40(int requestType) {
+    switch (requestType) {
+      case OChannelBinaryProtocol.REQUEST_QUERY_PREPARED:
+        return new OQueryPreparedRequest();
+
+      default:
+        return createRequest38(requestType);
+    }
+  }
 }
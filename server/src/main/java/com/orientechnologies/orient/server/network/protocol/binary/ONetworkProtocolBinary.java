@@ -36,6 +36,8 @@ import com.orientechnologies.orient.client.remote.message.OBinaryPushResponse;
 import com.orientechnologies.orient.client.remote.message.OError37Response;
 import com.orientechnologies.orient.client.remote.message.OErrorResponse;
 import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.compression.OCompression;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
@@ -44,6 +46,7 @@ import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.OCoreException;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.exception.OSecurityAccessException;
+import com.orientechnologies.orient.core.exception.OSecurityException;
 import com.orientechnologies.orient.core.exception.OSerializationException;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
@@ -57,8 +60,10 @@ import com.orientechnologies.orient.core.serialization.serializer.record.binary.
 import com.orientechnologies.orient.core.serialization.serializer.record.string.ORecordSerializerSchemaAware2CSV;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollectionManager;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinary;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryFrame;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryServer;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
 import com.orientechnologies.orient.enterprise.channel.binary.ONetworkProtocolException;
 import com.orientechnologies.orient.enterprise.channel.binary.OTokenSecurityException;
 import com.orientechnologies.orient.server.OClientConnection;
@@ -84,7 +89,9 @@ import java.net.SocketException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.logging.Level;
 
@@ -96,9 +103,14 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
   protected int clientTxId;
   protected boolean okSent;
   private boolean tokenConnection = true;
-  private long requests = 0;
+  private final AtomicLong requests = new AtomicLong();
+  private final Semaphore pendingMultiplexedRequests =
+      new Semaphore(
+          Math.max(
+              1, OGlobalConfiguration.NETWORK_BINARY_MULTIPLEXING_MAX_PENDING.getValueAsInteger()));
   private HandshakeInfo handshakeInfo;
   private volatile OBinaryPushResponse expectedPushResponse;
+  private volatile boolean pushEnabled;
   private BlockingQueue<OBinaryPushResponse> pushResponse =
       new SynchronousQueue<OBinaryPushResponse>();
 
@@ -147,13 +159,73 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
 
     OServerPluginHelper.invokeHandlerCallbackOnSocketAccepted(server, this);
 
-    start();
     setName(
         "OrientDB ("
             + iSocket.getLocalSocketAddress()
             + ") <- BinaryClient ("
             + iSocket.getRemoteSocketAddress()
             + ")");
+
+    final OBinaryConnectionSelector selector =
+        iListener != null ? iListener.getConnectionSelector() : null;
+    if (selector != null) {
+      startup();
+      selector.register(this);
+    } else start();
+  }
+
+  /**
+   * Executes the next request of the connection in the current thread, used when the connection is
+   * served by a {@link OBinaryConnectionSelector} instead of its own thread.
+   *
+   * @return false if the connection has been closed
+   */
+  public boolean executeNext() {
+    if (!isShutdownFlag()) {
+      try {
+        beforeExecution();
+        execute();
+        afterExecution();
+      } catch (Exception e) {
+        // ERRORS ARE ALREADY HANDLED AND SENT TO THE CLIENT
+      } catch (Error e) {
+        shutdown();
+        throw e;
+      }
+
+      // REQUESTS AFTER WHICH THE SERVER CAN PUSH MESSAGES ON THE CHANNEL AT ANY TIME, CLIENTS
+      // WITHOUT HANDSHAKE CAN RECEIVE LIVE QUERY AND DISTRIBUTED CONFIGURATION PUSHES ON ANY
+      // REQUEST
+      if (requestType == OChannelBinaryProtocol.SUBSCRIBE_PUSH
+          || requestType == OChannelBinaryProtocol.DISTRIBUTED_CONNECT
+          || isDistributed(requestType)
+          || isCoordinated(requestType)
+          || (handshakeInfo == null && requestType != -1)) pushEnabled = true;
+    }
+
+    if (isShutdownFlag()) {
+      shutdown();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the server can push messages on the channel while no request is executed, so
+   *     the channel cannot be parked on a selector
+   */
+  public boolean requiresDedicatedThread() {
+    return pushEnabled;
+  }
+
+  /** @return true if the next request has been already received and buffered */
+  public boolean hasBufferedInput() {
+    try {
+      return channel.inStream.available() > 0;
+    } catch (IOException e) {
+      // A BROKEN CHANNEL IS DETECTED AND CLOSED ON THE NEXT READ
+      return false;
+    }
   }
 
   @Override
@@ -227,6 +299,10 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
         handlePushResponse();
         return;
       }
+      if (requestType == OChannelBinaryProtocol.REQUEST_MULTIPLEXED) {
+        handleMultiplexedRequest();
+        return;
+      }
 
       clientTxId = channel.readInt();
       // GET THE CONNECTION IF EXIST
@@ -259,11 +335,49 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
     byte encoding = channel.readByte();
     byte errorEncoding = channel.readByte();
     OBinaryProtocolHelper.checkProtocolVersion(this, protocolVersion);
-    this.handshakeInfo =
+    final HandshakeInfo handshakeInfo =
         new HandshakeInfo(protocolVersion, driverName, driverVersion, encoding, errorEncoding);
+    if (protocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_39) {
+      final String compression = channel.readString();
+      // THE CLIENT WAITS FOR THE ANSWER ONLY IF IT ASKED FOR COMPRESSION
+      if (compression != null) negotiateCompression(handshakeInfo, compression);
+    }
+    this.handshakeInfo = handshakeInfo;
     this.factory = ONetworkBinaryProtocolFactory.matchProtocol(protocolVersion);
   }
 
+  private void negotiateCompression(final HandshakeInfo handshakeInfo, final String requested)
+      throws IOException {
+    OCompression compression;
+    try {
+      compression = OCompressionFactory.INSTANCE.getCompression(requested, null);
+    } catch (OSecurityException e) {
+      OLogManager.instance()
+          .debug(this, "Compression '%s' requested by the client is not available", requested);
+      compression = null;
+    }
+
+    beginResponse();
+    try {
+      channel.writeString(compression != null ? compression.name() : null);
+      channel.flush();
+      if (compression != null) {
+        channel.enableCompression(
+            compression,
+            server
+                .getContextConfiguration()
+                .getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_COMPRESSION_THRESHOLD));
+        handshakeInfo.setCompression(compression.name());
+      }
+    } finally {
+      channel.releaseWriteLock();
+    }
+  }
+
+  public HandshakeInfo getHandshakeInfo() {
+    return handshakeInfo;
+  }
+
   public void setHandshakeInfo(HandshakeInfo handshakeInfo) {
     this.handshakeInfo = handshakeInfo;
   }
@@ -437,6 +551,148 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
     }
   }
 
+  /**
+   * Reads a frame of a multiplexed channel and queues its request for the shared workers. Once
+   * {@link OGlobalConfiguration#NETWORK_BINARY_MULTIPLEXING_MAX_PENDING} requests of the channel
+   * are pending, the channel is not read till one of them is completed, so a client which sends
+   * requests faster than they are executed is slowed down instead of filling the queue of the
+   * workers.
+   */
+  private void handleMultiplexedRequest() throws IOException {
+    try {
+      pendingMultiplexedRequests.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(new OInterruptedException("Request interrupted"), e);
+    }
+    try {
+      final int streamId = channel.readInt();
+      final byte[] frame = channel.readBytes();
+      server
+          .getClientConnectionManager()
+          .getMultiplexingExecutor()
+          .execute(
+              () -> {
+                try {
+                  executeMultiplexedRequest(streamId, frame);
+                } finally {
+                  pendingMultiplexedRequests.release();
+                }
+              });
+    } catch (IOException | RuntimeException e) {
+      pendingMultiplexedRequests.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Executes a request received in a frame of a multiplexed channel. The response is serialized in
+   * a frame as well and written to the channel as soon as it is ready, so the responses of the
+   * requests multiplexed on the same channel are sent in the order of completion, the client
+   * matches them with the requests by the stream id.
+   *
+   * <p>Only operational requests of token based sessions can be multiplexed, the requests which
+   * bind the session to the channel (open, connect, push subscriptions) are sent on dedicated
+   * channels.
+   */
+  private void executeMultiplexedRequest(final int streamId, final byte[] frame) {
+    final long timer = Orient.instance().getProfiler().startChrono();
+
+    final OChannelBinaryFrame input = new OChannelBinaryFrame(frame);
+    OChannelBinaryFrame output = new OChannelBinaryFrame();
+    OClientConnection connection = null;
+    boolean acquired = false;
+    int requestType = -1;
+    int clientTxId = 0;
+    try {
+      requestType = input.readByte();
+      clientTxId = input.readInt();
+      final byte[] tokenBytes = input.readBytes();
+
+      final OBinaryRequest<? extends OBinaryResponse> request = factory.apply(requestType);
+      if (request == null
+          || handshakeInfo == null
+          || isHandshaking(requestType)
+          || isDistributed(requestType)
+          || isCoordinated(requestType)
+          || requestType == OChannelBinaryProtocol.SUBSCRIBE_PUSH) {
+        throw new ONetworkProtocolException(
+            "Request not supported on a multiplexed channel. Code: " + requestType);
+      }
+
+      connection = server.getClientConnectionManager().getConnection(clientTxId, this);
+      connection = onBeforeOperationalRequest(connection, requestType, tokenBytes);
+      acquired = connection != null;
+      if (connection != null) {
+        connection.getData().commandInfo = request.getDescription();
+      }
+      if (connection == null) throw new ODatabaseException("Required session");
+
+      request.read(
+          input, connection.getData().protocolVersion, connection.getData().getSerializer());
+      if (request.requireServerUser()) {
+        checkServerAccess(request.requiredServerRole(), connection);
+      }
+      if (request.requireDatabaseSession() && connection.getDatabase() == null) {
+        throw new ODatabaseException("Required database session");
+      }
+
+      final OBinaryResponse response = request.execute(connection.getExecutor());
+      writeOk(output, requestType, connection, clientTxId);
+      if (response != null) {
+        response.write(
+            output, connection.getData().protocolVersion, connection.getData().getSerializer());
+      }
+    } catch (RuntimeException | IOException e) {
+      if (connection != null && connection.getDatabase() != null) {
+        final OSBTreeCollectionManager collectionManager =
+            connection.getDatabase().getSbTreeCollectionManager();
+        if (collectionManager != null) collectionManager.clearChangedIds();
+      }
+      output = new OChannelBinaryFrame();
+      try {
+        writeError(output, requestType, connection, clientTxId, e);
+      } catch (IOException ioe) {
+        OLogManager.instance().error(this, "Error during sending an error to client", ioe);
+        sendShutdown();
+        return;
+      }
+    } catch (Error err) {
+      sendShutdown();
+      throw err;
+    } finally {
+      if (acquired) {
+        afterOperationRequest(connection, requestType);
+      }
+      OSerializationThreadLocal.INSTANCE.get().clear();
+      Orient.instance()
+          .getProfiler()
+          .stopChrono(
+              "server.network.requests",
+              "Total received requests",
+              timer,
+              "server.network.requests");
+    }
+
+    channel.acquireWriteLock();
+    try {
+      channel.writeByte(OChannelBinaryProtocol.RESPONSE_MULTIPLEXED);
+      channel.writeInt(streamId);
+      channel.writeBytes(output.toByteArray());
+      channel.flush();
+    } catch (OInvalidBinaryChunkException e) {
+      OLogManager.instance()
+          .warn(this, "I/O Error on client clientId=%d reqType=%d", clientTxId, requestType, e);
+      sendShutdown();
+    } catch (IOException e) {
+      OLogManager.instance()
+          .debug(this, "I/O Error on client clientId=%d reqType=%d", clientTxId, requestType, e);
+      sendShutdown();
+    } finally {
+      channel.releaseWriteLock();
+    }
+  }
+
   private OClientConnection onBeforeHandshakeRequest(
       OClientConnection connection, byte[] tokenBytes) {
     try {
@@ -503,7 +759,7 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
             break;
         }
       } finally {
-        requests++;
+        requests.incrementAndGet();
         afterOperationRequest(connection);
       }
 
@@ -530,6 +786,11 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
 
   private OClientConnection onBeforeOperationalRequest(
       OClientConnection connection, byte[] tokenBytes) {
+    return onBeforeOperationalRequest(connection, requestType, tokenBytes);
+  }
+
+  private OClientConnection onBeforeOperationalRequest(
+      OClientConnection connection, int requestType, byte[] tokenBytes) {
     try {
       if (connection == null && requestType == OChannelBinaryProtocol.REQUEST_DB_CLOSE) return null;
 
@@ -590,7 +851,7 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
   }
 
   private void waitDistribuedIsOnline(OClientConnection connection) {
-    if (requests == 0) {
+    if (requests.get() == 0) {
       final ODistributedServerManager manager = server.getDistributedManager();
       if (manager != null && connection.hasDatabase())
         try {
@@ -610,7 +871,11 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
   }
 
   protected void afterOperationRequest(OClientConnection connection) {
-    requests++;
+    afterOperationRequest(connection, requestType);
+  }
+
+  private void afterOperationRequest(OClientConnection connection, int requestType) {
+    requests.incrementAndGet();
     OServerPluginHelper.invokeHandlerCallbackOnAfterClientRequest(
         server, connection, (byte) requestType);
 
@@ -713,90 +978,7 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
       throws IOException {
     channel.acquireWriteLock();
     try {
-
-      channel.writeByte(OChannelBinaryProtocol.RESPONSE_STATUS_ERROR);
-      channel.writeInt(iClientTxId);
-      if (handshakeInfo != null) {
-        byte[] renewedToken = null;
-        if (connection != null && connection.getToken() != null) {
-          renewedToken = server.getTokenHandler().renewIfNeeded(connection.getToken());
-          if (renewedToken.length > 0) {
-            connection.setTokenBytes(renewedToken);
-          }
-        }
-        channel.writeBytes(renewedToken);
-        channel.writeByte((byte) requestType);
-      } else {
-        if (tokenConnection
-                && requestType != OChannelBinaryProtocol.REQUEST_CONNECT
-                && (requestType != OChannelBinaryProtocol.REQUEST_DB_OPEN
-                        && requestType != OChannelBinaryProtocol.DISTRIBUTED_CONNECT
-                        && requestType != OChannelBinaryProtocol.REQUEST_SHUTDOWN
-                    || (connection != null
-                        && connection.getData() != null
-                        && connection.getData().protocolVersion
-                            <= OChannelBinaryProtocol.PROTOCOL_VERSION_32))
-            || requestType == OChannelBinaryProtocol.REQUEST_DB_REOPEN) {
-          // TODO: Check if the token is expiring and if it is send a new token
-
-          if (connection != null && connection.getToken() != null) {
-            byte[] renewedToken = server.getTokenHandler().renewIfNeeded(connection.getToken());
-            channel.writeBytes(renewedToken);
-          } else channel.writeBytes(new byte[] {});
-        }
-      }
-      final Throwable current;
-      if (t instanceof OException
-          && t.getCause() instanceof InterruptedException
-          && !server.isActive()) {
-        current = new OOfflineNodeException("Node shutting down");
-      } else if (t instanceof OLockException && t.getCause() instanceof ODatabaseException)
-        // BYPASS THE DB POOL EXCEPTION TO PROPAGATE THE RIGHT SECURITY ONE
-        current = t.getCause();
-      else current = t;
-
-      Map<String, String> messages = new HashMap<>();
-      Throwable it = current;
-      while (it != null) {
-        messages.put(current.getClass().getName(), current.getMessage());
-        it = it.getCause();
-      }
-      final byte[] result;
-      if (handshakeInfo == null
-          || handshakeInfo.getErrorEncoding() == OChannelBinaryProtocol.ERROR_MESSAGE_JAVA) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        final ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
-        objectOutputStream.writeObject(current);
-        objectOutputStream.flush();
-        objectOutputStream.close();
-        result = outputStream.toByteArray();
-      } else if (handshakeInfo.getErrorEncoding() == OChannelBinaryProtocol.ERROR_MESSAGE_STRING) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        current.printStackTrace(new PrintStream(outputStream));
-        result = outputStream.toByteArray();
-      } else {
-        result = new byte[] {};
-      }
-      OBinaryResponse error;
-      if (handshakeInfo != null) {
-        OErrorCode code;
-        if (current instanceof OCoreException) {
-          code = ((OCoreException) current).getErrorCode();
-          if (code == null) code = OErrorCode.GENERIC_ERROR;
-        } else {
-          code = OErrorCode.GENERIC_ERROR;
-        }
-        error = new OError37Response(code, 0, messages, result);
-      } else {
-        error = new OErrorResponse(messages, result);
-      }
-      int protocolVersion = OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION;
-      ORecordSerializer serializationImpl = ORecordSerializerNetworkFactory.INSTANCE.current();
-      if (connection != null) {
-        protocolVersion = connection.getData().protocolVersion;
-        serializationImpl = connection.getData().getSerializer();
-      }
-      error.write(channel, protocolVersion, serializationImpl);
+      writeError(channel, requestType, connection, iClientTxId, t);
       channel.flush();
 
       if (OLogManager.instance().isLevelEnabled(logClientExceptions)) {
@@ -833,6 +1015,98 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
     }
   }
 
+  private void writeError(
+      final OChannelDataOutput channel,
+      final int requestType,
+      final OClientConnection connection,
+      final int iClientTxId,
+      final Throwable t)
+      throws IOException {
+    channel.writeByte(OChannelBinaryProtocol.RESPONSE_STATUS_ERROR);
+    channel.writeInt(iClientTxId);
+    if (handshakeInfo != null) {
+      byte[] renewedToken = null;
+      if (connection != null && connection.getToken() != null) {
+        renewedToken = server.getTokenHandler().renewIfNeeded(connection.getToken());
+        if (renewedToken.length > 0) {
+          connection.setTokenBytes(renewedToken);
+        }
+      }
+      channel.writeBytes(renewedToken);
+      channel.writeByte((byte) requestType);
+    } else {
+      if (tokenConnection
+              && requestType != OChannelBinaryProtocol.REQUEST_CONNECT
+              && (requestType != OChannelBinaryProtocol.REQUEST_DB_OPEN
+                      && requestType != OChannelBinaryProtocol.DISTRIBUTED_CONNECT
+                      && requestType != OChannelBinaryProtocol.REQUEST_SHUTDOWN
+                  || (connection != null
+                      && connection.getData() != null
+                      && connection.getData().protocolVersion
+                          <= OChannelBinaryProtocol.PROTOCOL_VERSION_32))
+          || requestType == OChannelBinaryProtocol.REQUEST_DB_REOPEN) {
+        // TODO: Check if the token is expiring and if it is send a new token
+
+        if (connection != null && connection.getToken() != null) {
+          byte[] renewedToken = server.getTokenHandler().renewIfNeeded(connection.getToken());
+          channel.writeBytes(renewedToken);
+        } else channel.writeBytes(new byte[] {});
+      }
+    }
+    final Throwable current;
+    if (t instanceof OException
+        && t.getCause() instanceof InterruptedException
+        && !server.isActive()) {
+      current = new OOfflineNodeException("Node shutting down");
+    } else if (t instanceof OLockException && t.getCause() instanceof ODatabaseException)
+      // BYPASS THE DB POOL EXCEPTION TO PROPAGATE THE RIGHT SECURITY ONE
+      current = t.getCause();
+    else current = t;
+
+    Map<String, String> messages = new HashMap<>();
+    Throwable it = current;
+    while (it != null) {
+      messages.put(current.getClass().getName(), current.getMessage());
+      it = it.getCause();
+    }
+    final byte[] result;
+    if (handshakeInfo == null
+        || handshakeInfo.getErrorEncoding() == OChannelBinaryProtocol.ERROR_MESSAGE_JAVA) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      final ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+      objectOutputStream.writeObject(current);
+      objectOutputStream.flush();
+      objectOutputStream.close();
+      result = outputStream.toByteArray();
+    } else if (handshakeInfo.getErrorEncoding() == OChannelBinaryProtocol.ERROR_MESSAGE_STRING) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      current.printStackTrace(new PrintStream(outputStream));
+      result = outputStream.toByteArray();
+    } else {
+      result = new byte[] {};
+    }
+    OBinaryResponse error;
+    if (handshakeInfo != null) {
+      OErrorCode code;
+      if (current instanceof OCoreException) {
+        code = ((OCoreException) current).getErrorCode();
+        if (code == null) code = OErrorCode.GENERIC_ERROR;
+      } else {
+        code = OErrorCode.GENERIC_ERROR;
+      }
+      error = new OError37Response(code, 0, messages, result);
+    } else {
+      error = new OErrorResponse(messages, result);
+    }
+    int protocolVersion = OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION;
+    ORecordSerializer serializationImpl = ORecordSerializerNetworkFactory.INSTANCE.current();
+    if (connection != null) {
+      protocolVersion = connection.getData().protocolVersion;
+      serializationImpl = connection.getData().getSerializer();
+    }
+    error.write(channel, protocolVersion, serializationImpl);
+  }
+
   protected void beginResponse() {
     channel.acquireWriteLock();
   }
@@ -847,9 +1121,18 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
   }
 
   protected void sendOk(OClientConnection connection, final int iClientTxId) throws IOException {
+    okSent = true;
+    writeOk(channel, requestType, connection, iClientTxId);
+  }
+
+  private void writeOk(
+      final OChannelDataOutput channel,
+      final int requestType,
+      final OClientConnection connection,
+      final int iClientTxId)
+      throws IOException {
     channel.writeByte(OChannelBinaryProtocol.RESPONSE_STATUS_OK);
     channel.writeInt(iClientTxId);
-    okSent = true;
     if (handshakeInfo != null) {
       byte[] renewedToken = null;
       if (connection != null && connection.getToken() != null) {
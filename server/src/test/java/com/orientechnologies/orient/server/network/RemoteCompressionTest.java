@@ -0,0 +1,101 @@
+package com.orientechnologies.orient.server.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.compression.impl.OLZ4Compression;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OClientConnection;
+import com.orientechnologies.orient.server.OServer;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemoteCompressionTest {
+  private static final String SERVER_DIRECTORY = "./target/compression";
+
+  private OServer server;
+  private OrientDB orientDB;
+
+  @Before
+  public void before() throws Exception {
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.CLIENT_CHANNEL_COMPRESSION, OLZ4Compression.NAME)
+            .build();
+    orientDB = new OrientDB("remote:localhost", "root", "root", config);
+    orientDB.execute(
+        "create database ? memory users (admin identified by 'admin' role admin)",
+        RemoteCompressionTest.class.getSimpleName());
+  }
+
+  @Test
+  public void testCompressedChannel() {
+    ODatabaseSession session =
+        orientDB.open(RemoteCompressionTest.class.getSimpleName(), "admin", "admin");
+    session.createClass("Some");
+
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 2000; i++) text.append("{\"key\": \"value ").append(i % 10).append("\"}");
+
+    // A TRANSACTION LARGER THAN THE THRESHOLD IS SENT COMPRESSED
+    session.begin();
+    for (int i = 0; i < 50; i++) {
+      ODocument doc = new ODocument("Some");
+      doc.field("index", i);
+      doc.field("text", text.toString());
+      session.save(doc);
+    }
+    session.commit();
+
+    try (OResultSet result = session.query("select from Some order by index")) {
+      List<OResult> loaded = new ArrayList<>();
+      result.forEachRemaining(loaded::add);
+      assertEquals(50, loaded.size());
+      for (int i = 0; i < 50; i++) {
+        assertEquals(i, (int) loaded.get(i).getProperty("index"));
+        assertEquals(text.toString(), loaded.get(i).getProperty("text"));
+      }
+    }
+    // SMALL RESPONSES ARE SENT AS THEY ARE
+    try (OResultSet result = session.query("select count(*) as count from Some")) {
+      assertEquals(50L, (long) result.next().getProperty("count"));
+    }
+
+    boolean compressed = false;
+    for (OClientConnection connection : server.getClientConnectionManager().getConnections()) {
+      ONetworkProtocolBinary protocol = (ONetworkProtocolBinary) connection.getProtocol();
+      if (OLZ4Compression.NAME.equals(protocol.getHandshakeInfo().getCompression()))
+        compressed = true;
+    }
+    assertTrue(compressed);
+    session.close();
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    server.shutdown();
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}
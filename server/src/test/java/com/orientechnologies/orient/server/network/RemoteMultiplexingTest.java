@@ -0,0 +1,183 @@
+package com.orientechnologies.orient.server.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.ORemoteConnectionManager;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.OrientDBInternal;
+import com.orientechnologies.orient.core.db.OrientDBRemote;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandSQLParsingException;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OServer;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemoteMultiplexingTest {
+  private static final String SERVER_DIRECTORY = "./target/multiplexing";
+  private static final int THREADS = 8;
+
+  private OServer server;
+  private OrientDB orientDB;
+
+  @Before
+  public void before() throws Exception {
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEXING, true)
+            .build();
+    orientDB = new OrientDB("remote:localhost", "root", "root", config);
+    orientDB.execute(
+        "create database ? memory users (admin identified by 'admin' role admin)",
+        RemoteMultiplexingTest.class.getSimpleName());
+  }
+
+  @Test
+  public void testConcurrentSessions() throws Exception {
+    List<ODatabaseSession> sessions = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      sessions.add(orientDB.open(RemoteMultiplexingTest.class.getSimpleName(), "admin", "admin"));
+    }
+    sessions.get(0).activateOnCurrentThread();
+    sessions.get(0).createClass("Some");
+
+    ORemoteConnectionManager connectionManager =
+        ((OrientDBRemote) OrientDBInternal.extract(orientDB)).getConnectionManager();
+    String url = connectionManager.getURLs().iterator().next();
+    int channels = connectionManager.getCreatedInstancesInPool(url);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Long>> results = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        ODatabaseSession session = sessions.get(i);
+        int thread = i;
+        results.add(
+            executor.submit(
+                () -> {
+                  session.activateOnCurrentThread();
+                  for (int j = 0; j < 50; j++) {
+                    session.begin();
+                    ODocument doc = new ODocument("Some");
+                    doc.field("thread", thread);
+                    doc.field("value", j);
+                    session.save(doc);
+                    session.commit();
+                  }
+                  try (OResultSet result =
+                      session.query(
+                          "select count(*) as count from Some where thread = ?", thread)) {
+                    return result.next().getProperty("count");
+                  }
+                }));
+      }
+      for (Future<Long> result : results) {
+        assertEquals(50L, (long) result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    // ALL THE REQUESTS ARE SENT ON THE MULTIPLEXED CHANNEL
+    assertEquals(channels, connectionManager.getCreatedInstancesInPool(url));
+
+    ODatabaseSession session = sessions.get(0);
+    session.activateOnCurrentThread();
+    try (OResultSet result = session.query("select count(*) as count from Some")) {
+      assertEquals(THREADS * 50L, (long) result.next().getProperty("count"));
+    }
+    try {
+      session.query("select from Some where").close();
+      fail();
+    } catch (OCommandSQLParsingException | OCommandExecutionException e) {
+      // EXPECTED
+    }
+    try (OResultSet result = session.query("select from Some where value = 10")) {
+      assertEquals(THREADS, result.stream().count());
+    }
+
+    for (ODatabaseSession toClose : sessions) {
+      toClose.activateOnCurrentThread();
+      toClose.close();
+    }
+  }
+
+  @Test
+  public void testPendingRequestsLimit() throws Exception {
+    Object oldLimit = OGlobalConfiguration.NETWORK_BINARY_MULTIPLEXING_MAX_PENDING.getValue();
+    // THE SERVER READS THE NEXT FRAME OF THE CHANNEL ONLY ONCE THE PREVIOUS REQUEST IS COMPLETED
+    OGlobalConfiguration.NETWORK_BINARY_MULTIPLEXING_MAX_PENDING.setValue(1);
+    OrientDB client =
+        new OrientDB(
+            "remote:localhost",
+            "root",
+            "root",
+            OrientDBConfig.builder()
+                .addConfig(OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEXING, true)
+                .build());
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      try (ODatabaseSession session =
+          client.open(RemoteMultiplexingTest.class.getSimpleName(), "admin", "admin")) {
+        session.createClass("Some");
+      }
+      List<Future<Long>> results = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        int thread = i;
+        results.add(
+            executor.submit(
+                () -> {
+                  try (ODatabaseSession session =
+                      client.open(RemoteMultiplexingTest.class.getSimpleName(), "admin", "admin")) {
+                    for (int j = 0; j < 20; j++) {
+                      ODocument doc = new ODocument("Some");
+                      doc.field("thread", thread);
+                      session.save(doc);
+                    }
+                    try (OResultSet result =
+                        session.query(
+                            "select count(*) as count from Some where thread = ?", thread)) {
+                      return result.next().getProperty("count");
+                    }
+                  }
+                }));
+      }
+      for (Future<Long> result : results) {
+        assertEquals(20L, (long) result.get());
+      }
+    } finally {
+      executor.shutdown();
+      client.close();
+      OGlobalConfiguration.NETWORK_BINARY_MULTIPLEXING_MAX_PENDING.setValue(oldLimit);
+    }
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    server.shutdown();
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}
@@ -0,0 +1,181 @@
+package com.orientechnologies.orient.server.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.ORemoteNearCache;
+import com.orientechnologies.orient.client.remote.OStorageRemote;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.query.live.OLiveQueryHookV2;
+import com.orientechnologies.orient.core.query.live.OLiveQueryListenerV2;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.server.OServer;
+import java.io.File;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemoteNearCacheTest {
+  private static final String SERVER_DIRECTORY = "./target/nearCache";
+
+  private OServer server;
+  private OrientDB orientDB;
+  private OrientDB writer;
+
+  @Before
+  public void before() throws Exception {
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.CLIENT_NEAR_CACHE_SIZE, 100)
+            .build();
+    orientDB = new OrientDB("remote:localhost", "root", "root", config);
+    orientDB.execute(
+        "create database ? memory users (admin identified by 'admin' role admin, reader identified by"
+            + " 'reader' role reader)",
+        RemoteNearCacheTest.class.getSimpleName());
+    writer = new OrientDB("remote:localhost", "root", "root", OrientDBConfig.defaultConfig());
+  }
+
+  @Test
+  public void testInvalidationPushedByServer() throws Exception {
+    ODatabaseSession session =
+        orientDB.open(RemoteNearCacheTest.class.getSimpleName(), "admin", "admin");
+    session.createClass("Some");
+    ODocument doc = new ODocument("Some");
+    doc.field("name", "foo");
+    ORID rid = session.save(doc).getIdentity();
+
+    ORemoteNearCache nearCache = getNearCache(session);
+    assertTrue(nearCache.isActive());
+    session.getLocalCache().clear();
+    assertEquals("foo", ((ODocument) session.load(rid)).field("name"));
+    assertNotNull(nearCache.get(rid, "admin"));
+
+    // ANOTHER SESSION READS THE CACHED CONTENT
+    ODatabaseSession other =
+        orientDB.open(RemoteNearCacheTest.class.getSimpleName(), "admin", "admin");
+    assertEquals("foo", ((ODocument) other.load(rid)).field("name"));
+    other.close();
+
+    // A CHANGE DONE BY ANOTHER CLIENT IS PUSHED BY THE SERVER
+    try (ODatabaseSession remote =
+        writer.open(RemoteNearCacheTest.class.getSimpleName(), "admin", "admin")) {
+      remote.command("update ? set name = 'bar'", rid).close();
+    }
+    for (int i = 0; i < 100 && nearCache.get(rid, "admin") != null; i++) Thread.sleep(100);
+    assertNull(nearCache.get(rid, "admin"));
+
+    session.activateOnCurrentThread();
+    session.getLocalCache().clear();
+    assertEquals("bar", ((ODocument) session.load(rid)).field("name"));
+    session.close();
+  }
+
+  @Test
+  public void testInvalidationOnLocalChanges() {
+    ODatabaseSession session =
+        orientDB.open(RemoteNearCacheTest.class.getSimpleName(), "admin", "admin");
+    session.createClass("Some");
+    ODocument doc = new ODocument("Some");
+    doc.field("name", "foo");
+    ORID rid = session.save(doc).getIdentity();
+
+    ORemoteNearCache nearCache = getNearCache(session);
+    session.getLocalCache().clear();
+    ODocument loaded = session.load(rid);
+    assertNotNull(nearCache.get(rid, "admin"));
+
+    loaded.field("name", "bar");
+    session.save(loaded);
+    assertNull(nearCache.get(rid, "admin"));
+
+    session.getLocalCache().clear();
+    loaded = session.load(rid);
+    assertEquals("bar", loaded.field("name"));
+
+    session.delete(loaded);
+    assertNull(nearCache.get(rid, "admin"));
+    session.getLocalCache().clear();
+    assertNull(session.load(rid));
+    session.close();
+  }
+
+  @Test
+  public void testRestrictedContentIsNotShared() {
+    ODatabaseSession session =
+        orientDB.open(RemoteNearCacheTest.class.getSimpleName(), "admin", "admin");
+    session.createClass("Restricted", "ORestricted");
+    ODocument doc = new ODocument("Restricted");
+    doc.field("name", "foo");
+    ORID rid = session.save(doc).getIdentity();
+
+    ORemoteNearCache nearCache = getNearCache(session);
+    session.getLocalCache().clear();
+    assertNotNull(session.load(rid));
+    assertNotNull(nearCache.get(rid, "admin"));
+    assertNull(nearCache.get(rid, "reader"));
+    session.close();
+
+    // THE READER IS NOT ALLOWED TO READ THE RECORD, THE CONTENT CACHED FOR ADMIN IS NOT SERVED
+    ODatabaseSession reader =
+        orientDB.open(RemoteNearCacheTest.class.getSimpleName(), "reader", "reader");
+    assertNull(reader.load(rid));
+    assertNull(nearCache.get(rid, "reader"));
+    reader.close();
+  }
+
+  @Test
+  public void testServerStopsCollectingChangesWithoutClients() throws Exception {
+    ODatabaseSession session =
+        orientDB.open(RemoteNearCacheTest.class.getSimpleName(), "admin", "admin");
+    assertTrue(getNearCache(session).isActive());
+    session.close();
+
+    ODatabaseDocumentInternal db = server.openDatabase(RemoteNearCacheTest.class.getSimpleName());
+    try {
+      Map<Integer, OLiveQueryListenerV2> subscribers =
+          OLiveQueryHookV2.getOpsReference(db).getSubscribers();
+      assertEquals(1, subscribers.size());
+
+      // THE CHANNELS ARE CLOSED BY THE CLIENT
+      orientDB.close();
+      for (int i = 0; i < 100 && !subscribers.isEmpty(); i++) {
+        Thread.sleep(100);
+        server.getClientConnectionManager().cleanExpiredConnections();
+      }
+      assertTrue(subscribers.isEmpty());
+    } finally {
+      db.close();
+    }
+  }
+
+  private ORemoteNearCache getNearCache(ODatabaseSession session) {
+    return ((OStorageRemote) ((ODatabaseDocumentInternal) session).getStorage()).getNearCache();
+  }
+
+  @After
+  public void after() {
+    writer.close();
+    orientDB.close();
+    server.shutdown();
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}
@@ -0,0 +1,184 @@
+package com.orientechnologies.orient.server.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OLiveQueryResultListener;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.exception.OCoreException;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OServer;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemoteSelectorTest {
+  private static final String SERVER_DIRECTORY = "./target/selector";
+  private static final int SESSIONS = 16;
+  private static final int WORKERS = 2;
+
+  private OServer server;
+  private OrientDB orientDB;
+
+  @Before
+  public void before() throws Exception {
+    OGlobalConfiguration.NETWORK_BINARY_SELECTOR.setValue(true);
+    OGlobalConfiguration.NETWORK_BINARY_SELECTOR_WORKERS.setValue(WORKERS);
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    orientDB = new OrientDB("remote:localhost", "root", "root", OrientDBConfig.defaultConfig());
+    orientDB.execute(
+        "create database ? memory users (admin identified by 'admin' role admin)",
+        RemoteSelectorTest.class.getSimpleName());
+  }
+
+  @Test
+  public void testIdleConnectionsWithoutThreads() throws Exception {
+    assertNotNull(
+        server.getListenerByProtocol(ONetworkProtocolBinary.class).getConnectionSelector());
+
+    List<ODatabaseSession> sessions = new ArrayList<>();
+    for (int i = 0; i < SESSIONS; i++) {
+      sessions.add(orientDB.open(RemoteSelectorTest.class.getSimpleName(), "admin", "admin"));
+    }
+    sessions.get(0).activateOnCurrentThread();
+    sessions.get(0).createClass("Some");
+
+    ExecutorService executor = Executors.newFixedThreadPool(SESSIONS);
+    try {
+      List<Future<Long>> results = new ArrayList<>();
+      for (int i = 0; i < SESSIONS; i++) {
+        ODatabaseSession session = sessions.get(i);
+        int thread = i;
+        results.add(
+            executor.submit(
+                () -> {
+                  session.activateOnCurrentThread();
+                  for (int j = 0; j < 20; j++) {
+                    session.begin();
+                    ODocument doc = new ODocument("Some");
+                    doc.field("thread", thread);
+                    session.save(doc);
+                    session.commit();
+                  }
+                  try (OResultSet result =
+                      session.query(
+                          "select count(*) as count from Some where thread = ?", thread)) {
+                    return result.next().getProperty("count");
+                  }
+                }));
+      }
+      for (Future<Long> result : results) {
+        assertEquals(20L, (long) result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    // IDLE CONNECTIONS ARE PARKED ON THE SELECTOR, ONLY THE CONNECTION WHICH RECEIVES THE PUSHES
+    // OF THE STORAGE HAS A THREAD
+    assertEquals(1, countConnectionThreads());
+    // THE SESSIONS WHICH SENT REQUESTS AT THE SAME TIME SHARED THE BOUNDED WORKERS
+    assertTrue(countWorkerThreads() <= WORKERS);
+
+    ODatabaseSession session = sessions.get(0);
+    session.activateOnCurrentThread();
+    try {
+      session.query("select from Some where").close();
+    } catch (OCoreException e) {
+      // EXPECTED
+    }
+    try (OResultSet result = session.query("select count(*) as count from Some")) {
+      assertEquals(SESSIONS * 20L, (long) result.next().getProperty("count"));
+    }
+
+    for (ODatabaseSession toClose : sessions) {
+      toClose.activateOnCurrentThread();
+      toClose.close();
+    }
+  }
+
+  @Test
+  public void testLiveQueryOnDedicatedThread() throws Exception {
+    ODatabaseSession session =
+        orientDB.open(RemoteSelectorTest.class.getSimpleName(), "admin", "admin");
+    session.createClass("Live");
+
+    CountDownLatch received = new CountDownLatch(1);
+    session.live(
+        "select from Live",
+        new OLiveQueryResultListener() {
+          @Override
+          public void onCreate(ODatabaseDocument database, OResult data) {
+            received.countDown();
+          }
+
+          @Override
+          public void onUpdate(ODatabaseDocument database, OResult before, OResult after) {}
+
+          @Override
+          public void onDelete(ODatabaseDocument database, OResult data) {}
+
+          @Override
+          public void onError(ODatabaseDocument database, OException exception) {}
+
+          @Override
+          public void onEnd(ODatabaseDocument database) {}
+        });
+    session.command("insert into Live set name = 'foo'").close();
+    assertTrue(received.await(10, TimeUnit.SECONDS));
+
+    // THE CONNECTION WHICH RECEIVES THE PUSHES HAS BEEN MOVED TO A DEDICATED THREAD
+    assertEquals(1, countConnectionThreads());
+    session.close();
+  }
+
+  private long countConnectionThreads() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .filter(thread -> thread.getName().contains("<- BinaryClient"))
+        .count();
+  }
+
+  private long countWorkerThreads() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .filter(
+            thread ->
+                thread.getName().contains(" selector at ") && thread.getName().contains(" worker "))
+        .count();
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    server.shutdown();
+    OGlobalConfiguration.NETWORK_BINARY_SELECTOR.setValue(false);
+    OGlobalConfiguration.NETWORK_BINARY_SELECTOR_WORKERS.setValue(
+        OGlobalConfiguration.NETWORK_BINARY_SELECTOR_WORKERS.getDefValue());
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}
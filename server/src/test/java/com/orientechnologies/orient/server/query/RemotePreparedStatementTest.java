@@ -0,0 +1,130 @@
+package com.orientechnologies.orient.server.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentRemote;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OClientConnection;
+import com.orientechnologies.orient.server.OClientPreparedStatements;
+import com.orientechnologies.orient.server.OClientSessions;
+import com.orientechnologies.orient.server.OServer;
+import java.io.File;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemotePreparedStatementTest {
+  private static final String SERVER_DIRECTORY = "./target/prepared";
+
+  private OServer server;
+  private OrientDB orientDB;
+  private ODatabaseDocument session;
+
+  @Before
+  public void before() throws Exception {
+    OGlobalConfiguration.NETWORK_BINARY_PREPARED_STATEMENTS.setValue(2);
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.CLIENT_PREPARED_STATEMENTS, 10)
+            .build();
+    orientDB = new OrientDB("remote:localhost", "root", "root", config);
+    orientDB.execute(
+        "create database ? memory users (admin identified by 'admin' role admin)",
+        RemotePreparedStatementTest.class.getSimpleName());
+    session = orientDB.open(RemotePreparedStatementTest.class.getSimpleName(), "admin", "admin");
+    session.createClass("Some");
+  }
+
+  @Test
+  public void testRepeatedExecutionsReuseHandle() {
+    for (int i = 0; i < 20; i++) {
+      session.command("insert into Some set index = ?", i).close();
+    }
+    final String query = "select from Some where index = :index";
+    Integer handle = null;
+    for (int i = 0; i < 20; i++) {
+      try (OResultSet result = session.query(query, Collections.singletonMap("index", i))) {
+        assertTrue(result.hasNext());
+        assertEquals(i, (int) result.next().getProperty("index"));
+        assertFalse(result.hasNext());
+      }
+      // THE STATEMENT IS PREPARED ONCE, A STATEMENT PREPARED AGAIN WOULD GET A NEW HANDLE
+      Integer current = getStatementHandle(query);
+      assertNotNull(current);
+      if (handle == null) handle = current;
+      assertEquals(handle, current);
+    }
+    assertNotNull(getPreparedStatements().get(handle, query.hashCode()));
+
+    try (OResultSet result = session.query("select count(*) as count from Some")) {
+      assertEquals(20L, (long) result.next().getProperty("count"));
+    }
+  }
+
+  @Test
+  public void testEvictedStatementIsPreparedAgain() {
+    ODocument doc = new ODocument("Some");
+    doc.field("index", 1);
+    session.save(doc);
+
+    // THE SERVER KEEPS ONLY TWO STATEMENTS, THE FIRST ONE IS DROPPED AND PREPARED AGAIN
+    for (int round = 0; round < 3; round++) {
+      try (OResultSet result = session.query("select from Some where index = ?", 1)) {
+        assertEquals(1, (int) result.next().getProperty("index"));
+      }
+      try (OResultSet result = session.query("select count(*) as count from Some")) {
+        assertEquals(1L, (long) result.next().getProperty("count"));
+      }
+      try (OResultSet result = session.query("select index from Some")) {
+        assertEquals(1, (int) result.next().getProperty("index"));
+      }
+    }
+    session.command("update Some set index = ? where index = ?", 2, 1).close();
+    try (OResultSet result = session.query("select from Some where index = ?", 2)) {
+      assertTrue(result.hasNext());
+    }
+  }
+
+  private Integer getStatementHandle(String statement) {
+    return ((ODatabaseDocumentRemote) session).getSessionMetadata().getStatementHandle(statement);
+  }
+
+  private OClientPreparedStatements getPreparedStatements() {
+    for (OClientConnection connection : server.getClientConnectionManager().getConnections()) {
+      if (connection.getDatabase() == null || connection.getTokenBytes() == null) continue;
+      OClientSessions clientSession = server.getClientConnectionManager().getSession(connection);
+      if (clientSession != null && clientSession.getPreparedStatements().size() > 0) {
+        return clientSession.getPreparedStatements();
+      }
+    }
+    throw new AssertionError("No prepared statement found");
+  }
+
+  @After
+  public void after() {
+    session.close();
+    orientDB.close();
+    server.shutdown();
+    OGlobalConfiguration.NETWORK_BINARY_PREPARED_STATEMENTS.setValue(100);
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}
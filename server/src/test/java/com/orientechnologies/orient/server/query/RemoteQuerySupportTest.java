@@ -75,6 +75,94 @@ public class RemoteQuerySupportTest {
     }
   }
 
+  @Test
+  public void testQueryPrefetch() {
+    Object oldPrefetch = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH.getValue();
+    OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH.setValue(true);
+    try {
+      for (int i = 0; i < 150; i++) {
+        ODocument doc = new ODocument("Some");
+        doc.setProperty("prop", i);
+        session.save(doc);
+      }
+      Set<Integer> values = new HashSet<>();
+      try (OResultSet res = session.query("select from Some")) {
+        for (int i = 0; i < 150; i++) {
+          assertTrue(res.hasNext());
+          values.add(res.next().getProperty("prop"));
+          if (i == 55) {
+            try (OResultSet other = session.query("select count(*) as count from Some")) {
+              assertEquals(150L, (long) other.next().getProperty("count"));
+            }
+          }
+        }
+        Assert.assertFalse(res.hasNext());
+      }
+      assertEquals(150, values.size());
+
+      OResultSet partial = session.query("select from Some");
+      for (int i = 0; i < 15; i++) {
+        partial.next();
+      }
+      partial.close();
+
+      try (OResultSet res = session.query("select count(*) as count from Some")) {
+        assertEquals(150L, (long) res.next().getProperty("count"));
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH.setValue(oldPrefetch);
+    }
+  }
+
+  @Test
+  public void testQueryPrefetchIsBoundedByChannels() {
+    Object oldPrefetch = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH.getValue();
+    OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH.setValue(true);
+    for (int i = 0; i < 150; i++) {
+      ODocument doc = new ODocument("Some");
+      doc.setProperty("prop", i);
+      session.save(doc);
+    }
+    // MORE OPEN RESULT SETS THAN CHANNELS, ONLY TWO OF THEM KEEP A CHANNEL FOR THEIR NEXT PAGE
+    OrientDB client =
+        new OrientDB(
+            "remote:localhost",
+            "root",
+            "root",
+            OrientDBConfig.builder()
+                .addConfig(OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL, 4)
+                .addConfig(OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH_MAX, 2)
+                .build());
+    try (ODatabaseDocument db =
+        client.open(RemoteQuerySupportTest.class.getSimpleName(), "admin", "admin")) {
+      List<OResultSet> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        OResultSet res = db.query("select from Some");
+        for (int j = 0; j < 15; j++) {
+          assertTrue(res.hasNext());
+          res.next();
+        }
+        results.add(res);
+      }
+      try (OResultSet res = db.query("select count(*) as count from Some")) {
+        assertEquals(150L, (long) res.next().getProperty("count"));
+      }
+      for (OResultSet res : results) {
+        int count = 15;
+        while (res.hasNext()) {
+          res.next();
+          count++;
+        }
+        assertEquals(150, count);
+        res.close();
+      }
+    } finally {
+      client.close();
+      session.activateOnCurrentThread();
+      OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH.setValue(oldPrefetch);
+    }
+  }
+
   @Test
   public void testCommandSelect() {
     for (int i = 0; i < 150; i++) {